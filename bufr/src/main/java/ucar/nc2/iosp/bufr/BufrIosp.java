@@ -45,6 +45,10 @@ import ucar.unidata.io.RandomAccessFile;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 /**
  * IOSP for BUFR data
@@ -64,6 +68,32 @@ public class BufrIosp extends AbstractIOServiceProvider {
     debugOpen = debugFlag.isSet("Bufr/open");
   }
 
+  static private boolean useIndex = false;
+
+  /**
+   * Use a persistent message index (see BufrMessageIndex), writing it on first open.
+   * @param b true to use an index
+   */
+  static public void setUseIndex(boolean b) {
+    useIndex = b;
+  }
+
+  // experimental multithreading
+  static private Executor decodeExecutor;
+  static private int decodeAhead;
+
+  /**
+   * Decode messages in worker threads when iterating over observations. The file is still read in the calling
+   * thread, and observations are returned in file order.
+   *
+   * @param executor run decoding on this, null means decode in the calling thread
+   * @param nAhead   number of messages to decode ahead of the consumer
+   */
+  static public void setDecodeExecutor(Executor executor, int nAhead) {
+    decodeExecutor = executor;
+    decodeAhead = Math.max(nAhead, 1);
+  }
+
   ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
   private Formatter parseInfo;
@@ -89,14 +119,32 @@ public class BufrIosp extends AbstractIOServiceProvider {
 
     this.raf = raf;
 
-    // assume theres no index for now
     MessageScanner scan = new MessageScanner(raf);
-    int count = 0;
-    while (scan.hasNext()) {
-      Message m = scan.next();
-      if (m == null) continue;
-      if (m.containsBufrTable()) continue; // not data
+    List<Message> dataMessages = null;
+    if (useIndex) {
+      List<BufrMessageIndex.Entry> entries = BufrMessageIndex.read(raf);
+      if (entries != null)
+        dataMessages = BufrMessageIndex.readMessages(scan, entries);
+    }
+
+    if (dataMessages == null) {
+      dataMessages = new ArrayList<Message>();
+      boolean hasTables = false;
+      while (scan.hasNext()) {
+        Message m = scan.next();
+        if (m == null) continue;
+        if (m.containsBufrTable()) { // not data
+          hasTables = true;
+          continue;
+        }
+        dataMessages.add(m);
+      }
+      if (useIndex && !hasTables)
+        BufrMessageIndex.write(raf, dataMessages);
+    }
 
+    int count = 0;
+    for (Message m : dataMessages) {
       if (protoMessage == null) {
         protoMessage = m;
         protoMessage.getRootDataDescriptor(); // construct the data descriptors, check for complete tables        
@@ -107,6 +155,7 @@ public class BufrIosp extends AbstractIOServiceProvider {
           log.warn("File " + ncfile.getLocation() + " has different BUFR message types msgno=" + count + "; skipping");
           continue; // skip
         }
+        m.shareRootDataDescriptor(protoMessage); // same descriptors decode the same way
       }
 
       msgs.add(m);
@@ -300,12 +349,72 @@ public class BufrIosp extends AbstractIOServiceProvider {
     return new SeqIter();
   }
 
+  // decode all the observations in one message
+  private ArrayStructure readMessage(Message m) throws IOException {
+    if (m.dds.isCompressed()) {
+      MessageCompressedDataReader reader = new MessageCompressedDataReader();
+      return reader.readEntireMessage(construct.recordStructure, protoMessage, m, raf, null);
+    } else {
+      MessageUncompressedDataReader reader = new MessageUncompressedDataReader();
+      return reader.readEntireMessage(construct.recordStructure, protoMessage, m, raf, null);
+    }
+  }
+
+  // decode one message in a worker thread
+  private class DecodeTask implements Callable<ArrayStructure> {
+    final Message m;
+    final ArrayStructure as;  // from prepare(), so the worker doesnt touch the shared recordStructure or proto message
+    final boolean addTime;
+    final FutureTask<ArrayStructure> future = new FutureTask<ArrayStructure>(this);
+    private boolean started, cancelled; // @GuardedBy("this")
+
+    // call in the iterating thread
+    DecodeTask(Message m) throws IOException {
+      this.m = m;
+      Structure s = construct.recordStructure;
+      if (m.dds.isCompressed()) {
+        as = new MessageCompressedDataReader().prepare(s, protoMessage, m);
+        addTime = false;
+      } else {
+        as = new MessageUncompressedDataReader().prepare(s, protoMessage, m);
+        addTime = (s.findVariable(ConstructNC.TIME_NAME) != null);
+      }
+    }
+
+    public ArrayStructure call() throws Exception {
+      synchronized (this) {
+        if (cancelled) return null;
+        started = true;
+      }
+      try {
+        if (m.dds.isCompressed())
+          new MessageCompressedDataReader().readData((ArrayStructureMA) as, m, raf, null, null);
+        else
+          new MessageUncompressedDataReader().readData((ArrayStructureBB) as, m, raf, null, addTime, null);
+        return as;
+      } catch (ArrayIndexOutOfBoundsException e) {
+        return null; // read past the data section, which only works from the file
+      } finally {
+        m.releaseDataSection();
+      }
+    }
+
+    // release the data section now if the worker never will
+    synchronized void cancel() {
+      cancelled = true;
+      future.cancel(false);
+      if (!started) m.releaseDataSection();
+    }
+  }
+
   private class SeqIter implements StructureDataIterator {
     StructureDataIterator currIter;
     Iterator<Message> messIter;
     int recnum = 0;
     int bufferSize = -1;
     boolean addTime;
+    final Executor executor = decodeExecutor; // may be null
+    final LinkedList<DecodeTask> decoding = new LinkedList<DecodeTask>(); // in file order
 
     SeqIter() {
       addTime = false; // construct.recordStructure.findVariable(ConstructNC.TIME_NAME) != null;
@@ -314,6 +423,7 @@ public class BufrIosp extends AbstractIOServiceProvider {
 
     @Override
     public StructureDataIterator reset() {
+      cancelDecoding();
       recnum = 0;
       messIter = msgs.iterator();
       currIter = null;
@@ -345,21 +455,54 @@ public class BufrIosp extends AbstractIOServiceProvider {
     }
 
     private StructureDataIterator readNextMessage() throws IOException {
-      if (!messIter.hasNext()) return null;
-      Message m = messIter.next();
       ArrayStructure as;
-      if (m.dds.isCompressed()) {
-        MessageCompressedDataReader reader = new MessageCompressedDataReader();
-        as = reader.readEntireMessage(construct.recordStructure, protoMessage, m, raf, null);
+      if (executor != null) {
+        as = nextDecoded();
+        if (as == null) return null;
       } else {
-        MessageUncompressedDataReader reader = new MessageUncompressedDataReader();
-        as = reader.readEntireMessage(construct.recordStructure, protoMessage, m, raf, null);
+        if (!messIter.hasNext()) return null;
+        as = readMessage(messIter.next());
       }
 
       if (wantTime && construct.isTimeOk()) addTime(as);
       return as.getStructureDataIterator();
     }
 
+    // keep up to decodeAhead messages decoding, return the first one
+    private ArrayStructure nextDecoded() throws IOException {
+      while (decoding.size() < decodeAhead && messIter.hasNext()) {
+        Message m = messIter.next();
+        m.getDecodePlan();         // uses the tables, keep in this thread
+        m.getRootDataDescriptor();
+        DecodeTask task = new DecodeTask(m); // allocate the result, transfer info from the proto message
+        m.readDataSection(raf);    // so the worker doesnt use the raf
+        executor.execute(task.future);
+        decoding.add(task);
+      }
+      if (decoding.isEmpty()) return null;
+
+      DecodeTask task = decoding.removeFirst();
+      ArrayStructure as;
+      try {
+        as = task.future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("BUFR decoding interrupted");
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) throw (IOException) cause;
+        if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+        throw new IOException(cause);
+      }
+      return (as != null) ? as : readMessage(task.m);
+    }
+
+    private void cancelDecoding() {
+      for (DecodeTask task : decoding)
+        task.cancel();
+      decoding.clear();
+    }
+
     @Override
     public void setBufferSize(int bufferSize) {
       this.bufferSize = bufferSize;
@@ -372,6 +515,7 @@ public class BufrIosp extends AbstractIOServiceProvider {
 
     @Override
     public void finish() {
+      cancelDecoding();
       if (currIter != null) currIter.finish();
       currIter = null;
     }
@@ -0,0 +1,189 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package ucar.nc2.iosp.bufr;
+
+import ucar.nc2.util.DiskCache;
+import ucar.unidata.io.RandomAccessFile;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A persistent index of the data messages in a BUFR file, so that the file doesnt have to be scanned on open.
+ * For each message we keep its starting position, WMO header, descriptor signature (Message.hashCode()),
+ * number of observations and reference time.
+ * <p/>
+ * The index is written to location + ".bfx", using the DiskCache standard policy. It is only used if the
+ * BUFR file has the same length and last modified date as when the index was written.
+ * Files with embedded BUFR tables are not indexed, since the tables must be read in order.
+ *
+ * @since 10/19/2026
+ */
+public class BufrMessageIndex {
+  static private org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(BufrMessageIndex.class);
+
+  static private final int MAGIC = 0x42465831; // "BFX1"
+  static private final int VERSION = 2;
+
+  public static class Entry {
+    public final long startPos;
+    public final String header;
+    public final int signature;
+    public final int nobs;
+    public final long refTime; // msecs since epoch
+
+    Entry(long startPos, String header, int signature, int nobs, long refTime) {
+      this.startPos = startPos;
+      this.header = header;
+      this.signature = signature;
+      this.nobs = nobs;
+      this.refTime = refTime;
+    }
+  }
+
+  static public File getIndexFile(String location) {
+    return DiskCache.getFileStandardPolicy(location + ".bfx");
+  }
+
+  /**
+   * Read the index for this BUFR file.
+   *
+   * @param raf the BUFR file
+   * @return index entries in file order, or null if there is no valid index
+   */
+  static public List<Entry> read(RandomAccessFile raf) {
+    File dataFile = new File(raf.getLocation());
+    if (!dataFile.exists()) return null;
+    File indexFile = getIndexFile(raf.getLocation());
+    if (!indexFile.exists()) return null;
+
+    DataInputStream in = null;
+    try {
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+      if (in.readLong() != dataFile.length() || in.readLong() != dataFile.lastModified()) {
+        log.debug("BufrMessageIndex: {} is out of date", indexFile.getPath());
+        return null;
+      }
+
+      int n = in.readInt();
+      List<Entry> result = new ArrayList<Entry>(n);
+      for (int i = 0; i < n; i++) {
+        long startPos = in.readLong();
+        String header = in.readBoolean() ? in.readUTF() : null;
+        result.add(new Entry(startPos, header, in.readInt(), in.readInt(), in.readLong()));
+      }
+      return result;
+
+    } catch (IOException ioe) {
+      log.warn("BufrMessageIndex: failed to read " + indexFile.getPath(), ioe);
+      return null;
+
+    } finally {
+      if (in != null) try {
+        in.close();
+      } catch (IOException ioe) {
+        // ignore
+      }
+    }
+  }
+
+  /**
+   * Write the index for this BUFR file. Failure is logged and otherwise ignored.
+   *
+   * @param raf  the BUFR file
+   * @param msgs all of the data messages, in file order
+   */
+  static public void write(RandomAccessFile raf, List<Message> msgs) {
+    File dataFile = new File(raf.getLocation());
+    if (!dataFile.exists()) return;
+    File indexFile = getIndexFile(raf.getLocation());
+
+    DataOutputStream out = null;
+    try {
+      out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)));
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(dataFile.length());
+      out.writeLong(dataFile.lastModified());
+      out.writeInt(msgs.size());
+      for (Message m : msgs) {
+        out.writeLong(m.getStartPos());
+        out.writeBoolean(m.getHeader() != null);
+        if (m.getHeader() != null) out.writeUTF(m.getHeader());
+        out.writeInt(m.hashCode());
+        out.writeInt(m.getNumberDatasets());
+        out.writeLong(m.getReferenceTime().getMillis());
+      }
+      log.debug("BufrMessageIndex: wrote {}", indexFile.getPath());
+
+    } catch (IOException ioe) {
+      log.warn("BufrMessageIndex: failed to write " + indexFile.getPath(), ioe);
+      if (out != null) try {
+        out.close();
+        out = null;
+      } catch (IOException ioe2) {
+        // ignore
+      }
+      if (!indexFile.delete())
+        log.warn("BufrMessageIndex: failed to delete " + indexFile.getPath());
+
+    } finally {
+      if (out != null) try {
+        out.close();
+      } catch (IOException ioe) {
+        // ignore
+      }
+    }
+  }
+
+  /**
+   * Read the messages listed in the index.
+   *
+   * @param scanner read messages with this
+   * @param entries from read()
+   * @return the messages, or null if any message doesnt match its index entry
+   * @throws IOException on read error
+   */
+  static public List<Message> readMessages(MessageScanner scanner, List<Entry> entries) throws IOException {
+    List<Message> result = new ArrayList<Message>(entries.size());
+    for (Entry e : entries) {
+      Message m = scanner.readMessage(e.startPos, e.header);
+      if (m == null || m.hashCode() != e.signature || m.getNumberDatasets() != e.nobs)
+        return null;
+      result.add(m);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package ucar.nc2.iosp.bufr;
+
+import ucar.nc2.iosp.BitReader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * A flattened decoding program for uncompressed messages whose data subsets all have the same length,
+ * ie have no delayed replication. Each step reads one field from the data section and writes it into the
+ * ArrayStructureBB in the same order and width as MessageUncompressedDataReader does when it walks the
+ * DataDescriptor tree. Since subsets have a fixed bit length, any subset can be found without reading the
+ * ones before it.
+ * <p/>
+ * Plans depend only on the tables and the data descriptors, so they are kept in a global cache keyed by both,
+ * and messages of a type already seen dont need their DataDescriptor tree to be constructed.
+ *
+ * @since 10/19/2026
+ */
+public class DecodePlan {
+  static private final int MAX_STEPS = 100 * 1000; // dont flatten really big replications
+  static private final DecodePlan VAR_LENGTH = new DecodePlan(null, null, null, 0);
+
+  static private int cacheSize = 200;
+  static private int hits, misses;
+  static private final Map<String, DecodePlan> cache = new LinkedHashMap<String, DecodePlan>(64, .75f, true) {
+    protected boolean removeEldestEntry(Map.Entry<String, DecodePlan> eldest) {
+      return size() > cacheSize;
+    }
+  };
+
+  /**
+   * Set the maximum number of plans kept in the cache.
+   * @param size number of plans, 0 disables caching
+   */
+  static public void setCacheSize(int size) {
+    synchronized (cache) {
+      cacheSize = Math.max(size, 0);
+      cache.clear();
+    }
+  }
+
+  static public void clearCache() {
+    synchronized (cache) {
+      cache.clear();
+    }
+  }
+
+  static public void showCache(Formatter f) {
+    synchronized (cache) {
+      f.format("DecodePlan cache size=%d max=%d hits=%d misses=%d%n", cache.size(), cacheSize, hits, misses);
+    }
+  }
+
+  /**
+   * Find or compile the plan for this message.
+   *
+   * @param m for this message
+   * @return plan, or null if the message is compressed or its subsets are not all the same length
+   * @throws IOException on read error
+   */
+  static DecodePlan factory(Message m) throws IOException {
+    if (m.dds.isCompressed()) return null;
+
+    String key = m.getDecodeSignature();
+    DecodePlan plan = null;
+    if (key != null) {
+      synchronized (cache) {
+        plan = cache.get(key);
+        if (plan != null) hits++; else misses++;
+      }
+    }
+
+    if (plan == null) {
+      plan = compile(m.getRootDataDescriptor());
+      if (key != null) {
+        synchronized (cache) {
+          cache.put(key, plan);
+        }
+      }
+    }
+
+    return (plan == VAR_LENGTH) ? null : plan;
+  }
+
+  static private DecodePlan compile(DataDescriptor root) {
+    if (root.isBad) return VAR_LENGTH;
+    Builder b = new Builder();
+    if (!b.add(root.getSubKeys())) return VAR_LENGTH;
+    return b.build();
+  }
+
+  // mirrors the tree walk in MessageUncompressedDataReader.readData()
+  static private class Builder {
+    int n = 0;
+    int[] nbits = new int[64];
+    int[] nbytes = new int[64];
+    boolean[] isChar = new boolean[64];
+    int subsetBits = 0;
+
+    boolean add(List<DataDescriptor> dkeys) {
+      for (DataDescriptor dkey : dkeys) {
+        if (!dkey.isOkForVariable()) continue;
+        if (dkey.replication == 0) return false; // sequence
+
+        if (dkey.type == 3) { // compound
+          for (int i = 0; i < dkey.replication; i++)
+            if (!add(dkey.subKeys)) return false;
+          continue;
+        }
+
+        if (n == MAX_STEPS) return false;
+        if (n == nbits.length) grow();
+        if (dkey.type == 1) {
+          int nchars = dkey.getByteWidthCDM();
+          nbits[n] = 8 * nchars;
+          nbytes[n] = nchars;
+          isChar[n] = true;
+        } else {
+          nbits[n] = dkey.bitWidth;
+          nbytes[n] = dkey.getByteWidthCDM();
+        }
+        subsetBits += nbits[n];
+        n++;
+      }
+      return true;
+    }
+
+    void grow() {
+      nbits = Arrays.copyOf(nbits, 2 * n);
+      nbytes = Arrays.copyOf(nbytes, 2 * n);
+      isChar = Arrays.copyOf(isChar, 2 * n);
+    }
+
+    DecodePlan build() {
+      return new DecodePlan(Arrays.copyOf(nbits, n), Arrays.copyOf(nbytes, n), Arrays.copyOf(isChar, n), subsetBits);
+    }
+  }
+
+  ////////////////////////////////////////////////////////////////////////////
+
+  private final int[] nbits;     // bits to read, for each step
+  private final int[] nbytes;    // bytes to write, for each step
+  private final boolean[] isChar; // read nbytes 8 bit chars, else a number
+  private final int subsetBits;  // bits in each subset
+
+  private DecodePlan(int[] nbits, int[] nbytes, boolean[] isChar, int subsetBits) {
+    this.nbits = nbits;
+    this.nbytes = nbytes;
+    this.isChar = isChar;
+    this.subsetBits = subsetBits;
+  }
+
+  /**
+   * Number of bits in each data subset.
+   * @return number of bits in each data subset
+   */
+  public int getSubsetBits() {
+    return subsetBits;
+  }
+
+  /**
+   * Number of fields read for each data subset.
+   * @return number of fields read for each data subset
+   */
+  public int getNumberOfSteps() {
+    return nbits.length;
+  }
+
+  /**
+   * Read one subset, starting at the current position of the reader.
+   *
+   * @param reader read from here
+   * @param bb     put the data here, in the layout of ArrayStructureBB
+   * @throws IOException on read error
+   */
+  void readSubset(BitReader reader, ByteBuffer bb) throws IOException {
+    for (int i = 0; i < nbits.length; i++) {
+      if (isChar[i]) {
+        for (int j = 0; j < nbytes[i]; j++)
+          bb.put((byte) reader.bits2UInt(8));
+      } else {
+        MessageUncompressedDataReader.putNumber(bb, reader.bits2UInt(nbits[i]), nbytes[i]);
+      }
+    }
+  }
+}
@@ -32,6 +32,7 @@
  */
 package ucar.nc2.iosp.bufr;
 
+import ucar.nc2.iosp.BitReader;
 import ucar.nc2.iosp.bufr.tables.TableA;
 import ucar.nc2.time.CalendarDate;
 import ucar.nc2.wmo.CommonCodeTable;
@@ -61,11 +62,15 @@ public class Message {
 
   private RandomAccessFile raf;
   private TableLookup lookup;
+  private boolean embeddedTables; // lookup came from tables in the file
   private DataDescriptor root;
+  private DecodePlan plan;
+  private boolean planDone;
 
   private String header; // wmo header
   private long startPos; // starting pos in raf
   private byte[] raw; // raw bytes
+  private byte[] dataBytes; // data section, when read into memory for decoding in another thread
 
   // bit counting
   BitCounterUncompressed[] counterDatasets; // uncompressed: one for each dataset
@@ -84,6 +89,7 @@ public class Message {
 
   public void setTableLookup(TableLookup lookup) {
     this.lookup = lookup;
+    this.embeddedTables = true;
   }
 
   public void close() throws IOException {
@@ -185,6 +191,47 @@ public class Message {
     return root;
   }
 
+  /**
+   * Use the DataDescriptor tree of another message with the same descriptors and tables, instead of constructing one.
+   *
+   * @param proto the other message, typically the proto message of the file
+   * @return true if the tree is shared
+   * @throws IOException on read error
+   */
+  boolean shareRootDataDescriptor(Message proto) throws IOException {
+    if (root != null || proto == this) return false;
+    boolean sameTables = (lookup == proto.lookup) || (!embeddedTables && !proto.embeddedTables &&
+            getTableSignature().equals(proto.getTableSignature()));
+    if (!sameTables || !dds.getDataDescriptors().equals(proto.dds.getDataDescriptors())) return false;
+    root = proto.getRootDataDescriptor();
+    return true;
+  }
+
+  /**
+   * Get the flattened decoding program for this message.
+   *
+   * @return plan, or null if the message is compressed or its subsets are not all the same length
+   * @throws IOException on read error
+   */
+  DecodePlan getDecodePlan() throws IOException {
+    if (!planDone) {
+      plan = DecodePlan.factory(this);
+      planDone = true;
+    }
+    return plan;
+  }
+
+  // identifies the tables and the data descriptors; null if the tables came from the file
+  String getDecodeSignature() {
+    if (embeddedTables) return null;
+    return getTableSignature() + " " + dds.getDataDescriptors();
+  }
+
+  private String getTableSignature() {
+    return lookup.getWmoTableBName() + "|" + lookup.getLocalTableBName() + "|" + lookup.getWmoTableDName() + "|" +
+            lookup.getLocalTableDName() + "|" + lookup.getMode();
+  }
+
   public boolean usesLocalTable() throws IOException {
     DataDescriptor root = getRootDataDescriptor();
     return usesLocalTable(root);
@@ -246,6 +293,31 @@ public class Message {
     return lookup;
   }
 
+  /**
+   * Read the data section into memory, so that the data readers dont use the RandomAccessFile.
+   * Call releaseDataSection() when done.
+   *
+   * @param raf read from this file
+   * @throws IOException on read error
+   */
+  void readDataSection(RandomAccessFile raf) throws IOException {
+    int n = Math.max(dataSection.getDataLength() - 4, 0);
+    byte[] b = new byte[n + 8]; // bit counting may read a few bytes past the end, so read those from the file too
+    long pos = dataSection.getDataPos() + 4;
+    raf.seek(pos);
+    raf.readFully(b, 0, (int) Math.min(b.length, Math.max(raf.length() - pos, n)));
+    dataBytes = b;
+  }
+
+  void releaseDataSection() {
+    dataBytes = null;
+  }
+
+  // read the data section from memory if its been read, else from the file
+  BitReader makeBitReader(RandomAccessFile raf) throws IOException {
+    return (dataBytes != null) ? new BitReader(dataBytes) : new BitReader(raf, dataSection.getDataPos() + 4);
+  }
+
   ////////////////////////////////////////////////////////////////////////
   // bit counting
 
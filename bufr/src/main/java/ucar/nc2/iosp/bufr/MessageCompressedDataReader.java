@@ -114,6 +114,23 @@ public class MessageCompressedDataReader {
    * @throws IOException on read error
    */
   public ArrayStructure readEntireMessage(Structure s, Message proto, Message m, RandomAccessFile raf, Formatter f) throws IOException {
+    ArrayStructureMA ama = prepare(s, proto, m);
+    readData(ama, m, raf, null, f);
+    return ama;
+  }
+
+  /**
+   * The part of readEntireMessage() that uses the Structure and the proto message: transfer info from the
+   * proto message, and allocate the result. These are shared by all messages, so when decoding messages in
+   * parallel, call this in one thread, then call readData() in the worker.
+   *
+   * @param s     outer variables
+   * @param proto prototype message, has been processed
+   * @param m     will read this message
+   * @return empty ArrayStructureMA for all the data in the message, iterators set
+   * @throws IOException on read error
+   */
+  ArrayStructureMA prepare(Structure s, Message proto, Message m) throws IOException {
     // transfer info (refersTo, name) from the proto message
     DataDescriptor.transferInfo(proto.getRootDataDescriptor().getSubKeys(), m.getRootDataDescriptor().getSubKeys());
 
@@ -121,13 +138,6 @@ public class MessageCompressedDataReader {
     int n = m.getNumberDatasets();
     ArrayStructureMA ama = ArrayStructureMA.factoryMA(s, new int[] {n});
     setIterators(ama);
-
-    // map dkey to Member recursively
-    HashMap<DataDescriptor, StructureMembers.Member> map = new HashMap<DataDescriptor, StructureMembers.Member>(100);
-    associateMessage2Members(ama.getStructureMembers(), m.getRootDataDescriptor(), map);
-
-    readData(m, raf, f, new Request(ama, map, null));
-
     return ama;
   }
 
@@ -238,7 +248,7 @@ public class MessageCompressedDataReader {
   // read / count the bits in a compressed message
   private int readData(Message m, RandomAccessFile raf, Formatter f, Request req) throws IOException {
     
-    BitReader reader = new BitReader(raf, m.dataSection.getDataPos() + 4);
+    BitReader reader = m.makeBitReader(raf);
     DataDescriptor root = m.getRootDataDescriptor();
     if (root.isBad) return 0;
 
@@ -118,7 +118,18 @@ public class MessageScanner {
   }
 
   public Message next() throws IOException {
-    long start = raf.getFilePointer();
+    return readMessage(raf.getFilePointer(), (header == null) ? "" : cleanup(header));
+  }
+
+  /**
+   * Read the message starting at a known position, eg from an index.
+   *
+   * @param start     file position of the "BUFR" that starts the message
+   * @param wmoHeader the WMO header that preceded the message
+   * @return the message, or null if its not valid
+   * @throws IOException on read error
+   */
+  public Message readMessage(long start, String wmoHeader) throws IOException {
     raf.seek(start + 4);
 
     BufrIndicatorSection is = new BufrIndicatorSection(raf);
@@ -133,17 +144,17 @@ public class MessageScanner {
 
     /* length consistency checks
     if (is.getBufrLength() > MAX_MESSAGE_SIZE) {
-      log.warn("Illegal length - BUFR message at pos "+start+" header= "+cleanup(header)+" size= "+is.getBufrLength());
+      log.warn("Illegal length - BUFR message at pos "+start+" header= "+wmoHeader+" size= "+is.getBufrLength());
       return null;
     } */
 
     if (is.getBufrEdition() > 4) {
-      log.warn("Illegal edition - BUFR message at pos " + start + " header= " + cleanup(header));
+      log.warn("Illegal edition - BUFR message at pos " + start + " header= " + wmoHeader);
       return null;
     }
 
     if (is.getBufrEdition() < 2) {
-      log.warn("Edition "+ is.getBufrEdition()+" is not supported - BUFR message at pos " + start + " header= " +cleanup(header));
+      log.warn("Edition "+ is.getBufrEdition()+" is not supported - BUFR message at pos " + start + " header= " +wmoHeader);
       return null;
     }
 
@@ -152,7 +163,7 @@ public class MessageScanner {
     raf.seek(dataPos + dataLength);
     for (int i = 0; i < 3; i++) {
       if (raf.read() != 55) {
-        log.warn("Missing End of BUFR message at pos=" + ending + " header= " + cleanup(header));
+        log.warn("Missing End of BUFR message at pos=" + ending + " header= " + wmoHeader);
         return null;
       }
     }
@@ -160,16 +171,16 @@ public class MessageScanner {
     if (raf.read() != 55) {
       raf.seek(dataPos + dataLength-1); // see if byte before is a '7'
       if (raf.read() != 55) {
-        log.warn("Missing End of BUFR message at pos=" +ending+ " header= " + cleanup(header)+" edition= "+is.getBufrEdition());
+        log.warn("Missing End of BUFR message at pos=" +ending+ " header= " + wmoHeader+" edition= "+is.getBufrEdition());
         return null;
       } else {
-        log.warn("End of BUFR message off-by-one at pos= " +ending+ " header= " + cleanup(header)+" edition= "+is.getBufrEdition());
+        log.warn("End of BUFR message off-by-one at pos= " +ending+ " header= " + wmoHeader+" edition= "+is.getBufrEdition());
         lastPos--;
       }
     }
 
     Message m = new Message(raf, is, ids, dds, dataSection);
-    m.setHeader( cleanup(header));
+    m.setHeader( wmoHeader);
     m.setStartPos( start);
 
     if (useEmbeddedTables && m.containsBufrTable()) {
@@ -100,20 +100,9 @@ public class MessageUncompressedDataReader {
    * @throws IOException on read error
    */
   public ArrayStructure readEntireMessage(Structure s, Message proto, Message m, RandomAccessFile raf, Formatter f) throws IOException {
-    // transfer info from proto message
-    DataDescriptor.transferInfo(proto.getRootDataDescriptor().getSubKeys(), m.getRootDataDescriptor().getSubKeys());
-
-    // allocate ArrayStructureBB for outer structure
-    // This assumes that all of the fields and all of the datasets are being read
-    StructureMembers members = s.makeStructureMembers();
-    ArrayStructureBB.setOffsets(members);
+    ArrayStructureBB abb = prepare(s, proto, m);
 
     // bbtest = null;
-    
-    int n = m.getNumberDatasets();
-    ArrayStructureBB abb = new ArrayStructureBB(members, new int[]{n});
-    ByteBuffer bb = abb.getByteBuffer();
-    bb.order(ByteOrder.BIG_ENDIAN);
 
     boolean addTime = (s.findVariable(ConstructNC.TIME_NAME) != null);
     readData(abb, m, raf, null, addTime, f);
@@ -124,8 +113,35 @@ public class MessageUncompressedDataReader {
     return abb;
   }
 
+  /**
+   * The part of readEntireMessage() that uses the Structure and the proto message: transfer info from the
+   * proto message, and allocate the result. These are shared by all messages, so when decoding messages in
+   * parallel, call this in one thread, then call readData() in the worker.
+   *
+   * @param s     outer variables
+   * @param proto prototype message, has been processed
+   * @param m     will read this message
+   * @return empty ArrayStructureBB for all the data in the message
+   * @throws IOException on read error
+   */
+  ArrayStructureBB prepare(Structure s, Message proto, Message m) throws IOException {
+    // transfer info from proto message; not needed when theres a plan, since there are no sequences
+    if (m.getDecodePlan() == null)
+      DataDescriptor.transferInfo(proto.getRootDataDescriptor().getSubKeys(), m.getRootDataDescriptor().getSubKeys());
+
+    // allocate ArrayStructureBB for outer structure
+    // This assumes that all of the fields and all of the datasets are being read
+    StructureMembers members = s.makeStructureMembers();
+    ArrayStructureBB.setOffsets(members);
+
+    int n = m.getNumberDatasets();
+    ArrayStructureBB abb = new ArrayStructureBB(members, new int[]{n});
+    ByteBuffer bb = abb.getByteBuffer();
+    bb.order(ByteOrder.BIG_ENDIAN);
+    return abb;
+  }
 
-    // temp debugging
+  // temp debugging
   // private ByteBuffer bbtest = null;
 
   // read / count the bits in an uncompressed message
@@ -144,7 +160,14 @@ public class MessageUncompressedDataReader {
    * @throws IOException on read error
    */
   public int readData(ArrayStructureBB abb, Message m, RandomAccessFile raf, Range r, boolean addTime, Formatter f) throws IOException {
-    BitReader reader = new BitReader(raf, m.dataSection.getDataPos() + 4);
+    // use the precompiled plan when just reading the data; bit counting and debugging need the tree
+    if ((abb != null) && (f == null)) {
+      DecodePlan plan = m.getDecodePlan();
+      if (plan != null)
+        return readData(abb, m, plan, raf, r, addTime);
+    }
+
+    BitReader reader = m.makeBitReader(raf);
     DataDescriptor root = m.getRootDataDescriptor();
     if (root.isBad) return 0;
 
@@ -177,6 +200,37 @@ public class MessageUncompressedDataReader {
     return count;
   }
 
+  // fixed length subsets: go directly to the wanted ones
+  private int readData(ArrayStructureBB abb, Message m, DecodePlan plan, RandomAccessFile raf, Range r, boolean addTime) throws IOException {
+    BitReader reader = m.makeBitReader(raf);
+    ByteBuffer bb = abb.getByteBuffer();
+    int subsetBits = plan.getSubsetBits();
+
+    int n = m.getNumberDatasets();
+    m.counterDatasets = null;
+    m.msg_nbits = n * subsetBits;
+
+    int count = 0;
+    boolean skipped = false;
+    for (int i = 0; i < n; i++) {
+      if ((r != null) && !r.contains(i)) {
+        skipped = true;
+        continue;
+      }
+      if (addTime) {
+        bb.putInt(0); // placeholder for time assumes an int
+        count++;
+      }
+      if (skipped) {
+        reader.setBitOffset(i * subsetBits);
+        skipped = false;
+      }
+      plan.readSubset(reader, bb);
+    }
+
+    return count;
+  }
+
   private class Request {
     ArrayStructureBB abb;
     ByteBuffer bb;
@@ -314,51 +368,53 @@ public class MessageUncompressedDataReader {
     // numeric data
     long result = reader.bits2UInt(dkey.bitWidth);
 
-    if (req.wantRow()) {
-
-      // place into byte buffer
-      if (dkey.getByteWidthCDM() == 1) {
-        req.bb.put((byte) result);
-
-      } else if (dkey.getByteWidthCDM() == 2) {
-        byte b1 = (byte) (result & 0xff);
-        byte b2 = (byte) ((result & 0xff00) >> 8);
-        req.bb.put( b2);
-        req.bb.put( b1);
-
-      } else if (dkey.getByteWidthCDM() == 4) {
-        byte b1 = (byte) (result & 0xff);
-        byte b2 = (byte) ((result & 0xff00) >> 8);
-        byte b3 = (byte) ((result & 0xff0000) >> 16);
-        byte b4 = (byte) ((result & 0xff000000) >> 24);
-        req.bb.put(b4);
-        req.bb.put(b3);
-        req.bb.put(b2);
-        req.bb.put(b1);
-
-      } else  {
-        byte b1 = (byte)  (result & 0xff);
-        byte b2 = (byte) ((result & 0xff00) >> 8);
-        byte b3 = (byte) ((result & 0xff0000) >> 16);
-        byte b4 = (byte) ((result & 0xff000000) >> 24);
-        byte b5 = (byte) ((result & 0xff00000000L) >> 32);
-        byte b6 = (byte) ((result & 0xff0000000000L) >> 40);
-        byte b7 = (byte) ((result & 0xff000000000000L) >> 48);
-        byte b8 = (byte) ((result & 0xff00000000000000L) >> 56);
-        req.bb.put(b8);
-        req.bb.put(b7);
-        req.bb.put(b6);
-        req.bb.put(b5);
-        req.bb.put(b4);
-        req.bb.put(b3);
-        req.bb.put(b2);
-        req.bb.put(b1);
-      }
-    }
+    if (req.wantRow())
+      putNumber(req.bb, result, dkey.getByteWidthCDM());
 
     return result;
   }
 
+  // place into byte buffer, big endian
+  static void putNumber(ByteBuffer bb, long result, int nbytes) {
+    if (nbytes == 1) {
+      bb.put((byte) result);
+
+    } else if (nbytes == 2) {
+      byte b1 = (byte) (result & 0xff);
+      byte b2 = (byte) ((result & 0xff00) >> 8);
+      bb.put(b2);
+      bb.put(b1);
+
+    } else if (nbytes == 4) {
+      byte b1 = (byte) (result & 0xff);
+      byte b2 = (byte) ((result & 0xff00) >> 8);
+      byte b3 = (byte) ((result & 0xff0000) >> 16);
+      byte b4 = (byte) ((result & 0xff000000) >> 24);
+      bb.put(b4);
+      bb.put(b3);
+      bb.put(b2);
+      bb.put(b1);
+
+    } else {
+      byte b1 = (byte) (result & 0xff);
+      byte b2 = (byte) ((result & 0xff00) >> 8);
+      byte b3 = (byte) ((result & 0xff0000) >> 16);
+      byte b4 = (byte) ((result & 0xff000000) >> 24);
+      byte b5 = (byte) ((result & 0xff00000000L) >> 32);
+      byte b6 = (byte) ((result & 0xff0000000000L) >> 40);
+      byte b7 = (byte) ((result & 0xff000000000000L) >> 48);
+      byte b8 = (byte) ((result & 0xff00000000000000L) >> 56);
+      bb.put(b8);
+      bb.put(b7);
+      bb.put(b6);
+      bb.put(b5);
+      bb.put(b4);
+      bb.put(b3);
+      bb.put(b2);
+      bb.put(b1);
+    }
+  }
+
   // read in the data into an ArrayStructureBB, wrapped by an ArraySequence
   private ArraySequence makeArraySequenceUncompressed(DebugOut out, BitReader reader, BitCounterUncompressed bitCounterNested,
                                                       DataDescriptor seqdd, Request req) throws IOException {
@@ -0,0 +1,169 @@
+package ucar.nc2.iosp.bufr;
+
+import org.junit.After;
+import org.junit.Test;
+import ucar.ma2.DataType;
+import ucar.ma2.StructureData;
+import ucar.ma2.StructureDataIterator;
+import ucar.ma2.StructureMembers;
+import ucar.nc2.NCdumpW;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.Sequence;
+import ucar.nc2.util.IO;
+import ucar.unidata.io.RandomAccessFile;
+import ucar.unidata.test.util.TestDir;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Parallel decoding and the persistent message index give the same results as the sequential read.
+ *
+ * @since 10/19/2026
+ */
+public class TestBufrParallel {
+  static private final String[] files = {
+      TestDir.cdmLocalTestDataDir + "dataset/nestedTable.bufr",
+      "../wmoTablesOld/src/main/webapp/bufrData/IOWA55.bufr",
+      "../wmoTablesOld/src/main/webapp/bufrData/LNDSYN.bufr",
+  };
+
+  @After
+  public void reset() {
+    BufrIosp.setDecodeExecutor(null, 1);
+    BufrIosp.setUseIndex(false);
+  }
+
+  @Test
+  public void parallelSameAsSequential() throws IOException {
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      for (String filename : files) {
+        BufrIosp.setDecodeExecutor(null, 1);
+        List<String> sequential = readObs(filename);
+        assertTrue(filename, sequential.size() > 0);
+
+        for (int nAhead : new int[]{1, 3, 16}) {
+          BufrIosp.setDecodeExecutor(pool, nAhead);
+          assertEquals(filename + " nAhead=" + nAhead, sequential, readObs(filename));
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void indexRoundTrip() throws IOException {
+    for (String filename : files) {
+      File copy = copyToTemp(filename);
+      RandomAccessFile raf = new RandomAccessFile(copy.getPath(), "r");
+      try {
+        List<Message> msgs = readDataMessages(raf);
+        BufrMessageIndex.write(raf, msgs);
+
+        List<BufrMessageIndex.Entry> entries = BufrMessageIndex.read(raf);
+        assertNotNull(filename, entries);
+        assertEquals(msgs.size(), entries.size());
+        for (int i = 0; i < msgs.size(); i++) {
+          Message m = msgs.get(i);
+          BufrMessageIndex.Entry e = entries.get(i);
+          assertEquals(m.getStartPos(), e.startPos);
+          assertEquals(m.getHeader(), e.header);
+          assertEquals(m.hashCode(), e.signature);
+          assertEquals(m.getNumberDatasets(), e.nobs);
+          assertEquals(m.getReferenceTime().getMillis(), e.refTime);
+        }
+
+        List<Message> fromIndex = BufrMessageIndex.readMessages(new MessageScanner(raf), entries);
+        assertNotNull(fromIndex);
+        assertEquals(msgs.size(), fromIndex.size());
+        for (int i = 0; i < msgs.size(); i++)
+          assertEquals(msgs.get(i).getStartPos(), fromIndex.get(i).getStartPos());
+
+      } finally {
+        raf.close();
+        BufrMessageIndex.getIndexFile(copy.getPath()).delete();
+        copy.delete();
+      }
+    }
+  }
+
+  @Test
+  public void staleIndexRebuilt() throws IOException {
+    BufrIosp.setUseIndex(true);
+    File copy = copyToTemp(files[0]);
+    File indexFile = BufrMessageIndex.getIndexFile(copy.getPath());
+    try {
+      List<String> expected = readObs(copy.getPath());
+      assertTrue(indexFile.exists());
+
+      // a matching index is used
+      assertEquals(expected, readObs(copy.getPath()));
+
+      // the file changes, so the index is out of date
+      assertTrue(copy.setLastModified(copy.lastModified() - 60 * 1000));
+      RandomAccessFile raf = new RandomAccessFile(copy.getPath(), "r");
+      try {
+        assertNull(BufrMessageIndex.read(raf));
+      } finally {
+        raf.close();
+      }
+
+      // and is rebuilt on the next open
+      assertEquals(expected, readObs(copy.getPath()));
+      raf = new RandomAccessFile(copy.getPath(), "r");
+      try {
+        assertNotNull(BufrMessageIndex.read(raf));
+      } finally {
+        raf.close();
+      }
+
+    } finally {
+      indexFile.delete();
+      copy.delete();
+    }
+  }
+
+  private List<String> readObs(String filename) throws IOException {
+    List<String> result = new ArrayList<String>();
+    NetcdfFile ncfile = NetcdfFile.open(filename);
+    try {
+      Sequence obs = (Sequence) ncfile.findVariable(BufrIosp.obsRecord);
+      StructureDataIterator iter = obs.getStructureIterator();
+      while (iter.hasNext()) {
+        StructureData sdata = iter.next();
+        StringBuilder sb = new StringBuilder();
+        for (StructureMembers.Member m : sdata.getMembers()) {
+          if (m.getDataType() == DataType.STRING) continue; // time placeholder, when the time cant be made
+          sb.append(m.getName()).append(" = ").append(NCdumpW.printArray(sdata.getArray(m), null, null)).append("\n");
+        }
+        result.add(sb.toString());
+      }
+    } finally {
+      ncfile.close();
+    }
+    return result;
+  }
+
+  private List<Message> readDataMessages(RandomAccessFile raf) throws IOException {
+    List<Message> result = new ArrayList<Message>();
+    MessageScanner scan = new MessageScanner(raf);
+    while (scan.hasNext()) {
+      Message m = scan.next();
+      if (m != null && !m.containsBufrTable()) result.add(m);
+    }
+    return result;
+  }
+
+  private File copyToTemp(String filename) throws IOException {
+    File copy = File.createTempFile("TestBufrParallel", ".bufr");
+    IO.copyFile(filename, copy.getPath());
+    return copy;
+  }
+}
@@ -0,0 +1,96 @@
+package ucar.nc2.iosp.bufr;
+
+import org.junit.Test;
+import ucar.ma2.ArrayStructureBB;
+import ucar.ma2.Range;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.Structure;
+import ucar.unidata.io.RandomAccessFile;
+import ucar.unidata.test.util.TestDir;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Formatter;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Reading uncompressed messages with a DecodePlan gives the same bytes as walking the DataDescriptor tree.
+ *
+ * @since 10/19/2026
+ */
+public class TestDecodePlan {
+  static private final String[] files = {
+      TestDir.cdmLocalTestDataDir + "dataset/nestedTable.bufr",
+      "../wmoTablesOld/src/main/webapp/bufrData/IOWA55.bufr",
+      "../wmoTablesOld/src/main/webapp/bufrData/LNDSYN.bufr",
+  };
+
+  @Test
+  public void planSameAsTree() throws Exception {
+    int withPlan = 0, fallBack = 0;
+    for (String filename : files) {
+      RandomAccessFile raf = new RandomAccessFile(filename, "r");
+      try {
+        MessageScanner scan = new MessageScanner(raf);
+        while (scan.hasNext()) {
+          Message m = scan.next();
+          if (m == null || m.containsBufrTable() || m.dds.isCompressed()) continue;
+
+          DecodePlan plan = m.getDecodePlan();
+          if (plan == null) {
+            // replications or variable length fields
+            assertTrue(m.getRootDataDescriptor().isVarLength() || m.getRootDataDescriptor().isBad);
+            fallBack++;
+          } else {
+            withPlan++;
+          }
+
+          for (Range r : makeRanges(m.getNumberDatasets()))
+            compare(filename, raf, m, r);
+        }
+      } finally {
+        raf.close();
+      }
+    }
+
+    assertTrue("no messages were read with a plan", withPlan > 0);
+    assertTrue("no messages fell back to the tree", fallBack > 0);
+  }
+
+  private List<Range> makeRanges(int n) throws Exception {
+    List<Range> result = new ArrayList<Range>();
+    result.add(null);
+    result.add(new Range(0, 0));
+    result.add(new Range(n - 1, n - 1));
+    if (n > 2) {
+      result.add(new Range(1, n - 2));
+      result.add(new Range(0, n - 1, 2));
+    }
+    return result;
+  }
+
+  private void compare(String filename, RandomAccessFile raf, Message m, Range r) throws IOException {
+    NetcdfFile ncfile = new MessageNetcdfFile();
+    new BufrIosp().open(raf, ncfile, m);
+    Structure s = (Structure) ncfile.findVariable(BufrIosp.obsRecord);
+    boolean addTime = (s.findVariable(ConstructNC.TIME_NAME) != null);
+    MessageUncompressedDataReader reader = new MessageUncompressedDataReader();
+
+    ArrayStructureBB usePlan = reader.prepare(s, m, m);
+    int count = reader.readData(usePlan, m, raf, r, addTime, null);
+
+    // debugging output forces the tree walk
+    ArrayStructureBB useTree = reader.prepare(s, m, m);
+    int count2 = reader.readData(useTree, m, raf, r, addTime, new Formatter());
+
+    String what = filename + " message at " + m.getStartPos() + " range " + r;
+    assertEquals(what, count2, count);
+    assertTrue(what, Arrays.equals(useTree.getByteBuffer().array(), usePlan.getByteBuffer().array()));
+  }
+
+  static private class MessageNetcdfFile extends NetcdfFile {
+  }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package thredds.filesystem;
+
+import net.jcip.annotations.ThreadSafe;
+import thredds.inventory.MCollection;
+import thredds.inventory.MFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scans the directory tree of an MCollection, remembering each directory listing.
+ * <ul>
+ * <li>A full scan lists every directory, optionally in parallel using an Executor.
+ * <li>An incremental scan only lists the directories whose lastModified has changed since the previous scan,
+ *  and reuses the previous MFiles for the others. Adding, deleting or renaming a file changes its directory's lastModified,
+ *  but modifying a file in place does not, so those changes are only seen by the next full scan.
+ * </ul>
+ * Filters are applied on every scan, so time-based filters stay correct for reused listings.
+ * Use one DirectoryTreeScanner for each MCollection.
+ *
+ * @since 10/19/2026
+ */
+@ThreadSafe
+public class DirectoryTreeScanner {
+  static private org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(DirectoryTreeScanner.class);
+  static private final long dirTimeResolution = 2000; // dont trust lastModified of a directory changed this close to the listing
+
+  private final Executor executor;
+  private Map<String, Listing> listings = new HashMap<String, Listing>(); // from the previous scan, key = directory path
+  private final AtomicInteger countListed = new AtomicInteger(), countReused = new AtomicInteger();
+
+  /**
+   * Constructor.
+   *
+   * @param executor list directories in parallel using this Executor; if null, list in the calling thread.
+   */
+  public DirectoryTreeScanner(Executor executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Scan the collection, and add the files accepted by the collection filter to result.
+   *
+   * @param mc     the collection
+   * @param result add MFiles here, key is MFile.getPath()
+   * @param full   if false, use the previous listing of directories that have not changed since the previous scan
+   * @return number of files added to result
+   * @throws IOException if the scan was interrupted or a directory could not be listed. The listings of the
+   *                     previous scan are kept, so the next scan is incremental against them.
+   */
+  public synchronized int scan(MCollection mc, Map<String, MFile> result, boolean full) throws IOException {
+    String path = mc.getDirectoryName();
+    if (path.startsWith("file:"))
+      path = path.substring(5);
+    File top = new File(path);
+    if (!top.isDirectory()) {
+      listings = new HashMap<String, Listing>();
+      return 0;
+    }
+
+    countListed.set(0);
+    countReused.set(0);
+    Map<String, Listing> oldListings = full ? Collections.<String, Listing>emptyMap() : listings;
+    Map<String, Listing> newListings = new HashMap<String, Listing>(2 * listings.size() + 1);
+
+    if (executor == null) {
+      LinkedList<File> todo = new LinkedList<File>();
+      todo.add(top);
+      while (!todo.isEmpty()) {
+        Listing listing = new ListTask(todo.removeFirst(), oldListings).call();
+        newListings.put(listing.path, listing);
+        if (mc.wantSubdirs()) todo.addAll(listing.subdirs);
+      }
+
+    } else {
+      CompletionService<Listing> completionService = new ExecutorCompletionService<Listing>(executor);
+      completionService.submit(new ListTask(top, oldListings));
+      int pending = 1;
+      Throwable failed = null;
+      try {
+        while (pending > 0) {
+          Future<Listing> future = completionService.take();
+          pending--;
+          Listing listing;
+          try {
+            listing = future.get();
+          } catch (ExecutionException e) {
+            if (failed == null) failed = e.getCause();
+            continue;
+          }
+          if (failed != null) continue; // let the submitted tasks finish, so none are still running after we return
+          newListings.put(listing.path, listing);
+          if (!mc.wantSubdirs()) continue;
+          for (File subdir : listing.subdirs) {
+            completionService.submit(new ListTask(subdir, oldListings));
+            pending++;
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("DirectoryTreeScanner interrupted on " + path);
+      }
+      if (failed instanceof IOException) throw (IOException) failed;
+      if (failed != null) throw new IOException(failed.getMessage(), failed);
+    }
+
+    int count = 0;
+    for (Listing listing : newListings.values()) {
+      for (MFile mfile : listing.files) {
+        if (!mc.accept(mfile)) continue;
+        mfile.setAuxInfo(mc.getAuxInfo());
+        result.put(mfile.getPath(), mfile);
+        count++;
+      }
+    }
+
+    listings = newListings;
+    if (logger.isDebugEnabled())
+      logger.debug("{} scan {}: dirs listed={} reused={} nfiles={}", new Object[]{full ? "full" : "incremental", path, countListed.get(), countReused.get(), count});
+    return count;
+  }
+
+  /**
+   * @return number of directories listed in the last scan
+   */
+  public int getCountListed() {
+    return countListed.get();
+  }
+
+  /**
+   * @return number of directory listings reused from the previous scan, in the last scan
+   */
+  public int getCountReused() {
+    return countReused.get();
+  }
+
+  // null on i/o error; tests override
+  File[] listFiles(File dir) {
+    return dir.listFiles();
+  }
+
+  // one directory
+  private static class Listing {
+    final String path;
+    final long lastModified;
+    final long listedAt;
+    final List<MFile> files; // unfiltered
+    final List<File> subdirs;
+
+    Listing(String path, long lastModified, long listedAt, List<MFile> files, List<File> subdirs) {
+      this.path = path;
+      this.lastModified = lastModified;
+      this.listedAt = listedAt;
+      this.files = files;
+      this.subdirs = subdirs;
+    }
+
+    boolean isValid(long dirLastModified) {
+      return (dirLastModified != 0) && (dirLastModified == lastModified) && (lastModified < listedAt - dirTimeResolution);
+    }
+  }
+
+  private class ListTask implements Callable<Listing> {
+    final File dir;
+    final Map<String, Listing> oldListings;
+
+    ListTask(File dir, Map<String, Listing> oldListings) {
+      this.dir = dir;
+      this.oldListings = oldListings;
+    }
+
+    public Listing call() throws IOException {
+      String path = dir.getPath();
+      long listedAt = System.currentTimeMillis();
+      long lastModified = dir.lastModified();
+
+      Listing old = oldListings.get(path);
+      if ((old != null) && old.isValid(lastModified)) {
+        countReused.incrementAndGet();
+        return old;
+      }
+
+      countListed.incrementAndGet();
+      List<MFile> files = new ArrayList<MFile>();
+      List<File> subdirs = new ArrayList<File>();
+      File[] list = listFiles(dir);
+      if (list == null) // null on i/o error; an empty listing would drop the whole subtree from the collection
+        throw new IOException("DirectoryTreeScanner cant list " + path);
+
+      for (File f : list) {
+        if (f.isDirectory())
+          subdirs.add(f);
+        else
+          files.add(new MFileOS(f));
+      }
+      return new Listing(path, lastModified, listedAt, files, subdirs);
+    }
+  }
+
+}
@@ -267,16 +267,48 @@ public interface CollectionManager {
 
   public class TriggerEvent extends java.util.EventObject {
      private final TriggerType type;
+     private final List<MFile> added, changed, deleted;
 
      TriggerEvent(Object source, TriggerType type) {
+       this(source, type, null, null, null);
+     }
+
+     TriggerEvent(Object source, TriggerType type, List<MFile> added, List<MFile> changed, List<MFile> deleted) {
        super(source);
        this.type = type;
+       this.added = added;
+       this.changed = changed;
+       this.deleted = deleted;
      }
 
      public TriggerType getType() {
        return type;
      }
 
+     /**
+      * Files that were added to the collection, for an update event from a rescan.
+      * @return added files, or null if not known
+      */
+     public List<MFile> getAdded() {
+       return added;
+     }
+
+     /**
+      * Files that were modified, for an update event from a rescan.
+      * @return changed files, or null if not known
+      */
+     public List<MFile> getChanged() {
+       return changed;
+     }
+
+     /**
+      * Files that were removed from the collection, for an update event from a rescan.
+      * @return deleted files, or null if not known
+      */
+     public List<MFile> getDeleted() {
+       return deleted;
+     }
+
      @Override
      public String toString() {
        return "TriggerEvent{" +
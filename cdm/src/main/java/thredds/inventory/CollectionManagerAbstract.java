@@ -175,9 +175,11 @@ public abstract class CollectionManagerAbstract implements CollectionManager {
     enableMetadataManager = true;
   }
 
-  private MetadataManager mm;
+  private volatile MetadataManager mm;
 
-  private void initMM() {
+  // synchronized, since inventories may be made in parallel
+  private synchronized void initMM() {
+    if (mm != null) return;
     if (getCollectionName() == null) return; // eg no scan in ncml
     try {
       mm = new MetadataManager(getCollectionName());
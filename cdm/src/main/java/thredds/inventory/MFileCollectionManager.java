@@ -39,8 +39,11 @@ import ucar.nc2.units.TimeDuration;
 
 import java.util.*;
 import java.io.IOException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicLong;
 
+import thredds.filesystem.ControllerOS;
+import thredds.filesystem.DirectoryTreeScanner;
 import thredds.inventory.filter.*;
 
 /**
@@ -78,6 +81,17 @@ public class MFileCollectionManager extends CollectionManagerAbstract {
     return controller;
   }
 
+  static private Executor scanExecutor;
+
+  /**
+   * List directories in parallel when scanning collections on the local file system.
+   *
+   * @param exec use this Executor, or null to scan in the calling thread (default)
+   */
+  static public void setScanExecutor(Executor exec) {
+    scanExecutor = exec;
+  }
+
   // called from Aggregation, Fmrc, FeatureDatasetFactoryManager
   static public MFileCollectionManager open(String collectionName, String olderThan, Formatter errlog) throws IOException {
     if (collectionName.startsWith(CATALOG))
@@ -108,6 +122,11 @@ public class MFileCollectionManager extends CollectionManagerAbstract {
   private long lastScanned; // last time scanned
   private AtomicLong lastChanged = new AtomicLong(); // last time the set of files changed
 
+  // incremental scanning
+  private long fullScanEveryMsecs = -1;  // incremental scans if > 0
+  private long lastFullScan;
+  private final Map<MCollection, DirectoryTreeScanner> scanners = new HashMap<MCollection, DirectoryTreeScanner>();
+
   // simplified version called from DatasetCollectionManager.open()
   private MFileCollectionManager(String collectionSpec, String olderThan, Formatter errlog) {
     super(collectionSpec, null);
@@ -244,6 +263,17 @@ public class MFileCollectionManager extends CollectionManagerAbstract {
     this.dateExtractor = dateExtractor;
   }
 
+  /**
+   * Use incremental scans: only list the directories whose lastModified has changed since the previous scan.
+   * Files modified in place dont change their directory, so do a full scan at least this often to pick those up.
+   * Only used when the controller is the default ControllerOS.
+   *
+   * @param fullScanEvery do a full scan when this much time has passed since the last one; null to always do full scans (default)
+   */
+  public void setIncrementalScan(TimeDuration fullScanEvery) {
+    this.fullScanEveryMsecs = (fullScanEvery == null) ? -1 : (long) (1000 * fullScanEvery.getValueInSeconds());
+  }
+
   /**
    * Add a directory scan to the collection
    *
@@ -405,6 +435,9 @@ public class MFileCollectionManager extends CollectionManagerAbstract {
     reallyScan(newMap);
 
     // replace with previous datasets if they exist
+    List<MFile> added = new ArrayList<MFile>();
+    List<MFile> changedFiles = new ArrayList<MFile>();
+    List<MFile> deleted = new ArrayList<MFile>();
     int nnew = 0;
     int nchange = 0;
     Iterator<MFile> iter = newMap.values().iterator(); // need iterator so we can remove()
@@ -415,10 +448,12 @@ public class MFileCollectionManager extends CollectionManagerAbstract {
       if (oldFile != null) {
         if (newFile.getLastModified() > oldFile.getLastModified()) { // the file has changed since last time
           nchange++;
+          changedFiles.add(newFile);
           logger.debug("{}: scan found Dataset changed= {}", collectionName, path);
 
         } else if (changeChecker != null && changeChecker.hasntChangedSince(newFile, oldFile.getLastModified())) { // the ancilliary file hasnt changed
           nchange++;
+          changedFiles.add(newFile);
           logger.debug("{}: scan changeChecker found Dataset changed= {}", collectionName, path);
         }
       } else { // oldFile doesnt exist
@@ -427,6 +462,7 @@ public class MFileCollectionManager extends CollectionManagerAbstract {
           logger.debug("{}: scan found new Dataset but its too recently modified = {}", collectionName, path);
         } else {
           nnew++;
+          added.add(newFile);
           logger.debug("{}: scan found new Dataset= {} ", collectionName, path);
         }
       }
@@ -439,6 +475,7 @@ public class MFileCollectionManager extends CollectionManagerAbstract {
       MFile newDataset = newMap.get(path);
       if (newDataset == null) {
         ndelete++;
+        deleted.add(oldDataset);
         logger.debug("{}: scan found deleted Dataset={}", collectionName, path);
       }
     }
@@ -460,7 +497,7 @@ public class MFileCollectionManager extends CollectionManagerAbstract {
     }
 
     if (changed && sendEvent) {  // event is processed on this thread
-      sendEvent(new TriggerEvent(this, TriggerType.update));  // watch out for infinite loop
+      sendEvent(new TriggerEvent(this, TriggerType.update, added, changedFiles, deleted));  // watch out for infinite loop
     }
 
     return changed;
@@ -558,6 +595,22 @@ public class MFileCollectionManager extends CollectionManagerAbstract {
   protected void reallyScan(java.util.Map<String, MFile> map) throws IOException {
     getController(); // make sure a controller is instantiated
 
+    // DirectoryTreeScanner only works on the local file system
+    boolean incremental = (fullScanEveryMsecs > 0);
+    if ((incremental || scanExecutor != null) && (controller instanceof ControllerOS)) {
+      long now = System.currentTimeMillis();
+      boolean full = !incremental || (now - lastFullScan >= fullScanEveryMsecs);
+      for (MCollection mc : scanList) {
+        int count = getScanner(mc).scan(mc, map, full);
+        logger.debug("{} : was scanned nfiles= {} ", collectionName, count);
+      }
+      if (full) lastFullScan = now;
+
+      if (map.size() == 0)
+        logger.warn("MFileCollectionManager: No files found for {}", collectionName);
+      return;
+    }
+
     // run through all scanners and collect MFile instances into the Map
     for (MCollection mc : scanList) {
 
@@ -583,6 +636,17 @@ public class MFileCollectionManager extends CollectionManagerAbstract {
     }
   }
 
+  private DirectoryTreeScanner getScanner(MCollection mc) {
+    synchronized (scanners) {
+      DirectoryTreeScanner scanner = scanners.get(mc);
+      if (scanner == null) {
+        scanner = new DirectoryTreeScanner(scanExecutor);
+        scanners.put(mc, scanner);
+      }
+      return scanner;
+    }
+  }
+
   @Override
   public String toString() {
     Formatter f = new Formatter();
@@ -293,8 +293,25 @@ public abstract class Array {
       return;
     }
 
-    Object src = arraySrc.get1DJavaArray(arraySrc.getElementType()); // ensure canonical order
+    if ((arraySrc instanceof ArrayBB) || (arrayDst instanceof ArrayBB)) { // storage is not a java array
+      Array src = arraySrc.indexCalc.isFastIterator() ? arraySrc : arraySrc.copy(); // ensure canonical order
+      for (int i = 0; i < len; i++)
+        arrayDst.setObject(dstPos + i, src.getObject(srcPos + i));
+      return;
+    }
+
     Object dst = arrayDst.getStorage();
+
+    // copy a whole non-canonical array (eg a section) straight into dst, avoiding the intermediate copy
+    if (!arraySrc.indexCalc.isFastIterator() && (srcPos == 0) && (len == arraySrc.getSize()) &&
+        (arraySrc.getStorage().getClass() == dst.getClass())) {
+      if (dstPos < 0 || dstPos + len > java.lang.reflect.Array.getLength(dst))
+        throw new ArrayIndexOutOfBoundsException();
+      arraySrc.indexCalc.copyStrided(arraySrc.getStorage(), dst, dstPos);
+      return;
+    }
+
+    Object src = arraySrc.get1DJavaArray(arraySrc.getElementType()); // ensure canonical order
     try {
       System.arraycopy(src, srcPos, dst, dstPos, len);
     } catch (ArrayIndexOutOfBoundsException e) {
@@ -0,0 +1,445 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package ucar.ma2;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Concrete implementation of Array for numeric types, with data storage in a java.nio.ByteBuffer
+ * instead of a java primitive array. The ByteBuffer may be a heap, direct or memory-mapped buffer, so large
+ * arrays can be kept off the java heap. Values are kept in the byte order of the ByteBuffer, so an IOSP can
+ * copy file bytes straight into it, and a writer can copy them straight back out.
+ * <p/>
+ * getStorage() returns a copy of the backing store as a java array, so code that casts it keeps working, but changes
+ * to it are not seen by the ArrayBB. getByteBuffer() returns the backing ByteBuffer itself.
+ * The number of elements is limited by the int indexing of Index, and by the 2 Gbyte limit of a ByteBuffer.
+ * <p/>
+ * IOSPs call factoryLarge() to get an ArrayBB when a read exceeds the thresholds set by setLargeArrayThresholds();
+ * by default these are off, and all Arrays are backed by java arrays. An ArrayBB is not an ArrayFloat, ArrayDouble, etc,
+ * so turning the thresholds on breaks any code that casts the result of Variable.read() to one of those.
+ *
+ * @see Array
+ * @since 10/19/2026
+ */
+public class ArrayBB extends Array {
+  static private long directThreshold = -1;
+  static private long mappedThreshold = -1;
+  static private File mappedDir;
+
+  /**
+   * Set the sizes above which factoryLarge() returns an ArrayBB. Use -1 to turn off.
+   * <p/>
+   * CAUTION: reads above the thresholds return an ArrayBB, so only turn this on if no code reading those variables
+   * casts the Array to its primitive subclass (eg (ArrayFloat) v.read()); many callers in the library still do.
+   *
+   * @param directBytes arrays at least this many bytes use a direct (off-heap) ByteBuffer
+   * @param mappedBytes arrays at least this many bytes use a ByteBuffer memory-mapped to a temporary file; takes
+   *                    precedence over directBytes
+   * @param dir         directory for the temporary files, or null for the system default
+   */
+  static public void setLargeArrayThresholds(long directBytes, long mappedBytes, File dir) {
+    directThreshold = directBytes;
+    mappedThreshold = mappedBytes;
+    mappedDir = dir;
+  }
+
+  /**
+   * Is this DataType stored by ArrayBB?
+   *
+   * @param dataType check this
+   * @return true for BYTE, SHORT, INT, LONG, FLOAT, DOUBLE
+   */
+  static public boolean isSupported(DataType dataType) {
+    switch (dataType) {
+      case BYTE:
+      case SHORT:
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Make an ArrayBB if the array is large enough to exceed one of the thresholds set in setLargeArrayThresholds().
+   *
+   * @param dataType type of data
+   * @param shape    shape of the array
+   * @param order    byte order of the storage
+   * @return ArrayBB, or null if the array should be backed by a java array
+   * @throws IOException if the temporary file cant be created or mapped
+   */
+  static public ArrayBB factoryLarge(DataType dataType, int[] shape, ByteOrder order) throws IOException {
+    if (!isSupported(dataType)) return null;
+    long nbytes = Index.computeSize(shape) * dataType.getSize();
+    if (nbytes > Integer.MAX_VALUE) return null;
+    if ((mappedThreshold >= 0) && (nbytes >= mappedThreshold))
+      return allocateMapped(dataType, shape, order, mappedDir);
+    if ((directThreshold >= 0) && (nbytes >= directThreshold))
+      return allocateDirect(dataType, shape, order);
+    return null;
+  }
+
+  /**
+   * Make an ArrayBB backed by a direct ByteBuffer.
+   *
+   * @param dataType type of data, must be isSupported()
+   * @param shape    shape of the array
+   * @param order    byte order of the storage
+   * @return new ArrayBB, with all values zero
+   */
+  static public ArrayBB allocateDirect(DataType dataType, int[] shape, ByteOrder order) {
+    ByteBuffer bb = ByteBuffer.allocateDirect(nbytes(dataType, shape));
+    bb.order(order);
+    return new ArrayBB(dataType, shape, bb);
+  }
+
+  /**
+   * Make an ArrayBB backed by a ByteBuffer memory-mapped to a new temporary file.
+   * The file is deleted when possible; the space is released when the ArrayBB is garbage collected.
+   *
+   * @param dataType type of data, must be isSupported()
+   * @param shape    shape of the array
+   * @param order    byte order of the storage
+   * @param dir      directory for the temporary file, or null for the system default
+   * @return new ArrayBB, with all values zero
+   * @throws IOException if the temporary file cant be created or mapped
+   */
+  static public ArrayBB allocateMapped(DataType dataType, int[] shape, ByteOrder order, File dir) throws IOException {
+    int nbytes = nbytes(dataType, shape);
+    File file = File.createTempFile("ArrayBB", ".tmp", dir);
+    java.io.RandomAccessFile raf = null;
+    try {
+      raf = new java.io.RandomAccessFile(file, "rw");
+      raf.setLength(nbytes);
+      ByteBuffer bb = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, nbytes);
+      bb.order(order);
+      return new ArrayBB(dataType, shape, bb);
+
+    } finally {
+      if (raf != null) raf.close(); // the mapping remains valid
+      if (!file.delete()) file.deleteOnExit();
+    }
+  }
+
+  static private int nbytes(DataType dataType, int[] shape) {
+    if (!isSupported(dataType))
+      throw new IllegalArgumentException("ArrayBB does not support " + dataType);
+    long nbytes = Index.computeSize(shape) * dataType.getSize();
+    if (nbytes > Integer.MAX_VALUE)
+      throw new IllegalArgumentException("ArrayBB too large: " + nbytes + " bytes");
+    return (int) nbytes;
+  }
+
+  ///////////////////////////////////////////////////////////////////////////////
+  private final DataType dataType;
+  private final ByteBuffer bb;
+  private final int shift; // log2 of the element size
+
+  /**
+   * Create a new Array using the given ByteBuffer as the backing store.
+   * Values are at absolute positions starting at 0, in the ByteBuffer's byte order.
+   *
+   * @param dataType type of data, must be isSupported()
+   * @param shape    shape of the array
+   * @param bb       backing store, capacity must be at least the size of the array in bytes
+   */
+  public ArrayBB(DataType dataType, int[] shape, ByteBuffer bb) {
+    super(shape);
+    if (bb.capacity() < nbytes(dataType, shape))
+      throw new IllegalArgumentException("ByteBuffer too small: " + bb.capacity() + " < " + nbytes(dataType, shape));
+    this.dataType = dataType;
+    this.bb = bb;
+    this.shift = shift(dataType);
+  }
+
+  private ArrayBB(DataType dataType, Index ima, ByteBuffer bb) {
+    super(ima);
+    this.dataType = dataType;
+    this.bb = bb;
+    this.shift = shift(dataType);
+  }
+
+  static private int shift(DataType dataType) {
+    switch (dataType.getSize()) {
+      case 1: return 0;
+      case 2: return 1;
+      case 4: return 2;
+      default: return 3;
+    }
+  }
+
+  /** create new Array with given indexImpl and the same backing store */
+  protected Array createView(Index index) {
+    ArrayBB result = new ArrayBB(dataType, index, bb);
+    result.setUnsigned(isUnsigned());
+    return result;
+  }
+
+  /**
+   * Get a copy of the underlying storage as a java primitive array, indexed the same way as the ByteBuffer.
+   * Changes to the returned array are not seen by this Array; use getByteBuffer() to get to the storage itself.
+   * @return a new java array of the element type
+   */
+  public Object getStorage() {
+    ByteBuffer dup = bb.duplicate();
+    dup.order(bb.order());
+    dup.clear();
+    int n = bb.capacity() >> shift;
+    switch (dataType) {
+      case BYTE:
+        byte[] bdata = new byte[n];
+        dup.get(bdata);
+        return bdata;
+      case SHORT:
+        short[] sdata = new short[n];
+        dup.asShortBuffer().get(sdata);
+        return sdata;
+      case INT:
+        int[] idata = new int[n];
+        dup.asIntBuffer().get(idata);
+        return idata;
+      case LONG:
+        long[] ldata = new long[n];
+        dup.asLongBuffer().get(ldata);
+        return ldata;
+      case FLOAT:
+        float[] fdata = new float[n];
+        dup.asFloatBuffer().get(fdata);
+        return fdata;
+      default:
+        double[] ddata = new double[n];
+        dup.asDoubleBuffer().get(ddata);
+        return ddata;
+    }
+  }
+
+  /**
+   * Get underlying storage. CAUTION! You may invalidate your warrentee!
+   * @return the backing ByteBuffer, values are at absolute positions starting at 0
+   */
+  public ByteBuffer getByteBuffer() {
+    return bb;
+  }
+
+  /** @return the DataType of the elements */
+  public DataType getDataType() {
+    return dataType;
+  }
+
+  /** @return the byte order of the storage */
+  public ByteOrder getByteOrder() {
+    return bb.order();
+  }
+
+  /** Return the element class type */
+  public Class getElementType() {
+    return dataType.getPrimitiveClassType();
+  }
+
+  /**
+   * The data in canonical order, in the byte order of the storage.
+   * If this Array is not a section or other logical view, this shares the backing store without copying.
+   *
+   * @return ByteBuffer positioned at 0, with limit equal to the number of bytes
+   */
+  public ByteBuffer getDataAsByteBuffer() {
+    int nbytes = (int) getSize() << shift;
+    if (indexCalc.isFastIterator()) {
+      ByteBuffer result = bb.duplicate();
+      result.order(bb.order());
+      result.position(0);
+      result.limit(nbytes);
+      return result;
+    }
+
+    ArrayBB copy = new ArrayBB(dataType, getShape(), ByteBuffer.allocate(nbytes).order(bb.order()));
+    MAMath.copy(copy, this);
+    return copy.getByteBuffer();
+  }
+
+  /**
+   * Copy to a java array in canonical order; never returns the storage.
+   */
+  public Object get1DJavaArray(Class wantType) {
+    if (wantType == getElementType())
+      return copyTo1DJavaArray();
+    return super.get1DJavaArray(wantType);
+  }
+
+  // copy from javaArray to storage using the iterator: used by factory( Object);
+  protected void copyFrom1DJavaArray(IndexIterator iter, Object javaArray) {
+    int n = java.lang.reflect.Array.getLength(javaArray);
+    for (int i = 0; i < n; i++)
+      iter.setObjectNext(java.lang.reflect.Array.get(javaArray, i));
+  }
+
+  // copy to javaArray from storage using the iterator: used by copyToNDJavaArray;
+  protected void copyTo1DJavaArray(IndexIterator iter, Object javaArray) {
+    int n = java.lang.reflect.Array.getLength(javaArray);
+    for (int i = 0; i < n; i++)
+      java.lang.reflect.Array.set(javaArray, i, iter.getObjectNext());
+  }
+
+  ///////////////////////////////////////////////////////////////////////////////
+  // all access goes through these
+
+  private boolean isReal() {
+    return (dataType == DataType.FLOAT) || (dataType == DataType.DOUBLE);
+  }
+
+  private double getReal(int elem) {
+    if (dataType == DataType.DOUBLE) return bb.getDouble(elem << 3);
+    if (dataType == DataType.FLOAT) return bb.getFloat(elem << 2);
+    return getIntegral(elem);
+  }
+
+  private long getIntegral(int elem) {
+    switch (dataType) {
+      case BYTE:
+        byte b = bb.get(elem);
+        return unsigned ? DataType.unsignedByteToShort(b) : b;
+      case SHORT:
+        short s = bb.getShort(elem << 1);
+        return unsigned ? DataType.unsignedShortToInt(s) : s;
+      case INT:
+        int i = bb.getInt(elem << 2);
+        return unsigned ? DataType.unsignedIntToLong(i) : i;
+      case LONG:
+        return bb.getLong(elem << 3);
+      case FLOAT:
+        return (long) bb.getFloat(elem << 2);
+      default:
+        return (long) bb.getDouble(elem << 3);
+    }
+  }
+
+  private void setReal(int elem, double val) {
+    switch (dataType) {
+      case BYTE: bb.put(elem, (byte) val); break;
+      case SHORT: bb.putShort(elem << 1, (short) val); break;
+      case INT: bb.putInt(elem << 2, (int) val); break;
+      case LONG: bb.putLong(elem << 3, (long) val); break;
+      case FLOAT: bb.putFloat(elem << 2, (float) val); break;
+      default: bb.putDouble(elem << 3, val); break;
+    }
+  }
+
+  private void setIntegral(int elem, long val) {
+    switch (dataType) {
+      case BYTE: bb.put(elem, (byte) val); break;
+      case SHORT: bb.putShort(elem << 1, (short) val); break;
+      case INT: bb.putInt(elem << 2, (int) val); break;
+      case LONG: bb.putLong(elem << 3, val); break;
+      case FLOAT: bb.putFloat(elem << 2, (float) val); break;
+      default: bb.putDouble(elem << 3, (double) val); break;
+    }
+  }
+
+  public double getDouble(int elem) { return getReal(elem); }
+  public void setDouble(int elem, double val) { setReal(elem, val); }
+
+  public float getFloat(int elem) { return (float) getReal(elem); }
+  public void setFloat(int elem, float val) { setReal(elem, val); }
+
+  public long getLong(int elem) { return isReal() ? (long) getReal(elem) : getIntegral(elem); }
+  public void setLong(int elem, long value) { setIntegral(elem, value); }
+
+  public int getInt(int elem) { return isReal() ? (int) getReal(elem) : (int) getIntegral(elem); }
+  public void setInt(int elem, int value) { setIntegral(elem, value); }
+
+  public short getShort(int elem) { return isReal() ? (short) getReal(elem) : (short) getIntegral(elem); }
+  public void setShort(int elem, short value) { setIntegral(elem, value); }
+
+  public byte getByte(int elem) { return isReal() ? (byte) getReal(elem) : (byte) getIntegral(elem); }
+  public void setByte(int elem, byte value) { setIntegral(elem, value); }
+
+  public char getChar(int elem) { return isReal() ? (char) getReal(elem) : (char) getIntegral(elem); }
+  public void setChar(int elem, char value) { setIntegral(elem, value); }
+
+  public boolean getBoolean(int elem) { throw new ForbiddenConversionException(); }
+  public void setBoolean(int elem, boolean value) { throw new ForbiddenConversionException(); }
+
+  public Object getObject(int elem) {
+    switch (dataType) {
+      case BYTE: return bb.get(elem);
+      case SHORT: return bb.getShort(elem << 1);
+      case INT: return bb.getInt(elem << 2);
+      case LONG: return bb.getLong(elem << 3);
+      case FLOAT: return bb.getFloat(elem << 2);
+      default: return bb.getDouble(elem << 3);
+    }
+  }
+
+  public void setObject(int elem, Object value) {
+    if (isReal())
+      setReal(elem, ((Number) value).doubleValue());
+    else
+      setIntegral(elem, ((Number) value).longValue());
+  }
+
+  public double getDouble(Index i) { return getDouble(i.currentElement()); }
+  public void setDouble(Index i, double value) { setDouble(i.currentElement(), value); }
+
+  public float getFloat(Index i) { return getFloat(i.currentElement()); }
+  public void setFloat(Index i, float value) { setFloat(i.currentElement(), value); }
+
+  public long getLong(Index i) { return getLong(i.currentElement()); }
+  public void setLong(Index i, long value) { setLong(i.currentElement(), value); }
+
+  public int getInt(Index i) { return getInt(i.currentElement()); }
+  public void setInt(Index i, int value) { setInt(i.currentElement(), value); }
+
+  public short getShort(Index i) { return getShort(i.currentElement()); }
+  public void setShort(Index i, short value) { setShort(i.currentElement(), value); }
+
+  public byte getByte(Index i) { return getByte(i.currentElement()); }
+  public void setByte(Index i, byte value) { setByte(i.currentElement(), value); }
+
+  public char getChar(Index i) { return getChar(i.currentElement()); }
+  public void setChar(Index i, char value) { setChar(i.currentElement(), value); }
+
+  public boolean getBoolean(Index i) { throw new ForbiddenConversionException(); }
+  public void setBoolean(Index i, boolean value) { throw new ForbiddenConversionException(); }
+
+  public Object getObject(Index i) { return getObject(i.currentElement()); }
+  public void setObject(Index i, Object value) { setObject(i.currentElement(), value); }
+
+}
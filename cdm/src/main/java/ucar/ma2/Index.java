@@ -474,6 +474,78 @@ public class  Index implements Cloneable {
     return fastIterator;
   }
 
+  /**
+   * Copy the elements described by this Index, in canonical order, from the backing array src into dst.
+   * The innermost dimension is copied with System.arraycopy() when its stride is 1, otherwise with a typed loop;
+   * the starting element of each innermost run is updated incrementally instead of being recomputed.
+   *
+   * @param src    the 1D backing java array that this Index is an index into
+   * @param dst    copy to this 1D java array, must be the same primitive type as src
+   * @param dstPos starting at this position in dst
+   */
+  void copyStrided(Object src, Object dst, int dstPos) {
+    if (size == 0) return;
+    if (rank == 0) {
+      System.arraycopy(src, offset, dst, dstPos, 1);
+      return;
+    }
+
+    int inner = rank - 1;
+    int n = shape[inner];
+    int innerStride = stride[inner];
+    long nruns = size / n;
+    int[] counter = new int[inner];
+    int start = offset;
+
+    for (long run = 0; run < nruns; run++) {
+      if (innerStride == 1)
+        System.arraycopy(src, start, dst, dstPos, n);
+      else
+        copyStrided(src, start, innerStride, dst, dstPos, n);
+      dstPos += n;
+
+      // odometer over the outer dimensions
+      for (int d = inner - 1; d >= 0; d--) {
+        start += stride[d];
+        if (++counter[d] < shape[d]) break;
+        start -= stride[d] * shape[d];
+        counter[d] = 0;
+      }
+    }
+  }
+
+  // dst[dstPos + i] = src[srcPos + i * srcStride], i = 0..n-1
+  static private void copyStrided(Object src, int srcPos, int srcStride, Object dst, int dstPos, int n) {
+    if (src instanceof double[]) {
+      double[] from = (double[]) src, to = (double[]) dst;
+      for (int i = 0; i < n; i++, srcPos += srcStride) to[dstPos + i] = from[srcPos];
+    } else if (src instanceof float[]) {
+      float[] from = (float[]) src, to = (float[]) dst;
+      for (int i = 0; i < n; i++, srcPos += srcStride) to[dstPos + i] = from[srcPos];
+    } else if (src instanceof long[]) {
+      long[] from = (long[]) src, to = (long[]) dst;
+      for (int i = 0; i < n; i++, srcPos += srcStride) to[dstPos + i] = from[srcPos];
+    } else if (src instanceof int[]) {
+      int[] from = (int[]) src, to = (int[]) dst;
+      for (int i = 0; i < n; i++, srcPos += srcStride) to[dstPos + i] = from[srcPos];
+    } else if (src instanceof short[]) {
+      short[] from = (short[]) src, to = (short[]) dst;
+      for (int i = 0; i < n; i++, srcPos += srcStride) to[dstPos + i] = from[srcPos];
+    } else if (src instanceof byte[]) {
+      byte[] from = (byte[]) src, to = (byte[]) dst;
+      for (int i = 0; i < n; i++, srcPos += srcStride) to[dstPos + i] = from[srcPos];
+    } else if (src instanceof char[]) {
+      char[] from = (char[]) src, to = (char[]) dst;
+      for (int i = 0; i < n; i++, srcPos += srcStride) to[dstPos + i] = from[srcPos];
+    } else if (src instanceof boolean[]) {
+      boolean[] from = (boolean[]) src, to = (boolean[]) dst;
+      for (int i = 0; i < n; i++, srcPos += srcStride) to[dstPos + i] = from[srcPos];
+    } else {
+      Object[] from = (Object[]) src, to = (Object[]) dst;
+      for (int i = 0; i < n; i++, srcPos += srcStride) to[dstPos + i] = from[srcPos];
+    }
+  }
+
   /**
    * Get the total number of elements in the array.
    * @return the total number of elements in the array.
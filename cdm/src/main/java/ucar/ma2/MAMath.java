@@ -239,6 +239,8 @@ public class MAMath {
    * @throws UnsupportedOperationException dont support this data type yet
    */
   public static void copy(Array result, Array a) throws IllegalArgumentException {
+    if (copyBulk(result, a)) return;
+
     Class classType = a.getElementType();
     if (classType == double.class) {
       copyDouble(result, a);
@@ -260,6 +262,31 @@ public class MAMath {
       copyObject(result, a);
   }
 
+  /**
+   * Fast path for copy(): same primitive type, and result in canonical order using all of its backing array,
+   * which is the usual case for Array.copy() and sections. Copies runs of the innermost dimension directly
+   * between the backing java arrays, without going through IndexIterator.
+   *
+   * @return false if not handled here, and nothing was copied
+   */
+  private static boolean copyBulk(Array result, Array a) {
+    Class classType = a.getElementType();
+    if (!classType.isPrimitive() || (classType != result.getElementType())) return false;
+    if (a.isConstant() || result.isConstant() || !result.indexCalc.isFastIterator()) return false;
+    if (!conformable(a, result)) return false; // let the regular path complain
+    if ((a instanceof ArrayBB) || (result instanceof ArrayBB)) return false; // storage is not a java array
+
+    Object dst = result.getStorage();
+    Object src = a.getStorage();
+    if (src.getClass() != dst.getClass() || java.lang.reflect.Array.getLength(dst) != result.getSize()) return false;
+
+    if (a.indexCalc.isFastIterator())
+      System.arraycopy(src, 0, dst, 0, (int) a.getSize());
+    else
+      a.indexCalc.copyStrided(src, dst, 0);
+    return true;
+  }
+
   /**
    * copy array a to array result as doubles
    * The values from the arrays a are converted to double (if needed),
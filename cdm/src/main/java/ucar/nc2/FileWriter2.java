@@ -37,8 +37,15 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
 
 import ucar.ma2.*;
+import ucar.nc2.dataset.NetcdfDataset;
 import ucar.nc2.jni.netcdf.Nc4Chunking;
 import ucar.nc2.jni.netcdf.Nc4ChunkingStrategyImpl;
 import ucar.nc2.util.CancelTask;
@@ -85,6 +92,9 @@ public class FileWriter2 {
 
   private Nc4Chunking chunker = new Nc4ChunkingStrategyImpl();
 
+  private Executor executor;  // if not null, read concurrently in copyVarData()
+  private long maxPendingBytes;
+
   /**
    * Use this constructor to copy entire file. Use this.write() to do actual copy.
    *
@@ -111,6 +121,20 @@ public class FileWriter2 {
     return writer;
   }
 
+  /**
+   * Read the non-record variables concurrently in copyVarData(), while writing from the calling thread.
+   * Variables larger than 50 Mbytes are read in pieces along their outer (eg time) dimension.
+   * IOSPs are not thread-safe, so reads from the same underlying file are serialized; aggregations
+   * acquire their own files for each read, so those run concurrently.
+   *
+   * @param executor        run the reads here, or null to read and write sequentially (default)
+   * @param maxPendingBytes maximum bytes read but not yet written; no more reads are started until some data is written
+   */
+  public void setExecutor(Executor executor, long maxPendingBytes) {
+    this.executor = executor;
+    this.maxPendingBytes = maxPendingBytes;
+  }
+
   /////////////////////////////////////////////////////////////////////////////////////////////
   // might be better to push these next up int NetcdfCFWriter, but we want to use copyVarData
 
@@ -374,11 +398,16 @@ public class FileWriter2 {
     // write non-record data
     double total = 0;
     int countVars = 0;
+    List<Variable> concurrentVars = new ArrayList<Variable>();
     for (Variable oldVar : oldVars) {
       if (useRecordDimension && oldVar.isUnlimited())
         continue; // skip record variables
       if (oldVar == recordVar)
         continue;
+      if (executor != null) {
+        concurrentVars.add(oldVar);
+        continue;
+      }
 
       if (debug)
         System.out.println("write var= " + oldVar.getShortName() + " size = " + oldVar.getSize() + " type=" + oldVar.getDataType());
@@ -397,6 +426,11 @@ public class FileWriter2 {
       if (cancel != null && cancel.isCancel()) return total;
     }
 
+    if (!concurrentVars.isEmpty()) {
+      total += copyVarDataConcurrent(concurrentVars, cancel);
+      if (cancel != null && cancel.isCancel()) return total;
+    }
+
     // write record data
     if (useRecordDimension) {
       int[] origin = new int[]{0};
@@ -497,6 +531,139 @@ public class FileWriter2 {
     }
   }
 
+  /**
+   * Read in the executor, write in this thread in the order the reads finish.
+   * Reads are started while the data waiting to be written is less than maxPendingBytes.
+   */
+  private double copyVarDataConcurrent(List<Variable> oldVars, CancelTask cancel) throws IOException {
+    // break into tasks of at most maxSize bytes
+    List<CopyTask> tasks = new ArrayList<CopyTask>();
+    double total = 0;
+    for (Variable oldVar : oldVars) {
+      Variable newVar = varMap.get(oldVar);
+      Object lock = getReadLock(oldVar);
+      long size = oldVar.getSize() * oldVar.getElementSize();
+      total += size;
+
+      if (size <= maxSize) {
+        tasks.add(new CopyTask(oldVar, newVar, null, null, size, lock));
+        continue;
+      }
+
+      long maxChunkElems = maxSize / oldVar.getElementSize();
+      ChunkingIndex index = new ChunkingIndex(oldVar.getShape());
+      while (index.currentElement() < index.getSize()) {
+        int[] chunkOrigin = index.getCurrentCounter();
+        int[] chunkShape = index.computeChunkShape(maxChunkElems);
+        long chunkElems = Index.computeSize(chunkShape);
+        tasks.add(new CopyTask(oldVar, newVar, chunkOrigin, chunkShape, chunkElems * oldVar.getElementSize(), lock));
+        index.setCurrentCounter(index.currentElement() + (int) chunkElems);
+      }
+    }
+
+    CompletionService<CopyTask> completionService = new ExecutorCompletionService<CopyTask>(executor);
+    List<Future<CopyTask>> futures = new ArrayList<Future<CopyTask>>(tasks.size());
+    int next = 0, inFlight = 0, countWrites = 0;
+    long pendingBytes = 0;
+
+    try {
+      while (next < tasks.size() || inFlight > 0) {
+        // always keep at least one read going
+        while (next < tasks.size() && (inFlight == 0 || pendingBytes + tasks.get(next).nbytes <= maxPendingBytes)) {
+          CopyTask task = tasks.get(next++);
+          futures.add(completionService.submit(task));
+          pendingBytes += task.nbytes;
+          inFlight++;
+        }
+
+        CopyTask done = completionService.take().get();
+        inFlight--;
+        pendingBytes -= done.nbytes;
+        if (cancel != null)
+          cancel.setProgress("writing " + done.oldVar.getShortName(), countWrites++);
+        done.write();
+        if (cancel != null && cancel.isCancel()) break;
+      }
+
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("copyVarData interrupted");
+
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) throw (IOException) cause;
+      throw new IOException(cause.getMessage(), cause);
+
+    } finally {
+      for (Future<CopyTask> f : futures)
+        f.cancel(false); // dont interrupt, it closes file channels
+    }
+
+    return total;
+  }
+
+  // IOSPs are not thread-safe, so serialize reads that end up in the same file; null means no lock needed
+  private Object getReadLock(Variable oldVar) {
+    NetcdfFile ncfile = oldVar.getNetcdfFile();
+    while (ncfile instanceof NetcdfDataset) {
+      NetcdfDataset ncd = (NetcdfDataset) ncfile;
+      if (ncd.getAggregation() != null) return null;
+      if (ncd.getReferencedFile() == null) return ncd;
+      ncfile = ncd.getReferencedFile();
+    }
+    return ncfile;
+  }
+
+  private class CopyTask implements Callable<CopyTask> {
+    final Variable oldVar, newVar;
+    final int[] origin, shape; // null means all
+    final long nbytes;
+    final Object lock;
+    Array data;
+
+    CopyTask(Variable oldVar, Variable newVar, int[] origin, int[] shape, long nbytes, Object lock) {
+      this.oldVar = oldVar;
+      this.newVar = newVar;
+      this.origin = origin;
+      this.shape = shape;
+      this.nbytes = nbytes;
+      this.lock = lock;
+    }
+
+    public CopyTask call() throws Exception {
+      Array result;
+      if (lock == null) {
+        result = read();
+      } else {
+        synchronized (lock) {
+          result = read();
+        }
+      }
+      if (!version.isNetdf4format() && oldVar.getDataType() == DataType.STRING)
+        result = convertToChar(newVar, result);
+      data = result;
+      return this;
+    }
+
+    private Array read() throws IOException, InvalidRangeException {
+      return (origin == null) ? oldVar.read() : oldVar.read(origin, shape);
+    }
+
+    void write() throws IOException {
+      try {
+        if (data.getSize() > 0) { // zero when record dimension = 0
+          if (origin == null)
+            writer.write(newVar, data);
+          else
+            writer.write(newVar, origin, data);
+        }
+      } catch (InvalidRangeException e) {
+        throw new IOException(e.getMessage() + " for Variable " + oldVar.getFullName());
+      }
+      data = null;
+    }
+  }
+
   private Array convertToChar(Variable newVar, Array oldData) {
     ArrayChar newData = (ArrayChar) Array.factory(DataType.CHAR, newVar.getShape());
     Index ima = newData.getIndex();
@@ -48,6 +48,8 @@ import ucar.nc2.iosp.netcdf3.N3iosp;
 import ucar.nc2.iosp.netcdf3.SPFactory;
 import ucar.nc2.iosp.IOServiceProvider;
 import ucar.nc2.iosp.IospHelper;
+import ucar.nc2.iosp.HeaderCacheable;
+import ucar.nc2.stream.NcStreamHeaderCache;
 import ucar.unidata.util.StringUtil2;
 
 import java.util.*;
@@ -104,6 +106,7 @@ public class NetcdfFile implements ucar.nc2.util.cache.FileCacheable {
   static boolean loadWarnings = false;
 
   static private boolean userLoads = false;
+  static private NcStreamHeaderCache headerCache = null;
 
   // IOSPs are loaded by reflection
   static {
@@ -356,6 +359,16 @@ public class NetcdfFile implements ucar.nc2.util.cache.FileCacheable {
     N3iosp.setProperty(name, value);
   }
 
+  /**
+   * Set the persistent header cache. IOSPs that implement HeaderCacheable will store their parsed header there,
+   * and reopen from it if the file has not changed. Default is no header cache.
+   *
+   * @param cache use this cache, or null to turn off
+   */
+  static public void setHeaderCache(NcStreamHeaderCache cache) {
+    headerCache = cache;
+  }
+
   /**
    * Open an existing netcdf file (read only).
    *
@@ -810,7 +823,15 @@ public class NetcdfFile implements ucar.nc2.util.cache.FileCacheable {
     if (log.isDebugEnabled())
       log.debug("Using IOSP " + spi.getClass().getName());
 
-    NetcdfFile result = new NetcdfFile(spi, raf, location, cancelTask);
+    NetcdfFile result = null;
+    if ((headerCache != null) && (spi instanceof HeaderCacheable))
+      result = openFromHeaderCache(spi, raf, location, cancelTask);
+
+    if (result == null) {
+      result = new NetcdfFile(spi, raf, location, cancelTask);
+      if ((headerCache != null) && (spi instanceof HeaderCacheable))
+        headerCache.write(raf, result, (HeaderCacheable) spi);
+    }
 
     // send iospMessage after iosp is opened
     if (iospMessage != null)
@@ -819,6 +840,21 @@ public class NetcdfFile implements ucar.nc2.util.cache.FileCacheable {
     return result;
   }
 
+  // return null if not in the header cache
+  private static NetcdfFile openFromHeaderCache(IOServiceProvider spi, ucar.unidata.io.RandomAccessFile raf, String location,
+                                                ucar.nc2.util.CancelTask cancelTask) throws IOException {
+    NetcdfFile result = new NetcdfFile(spi, location);
+    if (!headerCache.read(raf, result, (HeaderCacheable) spi, cancelTask))
+      return null;
+
+    if (result.id == null)
+      result.setId(result.findAttValueIgnoreCase(null, "_Id", null));
+    if (result.title == null)
+      result.setTitle(result.findAttValueIgnoreCase(null, "_Title", null));
+    result.finish();
+    return result;
+  }
+
   ////////////////////////////////////////////////////////////////////////////////////////////////
   protected String location, id, title, cacheName;
   protected Group rootGroup = makeRootGroup();
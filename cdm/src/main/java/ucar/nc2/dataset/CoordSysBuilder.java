@@ -45,6 +45,9 @@ import ucar.ma2.DataType;
 import java.lang.reflect.Method;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 /**
  * Abstract class for implementing Convention-specific parsing of netCDF files.
@@ -110,6 +113,8 @@ public class CoordSysBuilder implements CoordSysBuilderIF {
   static private Map<String, String> ncmlHash = new HashMap<String, String>();
   static private boolean useMaximalCoordSys = true;
   static private boolean userMode = false;
+  static private Executor executor;
+  static private int ntasks = 1;
 
   /**
    * Allow plug-ins to determine if it owns a file based on the file's Convention attribute.
@@ -284,6 +289,20 @@ public class CoordSysBuilder implements CoordSysBuilderIF {
     return useMaximalCoordSys;
   }
 
+  /**
+   * Prefetch the values of the coordinate axes while building coordinate systems.
+   * Reads from the same file are batched into one NetcdfFile.readArrays() call,
+   * then the axes are filled from the prefetched data in parallel.
+   *
+   * @param exec   run the tasks here, null to read the axes lazily (default)
+   * @param ntasks split the axes into this many tasks
+   * @see #prefetchCoordinateAxes
+   */
+  static public void setExecutor(Executor exec, int ntasks) {
+    executor = exec;
+    CoordSysBuilder.ntasks = Math.max(1, ntasks);
+  }
+
   /**
    * Breakup list of Convention names in teh COnvention attribute in CF compliant way.
    * @param convAttValue original value of COnvention attribute
@@ -441,6 +460,10 @@ public class CoordSysBuilder implements CoordSysBuilderIF {
 
   protected boolean debug = false;
 
+  private Map<String, VarProcess> fullNameMap, shortNameMap; // index varList for findVarProcess()
+  private int nameMapSize = -1;
+  private Map<String, Long> phaseTimes = new LinkedHashMap<String, Long>(); // nanosecs for each phase
+
   public void setConventionUsed(String convName) {
     this.conventionName = convName;
   }
@@ -489,38 +512,78 @@ public class CoordSysBuilder implements CoordSysBuilderIF {
     parseInfo.format("Parsing with Convention = %s\n", conventionName);
 
     // Bookeeping info for each variable is kept in the VarProcess inner class
+    long start = System.nanoTime();
     addVariables(ncDataset, ncDataset.getVariables(), varList);
+    start = endPhase("addVariables", start);
 
     // identify which variables are coordinate axes
     findCoordinateAxes(ncDataset);
+    start = endPhase("findCoordinateAxes", start);
     // identify which variables are used to describe coordinate system
     findCoordinateSystems(ncDataset);
+    start = endPhase("findCoordinateSystems", start);
     // identify which variables are used to describe coordinate transforms
     findCoordinateTransforms(ncDataset);
+    start = endPhase("findCoordinateTransforms", start);
     // turn Variables into CoordinateAxis objects
     makeCoordinateAxes(ncDataset);
+    start = endPhase("makeCoordinateAxes", start);
+    // optionally read the coordinate values ahead of time
+    if (executor != null) {
+      prefetchCoordinateAxes(ncDataset);
+      start = endPhase("prefetchCoordinateAxes", start);
+    }
     // make Coordinate Systems for all Coordinate Systems Variables
     makeCoordinateSystems(ncDataset);
+    start = endPhase("makeCoordinateSystems", start);
 
     // assign explicit CoordinateSystem objects to variables
     assignCoordinateSystemsExplicit(ncDataset);
+    start = endPhase("assignCoordinateSystemsExplicit", start);
 
     // assign implicit CoordinateSystem objects to variables
     makeCoordinateSystemsImplicit(ncDataset);
+    start = endPhase("makeCoordinateSystemsImplicit", start);
 
     // optionally assign implicit CoordinateSystem objects to variables that dont have one yet
-    if (useMaximalCoordSys)
+    if (useMaximalCoordSys) {
       makeCoordinateSystemsMaximal(ncDataset);
+      start = endPhase("makeCoordinateSystemsMaximal", start);
+    }
 
     // make Coordinate Transforms
     makeCoordinateTransforms(ncDataset);
+    start = endPhase("makeCoordinateTransforms", start);
 
     // assign Coordinate Transforms
     assignCoordinateTransforms(ncDataset);
+    endPhase("assignCoordinateTransforms", start);
 
+    if (debug || executor != null) showTiming(parseInfo);
     if (debug) System.out.println("parseInfo = \n" + parseInfo.toString());
   }
 
+  private long endPhase(String phase, long start) {
+    long now = System.nanoTime();
+    phaseTimes.put(phase, now - start);
+    return now;
+  }
+
+  /**
+   * Show the time taken by each phase of buildCoordinateSystems().
+   *
+   * @param f show here
+   */
+  public void showTiming(Formatter f) {
+    long total = 0;
+    f.format("Timing (msecs):%n");
+    for (Map.Entry<String, Long> entry : phaseTimes.entrySet()) {
+      f.format(" %-32s %9.3f%n", entry.getKey(), entry.getValue() * 1.0e-6);
+      total += entry.getValue();
+    }
+    f.format(" %-32s %9.3f%n", "total", total * 1.0e-6);
+  }
+
   private void addVariables(NetcdfDataset ncDataset, List<Variable> varList, List<VarProcess> varProcessList) {
     for (Variable v : varList) {
       varProcessList.add(new VarProcess(ncDataset, v));
@@ -661,6 +724,103 @@ public class CoordSysBuilder implements CoordSysBuilderIF {
     }
   }
 
+  /**
+   * Read the values of the coordinate axes made so far, instead of on first use. Only called if setExecutor() was used.
+   * The I/O for each file is done in one call to NetcdfFile.readArrays(), since an IOSP may not be read from
+   * more than one thread. Axes whose data is then in memory are filled in parallel. Other axes are left alone,
+   * and on any error the axes are simply read when needed.
+   *
+   * @param ncDataset why
+   */
+  protected void prefetchCoordinateAxes(NetcdfDataset ncDataset) {
+    Map<NetcdfFile, List<Variable>> ioVars = new LinkedHashMap<NetcdfFile, List<Variable>>();
+    List<CoordinateAxis1D> axes = new ArrayList<CoordinateAxis1D>();
+    for (VarProcess vp : varList) {
+      if (!(vp.axis instanceof CoordinateAxis1D) || vp.axis.isMemberOfStructure()) continue;
+      Variable io = getIoVariable(vp.axis);
+      if ((io == null) || io.isMemberOfStructure() || !io.isCaching()) continue;
+      if (!io.hasCachedData()) {
+        NetcdfFile ncfile = io.getParentGroup().getNetcdfFile();
+        List<Variable> list = ioVars.get(ncfile);
+        if (list == null) {
+          list = new ArrayList<Variable>();
+          ioVars.put(ncfile, list);
+        }
+        if (!list.contains(io)) list.add(io);
+      }
+      axes.add((CoordinateAxis1D) vp.axis);
+    }
+    if (axes.size() == 0) return;
+
+    try {
+      for (Map.Entry<NetcdfFile, List<Variable>> entry : ioVars.entrySet())
+        entry.getKey().readArrays(entry.getValue());
+    } catch (IOException ioe) {
+      log.warn("prefetchCoordinateAxes failed on " + ncDataset.getLocation(), ioe);
+      return;
+    }
+
+    // filling the others would do I/O
+    final List<CoordinateAxis1D> ready = new ArrayList<CoordinateAxis1D>(axes.size());
+    for (CoordinateAxis1D axis : axes) {
+      if (getIoVariable(axis).hasCachedData())
+        ready.add(axis);
+    }
+
+    int n = Math.min(ntasks, ready.size());
+    List<FutureTask<Object>> tasks = new ArrayList<FutureTask<Object>>(n);
+    for (int t = 1; t < n; t++) {
+      final int startAxis = t * ready.size() / n;
+      final int endAxis = (t + 1) * ready.size() / n;
+      FutureTask<Object> task = new FutureTask<Object>(new Runnable() {
+        public void run() {
+          readCoordValues(ready, startAxis, endAxis);
+        }
+      }, null);
+      tasks.add(task);
+      executor.execute(task);
+    }
+    try {
+      readCoordValues(ready, 0, ready.size() / Math.max(n, 1));
+    } catch (RuntimeException e) {
+      log.warn("prefetchCoordinateAxes failed on " + ncDataset.getLocation(), e);
+    }
+
+    // the axes must not be used until all tasks are done
+    boolean interrupted = false;
+    for (FutureTask<Object> task : tasks) {
+      while (true) {
+        try {
+          task.get();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        } catch (ExecutionException e) {
+          log.warn("prefetchCoordinateAxes failed on " + ncDataset.getLocation(), e.getCause());
+          break;
+        }
+      }
+    }
+    if (interrupted) Thread.currentThread().interrupt();
+
+    parseInfo.format(" Prefetched %d of %d coordinate axes in %d tasks%n", ready.size(), axes.size(), Math.max(n, 1));
+  }
+
+  private void readCoordValues(List<CoordinateAxis1D> axes, int start, int end) {
+    for (int i = start; i < end; i++)
+      axes.get(i).readCoordValues();
+  }
+
+  // the Variable where the I/O for v happens, or null if it cant be found
+  private Variable getIoVariable(Variable v) {
+    while ((v instanceof VariableDS) && !v.hasCachedData()) {
+      VariableDS vds = (VariableDS) v;
+      if (vds.getProxyReader() != vds) return null; // eg aggregations
+      v = vds.getOriginalVariable();
+    }
+    return v;
+  }
+
   /**
    * Assign explicit CoordinateSystem objects to variables.
    *
@@ -811,6 +971,9 @@ public class CoordSysBuilder implements CoordSysBuilderIF {
    * @param ncDataset why
    */
   protected void makeCoordinateSystemsMaximal(NetcdfDataset ncDataset) {
+    // isCoordinateAxisForVariable() only depends on the set of dimensions, so compute once for each set
+    Map<Set<Dimension>, List<CoordinateAxis>> axesForDims = new HashMap<Set<Dimension>, List<CoordinateAxis>>();
+
     for (VarProcess vp : varList) {
       VariableEnhanced ve = (VariableEnhanced) vp.v;
       CoordinateSystem implicit = null;
@@ -826,11 +989,16 @@ public class CoordSysBuilder implements CoordSysBuilderIF {
       }
 
       // look through all axes that fit
-      List<CoordinateAxis> axisList = new ArrayList<CoordinateAxis>();
-      List<CoordinateAxis> axes = ncDataset.getCoordinateAxes();
-      for (CoordinateAxis axis : axes) {
-        if (isCoordinateAxisForVariable(axis, ve))
-          axisList.add(axis);
+      Set<Dimension> dims = new HashSet<Dimension>(ve.getDimensionsAll());
+      List<CoordinateAxis> axisList = axesForDims.get(dims);
+      if (axisList == null) {
+        axisList = new ArrayList<CoordinateAxis>();
+        List<CoordinateAxis> axes = ncDataset.getCoordinateAxes();
+        for (CoordinateAxis axis : axes) {
+          if (isCoordinateAxisForVariable(axis, ve))
+            axisList.add(axis);
+        }
+        axesForDims.put(dims, axisList);
       }
 
       if ((existing != null) && (axisList.size() <= existing.getRankRange())) continue;
@@ -1027,6 +1195,17 @@ public class CoordSysBuilder implements CoordSysBuilderIF {
   protected VarProcess findVarProcess(String fullName) {
     if (fullName == null) return null;
 
+    if (nameMapSize != varList.size()) makeNameMaps();
+    VarProcess want = fullNameMap.get(fullName);
+    if ((want != null) && fullName.equals(want.v.getFullName()))
+      return want;
+    if (want == null) {
+      want = shortNameMap.get(fullName);
+      if ((want != null) && fullName.equals(want.v.getShortName()))
+        return want;
+    }
+
+    // not found or names have changed: search the list
     for (VarProcess vp : varList) {
       if (fullName.equals(vp.v.getFullName()))
         return vp;
@@ -1040,6 +1219,19 @@ public class CoordSysBuilder implements CoordSysBuilderIF {
     return null;
   }
 
+  // first VarProcess with a given full or short name, in the order they are searched
+  private void makeNameMaps() {
+    fullNameMap = new HashMap<String, VarProcess>(2 * varList.size());
+    shortNameMap = new HashMap<String, VarProcess>(2 * varList.size());
+    for (VarProcess vp : varList) {
+      if (!fullNameMap.containsKey(vp.v.getFullName()))
+        fullNameMap.put(vp.v.getFullName(), vp);
+      if (!shortNameMap.containsKey(vp.v.getShortName()))
+        shortNameMap.put(vp.v.getShortName(), vp);
+    }
+    nameMapSize = varList.size();
+  }
+
   protected VarProcess findCoordinateAxis(String name) {
     if (name == null) return null;
 
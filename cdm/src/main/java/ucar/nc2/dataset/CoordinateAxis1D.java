@@ -237,6 +237,11 @@ public class CoordinateAxis1D extends CoordinateAxis {
     return midpoint.clone();
   }
 
+  // read the coordinate values now instead of on first use, see CoordSysBuilder.prefetchCoordinateAxes()
+  void readCoordValues() {
+    if (!wasRead) doRead();
+  }
+
   /**
    * Get the coordinate edges as a double array.
    * Exact only if isContiguous() is true, otherwise use getBound1() and getBound2().
@@ -675,6 +680,16 @@ public class CoordinateAxis1D extends CoordinateAxis {
         }
       }
 
+      // datasets with the same grid share one copy of the values
+      if (SharedCoordinates.isHoriz(axisType)) {
+        double[] shared = SharedCoordinates.share(midpoint);
+        if (shared != midpoint) {
+          midpoint = shared;
+          if (hasCachedData() && (getDataType() == DataType.DOUBLE)) // cached data is only handed out as copies
+            setCachedData(Array.factory(DataType.DOUBLE, getShape(), midpoint), isMetadata());
+        }
+      }
+
       //  calcIsRegular();
     } else if (getDataType() == DataType.STRING) {
       readStringValues();
@@ -741,6 +756,8 @@ public class CoordinateAxis1D extends CoordinateAxis {
     if (isNumeric()) {
       if (!makeBoundsFromAux()) {
         makeEdges();
+        if (SharedCoordinates.isHoriz(axisType))
+          edge = SharedCoordinates.share(edge);
       }
     }
     wasBoundsDone = true;
@@ -99,6 +99,14 @@ public class CoordinateAxis2D extends CoordinateAxis {
 
     if (this.axisType == AxisType.Lon)
       makeConnectedLon(midpoint);
+
+    // datasets with the same grid share one copy of the 2D lat/lon values
+    if (SharedCoordinates.isHoriz(axisType)) {
+      double[] values = (double[]) midpoint.getStorage();
+      double[] shared = SharedCoordinates.share(values);
+      if (shared != values)
+        midpoint = (ArrayDouble.D2) Array.factory(double.class, midpoint.getShape(), shared);
+    }
   }
 
   private void makeConnectedLon(ArrayDouble.D2 mid) {
@@ -149,7 +157,7 @@ public class CoordinateAxis2D extends CoordinateAxis {
     if (midpoint == null) doRead();
     if (!isNumeric())
        throw new UnsupportedOperationException("CoordinateAxis2D.getCoordValues() on non-numeric");
-    return (double[]) midpoint.get1DJavaArray( double.class);
+    return (double[]) midpoint.copyTo1DJavaArray(); // values may be shared with other datasets
   }
 
   /**
@@ -166,19 +174,22 @@ public class CoordinateAxis2D extends CoordinateAxis {
     return (CoordinateAxis2D) section( section);
   }
 
+  /** Get a copy of the coordinate values, since they may be shared with other datasets of the same grid.
+   *  @return coordinate values
+   */
   public ArrayDouble.D2 getMidpoints() {
     if (midpoint == null) doRead();
-    return midpoint;
+    return (ArrayDouble.D2) midpoint.copy();
   }
 
   public ArrayDouble.D2 getXEdges() {
-    ArrayDouble.D2 mids  = getMidpoints();
-    return makeXEdges(mids);
+    if (midpoint == null) doRead();
+    return makeXEdges(midpoint);
   }
 
   public ArrayDouble.D2 getYEdges() {
-    ArrayDouble.D2 mids  = getMidpoints();
-    return makeYEdges(mids);
+    if (midpoint == null) doRead();
+    return makeYEdges(midpoint);
   }
 
   /**
@@ -36,7 +36,13 @@ import ucar.ma2.*;
 import ucar.nc2.*;
 import ucar.nc2.constants.CDM;
 
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * Implementation of EnhanceScaleMissing for missing data, unsigned, and scale/offset packed data.
@@ -56,6 +62,10 @@ class EnhanceScaleMissingImpl implements EnhanceScaleMissing {
 
   static private boolean debug = false, debugRead = false, debugMissing = false;
 
+  // arrays at least this big are split into chunks, if NetcdfDataset has a conversionExecutor
+  static private final int PARALLEL_MIN_SIZE = 1000 * 1000;
+  static private final int PARALLEL_MIN_CHUNK = 250 * 1000;
+
   private DataType convertedDataType = null;
   private boolean useNaNs = false;
 
@@ -631,6 +641,9 @@ class EnhanceScaleMissingImpl implements EnhanceScaleMissing {
     if (debugRead) System.out.println("convertScaleOffset ");
 
     Array out = Array.factory(convertedDataType.getPrimitiveClassType(), in.getShape());
+    if (convertBulk(in, out))
+      return out;
+
     IndexIterator iterIn = in.getIndexIterator();
     IndexIterator iterOut = out.getIndexIterator();
 
@@ -678,6 +691,142 @@ class EnhanceScaleMissingImpl implements EnhanceScaleMissing {
     }
   }
 
+  ////////////////////////////////////////////////////////////////////////////////////////////
+  // bulk conversion, working directly on the java primitive arrays
+
+  /**
+   * Convert with scale/offset/missing directly from the backing java array of in to the backing array of out.
+   *
+   * @param in  data to convert, must not be a constant or a structure array
+   * @param out new array in canonical order, element type float or double
+   * @return false if this combination is not handled here, and nothing was done
+   */
+  private boolean convertBulk(Array in, Array out) {
+    if (in.isConstant()) return false;
+    if (in instanceof ArrayBB) return false; // no java array behind it, getStorage() would copy all of it
+    Class inType = in.getElementType();
+    if (inType != byte.class && inType != short.class && inType != int.class && inType != long.class &&
+        inType != float.class && inType != double.class) return false;
+    Object dest = out.getStorage();
+    if (!(dest instanceof float[]) && !(dest instanceof double[])) return false;
+    if (isUnsigned && inType == long.class) return false;
+
+    Object src = in.get1DJavaArray(inType); // no copy if already in canonical order
+    convertChunks(src, dest, (int) in.getSize(), false);
+    return true;
+  }
+
+  /**
+   * Replace missing data with NaNs, in place, directly on the backing java array.
+   *
+   * @param in double or float data
+   * @return false if in is not handled here, and nothing was done
+   */
+  private boolean convertMissingBulk(Array in) {
+    if (in.isConstant()) return false;
+    if (in instanceof ArrayBB) return false; // getStorage() is a copy, so the NaNs would be lost
+    Object storage = in.getStorage();
+    if (!(storage instanceof float[]) && !(storage instanceof double[])) return false;
+    if (in.getSize() != java.lang.reflect.Array.getLength(storage)) return false; // a section of a bigger array
+
+    convertChunks(storage, storage, (int) in.getSize(), true);
+    return true;
+  }
+
+  // split large conversions over the executor, if there is one
+  private void convertChunks(final Object src, final Object dest, int size, final boolean missingOnly) {
+    ExecutorService executor = NetcdfDataset.conversionExecutor;
+    if (executor == null || size < PARALLEL_MIN_SIZE) {
+      convertRange(src, dest, 0, size, missingOnly);
+      return;
+    }
+
+    int nchunks = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), size / PARALLEL_MIN_CHUNK));
+    int chunkSize = (size + nchunks - 1) / nchunks;
+    List<Future<Object>> results = new ArrayList<Future<Object>>(nchunks);
+    for (int start = 0; start < size; start += chunkSize) {
+      final int begin = start;
+      final int end = Math.min(size, start + chunkSize);
+      results.add(executor.submit(new Callable<Object>() {
+        public Object call() {
+          convertRange(src, dest, begin, end, missingOnly);
+          return null;
+        }
+      }));
+    }
+
+    try {
+      for (Future<Object> f : results)
+        f.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted converting scale/offset data", e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  // dest[i] = scale * src[i] + offset, for start <= i < end, missing values set to NaN if useNaNs
+  private void convertRange(Object src, Object dest, int start, int end, boolean missingOnly) {
+    boolean checkMissing = useNaNs && hasMissing();
+    double scale = missingOnly ? 1.0 : this.scale;
+    double offset = missingOnly ? 0.0 : this.offset;
+
+    if (dest instanceof double[]) {
+      double[] out = (double[]) dest;
+      if (src instanceof byte[]) {
+        byte[] in = (byte[]) src;
+        for (int i = start; i < end; i++) out[i] = toDouble(scale * (isUnsigned ? in[i] & 0xff : in[i]) + offset, checkMissing);
+      } else if (src instanceof short[]) {
+        short[] in = (short[]) src;
+        for (int i = start; i < end; i++) out[i] = toDouble(scale * (isUnsigned ? in[i] & 0xffff : in[i]) + offset, checkMissing);
+      } else if (src instanceof int[]) {
+        int[] in = (int[]) src;
+        for (int i = start; i < end; i++) out[i] = toDouble(scale * (isUnsigned ? in[i] & 0xffffffffL : in[i]) + offset, checkMissing);
+      } else if (src instanceof long[]) {
+        long[] in = (long[]) src;
+        for (int i = start; i < end; i++) out[i] = toDouble(scale * in[i] + offset, checkMissing);
+      } else if (src instanceof float[]) {
+        float[] in = (float[]) src;
+        for (int i = start; i < end; i++) out[i] = toDouble(scale * in[i] + offset, checkMissing);
+      } else {
+        double[] in = (double[]) src;
+        for (int i = start; i < end; i++) out[i] = toDouble(scale * in[i] + offset, checkMissing);
+      }
+
+    } else {
+      float[] out = (float[]) dest;
+      if (src instanceof byte[]) {
+        byte[] in = (byte[]) src;
+        for (int i = start; i < end; i++) out[i] = toFloat(scale * (isUnsigned ? in[i] & 0xff : in[i]) + offset, checkMissing);
+      } else if (src instanceof short[]) {
+        short[] in = (short[]) src;
+        for (int i = start; i < end; i++) out[i] = toFloat(scale * (isUnsigned ? in[i] & 0xffff : in[i]) + offset, checkMissing);
+      } else if (src instanceof int[]) {
+        int[] in = (int[]) src;
+        for (int i = start; i < end; i++) out[i] = toFloat(scale * (isUnsigned ? in[i] & 0xffffffffL : in[i]) + offset, checkMissing);
+      } else if (src instanceof long[]) {
+        long[] in = (long[]) src;
+        for (int i = start; i < end; i++) out[i] = toFloat(scale * in[i] + offset, checkMissing);
+      } else if (src instanceof double[]) {
+        double[] in = (double[]) src;
+        for (int i = start; i < end; i++) out[i] = toFloat(scale * in[i] + offset, checkMissing);
+      } else {
+        float[] in = (float[]) src;
+        for (int i = start; i < end; i++) out[i] = toFloat(scale * in[i] + offset, checkMissing);
+      }
+    }
+  }
+
+  // missing check is done on the double value, before narrowing, same as the IndexIterator path
+  private double toDouble(double val, boolean checkMissing) {
+    return checkMissing && isMissing_(val) ? Double.NaN : val;
+  }
+
+  private float toFloat(double val, boolean checkMissing) {
+    return checkMissing && isMissing_(val) ? Float.NaN : (float) val;
+  }
+
   /**
    * Translate missing data to NaNs. Data must be DOUBLE or FLOAT
    *
@@ -686,6 +835,8 @@ class EnhanceScaleMissingImpl implements EnhanceScaleMissing {
    */
   private Array convertMissing(Array in) {
     if (debugRead) System.out.println("convertMissing ");
+    if (convertMissingBulk(in))
+      return in;
 
     IndexIterator iterIn = in.getIndexIterator();
     if (in.getElementType() == double.class) {
@@ -727,4 +878,4 @@ class EnhanceScaleMissingImpl implements EnhanceScaleMissing {
 
   }
 
-}
\ No newline at end of file
+}
\ No newline at end of file
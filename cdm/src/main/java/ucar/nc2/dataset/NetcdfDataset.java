@@ -282,6 +282,17 @@ public class NetcdfDataset extends ucar.nc2.NetcdfFile {
     return missingDataIsMissing;
   }
 
+  static protected java.util.concurrent.ExecutorService conversionExecutor = null;
+
+  /**
+   * Set the executor used to convert large scale/offset/missing arrays in parallel.
+   *
+   * @param exec use this to convert large arrays, or null to always convert in the calling thread (default)
+   */
+  static public void setConversionExecutor(java.util.concurrent.ExecutorService exec) {
+    conversionExecutor = exec;
+  }
+
   ////////////////////////////////////////////////////////////////////////////////////
 
   static private ucar.nc2.util.cache.FileCache fileCache = null;
@@ -0,0 +1,166 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package ucar.nc2.dataset;
+
+import ucar.nc2.constants.AxisType;
+
+import java.util.Arrays;
+import java.util.Formatter;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Canonical copies of horizontal coordinate values.
+ * The files of an FMRC or joinExisting collection usually all have the same grid, so instead of each
+ * opened dataset keeping its own x/y/lat/lon values, they share the first one seen.
+ * Values are found by a fingerprint (length and hash), and only shared if they are identical.
+ * Shared arrays must be treated as read-only, the coordinate axes only hand out copies of them.
+ * Projections are not shared, since ProjectionImpl is mutable (eg setDefaultMapArea()).
+ * Entries are kept in LRU order and evicted when the total size passes maxBytes; set maxBytes to 0 to turn it off.
+ *
+ * @since 10/19/2026
+ */
+public class SharedCoordinates {
+  static private long maxBytes = 50 * 1000 * 1000;
+
+  static private final LinkedHashMap<ValuesKey, double[]> cache = new LinkedHashMap<ValuesKey, double[]>(64, .75f, true);
+  static private long totalBytes;
+  static private int hits, misses;
+
+  /**
+   * Set the size of the cache, 0 turns it off.
+   *
+   * @param max maximum bytes of coordinate values to keep
+   */
+  static public void setMaxBytes(long max) {
+    synchronized (cache) {
+      maxBytes = max;
+      evict();
+    }
+  }
+
+  static public boolean isEnabled() {
+    return maxBytes > 0;
+  }
+
+  /**
+   * Is this a horizontal axis, whose values are worth sharing?
+   *
+   * @param type axis type, may be null
+   * @return true for GeoX, GeoY, Lat, Lon
+   */
+  static public boolean isHoriz(AxisType type) {
+    return (type == AxisType.GeoX) || (type == AxisType.GeoY) || (type == AxisType.Lat) || (type == AxisType.Lon);
+  }
+
+  /**
+   * Get the canonical copy of these values.
+   *
+   * @param values coordinate values, not changed afterwards by the caller
+   * @return identical values, possibly the same array
+   */
+  static public double[] share(double[] values) {
+    if (values == null || maxBytes <= 0) return values;
+    ValuesKey key = new ValuesKey(values);
+    synchronized (cache) {
+      double[] have = cache.get(key);
+      if (have != null) {
+        hits++;
+        return have;
+      }
+      misses++;
+      put(key, values);
+    }
+    return values;
+  }
+
+  static public void clear() {
+    synchronized (cache) {
+      cache.clear();
+      totalBytes = 0;
+    }
+  }
+
+  static public void showStats(Formatter f) {
+    synchronized (cache) {
+      f.format("SharedCoordinates: %d entries, %d bytes (max %d), hits=%d misses=%d%n", cache.size(), totalBytes, maxBytes, hits, misses);
+    }
+  }
+
+  // must hold lock
+  static private void put(ValuesKey key, double[] values) {
+    long size = sizeOf(values);
+    if (size > maxBytes) return;
+    double[] old = cache.put(key, values);
+    if (old != null) totalBytes -= sizeOf(old);
+    totalBytes += size;
+    evict();
+  }
+
+  // must hold lock
+  static private void evict() {
+    Iterator<double[]> iter = cache.values().iterator();
+    while (totalBytes > maxBytes && iter.hasNext()) {
+      totalBytes -= sizeOf(iter.next());
+      iter.remove();
+    }
+  }
+
+  static private long sizeOf(double[] values) {
+    return 8L * values.length;
+  }
+
+  static private class ValuesKey {
+    final double[] values;
+    final int hash;
+
+    ValuesKey(double[] values) {
+      this.values = values;
+      this.hash = Arrays.hashCode(values);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof ValuesKey)) return false;
+      ValuesKey other = (ValuesKey) o;
+      return hash == other.hash && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -37,11 +37,18 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import ucar.ma2.Array;
+import ucar.ma2.InvalidRangeException;
+import ucar.ma2.Range;
+import ucar.nc2.Dimension;
+import ucar.nc2.dataset.CoordinateAxis;
 import ucar.nc2.dataset.CoordinateAxis1D;
 import ucar.nc2.dataset.CoordinateAxis1DTime;
 import ucar.nc2.dt.GridCoordSystem;
@@ -49,16 +56,54 @@ import ucar.nc2.dt.GridDatatype;
 import ucar.nc2.time.CalendarDate;
 import ucar.unidata.geoloc.EarthLocation;
 import ucar.unidata.geoloc.LatLonPoint;
+import ucar.unidata.geoloc.ProjectionPoint;
 
 /**
  * Add Point operations to a GridDataset.
+ * <p/>
+ * Use readColumn() to read all times and levels at a point with one read. Callers that loop over times and levels
+ * at the same point should use getColumn() and getPoint(), which read each grid once per point and ensemble member.
+ * Callers that use readData() can instead turn on setColumnCache(), so that when a grid is asked for the same
+ * point a second time, its column is read at once and later values come from memory.
+ * An instance is meant to be used for one request, and is not thread safe.
  *
  * @author caron
  */
 public class GridAsPointDataset {
+  static private int maxColumnSize = 1000 * 1000;
+
+  /**
+   * Set the maximum number of values in a column (times x levels) that is read at once.
+   * readColumn() rejects larger columns, and the column cache reads them one value at a time.
+   * @param max maximum number of values
+   */
+  static public void setMaxColumnSize(int max) {
+    maxColumnSize = max;
+  }
+
+  static private int maxSectionSize = 1000;
+
+  /**
+   * Set the maximum number of grid points in one section read, when reading many points at once.
+   * Locations further apart than this are read separately, so keep it small.
+   * @param max maximum number of grid points
+   */
+  static public void setMaxSectionSize(int max) {
+    maxSectionSize = max;
+  }
+
+  /**
+   * How to find the value at a location between grid points.
+   */
+  public enum Interpolation {
+    nearest, bilinear
+  }
+
   private List<GridDatatype> grids;
   private List<CalendarDate> dates;
-  
+  private Map<GridDatatype, Column> columns; // last point asked for, for each grid; null unless the cache is on
+  private Map<GridDatatype, Column[]> pointColumns = new HashMap<GridDatatype, Column[]>(); // last getColumn(), for each grid and ensemble member
+
 
   public GridAsPointDataset( List<GridDatatype> grids) {
     this.grids = grids;
@@ -89,6 +134,15 @@ public class GridAsPointDataset {
 
   public List<CalendarDate> getDates() { return dates; }
 
+  /**
+   * Cache the column of the last point asked for, for each grid, in readData(). Off by default, since it is only
+   * worth it when most of the times and levels at a point are going to be read.
+   * @param useCache true to turn on the cache
+   */
+  public void setColumnCache(boolean useCache) {
+    columns = useCache ? new HashMap<GridDatatype, Column>() : null;
+  }
+
   public boolean hasTime( GridDatatype grid, CalendarDate date) {
     GridCoordSystem gcs = grid.getCoordinateSystem();
     CoordinateAxis1DTime timeAxis = gcs.getTimeAxis1D();
@@ -115,15 +169,13 @@ public class GridAsPointDataset {
     //int[] xy = gcs.findXYindexFromLatLonBounded(lat, lon, null);
     int[] xy = gcs.findXYindexFromLatLon(lat, lon, null);
 
-    Array data  = grid.readDataSlice(tidx, -1, xy[1], xy[0]);
-
     // use actual grid midpoint
     LatLonPoint latlon = gcs.getLatLon(xy[0], xy[1]);
 
     Point p = new Point();
     p.lat = latlon.getLatitude();
     p.lon = latlon.getLongitude();
-    p.dataValue = data.getDouble( data.getIndex());
+    p.dataValue = readValue(grid, 0, tidx, -1, xy[1], xy[0]);
     return p;
   }
 
@@ -149,8 +201,6 @@ public class GridAsPointDataset {
 
     int[] xy = gcs.findXYindexFromLatLon(lat, lon, null);
 
-    Array data  = grid.readDataSlice(tidx, zidx, xy[1], xy[0]);
-    
     // use actual grid midpoint
     LatLonPoint latlon = gcs.getLatLon(xy[0], xy[1]);
 
@@ -158,7 +208,7 @@ public class GridAsPointDataset {
     p.lat = latlon.getLatitude();
     p.lon = latlon.getLongitude();
     p.z = zAxis.getCoordValue( zidx);
-    p.dataValue = data.getDouble( data.getIndex());
+    p.dataValue = readValue(grid, 0, tidx, zidx, xy[1], xy[0]);
     return p;
   }
   
@@ -207,8 +257,6 @@ public class GridAsPointDataset {
 	    int[] xy = gcs.findXYindexFromLatLon(lat, lon, null);
 
 	    //Array data  = grid.readDataSlice(tidx, zidx, xy[1], xy[0]);
-	    Array data  = grid.readDataSlice(0, eidx, tidx, zidx, xy[1], xy[0]);
-	    
 	    // use actual grid midpoint
 	    LatLonPoint latlon = gcs.getLatLon(xy[0], xy[1]);
 
@@ -216,7 +264,7 @@ public class GridAsPointDataset {
 	    p.lat = latlon.getLatitude();
 	    p.lon = latlon.getLongitude();	    
 	    
-	    p.dataValue = data.getDouble( data.getIndex());
+	    p.dataValue = readValue(grid, eidx, tidx, zidx, xy[1], xy[0]);
 	    return p;
 	  }  
   
@@ -258,8 +306,7 @@ public class GridAsPointDataset {
 		    p.z = zAxis.getCoordValue( zidx);
 	  }
 	  
-	  Array data = grid.readDataSlice(tidx, zidx, xy[1], xy[0]);	  	  
-	  p.dataValue = data.getDouble( data.getIndex());
+	  p.dataValue = readValue(grid, 0, tidx, zidx, xy[1], xy[0]);
 	  
 	  return p;
   }
@@ -267,6 +314,404 @@ public class GridAsPointDataset {
   public class Point {
     public double lat,lon,z,ens,dataValue;
   }
+
+  /**
+   * All times and levels of a grid at one grid point.
+   */
+  public class Column {
+    public final double lat, lon; // the grid point
+    private final GridDatatype grid;
+    private final int eidx, y, x;
+    private final int ntimes, nlevels;
+    private double[] values; // [time][level], null until read
+    private double ens; // ensemble coordinate, set by getColumn()
+
+    private Column(GridDatatype grid, int eidx, int y, int x) {
+      this.grid = grid;
+      this.eidx = eidx;
+      this.y = y;
+      this.x = x;
+      this.ntimes = length(grid.getTimeDimension());
+      this.nlevels = length(grid.getZDimension());
+      LatLonPoint latlon = grid.getCoordinateSystem().getLatLon(x, y);
+      this.lat = latlon.getLatitude();
+      this.lon = latlon.getLongitude();
+    }
+
+    private boolean isSame(int eidx, int y, int x) {
+      return this.eidx == eidx && this.y == y && this.x == x;
+    }
+
+    private void read() throws IOException {
+      Array data = grid.readDataSlice(0, eidx, -1, -1, y, x);
+      values = (double[]) data.get1DJavaArray(double.class);
+    }
+
+    public int getNumTimes() { return ntimes; }
+
+    public int getNumLevels() { return nlevels; }
+
+    /**
+     * Get a value. As in GridDatatype.readDataSlice(), an index that is not valid selects the first element.
+     * @param tidx time index
+     * @param zidx level index
+     * @return the value
+     */
+    public double getValue(int tidx, int zidx) {
+      return values[index(tidx, ntimes) * nlevels + index(zidx, nlevels)];
+    }
+  }
+
+  /**
+   * Read all times and levels of a grid at the grid point nearest to lat, lon, with one read.
+   *
+   * @param grid   read data from here
+   * @param eidx   ensemble index, or -1 for the first member
+   * @param lat    latitude
+   * @param lon    longitude
+   * @return the column
+   * @throws java.io.IOException on read error
+   * @throws IllegalArgumentException if the column has more than setMaxColumnSize() values
+   */
+  public Column readColumn(GridDatatype grid, int eidx, double lat, double lon) throws java.io.IOException {
+    int[] xy = grid.getCoordinateSystem().findXYindexFromLatLon(lat, lon, null);
+    Column col = new Column(grid, index(eidx, length(grid.getEnsembleDimension())),
+            index(xy[1], length(grid.getYDimension())), index(xy[0], length(grid.getXDimension())));
+    if ((long) col.ntimes * col.nlevels > maxColumnSize)
+      throw new IllegalArgumentException("Column of " + grid.getName() + " has " + ((long) col.ntimes * col.nlevels) +
+              " values, more than the maximum " + maxColumnSize);
+    col.read();
+    return col;
+  }
+
+  /**
+   * Get all times and levels of a grid at the grid point nearest to lat, lon, for callers that loop over the times
+   * and levels of a point. The column is read with readColumn() the first time, and kept until the same grid and
+   * ensemble member is asked for at another grid point. Columns with more than setMaxColumnSize() values are not
+   * read here, getPoint() then reads one value at a time.
+   *
+   * @param grid     read data from here
+   * @param ensCoord ensemble coordinate, or -1 for the first member
+   * @param lat      latitude
+   * @param lon      longitude
+   * @return the column, for getPoint()
+   * @throws java.io.IOException on read error
+   */
+  public Column getColumn(GridDatatype grid, double ensCoord, double lat, double lon) throws java.io.IOException {
+    GridCoordSystem gcs = grid.getCoordinateSystem();
+    int eidx = -1;
+    double ens = 0;
+    CoordinateAxis1D ensAxis = gcs.getEnsembleAxis();
+    if (ensCoord != -1 && ensAxis != null) {
+      eidx = ensAxis.findCoordElement(ensCoord);
+      ens = ensAxis.getCoordValue(eidx);
+    }
+    eidx = index(eidx, length(grid.getEnsembleDimension()));
+    int[] xy = gcs.findXYindexFromLatLon(lat, lon, null);
+    int y = index(xy[1], length(grid.getYDimension()));
+    int x = index(xy[0], length(grid.getXDimension()));
+
+    Column[] members = pointColumns.get(grid);
+    if (members == null) {
+      members = new Column[length(grid.getEnsembleDimension())];
+      pointColumns.put(grid, members);
+    }
+    Column col = members[eidx];
+    if (col == null || !col.isSame(eidx, y, x)) {
+      if ((long) length(grid.getTimeDimension()) * length(grid.getZDimension()) <= maxColumnSize)
+        col = readColumn(grid, eidx, lat, lon);
+      else
+        col = new Column(grid, eidx, y, x); // too big, getPoint() reads one value at a time
+      col.ens = ens;
+      members[eidx] = col;
+    }
+    return col;
+  }
+
+  /**
+   * Get the value of a column at one time and level.
+   * Same as readData(grid, date, ensCoord, zCoord, lat, lon) for the grid, ensemble member and point of the column.
+   *
+   * @param col    from getColumn()
+   * @param date   at this time, may be null if the grid has no time axis
+   * @param zCoord vertical coordinate, ignored if the grid has no vertical axis
+   * @return the grid point, vertical and ensemble coordinates, and the value
+   * @throws java.io.IOException on read error, for a column that was too big to be read at once
+   */
+  public Point getPoint(Column col, CalendarDate date, double zCoord) throws java.io.IOException {
+    GridCoordSystem gcs = col.grid.getCoordinateSystem();
+    int tidx = -1;
+    //Date may be null if the grid does not have time axis
+    if (date != null)
+      tidx = findTimeIndexForCalendarDate(gcs, date);
+
+    Point p = new Point();
+    p.lat = col.lat;
+    p.lon = col.lon;
+    p.ens = col.ens;
+    int zidx = -1;
+    CoordinateAxis1D zAxis = gcs.getVerticalAxis();
+    if (zAxis != null) {
+      zidx = zAxis.findCoordElement(zCoord);
+      if (zidx != -1)
+        p.z = zAxis.getCoordValue(zidx);
+    }
+
+    p.dataValue = (col.values != null) ? col.getValue(tidx, zidx) : readValue(col.grid, col.eidx, tidx, zidx, col.y, col.x);
+    return p;
+  }
+
+  /**
+   * Read all times and levels of a grid in the neighbourhood of a point, with one read, eg for interpolation.
+   *
+   * @param grid   read data from here
+   * @param eidx   ensemble index, or -1 for the first member
+   * @param lat    latitude
+   * @param lon    longitude
+   * @param radius number of grid points on each side of the nearest grid point, clipped to the grid
+   * @return data[t,z,y,x], with the t and z dimensions only if the grid has them
+   * @throws java.io.IOException on read error
+   */
+  public Array readNeighbourhood(GridDatatype grid, int eidx, double lat, double lon, int radius) throws java.io.IOException {
+    int[] xy = grid.getCoordinateSystem().findXYindexFromLatLon(lat, lon, null);
+    int nx = length(grid.getXDimension());
+    int ny = length(grid.getYDimension());
+    int x = index(xy[0], nx);
+    int y = index(xy[1], ny);
+    try {
+      Range yRange = new Range(Math.max(y - radius, 0), Math.min(y + radius, ny - 1));
+      Range xRange = new Range(Math.max(x - radius, 0), Math.min(x + radius, nx - 1));
+      GridDatatype subset = grid.makeSubset(null, null, null, null, yRange, xRange);
+      return subset.readDataSlice(0, index(eidx, length(grid.getEnsembleDimension())), -1, -1, -1, -1);
+    } catch (InvalidRangeException e) {
+      throw new IllegalArgumentException(e.getMessage());
+    }
+  }
+
+  /**
+   * Read a grid at many locations, at one time, level and ensemble member.
+   * The locations are sorted by grid index, and locations that are near each other share one section read.
+   *
+   * @param grid     read data from here
+   * @param date     at this time, which must be one of the grid's times. May be null if the grid has no time axis.
+   * @param ensCoord ensemble coordinate, or -1 for the first member. Ignored if the grid has no ensemble axis.
+   * @param zCoord   vertical coordinate, which must be on the vertical axis. Ignored if the grid has no vertical axis.
+   * @param points   the locations
+   * @param interp   nearest grid point, or bilinear between the 4 surrounding grid points.
+   *                 Bilinear needs 1D x and y axes, and falls back to nearest at the edges and next to missing data.
+   * @return a Point for each location, in the same order. The lat, lon is the grid point that was used, or
+   *         the location itself if interpolated. The dataValue is NaN for locations outside the grid.
+   * @throws java.io.IOException on read error
+   * @throws IllegalArgumentException if the grid has no such time, level or ensemble member
+   */
+  public List<Point> readData(GridDatatype grid, CalendarDate date, double ensCoord, double zCoord,
+                              List<LatLonPoint> points, Interpolation interp) throws java.io.IOException {
+    GridCoordSystem gcs = grid.getCoordinateSystem();
+    int tidx = -1;
+    if (date != null && gcs.getTimeAxis1D() != null) {
+      if (!hasTime(grid, date)) // findTimeIndexFromCalendarDate() would silently use the time before
+        throw new IllegalArgumentException("Grid " + grid.getName() + " has no time " + date);
+      tidx = findTimeIndexForCalendarDate(gcs, date);
+    }
+
+    List<Point> result = new ArrayList<Point>(points.size());
+    double z = 0, ens = 0;
+    int zidx = -1;
+    CoordinateAxis1D zAxis = gcs.getVerticalAxis();
+    if (zAxis != null) {
+      zidx = zAxis.findCoordElement(zCoord);
+      if (zidx < 0) // readSection() would silently use the first level
+        throw new IllegalArgumentException("Grid " + grid.getName() + " has no level " + zCoord);
+      z = zAxis.getCoordValue(zidx);
+    }
+    int eidx = -1;
+    CoordinateAxis1D ensAxis = gcs.getEnsembleAxis();
+    if (ensCoord != -1 && ensAxis != null) {
+      eidx = ensAxis.findCoordElement(ensCoord);
+      if (eidx < 0)
+        throw new IllegalArgumentException("Grid " + grid.getName() + " has no ensemble member " + ensCoord);
+      ens = ensAxis.getCoordValue(eidx);
+    }
+
+    // find the grid cells needed for each location
+    CoordinateAxis xaxis = gcs.getXHorizAxis();
+    CoordinateAxis yaxis = gcs.getYHorizAxis();
+    boolean canInterpolate = (interp == Interpolation.bilinear) &&
+            (xaxis instanceof CoordinateAxis1D) && (yaxis instanceof CoordinateAxis1D);
+    List<Cells> cells = new ArrayList<Cells>(points.size());
+    for (LatLonPoint ll : points) {
+      Point p = new Point();
+      p.z = z;
+      p.ens = ens;
+      p.dataValue = Double.NaN;
+      result.add(p);
+
+      Cells c = new Cells(p);
+      if (canInterpolate) {
+        ProjectionPoint pp = gcs.getProjection().latLonToProj(ll);
+        c.fx = findFractionalIndex((CoordinateAxis1D) xaxis, pp.getX());
+        c.fy = findFractionalIndex((CoordinateAxis1D) yaxis, pp.getY());
+      }
+
+      if (!Double.isNaN(c.fx) && !Double.isNaN(c.fy)) {
+        c.x0 = Math.min((int) c.fx, (int) xaxis.getSize() - 2);
+        c.y0 = Math.min((int) c.fy, (int) yaxis.getSize() - 2);
+        c.x1 = c.x0 + 1;
+        c.y1 = c.y0 + 1;
+        p.lat = ll.getLatitude();
+        p.lon = ll.getLongitude();
+      } else {
+        c.fx = c.fy = Double.NaN;
+        int[] xy = gcs.findXYindexFromLatLon(ll.getLatitude(), ll.getLongitude(), null);
+        if (xy[0] < 0 || xy[1] < 0) {  // outside the grid
+          p.lat = ll.getLatitude();
+          p.lon = ll.getLongitude();
+          continue;
+        }
+        c.x0 = c.x1 = xy[0];
+        c.y0 = c.y1 = xy[1];
+        LatLonPoint latlon = gcs.getLatLon(xy[0], xy[1]);
+        p.lat = latlon.getLatitude();
+        p.lon = latlon.getLongitude();
+      }
+      cells.add(c);
+    }
+
+    // sort by grid index, then read runs of nearby cells in one section
+    Collections.sort(cells, new Comparator<Cells>() {
+      public int compare(Cells o1, Cells o2) {
+        if (o1.y0 != o2.y0) return o1.y0 - o2.y0;
+        return o1.x0 - o2.x0;
+      }
+    });
+
+    int start = 0;
+    while (start < cells.size()) {
+      Cells first = cells.get(start);
+      int ymin = first.y0, ymax = first.y1, xmin = first.x0, xmax = first.x1;
+      int end = start + 1;
+      while (end < cells.size()) {
+        Cells c = cells.get(end);
+        int nymax = Math.max(ymax, c.y1), nxmin = Math.min(xmin, c.x0), nxmax = Math.max(xmax, c.x1);
+        if ((long) (nymax - ymin + 1) * (nxmax - nxmin + 1) > maxSectionSize) break;
+        ymax = nymax;
+        xmin = nxmin;
+        xmax = nxmax;
+        end++;
+      }
+      readSection(grid, eidx, tidx, zidx, ymin, ymax, xmin, xmax, cells.subList(start, end));
+      start = end;
+    }
+
+    return result;
+  }
+
+  // the grid cells needed for one location
+  private class Cells {
+    Point p;
+    int y0, x0, y1, x1;
+    double fy = Double.NaN, fx = Double.NaN; // fractional index, when interpolating
+
+    Cells(Point p) {
+      this.p = p;
+    }
+  }
+
+  private void readSection(GridDatatype grid, int eidx, int tidx, int zidx, int ymin, int ymax, int xmin, int xmax,
+                           List<Cells> cells) throws java.io.IOException {
+    Array data;
+    try {
+      Range tRange = (grid.getTimeDimension() == null) ? null : new Range(index(tidx, length(grid.getTimeDimension())), index(tidx, length(grid.getTimeDimension())));
+      Range zRange = (grid.getZDimension() == null) ? null : new Range(index(zidx, length(grid.getZDimension())), index(zidx, length(grid.getZDimension())));
+      GridDatatype subset = grid.makeSubset(null, null, tRange, zRange, new Range(ymin, ymax), new Range(xmin, xmax));
+      data = subset.readDataSlice(0, index(eidx, length(grid.getEnsembleDimension())), 0, 0, -1, -1);
+    } catch (InvalidRangeException e) {
+      throw new IllegalStateException(e.getMessage());
+    }
+
+    ucar.ma2.Index ima = data.getIndex();
+    for (Cells c : cells) {
+      double v00 = data.getDouble(ima.set(c.y0 - ymin, c.x0 - xmin));
+      if (Double.isNaN(c.fx)) {
+        c.p.dataValue = v00;
+        continue;
+      }
+
+      double v01 = data.getDouble(ima.set(c.y0 - ymin, c.x1 - xmin));
+      double v10 = data.getDouble(ima.set(c.y1 - ymin, c.x0 - xmin));
+      double v11 = data.getDouble(ima.set(c.y1 - ymin, c.x1 - xmin));
+      if (isMissing(grid, v00) || isMissing(grid, v01) || isMissing(grid, v10) || isMissing(grid, v11)) {
+        // use the nearest of the 4
+        int y = (c.fy - c.y0 < 0.5) ? c.y0 : c.y1;
+        int x = (c.fx - c.x0 < 0.5) ? c.x0 : c.x1;
+        c.p.dataValue = data.getDouble(ima.set(y - ymin, x - xmin));
+        LatLonPoint latlon = grid.getCoordinateSystem().getLatLon(x, y);
+        c.p.lat = latlon.getLatitude();
+        c.p.lon = latlon.getLongitude();
+        continue;
+      }
+
+      double wx = c.fx - c.x0;
+      double wy = c.fy - c.y0;
+      c.p.dataValue = (1 - wy) * ((1 - wx) * v00 + wx * v01) + wy * ((1 - wx) * v10 + wx * v11);
+    }
+  }
+
+  static private boolean isMissing(GridDatatype grid, double val) {
+    return Double.isNaN(val) || (grid.hasMissingData() && grid.isMissingData(val));
+  }
+
+  // fractional index of a coordinate value between the first and last coordinates, or NaN if outside
+  static private double findFractionalIndex(CoordinateAxis1D axis, double val) {
+    int n = (int) axis.getSize();
+    if (n < 2) return Double.NaN;
+    double[] coords = axis.getCoordValues();
+    boolean ascending = coords[n - 1] > coords[0];
+    if (ascending ? (val < coords[0] || val > coords[n - 1]) : (val > coords[0] || val < coords[n - 1]))
+      return Double.NaN;
+
+    int lo = 0, hi = n - 1; // val is between coords[lo] and coords[hi]
+    while (hi - lo > 1) {
+      int mid = (lo + hi) >>> 1;
+      if (ascending ? coords[mid] <= val : coords[mid] >= val)
+        lo = mid;
+      else
+        hi = mid;
+    }
+    return lo + (val - coords[lo]) / (coords[hi] - coords[lo]);
+  }
+
+  // read one value, from the column of this grid if the cache is on and it has been asked for before
+  private double readValue(GridDatatype grid, int eidx, int tidx, int zidx, int y, int x) throws java.io.IOException {
+    eidx = index(eidx, length(grid.getEnsembleDimension()));
+    y = index(y, length(grid.getYDimension()));
+    x = index(x, length(grid.getXDimension()));
+
+    if (columns != null) {
+      Column col = columns.get(grid);
+      if (col != null && col.isSame(eidx, y, x)) {
+        if (col.values == null && (long) col.ntimes * col.nlevels <= maxColumnSize)
+          col.read(); // second time at this point
+        if (col.values != null)
+          return col.getValue(tidx, zidx);
+      } else {
+        columns.put(grid, new Column(grid, eidx, y, x));
+      }
+    }
+
+    Array data = grid.readDataSlice(0, eidx, index(tidx, length(grid.getTimeDimension())),
+            index(zidx, length(grid.getZDimension())), y, x);
+    return data.getDouble(data.getIndex());
+  }
+
+  static private int length(Dimension dim) {
+    return (dim == null) ? 1 : dim.getLength();
+  }
+
+  // an index that is not valid means the first element, as in readDataSlice()
+  static private int index(int idx, int len) {
+    return (idx >= 0 && idx < len) ? idx : 0;
+  }
   
   private int findTimeIndexForCalendarDate(GridCoordSystem gcs, CalendarDate date){	  
 	  
@@ -37,6 +37,7 @@ import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import ucar.ma2.Array;
 import ucar.ma2.DataType;
@@ -80,6 +81,20 @@ import ucar.unidata.util.Parameter;
 public class NetcdfCFWriter {
 	static private final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(NetcdfCFWriter.class);
 
+	// experimental multithreading
+	static private Executor executor;
+	static private long maxPendingBytes;
+
+	/**
+	 * Read the grids concurrently while writing the file, see FileWriter2.setExecutor().
+	 * @param exec            run the reads here, or null to read and write sequentially (default)
+	 * @param maxPending      maximum bytes read but not yet written
+	 */
+	static public void setExecutor(Executor exec, long maxPending) {
+		executor = exec;
+		maxPendingBytes = maxPending;
+	}
+
 	/**
 	 * Write a netcdf-3 file from a subset of a grid dataset
 	 * @param location write new file
@@ -304,6 +319,8 @@ public class NetcdfCFWriter {
 
 		// use fileWriter to copy the variables
 		FileWriter2 fileWriter = new FileWriter2(writer);
+		if (executor != null)
+			fileWriter.setExecutor(executor, maxPendingBytes);
 		for (Variable v : varList)
 			fileWriter.addVariable(v);
 
@@ -458,6 +475,8 @@ public class NetcdfCFWriter {
 
 		// use fileWriter to copy the variables
 		FileWriter2 fileWriter = new FileWriter2(writer);
+		if (executor != null)
+			fileWriter.setExecutor(executor, maxPendingBytes);
 		for (Variable v : varList)
 			fileWriter.addVariable(v);
 
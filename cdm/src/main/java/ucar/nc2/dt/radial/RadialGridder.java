@@ -0,0 +1,440 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package ucar.nc2.dt.radial;
+
+import ucar.ma2.Array;
+import ucar.ma2.DataType;
+import ucar.nc2.Attribute;
+import ucar.nc2.Dimension;
+import ucar.nc2.VariableSimpleIF;
+import ucar.nc2.constants.AxisType;
+import ucar.nc2.constants.CDM;
+import ucar.nc2.constants._Coordinate;
+import ucar.nc2.dataset.NetcdfDataset;
+import ucar.nc2.dataset.VariableDS;
+import ucar.nc2.dt.RadialDatasetSweep;
+import ucar.nc2.dt.grid.GridDataset;
+import ucar.nc2.units.DateFormatter;
+import ucar.unidata.geoloc.EarthLocation;
+import ucar.unidata.geoloc.LatLonRect;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Regrid radar sweeps onto a regular lat/lon grid, nearest gate.
+ * <p>
+ * For each (site, elevation, gate geometry, grid) a lookup table is made once that lists, for each
+ * azimuth bin, the grid cells it covers and the gate that lands in each cell. Filling a grid is then
+ * a copy along each ray, and rays cover disjoint cells so they can be filled in parallel.
+ * The tables are kept in an LRU cache, since a site scans the same elevations volume after volume.
+ *
+ * @since 10/19/2026
+ */
+public class RadialGridder {
+  static private final double EARTH_RADIUS = 6371229.0; // meters
+  static private final double BEAM_EARTH_RADIUS = EARTH_RADIUS * 4.0 / 3.0; // standard refraction
+  static private final double BIN = 0.5; // azimuth bin in degrees
+  static private final int NBINS = (int) (360 / BIN);
+
+  static private int maxTables = 50;
+  static private final LinkedHashMap<String, Table> tables = new LinkedHashMap<String, Table>(100, .75f, true) {
+    protected boolean removeEldestEntry(Map.Entry<String, Table> eldest) {
+      return size() > maxTables;
+    }
+  };
+
+  static private Executor executor;
+  static private int ntasks = 1;
+
+  /**
+   * Fill grids in parallel.
+   *
+   * @param exec   run the tasks here, null to fill in the calling thread
+   * @param ntasks split each grid into this many tasks
+   */
+  static public void setExecutor(Executor exec, int ntasks) {
+    executor = exec;
+    RadialGridder.ntasks = Math.max(1, ntasks);
+  }
+
+  /**
+   * Number of lookup tables to keep.
+   *
+   * @param max maximum number of tables
+   */
+  static public void setMaxTables(int max) {
+    synchronized (tables) {
+      maxTables = max;
+      Iterator<Table> iter = tables.values().iterator();
+      while (tables.size() > maxTables && iter.hasNext()) {
+        iter.next();
+        iter.remove();
+      }
+    }
+  }
+
+  static public int getNumTables() {
+    synchronized (tables) {
+      return tables.size();
+    }
+  }
+
+  /**
+   * A regular lat/lon grid: cell centers start at (startLat, startLon) and increase by (incLat, incLon).
+   */
+  static public class GridDef {
+    public final double startLat, startLon, incLat, incLon;
+    public final int nlat, nlon;
+
+    public GridDef(double startLat, double startLon, double incLat, double incLon, int nlat, int nlon) {
+      this.startLat = startLat;
+      this.startLon = startLon;
+      this.incLat = incLat;
+      this.incLon = incLon;
+      this.nlat = nlat;
+      this.nlon = nlon;
+    }
+
+    /**
+     * Grid of nlat by nlon cells covering the bounding box.
+     *
+     * @param bb   bounding box
+     * @param nlat number of cells in latitude
+     * @param nlon number of cells in longitude
+     */
+    public GridDef(LatLonRect bb, int nlat, int nlon) {
+      this(bb.getLatMin() + bb.getHeight() / nlat / 2, bb.getLonMin() + bb.getWidth() / nlon / 2,
+              bb.getHeight() / nlat, bb.getWidth() / nlon, nlat, nlon);
+    }
+
+    public double getLat(int j) {
+      return startLat + j * incLat;
+    }
+
+    public double getLon(int i) {
+      return startLon + i * incLon;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof GridDef)) return false;
+      GridDef that = (GridDef) o;
+      return startLat == that.startLat && startLon == that.startLon && incLat == that.incLat &&
+              incLon == that.incLon && nlat == that.nlat && nlon == that.nlon;
+    }
+
+    @Override
+    public int hashCode() {
+      return toString().hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return startLat + "," + startLon + "," + incLat + "," + incLon + "," + nlat + "," + nlon;
+    }
+  }
+
+  // cells and gates of each azimuth bin, as compressed rows
+  static class Table {
+    final int[] binStart = new int[NBINS + 1];
+    int[] cell;
+    int[] gate;
+
+    int getNumCells() {
+      return binStart[NBINS];
+    }
+  }
+
+  /**
+   * Get the lookup table, make it if not cached.
+   *
+   * @param lat       radar latitude
+   * @param lon       radar longitude
+   * @param elevation beam elevation angle in degrees
+   * @param firstGate range to first gate in meters
+   * @param gateSize  gate size in meters
+   * @param ngates    number of gates
+   * @param def       target grid
+   * @return lookup table
+   */
+  static Table getTable(double lat, double lon, double elevation, double firstGate, double gateSize, int ngates, GridDef def) {
+    String key = String.format("%.4f,%.4f,%.2f,%.1f,%.1f,%d,%s", lat, lon, elevation, firstGate, gateSize, ngates, def);
+    synchronized (tables) {
+      Table table = tables.get(key);
+      if (table != null) return table;
+    }
+    Table table = makeTable(lat, lon, elevation, firstGate, gateSize, ngates, def);
+    synchronized (tables) {
+      tables.put(key, table);
+    }
+    return table;
+  }
+
+  static Table makeTable(double lat, double lon, double elevation, double firstGate, double gateSize, int ngates, GridDef def) {
+    int ncells = def.nlat * def.nlon;
+    int[] cellBin = new int[ncells];
+    int[] cellGate = new int[ncells];
+    Table table = new Table();
+    int[] count = new int[NBINS];
+
+    double lat0 = Math.toRadians(lat);
+    double sinLat0 = Math.sin(lat0);
+    double cosLat0 = Math.cos(lat0);
+    double theta = Math.toRadians(elevation);
+
+    int idx = 0;
+    for (int j = 0; j < def.nlat; j++) {
+      double lat1 = Math.toRadians(def.getLat(j));
+      double sinLat1 = Math.sin(lat1);
+      double cosLat1 = Math.cos(lat1);
+
+      for (int i = 0; i < def.nlon; i++, idx++) {
+        cellBin[idx] = -1;
+        double dlon = Math.toRadians(def.getLon(i) - lon);
+
+        // great circle distance (haversine) and initial bearing, spherical earth is good enough at radar ranges
+        double sinHalfLat = Math.sin((lat1 - lat0) / 2);
+        double sinHalfLon = Math.sin(dlon / 2);
+        double a = sinHalfLat * sinHalfLat + cosLat0 * cosLat1 * sinHalfLon * sinHalfLon;
+        double dist = 2 * EARTH_RADIUS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+        double azimuth = Math.toDegrees(Math.atan2(Math.sin(dlon) * cosLat1, cosLat0 * sinLat1 - sinLat0 * cosLat1 * Math.cos(dlon)));
+        if (azimuth < 0) azimuth += 360;
+
+        // slant range of the beam above this ground distance
+        double phi = dist / BEAM_EARTH_RADIUS;
+        if (theta + phi >= Math.PI / 2) continue;
+        double range = BEAM_EARTH_RADIUS * Math.sin(phi) / Math.cos(theta + phi);
+        int gate = (int) Math.floor((range - firstGate) / gateSize);
+        if (gate < 0 || gate >= ngates) continue;
+
+        int bin = ((int) (azimuth / BIN)) % NBINS;
+        cellBin[idx] = bin;
+        cellGate[idx] = gate;
+        count[bin]++;
+      }
+    }
+
+    for (int b = 0; b < NBINS; b++)
+      table.binStart[b + 1] = table.binStart[b] + count[b];
+    table.cell = new int[table.binStart[NBINS]];
+    table.gate = new int[table.binStart[NBINS]];
+    int[] next = new int[NBINS];
+    System.arraycopy(table.binStart, 0, next, 0, NBINS);
+    for (int c = 0; c < ncells; c++) {
+      int bin = cellBin[c];
+      if (bin < 0) continue;
+      int k = next[bin]++;
+      table.cell[k] = c;
+      table.gate[k] = cellGate[c];
+    }
+    return table;
+  }
+
+  /**
+   * For each azimuth bin, the nearest ray within half a ray spacing, or -1.
+   *
+   * @param azimuths azimuth of each ray, NaN if missing
+   * @param nrays    number of rays to use
+   * @return ray index for each bin
+   */
+  static int[] makeAzimuthMap(float[] azimuths, int nrays) {
+    int[] map = new int[NBINS];
+    float[] diff = new float[NBINS];
+    Arrays.fill(map, -1);
+    Arrays.fill(diff, Float.MAX_VALUE);
+
+    int nvalid = 0;
+    for (int r = 0; r < nrays; r++)
+      if (!Float.isNaN(azimuths[r])) nvalid++;
+    if (nvalid == 0) return map;
+    double halfWidth = 180.0 / nvalid;
+
+    for (int r = 0; r < nrays; r++) {
+      float az = azimuths[r];
+      if (Float.isNaN(az)) continue;
+      int first = (int) Math.floor((az - halfWidth) / BIN);
+      int last = (int) Math.floor((az + halfWidth) / BIN);
+      for (int b = first; b <= last; b++) {
+        int bin = ((b % NBINS) + NBINS) % NBINS;
+        double center = (b + 0.5) * BIN;
+        float d = (float) Math.abs(center - az);
+        if (d <= halfWidth + BIN / 2 && d < diff[bin]) {
+          diff[bin] = d;
+          map[bin] = r;
+        }
+      }
+    }
+    return map;
+  }
+
+  /**
+   * Regrid one sweep.
+   *
+   * @param sweep  the sweep
+   * @param origin radar location
+   * @param def    target grid
+   * @return values on the grid, (lat, lon) order, NaN where there is no data
+   * @throws IOException on read error
+   */
+  static public float[] gridSweep(RadialDatasetSweep.Sweep sweep, EarthLocation origin, GridDef def) throws IOException {
+    final int ngates = sweep.getGateNumber();
+    final float[] result = new float[def.nlat * def.nlon];
+    Arrays.fill(result, Float.NaN);
+    if (ngates == 0) return result;
+
+    final float[] data = sweep.readData();
+    float[] azimuths = sweep.getAzimuth();
+    int nrays = Math.min(data.length / ngates, azimuths.length);
+
+    final Table table = getTable(origin.getLatitude(), origin.getLongitude(), sweep.getMeanElevation(),
+            sweep.getRangeToFirstGate(), sweep.getGateSize(), ngates, def);
+    final int[] rayOfBin = makeAzimuthMap(azimuths, nrays);
+
+    int n = (executor == null) ? 1 : Math.min(ntasks, NBINS);
+    List<FutureTask<Object>> tasks = new ArrayList<FutureTask<Object>>(n);
+    for (int t = 1; t < n; t++) {
+      final int start = t * NBINS / n;
+      final int end = (t + 1) * NBINS / n;
+      FutureTask<Object> task = new FutureTask<Object>(new Runnable() {
+        public void run() {
+          fill(table, rayOfBin, data, ngates, start, end, result);
+        }
+      }, null);
+      tasks.add(task);
+      executor.execute(task);
+    }
+    fill(table, rayOfBin, data, ngates, 0, NBINS / n, result);
+
+    try {
+      for (FutureTask<Object> task : tasks)
+        task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("interrupted while gridding sweep");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) throw (IOException) cause;
+      throw new IOException(cause.getMessage(), cause);
+    }
+    return result;
+  }
+
+  // copy the gates of bins [start, end) into the grid
+  static private void fill(Table table, int[] rayOfBin, float[] data, int ngates, int start, int end, float[] result) {
+    for (int b = start; b < end; b++) {
+      int ray = rayOfBin[b];
+      if (ray < 0) continue;
+      int base = ray * ngates;
+      for (int k = table.binStart[b]; k < table.binStart[b + 1]; k++)
+        result[table.cell[k]] = data[base + table.gate[k]];
+    }
+  }
+
+  /**
+   * Regrid one sweep of some radial variables, and wrap the result as a GridDataset.
+   *
+   * @param rds      radial dataset
+   * @param varNames names of radial variables, null for all
+   * @param sweepNum which sweep of each variable
+   * @param def      target grid
+   * @return GridDataset with a (time, lat, lon) grid for each variable that has the sweep
+   * @throws IOException on read error
+   */
+  static public GridDataset makeGridDataset(RadialDatasetSweep rds, List<String> varNames, int sweepNum, GridDef def) throws IOException {
+    List<RadialDatasetSweep.RadialVariable> vars = new ArrayList<RadialDatasetSweep.RadialVariable>();
+    if (varNames == null) {
+      for (VariableSimpleIF v : rds.getDataVariables())
+        vars.add((RadialDatasetSweep.RadialVariable) v);
+    } else {
+      for (String name : varNames) {
+        VariableSimpleIF v = rds.getDataVariable(name);
+        if (v == null) throw new IllegalArgumentException("No radial variable " + name);
+        vars.add((RadialDatasetSweep.RadialVariable) v);
+      }
+    }
+
+    NetcdfDataset ncd = new NetcdfDataset();
+    ncd.setLocation(rds.getLocationURI() + "#sweep" + sweepNum);
+    ncd.addAttribute(null, new Attribute(CDM.CONVENTIONS, "CF-1.0"));
+    ncd.addAttribute(null, new Attribute(CDM.HISTORY, "Regridded from radial dataset " + rds.getLocationURI()));
+    if (rds.getRadarID() != null)
+      ncd.addAttribute(null, new Attribute("Station", rds.getRadarID()));
+
+    ncd.addDimension(null, new Dimension("time", 1));
+    ncd.addDimension(null, new Dimension("lat", def.nlat));
+    ncd.addDimension(null, new Dimension("lon", def.nlon));
+
+    VariableDS latVar = new VariableDS(ncd, null, null, "lat", DataType.FLOAT, "lat", "degrees_north", "latitude");
+    latVar.addAttribute(new Attribute(_Coordinate.AxisType, AxisType.Lat.toString()));
+    latVar.setCachedData(Array.makeArray(DataType.FLOAT, def.nlat, def.startLat, def.incLat), false);
+    ncd.addVariable(null, latVar);
+
+    VariableDS lonVar = new VariableDS(ncd, null, null, "lon", DataType.FLOAT, "lon", "degrees_east", "longitude");
+    lonVar.addAttribute(new Attribute(_Coordinate.AxisType, AxisType.Lon.toString()));
+    lonVar.setCachedData(Array.makeArray(DataType.FLOAT, def.nlon, def.startLon, def.incLon), false);
+    ncd.addVariable(null, lonVar);
+
+    EarthLocation origin = rds.getCommonOrigin();
+    Date base = null;
+    for (RadialDatasetSweep.RadialVariable rv : vars) {
+      if (sweepNum >= rv.getNumSweeps()) continue;
+      RadialDatasetSweep.Sweep sweep = rv.getSweep(sweepNum);
+      if (base == null) base = sweep.getStartingTime();
+      EarthLocation o = (origin != null) ? origin : sweep.getOrigin(0);
+      float[] values = gridSweep(sweep, o, def);
+
+      VariableDS v = new VariableDS(ncd, null, null, rv.getShortName(), DataType.FLOAT, "time lat lon",
+              rv.getUnitsString(), rv.getDescription());
+      v.addAttribute(new Attribute(CDM.MISSING_VALUE, Float.NaN));
+      v.addAttribute(new Attribute("elevation_angle", sweep.getMeanElevation()));
+      v.setCachedData(Array.factory(DataType.FLOAT, new int[]{1, def.nlat, def.nlon}, values), false);
+      ncd.addVariable(null, v);
+    }
+
+    if (base == null) base = rds.getStartDate();
+    VariableDS timeVar = new VariableDS(ncd, null, null, "time", DataType.DOUBLE, "time",
+            "seconds since " + new DateFormatter().toDateTimeStringISO(base), "start of sweep");
+    timeVar.addAttribute(new Attribute(_Coordinate.AxisType, AxisType.Time.toString()));
+    timeVar.setCachedData(Array.factory(DataType.DOUBLE, new int[]{1}, new double[]{0.0}), false);
+    ncd.addVariable(null, timeVar);
+
+    ncd.finish();
+    return new GridDataset(ncd);
+  }
+}
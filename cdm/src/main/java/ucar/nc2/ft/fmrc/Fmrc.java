@@ -42,6 +42,9 @@ import ucar.nc2.time.CalendarDate;
 import ucar.nc2.time.CalendarDateRange;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import java.io.IOException;
 
 /**
@@ -62,6 +65,20 @@ import java.io.IOException;
 public class Fmrc {
   static private org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(Fmrc.class);
 
+  static private Executor executor;
+  static private int ntasks = 1;
+
+  /**
+   * Make the inventory of new files in parallel.
+   *
+   * @param exec   run the tasks here, null to make them in the calling thread
+   * @param ntasks split the new files into this many tasks
+   */
+  static public void setExecutor(Executor exec, int ntasks) {
+    executor = exec;
+    Fmrc.ntasks = Math.max(1, ntasks);
+  }
+
   /**
    * Factory method
    *
@@ -117,6 +134,19 @@ public class Fmrc {
   private volatile long lastInvChanged;
   private volatile long lastProtoChanged;
 
+  // inventory of each file by path, reused by the next update if the file has not changed
+  private final Map<String, FileInv> invCache = new HashMap<String, FileInv>();
+
+  private static class FileInv {
+    final long lastModified;
+    final GridDatasetInv inv;
+
+    FileInv(long lastModified, GridDatasetInv inv) {
+      this.lastModified = lastModified;
+      this.inv = inv;
+    }
+  }
+
   private Fmrc(String collectionSpec, Formatter errlog) throws IOException {
     this.manager = MFileCollectionManager.open(collectionSpec, null, errlog);
     this.config = new FeatureCollectionConfig();
@@ -291,17 +321,15 @@ public class Fmrc {
       List<FmrInv> fmrList = new ArrayList<FmrInv>(); // an fmrc is a collection of fmr
 
       // get the inventory, sorted by path
-      for (MFile f : manager.getFiles()) {
-        if (logger.isDebugEnabled())
-          logger.debug("Fmrc: "+config.spec+": file="+f.getPath());
+      List<MFile> files = new ArrayList<MFile>();
+      for (MFile f : manager.getFiles())
+        files.add(f);
+      GridDatasetInv[] invs = getInventories(files);
 
-        GridDatasetInv inv = null;
-        try {
-          inv = GridDatasetInv.open(manager, f, config.innerNcml); // inventory is discovered for each GDS
-        } catch (IOException ioe) {
-          logger.warn("Error opening " + f.getPath() + "(skipped)", ioe);
-          continue; // skip
-        }
+      for (int i = 0; i < files.size(); i++) {
+        MFile f = files.get(i);
+        GridDatasetInv inv = invs[i];
+        if (inv == null) continue; // skip
 
         CalendarDate runDate = inv.getRunDate();
         if (debug != null) debug.format("  opened %s rundate = %s%n", f.getPath(), inv.getRunDateString());
@@ -333,6 +361,77 @@ public class Fmrc {
     }
   }
 
+  // get the inventory of each file, only opening new or changed files
+  private GridDatasetInv[] getInventories(List<MFile> files) throws IOException {
+    final GridDatasetInv[] invs = new GridDatasetInv[files.size()];
+    final List<MFile> newFiles = new ArrayList<MFile>();
+    final List<Integer> newIndex = new ArrayList<Integer>();
+
+    synchronized (invCache) {
+      for (int i = 0; i < files.size(); i++) {
+        MFile f = files.get(i);
+        FileInv have = invCache.get(f.getPath());
+        if (have != null && have.lastModified == f.getLastModified()) {
+          invs[i] = have.inv;
+        } else {
+          newFiles.add(f);
+          newIndex.add(i);
+        }
+      }
+    }
+
+    int n = (executor == null) ? 1 : Math.min(ntasks, newFiles.size());
+    List<FutureTask<Object>> tasks = new ArrayList<FutureTask<Object>>(n);
+    for (int t = 1; t < n; t++) {
+      final int start = t * newFiles.size() / n;
+      final int end = (t + 1) * newFiles.size() / n;
+      FutureTask<Object> task = new FutureTask<Object>(new Runnable() {
+        public void run() {
+          openInventories(newFiles, newIndex, start, end, invs);
+        }
+      }, null);
+      tasks.add(task);
+      executor.execute(task);
+    }
+    openInventories(newFiles, newIndex, 0, newFiles.size() / Math.max(n, 1), invs);
+
+    try {
+      for (FutureTask<Object> task : tasks)
+        task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("interrupted while making inventory");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) throw (IOException) cause;
+      throw new IOException(cause.getMessage(), cause);
+    }
+
+    // only keep the files still in the collection
+    synchronized (invCache) {
+      invCache.clear();
+      for (int i = 0; i < files.size(); i++) {
+        if (invs[i] != null)
+          invCache.put(files.get(i).getPath(), new FileInv(files.get(i).getLastModified(), invs[i]));
+      }
+    }
+    return invs;
+  }
+
+  private void openInventories(List<MFile> files, List<Integer> index, int start, int end, GridDatasetInv[] invs) {
+    for (int i = start; i < end; i++) {
+      MFile f = files.get(i);
+      if (logger.isDebugEnabled())
+        logger.debug("Fmrc: "+config.spec+": file="+f.getPath());
+
+      try {
+        invs[index.get(i)] = GridDatasetInv.open(manager, f, config.innerNcml); // inventory is discovered for each GDS
+      } catch (IOException ioe) {
+        logger.warn("Error opening " + f.getPath() + "(skipped)", ioe);
+      }
+    }
+  }
+
   public void showDetails(Formatter out) throws IOException {
     checkNeeded(false);
     fmrcDataset.showDetails(out);
@@ -63,7 +63,7 @@ import thredds.inventory.CollectionManager;
  * The data inventory of one GridDataset.
  * Track grids, time, vert, ens coordinates.
  * Grids are grouped by the time coordinated that they use.
- * Provides serialization to/from XML.
+ * Provides serialization to/from XML, and a compact binary form for the collection's metadata cache.
  * Uses dense time, vert coordinates - just the ones that are in the file.
  *
  * This replaces the older ucar.nc2.dt.fmrc.ForecastModelRunInventory, gets rid of the definition files.
@@ -85,8 +85,24 @@ public class GridDatasetInv {
   static private boolean debug = false;  // current version
 
   public static GridDatasetInv open(CollectionManager cm, MFile mfile, Element ncml) throws IOException {
+    CollectionManagerAbstract cma = (CollectionManagerAbstract) cm;
+
     // do we already have it ?
-    byte[] xmlBytes = ((CollectionManagerAbstract)cm).getMetadata(mfile, "fmrInv.xml");  // LOOK should we keep this functionality ??
+    byte[] binBytes = cma.getMetadata(mfile, "fmrInv.bin");
+    if (binBytes != null) {
+      if (log.isDebugEnabled()) log.debug(" got binary inventory in cache ="+ mfile.getPath()+ " size = "+binBytes.length);
+      GridDatasetInv inv = null;
+      try {
+        inv = readBinary(binBytes);
+      } catch (IOException ioe) {
+        log.warn(" binary inventory in cache is corrupt for "+ mfile.getPath()+"; will reread");
+      }
+      if (inv != null && isCurrent(inv, mfile))
+        return inv; // ok, use it
+    }
+
+    // older caches have XML
+    byte[] xmlBytes = (binBytes != null) ? null : cma.getMetadata(mfile, "fmrInv.xml");  // LOOK should we keep this functionality ??
     if (xmlBytes != null) {
       if (log.isDebugEnabled()) log.debug(" got xmlFile in cache ="+ mfile.getPath()+ " size = "+xmlBytes.length);
       if (xmlBytes.length < 300) {
@@ -94,20 +110,9 @@ public class GridDatasetInv {
         // drop through and regenerate
       } else {
         GridDatasetInv inv = readXML(xmlBytes);
-
-        // check if version required regen
-        if (inv.version >= REQ_VERSION) {
-          // check if file has changed
-          long fileModifiedSecs = mfile.getLastModified() / 1000; // ignore msecs
-          long xmlModifiedSecs = inv.getLastModified() / 1000; // ignore msecs
-          if (xmlModifiedSecs >= fileModifiedSecs) { // LOOK if fileDate is -1, will always succeed
-            if (log.isDebugEnabled()) log.debug(" cache ok "+new Date(inv.getLastModified())+" >= "+new Date(mfile.getLastModified())+" for " + mfile.getName());
-            return inv; // ok, use it
-          } else {
-            if (log.isInfoEnabled()) log.info(" cache out of date "+new Date(inv.getLastModified())+" < "+new Date(mfile.getLastModified())+" for " + mfile.getName());
-          }
-        } else {
-          if (log.isInfoEnabled()) log.info(" version needs upgrade "+inv.version+" < "+REQ_VERSION +" for " + mfile.getName());
+        if (isCurrent(inv, mfile)) {
+          cma.putMetadata(mfile, "fmrInv.bin", inv.writeBinary(new Date(inv.getLastModified())));
+          return inv; // ok, use it
         }
       }
     }
@@ -128,17 +133,35 @@ public class GridDatasetInv {
       // System.out.println("gds dataset= "+ gds.getNetcdfDataset());
 
       GridDatasetInv inv = new GridDatasetInv(gds, cm.extractRunDate(mfile));
-      String xmlString = inv.writeXML( new Date(mfile.getLastModified()));
-      ((CollectionManagerAbstract)cm).putMetadata(mfile, "fmrInv.xml", xmlString.getBytes(CDM.utf8Charset));
-      if (log.isDebugEnabled()) log.debug(" added xmlFile "+ mfile.getPath()+".fmrInv.xml to cache");
-      if (debug) System.out.printf(" added xmlFile %s.fmrInv.xml to cache%n", mfile.getPath());
-      // System.out.println("new xmlBytes= "+ xmlString);
+      cma.putMetadata(mfile, "fmrInv.bin", inv.writeBinary(new Date(mfile.getLastModified())));
+      if (log.isDebugEnabled()) log.debug(" added "+ mfile.getPath()+".fmrInv.bin to cache");
+      if (debug) System.out.printf(" added %s.fmrInv.bin to cache%n", mfile.getPath());
       return inv;
     } finally {
       if (gds != null) gds.close();
     }
   }
 
+  // is the cached inventory usable for this file ?
+  private static boolean isCurrent(GridDatasetInv inv, MFile mfile) {
+    // check if version required regen
+    if (inv.version < REQ_VERSION) {
+      if (log.isInfoEnabled()) log.info(" version needs upgrade "+inv.version+" < "+REQ_VERSION +" for " + mfile.getName());
+      return false;
+    }
+    if (inv.lastModified == null) return false;
+
+    // check if file has changed
+    long fileModifiedSecs = mfile.getLastModified() / 1000; // ignore msecs
+    long xmlModifiedSecs = inv.getLastModified() / 1000; // ignore msecs
+    if (xmlModifiedSecs >= fileModifiedSecs) { // LOOK if fileDate is -1, will always succeed
+      if (log.isDebugEnabled()) log.debug(" cache ok "+new Date(inv.getLastModified())+" >= "+new Date(mfile.getLastModified())+" for " + mfile.getName());
+      return true;
+    }
+    if (log.isInfoEnabled()) log.info(" cache out of date "+new Date(inv.getLastModified())+" < "+new Date(mfile.getLastModified())+" for " + mfile.getName());
+    return false;
+  }
+
   /////////////////////////////////////////////////////////////////////////////////////
 
   private String location;
@@ -681,6 +704,153 @@ public class GridDatasetInv {
     return fmr;
   }
 
+  //////////////////////////////////////////////////////////////
+
+  static private final int MAGIC = 0x47444931; // "GDI1"
+
+  /**
+   * Write the compact binary representation, which is much faster to read back than the XML.
+   * Has the same content as the XML representation.
+   *
+   * @param lastModified last modified date of the file, may be null
+   * @return the binary representation
+   */
+  public byte[] writeBinary(Date lastModified) {
+    ByteArrayOutputStream bout = new ByteArrayOutputStream(1000);
+    DataOutputStream out = new DataOutputStream(bout);
+    try {
+      out.writeInt(MAGIC);
+      out.writeInt(CURR_VERSION);
+      out.writeUTF(location);
+      out.writeUTF(runTimeString);
+      out.writeLong(lastModified == null ? Long.MIN_VALUE : lastModified.getTime());
+
+      // vertical coords
+      Collections.sort(vaxes);
+      out.writeInt(vaxes.size());
+      int count = 0;
+      for (VertCoord vc : vaxes) {
+        vc.setId(count++);
+        out.writeInt(vc.getId());
+        out.writeUTF(vc.getName());
+        writeString(out, vc.getUnits());
+        writeDoubles(out, vc.getValues1());
+        writeDoubles(out, vc.getValues2());
+      }
+
+      // time coords
+      out.writeInt(times.size());
+      count = 0;
+      for (TimeCoord tc : times) {
+        tc.setId(count++);
+        out.writeInt(tc.getId());
+        out.writeBoolean(tc.isInterval());
+        if (tc.isInterval()) {
+          writeDoubles(out, tc.getBound1());
+          writeDoubles(out, tc.getBound2());
+        } else {
+          writeDoubles(out, tc.getOffsetTimes());
+        }
+
+        List<GridDatasetInv.Grid> vars = tc.getGridInventory();
+        Collections.sort(vars);
+        out.writeInt(vars.size());
+        for (Grid grid : vars) {
+          out.writeUTF(grid.name);
+          out.writeInt(grid.ec == null ? -1 : grid.ec.getId());
+          out.writeInt(grid.vc == null ? -1 : grid.vc.getId());
+        }
+      }
+      out.flush();
+    } catch (IOException e) {
+      throw new IllegalStateException(e); // cant happen writing to memory
+    }
+    return bout.toByteArray();
+  }
+
+  /**
+   * Construct a GridDatasetInv from its binary representation
+   *
+   * @param bytes the binary representation, from writeBinary()
+   * @return GridDatasetInv
+   * @throws IOException if not a valid binary representation
+   */
+  static GridDatasetInv readBinary(byte[] bytes) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+    if (in.readInt() != MAGIC)
+      throw new IOException("not a binary GridDatasetInv");
+
+    GridDatasetInv fmr = new GridDatasetInv();
+    fmr.version = in.readInt();
+    if (fmr.version < REQ_VERSION) return fmr;
+    fmr.location = in.readUTF();
+    fmr.runTimeString = in.readUTF();
+    long lastModified = in.readLong();
+    if (lastModified != Long.MIN_VALUE)
+      fmr.lastModified = new Date(lastModified);
+    fmr.runDate = DateUnit.parseCalendarDate(fmr.runTimeString);
+
+    int nvert = in.readInt();
+    for (int i = 0; i < nvert; i++) {
+      VertCoord vc = new VertCoord();
+      fmr.vaxes.add(vc);
+      vc.setId(in.readInt());
+      vc.setName(in.readUTF());
+      vc.setUnits(readString(in));
+      vc.setValues1(readDoubles(in));
+      vc.setValues2(readDoubles(in));
+    }
+
+    int ntimes = in.readInt();
+    for (int i = 0; i < ntimes; i++) {
+      TimeCoord tc = new TimeCoord(fmr.runDate);
+      fmr.times.add(tc);
+      tc.setId(in.readInt());
+      if (in.readBoolean()) {
+        double[] bound1 = readDoubles(in);
+        double[] bound2 = readDoubles(in);
+        tc.setBounds(bound1, bound2);
+      } else {
+        tc.setOffsetTimes(readDoubles(in));
+      }
+
+      int ngrids = in.readInt();
+      for (int j = 0; j < ngrids; j++) {
+        Grid grid = fmr.makeGrid(in.readUTF());
+        grid.ec = fmr.getEnsCoordinate(in.readInt());
+        grid.vc = fmr.getVertCoordinate(in.readInt());
+        tc.addGridInventory(grid);
+        grid.tc = tc;
+      }
+    }
+
+    return fmr;
+  }
+
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    out.writeBoolean(s != null);
+    if (s != null) out.writeUTF(s);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  private static void writeDoubles(DataOutputStream out, double[] values) throws IOException {
+    out.writeInt(values == null ? -1 : values.length);
+    if (values != null) {
+      for (double v : values) out.writeDouble(v);
+    }
+  }
+
+  private static double[] readDoubles(DataInputStream in) throws IOException {
+    int n = in.readInt();
+    if (n < 0) return null;
+    double[] values = new double[n];
+    for (int i = 0; i < n; i++) values[i] = in.readDouble();
+    return values;
+  }
+
   public static void main(String[] args) {
     String values = "1,2,3,4";
     String[] value = values.split("[,]");
@@ -51,8 +51,11 @@ public class BitReader {
   private int bitBuf = 0; // current byte
   private int bitPos = 0; // Current bit position in bitBuf.
 
-  // for testing
-  BitReader(byte[] test) {
+  /**
+   * Constructor, reading from memory instead of a file.
+   * @param test the bit packed data, starting at offset 0
+   */
+  public BitReader(byte[] test) {
     this.test = test;
     this.testPos = 0;
     this.bitBuf = 0;
@@ -84,15 +87,18 @@ public class BitReader {
    * @throws IOException on io error
    */
   public void setBitOffset(int bitOffset) throws IOException {
-    if (bitOffset % 8 == 0) {
+    if (raf != null)
       raf.seek(startPos + bitOffset/8);
+    else
+      testPos = bitOffset/8;
+
+    if (bitOffset % 8 == 0) {
       bitPos = 0;
       bitBuf = 0;
 
     } else {
-      raf.seek(startPos + bitOffset/8);
       bitPos = 8 - (bitOffset % 8);
-      bitBuf = raf.read();
+      bitBuf = nextByte();
       bitBuf &= 0xff >> (8 - bitPos);   // mask off consumed bits      
     }
 
@@ -101,7 +107,7 @@ public class BitReader {
 
   private int nextByte() throws IOException {
     if (raf != null) return raf.read();
-    return (int) test[testPos++];
+    return test[testPos++] & 0xff;
   }
 
   /**
@@ -145,7 +151,7 @@ public class BitReader {
   }
 
   // debugging
-  public long getPos() throws IOException { return raf.getFilePointer(); }
+  public long getPos() throws IOException { return (raf != null) ? raf.getFilePointer() : testPos; }
 
   static public void main( String args[]) throws IOException {
     BitReader bu = new BitReader(new byte[] {-1,2,4,8});
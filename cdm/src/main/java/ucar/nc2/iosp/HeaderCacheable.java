@@ -0,0 +1,72 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package ucar.nc2.iosp;
+
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.util.CancelTask;
+import ucar.unidata.io.RandomAccessFile;
+
+import java.io.IOException;
+
+/**
+ * An IOServiceProvider that can be reopened from a persisted header.
+ * The CDM objects (groups, dimensions, variables, attributes) are stored by NcStreamHeaderCache,
+ *  the IOSP only has to save and restore whatever it needs to read the data, typically the Variable SPobjects.
+ *
+ * @since 10/19/2026
+ * @see ucar.nc2.stream.NcStreamHeaderCache
+ */
+public interface HeaderCacheable {
+
+  /**
+   * Encode the iosp-specific layout information, after open() has been called.
+   * @param ncfile the opened file
+   * @return opaque layout information, or null if this file cannot be cached
+   * @throws IOException on write error
+   */
+  public byte[] getHeaderLayout(NetcdfFile ncfile) throws IOException;
+
+  /**
+   * Open existing file, called instead of open() when the CDM objects have already been restored from the header cache.
+   * The iosp must not add or modify the CDM objects, just restore its own state from the layout information.
+   *
+   * @param raf the file to work on, it has already passed the isValidFile() test.
+   * @param ncfile has been populated from the header cache, but finish() has not been called.
+   * @param layout what was returned by getHeaderLayout()
+   * @param cancelTask used to monitor user cancellation; may be null.
+   * @throws IOException if read error, or layout is not understood; caller will then call open() as usual
+   */
+  public void openFromHeaderLayout(RandomAccessFile raf, NetcdfFile ncfile, byte[] layout, CancelTask cancelTask) throws IOException;
+
+}
@@ -179,6 +179,65 @@ public class IospHelper {
     throw new IllegalStateException("unknown type= " + dataType);
   }
 
+  /**
+   * Read data subset from RandomAccessFile into an ArrayBB, copying the bytes as they are in the file.
+   * The ArrayBB must have the same byte order as the file, and be in canonical order.
+   * Reading is controlled by the Layout object.
+   *
+   * @param raf    read from here.
+   * @param layout handles skipping around in the file.
+   * @param result read data into here
+   * @return result
+   * @throws java.io.IOException on read error
+   */
+  static public ArrayBB readData(RandomAccessFile raf, Layout layout, ArrayBB result) throws java.io.IOException {
+    int elemSize = result.getDataType().getSize();
+    ByteBuffer dest = result.getByteBuffer().duplicate();
+    byte[] buff = new byte[(int) Math.min(64 * 1000, result.getSize() * elemSize)];
+
+    while (layout.hasNext()) {
+      Layout.Chunk chunk = layout.next();
+      raf.seek(chunk.getSrcPos());
+      dest.position((int) chunk.getDestElem() * elemSize);
+      int nbytes = chunk.getNelems() * elemSize;
+      while (nbytes > 0) {
+        int n = Math.min(nbytes, buff.length);
+        raf.readFully(buff, 0, n);
+        dest.put(buff, 0, n);
+        nbytes -= n;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Write data from an ArrayBB to a RandomAccessFile, copying the bytes as they are in the ArrayBB.
+   * The ArrayBB must have the same byte order as the file.
+   * Writing is controlled by the Layout object.
+   *
+   * @param raf    write to here.
+   * @param layout handles skipping around in the file.
+   * @param data   write data from here
+   * @throws java.io.IOException on write error
+   */
+  static public void writeData(RandomAccessFile raf, Layout layout, ArrayBB data) throws java.io.IOException {
+    int elemSize = data.getDataType().getSize();
+    ByteBuffer src = data.getDataAsByteBuffer();
+    byte[] buff = new byte[Math.min(64 * 1000, src.remaining())];
+
+    while (layout.hasNext()) {
+      Layout.Chunk chunk = layout.next();
+      raf.seek(chunk.getSrcPos());
+      int nbytes = chunk.getNelems() * elemSize;
+      while (nbytes > 0) {
+        int n = Math.min(nbytes, buff.length);
+        src.get(buff, 0, n);
+        raf.write(buff, 0, n);
+        nbytes -= n;
+      }
+    }
+  }
+
   /**
    * Read data subset from PositioningDataInputStream, create primitive array of size Layout.getTotalNelems.
    * Reading is controlled by the Layout object.
@@ -412,6 +471,14 @@ public class IospHelper {
       return NcStream.encodeArrayStructure((ArrayStructure) data, os);
     }
 
+    if ((data instanceof ArrayBB) && (((ArrayBB) data).getByteOrder() == ByteOrder.BIG_ENDIAN)) { // already bigendian
+      ByteBuffer bb = data.getDataAsByteBuffer();
+      long count = 0;
+      while (bb.hasRemaining())
+        count += channel.write(bb);
+      return count;
+    }
+
     DataOutputStream outStream = new DataOutputStream(Channels.newOutputStream(channel));
     IndexIterator iterA = data.getIndexIterator();
 
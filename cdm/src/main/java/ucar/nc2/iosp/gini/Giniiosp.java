@@ -36,6 +36,7 @@ import thredds.catalog.DataFormatType;
 import ucar.ma2.*;
 import ucar.nc2.Variable;
 import ucar.nc2.iosp.AbstractIOServiceProvider;
+import ucar.nc2.iosp.HeaderCacheable;
 
 import java.io.*;
 import java.awt.image.*;
@@ -47,7 +48,7 @@ import java.util.zip.DataFormatException;
  * IOServiceProvider for GINI files.
  */
 
-public class Giniiosp extends AbstractIOServiceProvider {
+public class Giniiosp extends AbstractIOServiceProvider implements HeaderCacheable {
 
   protected boolean readonly;
   private ucar.nc2.NetcdfFile ncfile;
@@ -89,6 +90,68 @@ public class Giniiosp extends AbstractIOServiceProvider {
     ncfile.finish();
   }
 
+  /////////////////////////////////////////////////////////////////////////////
+  // HeaderCacheable: compression type, then the Vinfo of each data variable
+
+  public byte[] getHeaderLayout(ucar.nc2.NetcdfFile file) throws IOException {
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bout);
+    out.writeInt(headerParser.Z_type);
+
+    List<Variable> vars = new ArrayList<Variable>();
+    for (Variable v : file.getVariables())
+      if (v.getSPobject() instanceof Giniheader.Vinfo) vars.add(v);
+
+    out.writeInt(vars.size());
+    for (Variable v : vars) {
+      Giniheader.Vinfo vinfo = (Giniheader.Vinfo) v.getSPobject();
+      out.writeUTF(v.getFullNameEscaped());
+      out.writeInt(vinfo.vsize);
+      out.writeLong(vinfo.begin);
+      out.writeBoolean(vinfo.isRecord);
+      out.writeInt(vinfo.nx);
+      out.writeInt(vinfo.ny);
+      int nlevels = (vinfo.levels == null) ? -1 : vinfo.levels.length;
+      out.writeInt(nlevels);
+      for (int i = 0; i < nlevels; i++)
+        out.writeInt(vinfo.levels[i]);
+    }
+    out.close();
+    return bout.toByteArray();
+  }
+
+  public void openFromHeaderLayout(ucar.unidata.io.RandomAccessFile raf, ucar.nc2.NetcdfFile file, byte[] layout,
+                                   ucar.nc2.util.CancelTask cancelTask) throws IOException {
+    ncfile = file;
+    super.open(raf, ncfile, cancelTask);
+
+    headerParser = new Giniheader();
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(layout));
+    headerParser.Z_type = in.readInt();
+
+    int nvars = in.readInt();
+    for (int i = 0; i < nvars; i++) {
+      String name = in.readUTF();
+      int vsize = in.readInt();
+      long begin = in.readLong();
+      boolean isRecord = in.readBoolean();
+      int nx = in.readInt();
+      int ny = in.readInt();
+      int nlevels = in.readInt();
+      int[] levels = null;
+      if (nlevels >= 0) {
+        levels = new int[nlevels];
+        for (int j = 0; j < nlevels; j++)
+          levels[j] = in.readInt();
+      }
+
+      Variable v = ncfile.findVariable(name);
+      if (v == null)
+        throw new IOException("Gini header layout has unknown variable " + name);
+      v.setSPobject(headerParser.new Vinfo(vsize, begin, isRecord, nx, ny, levels));
+    }
+  }
+
   public Array readData(ucar.nc2.Variable v2, Section section) throws IOException, InvalidRangeException {
     // subset
     int[] origin = section.getOrigin();
@@ -456,6 +456,11 @@ public String NC_check_name(String name) {
       return Array.factory(dataType.getPrimitiveClassType(), section.getShape());
     }
 
+    // large reads may go off-heap, see ArrayBB.setLargeArrayThresholds()
+    ArrayBB large = ArrayBB.factoryLarge(dataType, section.getShape(), java.nio.ByteOrder.BIG_ENDIAN);
+    if (large != null)
+      return IospHelper.readData(raf, layout, large);
+
     Object data = readData(layout, dataType);
     return Array.factory(dataType.getPrimitiveClassType(), section.getShape(), data);
   }
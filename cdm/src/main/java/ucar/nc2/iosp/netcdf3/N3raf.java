@@ -106,6 +106,14 @@ public class N3raf extends N3iosp  {
     * @param dataType dataType of the variable
     */
   protected void writeData( Array values, Layout index, DataType dataType) throws java.io.IOException {
+    if (values instanceof ArrayBB) { // bigendian bytes can be copied as is
+      ArrayBB bbValues = (ArrayBB) values;
+      if ((bbValues.getDataType() == dataType) && (bbValues.getByteOrder() == java.nio.ByteOrder.BIG_ENDIAN)) {
+        IospHelper.writeData(raf, index, bbValues);
+        return;
+      }
+    }
+
     if ((dataType == DataType.BYTE) || (dataType == DataType.CHAR)) {
       IndexIterator ii = values.getIndexIterator();
       while (index.hasNext()) {
@@ -1100,6 +1100,16 @@ public class Level2Record {
     return Short.MIN_VALUE;
   }
 
+  /**
+   * File position of the gate data for this datatype
+   *
+   * @param datatype which type of data : REFLECTIVITY, VELOCITY_HI, VELOCITY_LO, SPECTRUM_WIDTH
+   * @return offset in the file of the first gate
+   */
+  long getDataPosition(int datatype) {
+    return message_offset + MESSAGE_HEADER_SIZE + getDataOffset(datatype);
+  }
+
   private short getDataBlockValue(RandomAccessFile raf, short offset, int skip) throws IOException {
     long off = offset + message_offset + MESSAGE_HEADER_SIZE;
     raf.seek(off);
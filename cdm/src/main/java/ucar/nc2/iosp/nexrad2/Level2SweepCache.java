@@ -0,0 +1,254 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package ucar.nc2.iosp.nexrad2;
+
+import ucar.ma2.IndexIterator;
+import ucar.ma2.Range;
+import ucar.unidata.io.RandomAccessFile;
+
+import java.io.IOException;
+import java.util.Formatter;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of decoded sweeps, one moment of one elevation scan of a volume.
+ * A sweep is decoded in one pass over its messages, which lie together in the file,
+ * so reading a whole sweep costs one contiguous read instead of a seek per radial.
+ * Sweeps are kept in LRU order and evicted when the total size passes maxBytes.
+ * Shared by all open Level II files, set maxBytes to 0 to turn it off.
+ *
+ * @since 10/19/2026
+ */
+public class Level2SweepCache {
+  static private long maxBytes = 32 * 1000 * 1000;
+  static private int maxSpan = 16 * 1000 * 1000; // largest contiguous read, else read each radial
+
+  static private final LinkedHashMap<String, Sweep> cache = new LinkedHashMap<String, Sweep>(64, .75f, true);
+  static private long totalBytes;
+  static private int hits, misses;
+
+  /**
+   * Set the size of the cache, 0 turns it off.
+   *
+   * @param max maximum bytes of decoded data to keep
+   */
+  static public void setMaxBytes(long max) {
+    synchronized (cache) {
+      maxBytes = max;
+      evict();
+    }
+  }
+
+  static public boolean isEnabled() {
+    return maxBytes > 0;
+  }
+
+  /**
+   * Get a decoded sweep, decoding and caching it if needed.
+   *
+   * @param volumeKey identifies the volume, see makeKey()
+   * @param raf       read from this file
+   * @param varName   variable name, the same scan index means different scans in the _HI and normal variables
+   * @param scan      scan index
+   * @param radials   radials of the scan, indexed by radial number - 1, may contain nulls
+   * @param datatype  which type of data : REFLECTIVITY, VELOCITY_HI, VELOCITY_LO, SPECTRUM_WIDTH
+   * @return decoded sweep
+   * @throws IOException on read error
+   */
+  static public Sweep get(String volumeKey, RandomAccessFile raf, String varName, int scan, Level2Record[] radials, int datatype) throws IOException {
+    String key = volumeKey + "#" + varName + "#" + scan;
+    synchronized (cache) {
+      Sweep sweep = cache.get(key);
+      if (sweep != null) {
+        hits++;
+        return sweep;
+      }
+      misses++;
+    }
+
+    Sweep sweep = decode(raf, radials, datatype);
+    synchronized (cache) {
+      if (maxBytes > 0 && sweep.getSizeBytes() <= maxBytes) {
+        Sweep old = cache.put(key, sweep);
+        if (old != null) totalBytes -= old.getSizeBytes();
+        totalBytes += sweep.getSizeBytes();
+        evict();
+      }
+    }
+    return sweep;
+  }
+
+  /**
+   * Key for a volume; the length and modification time make sure a rewritten file is not confused with the old one.
+   *
+   * @param raf the (uncompressed) volume
+   * @return key for this volume
+   * @throws IOException on read error
+   */
+  static public String makeKey(RandomAccessFile raf) throws IOException {
+    String location = raf.getLocation();
+    return location + "@" + raf.length() + "@" + new java.io.File(location).lastModified();
+  }
+
+  static public void clear() {
+    synchronized (cache) {
+      cache.clear();
+      totalBytes = 0;
+    }
+  }
+
+  static public void showStats(Formatter f) {
+    synchronized (cache) {
+      f.format("Level2SweepCache: %d sweeps, %d bytes (max %d), hits=%d misses=%d%n", cache.size(), totalBytes, maxBytes, hits, misses);
+    }
+  }
+
+  // call while synchronized on cache
+  static private void evict() {
+    Iterator<Sweep> iter = cache.values().iterator();
+    while (totalBytes > maxBytes && iter.hasNext()) {
+      totalBytes -= iter.next().getSizeBytes();
+      iter.remove();
+    }
+  }
+
+  static Sweep decode(RandomAccessFile raf, Level2Record[] radials, int datatype) throws IOException {
+    boolean isShort = (datatype == Level2Record.DIFF_PHASE);
+    int elemSize = isShort ? 2 : 1;
+
+    // the extent of the sweep in the file
+    int ngates = 0;
+    long start = Long.MAX_VALUE;
+    long end = 0;
+    for (Level2Record r : radials) {
+      if (r == null) continue;
+      int count = r.getGateCount(datatype);
+      long pos = r.getDataPosition(datatype);
+      ngates = Math.max(ngates, count);
+      start = Math.min(start, pos);
+      end = Math.max(end, pos + count * elemSize);
+    }
+
+    Sweep sweep = new Sweep(radials.length, ngates, isShort);
+    if (ngates == 0) return sweep;
+
+    byte[] buff = null;
+    if (end - start <= maxSpan) {
+      buff = new byte[(int) (end - start)];
+      raf.seek(start);
+      raf.readFully(buff);
+    }
+
+    for (int radial = 0; radial < radials.length; radial++) {
+      Level2Record r = radials[radial];
+      if (r == null) continue;
+      int count = r.getGateCount(datatype);
+      int dest = radial * ngates;
+
+      if (buff != null) {
+        int pos = (int) (r.getDataPosition(datatype) - start);
+        if (isShort) {
+          for (int i = 0; i < count; i++, pos += 2)
+            sweep.sdata[dest + i] = (short) (((buff[pos] & 0xff) << 8) | (buff[pos + 1] & 0xff));
+        } else {
+          System.arraycopy(buff, pos, sweep.bdata, dest, count);
+        }
+
+      } else {
+        raf.seek(r.getDataPosition(datatype));
+        if (isShort)
+          raf.readShort(sweep.sdata, dest, count);
+        else
+          raf.readFully(sweep.bdata, dest, count);
+      }
+    }
+    return sweep;
+  }
+
+  /**
+   * One decoded moment of one scan, radials by gates, missing where a radial or gate is absent.
+   */
+  static public class Sweep {
+    private final int nradials, ngates;
+    private final byte[] bdata;
+    private final short[] sdata;
+
+    Sweep(int nradials, int ngates, boolean isShort) {
+      this.nradials = nradials;
+      this.ngates = ngates;
+      int n = nradials * ngates;
+      if (isShort) {
+        bdata = null;
+        sdata = new short[n];
+        java.util.Arrays.fill(sdata, Level2Record.MISSING_DATA);
+      } else {
+        bdata = new byte[n];
+        sdata = null;
+        java.util.Arrays.fill(bdata, Level2Record.MISSING_DATA);
+      }
+    }
+
+    public int getNumRadials() {
+      return nradials;
+    }
+
+    public int getNumGates() {
+      return ngates;
+    }
+
+    public long getSizeBytes() {
+      return (sdata != null) ? 2L * sdata.length : bdata.length;
+    }
+
+    /**
+     * Copy the gates of one radial into ii, gates beyond the end of the radial are missing.
+     *
+     * @param radial    radial index
+     * @param gateRange which gates
+     * @param ii        put the data here
+     */
+    public void read(int radial, Range gateRange, IndexIterator ii) {
+      int start = radial * ngates;
+      boolean ok = radial < nradials;
+      for (int i = gateRange.first(); i <= gateRange.last(); i += gateRange.stride()) {
+        if (sdata != null)
+          ii.setShortNext((ok && i < ngates) ? sdata[start + i] : Level2Record.MISSING_DATA);
+        else
+          ii.setByteNext((ok && i < ngates) ? bdata[start + i] : Level2Record.MISSING_DATA);
+      }
+    }
+  }
+}
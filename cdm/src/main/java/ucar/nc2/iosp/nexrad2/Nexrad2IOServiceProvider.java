@@ -74,6 +74,7 @@ public class Nexrad2IOServiceProvider extends AbstractIOServiceProvider {
   }
 
   private Level2VolumeScan volScan;
+  private String volumeKey; // for Level2SweepCache
  // private Dimension radialDim;
   private double radarRadius;
   private Variable v0, v1;
@@ -85,6 +86,7 @@ public class Nexrad2IOServiceProvider extends AbstractIOServiceProvider {
 
     volScan = new Level2VolumeScan( raf, cancelTask); // note raf may change when compressed
     this.raf = volScan.raf;
+    volumeKey = Level2SweepCache.makeKey(volScan.raf);
 
     if (volScan.hasDifferentDopplarResolutions())
       throw new IllegalStateException("volScan.hasDifferentDopplarResolutions");
@@ -579,7 +581,14 @@ public class Nexrad2IOServiceProvider extends AbstractIOServiceProvider {
 
     for (int i=scanRange.first(); i<=scanRange.last(); i+= scanRange.stride()) {
       Level2Record[] mapScan = vgroup.map[i];
-      readOneScan(mapScan, radialRange, gateRange, vgroup.datatype, ii);
+      if (Level2SweepCache.isEnabled()) {
+        // decode the whole sweep once, later reads of this scan and moment come from the cache
+        Level2SweepCache.Sweep sweep = Level2SweepCache.get(volumeKey, volScan.raf, v2.getShortName(), i, mapScan, vgroup.datatype);
+        for (int j=radialRange.first(); j<=radialRange.last(); j+= radialRange.stride())
+          sweep.read(j, gateRange, ii);
+      } else {
+        readOneScan(mapScan, radialRange, gateRange, vgroup.datatype, ii);
+      }
     }
 
     return data;
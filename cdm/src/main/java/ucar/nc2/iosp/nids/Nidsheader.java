@@ -64,6 +64,15 @@ class Nidsheader{
     final private static boolean useStationDB = false; // use station db for loactions
     static private org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(Nidsheader.class);
 
+    // inflaters and inflate buffers are reused per thread, since a server opens many small products
+    static private final ThreadLocal<Inflater> inflaters = new ThreadLocal<Inflater>() {
+      protected Inflater initialValue() {
+        return new Inflater(false);
+      }
+    };
+    static private final ThreadLocal<byte[]> inflateBuffers = new ThreadLocal<byte[]>();
+    final static int  MAX_POOLED_BUFFER = 4 * 1024 * 1024; /* dont keep larger inflate buffers around */
+
     final static int  NEXR_PID_READ = 100;
     final static int  DEF_NUM_ELEMS = 640;   /* default num of elements to send         */
     final static int  DEF_NUM_LINES = 480;   /* default num of lines to send            */
@@ -259,6 +268,17 @@ class Nidsheader{
       System.arraycopy(uncompdata, offset, data, 0, len);
       return data;
     }
+
+    /**
+     * get a view of the uncompressed data, without copying it
+     *
+     * @param offset   offset of the data, becomes position 0 of the buffer
+     * @return         read-only buffer over the uncompressed data
+     */
+    public ByteBuffer getUncompBuffer(int offset){
+      ByteBuffer bb = ByteBuffer.wrap(uncompdata, offset, uncompdata.length - offset);
+      return bb.slice().asReadOnlyBuffer();
+    }
  //////////////////////////////////////////////////////////////////////////////////
 
     private ucar.unidata.io.RandomAccessFile raf;
@@ -379,8 +399,7 @@ class Nidsheader{
              System.arraycopy(b, hoff, uncompdata, 0, b.length- hoff);
         }
     } else {
-        uncompdata = new byte[b.length];
-        System.arraycopy(b, 0, uncompdata, 0, b.length);
+        uncompdata = b;   // no header to strip, use the file contents as is
         // stationId  = "YYY";
     }
     byte[] b2 = new byte[2];
@@ -2816,39 +2835,31 @@ class Nidsheader{
      */
     byte[] uncompressed( ByteBuffer buf, int offset, int uncomplen ) throws IOException
     {
-        byte[] header = new byte[offset];
-        buf.position(0);
-        buf.get(header);
         byte[] out = new byte[offset+uncomplen];
-        System.arraycopy(header, 0, out, 0, offset);
-
+        buf.position(0);
+        buf.get(out, 0, offset);
 
         CBZip2InputStream cbzip2 = new CBZip2InputStream();
 
+        // the uncompressed size is in the product description, so inflate straight into the result
         int numCompBytes = buf.remaining();
-        byte[] bufc = new byte[numCompBytes];
-        buf.get(bufc, 0, numCompBytes);
-
-        ByteArrayInputStream bis = new ByteArrayInputStream(bufc, 2, numCompBytes - 2);
+        ByteArrayInputStream bis;
+        if (buf.hasArray()) {
+          bis = new ByteArrayInputStream(buf.array(), buf.arrayOffset() + buf.position() + 2, numCompBytes - 2);
+        } else {
+          byte[] bufc = new byte[numCompBytes];
+          buf.get(bufc, 0, numCompBytes);
+          bis = new ByteArrayInputStream(bufc, 2, numCompBytes - 2);
+        }
 
         //CBZip2InputStream cbzip2 = new CBZip2InputStream(bis);
         cbzip2.setStream(bis);
         int total = 0;
         int nread;
-        byte[] ubuff = new byte[40000];
-        byte[] obuff = new byte[40000];
         try {
-            while ((nread = cbzip2.read(ubuff)) != -1) {
-              if (total + nread > obuff.length) {
-                byte[] temp = obuff;
-                obuff = new byte[temp.length * 2];
-                System.arraycopy(temp, 0, obuff, 0, temp.length);
-              }
-              System.arraycopy(ubuff, 0, obuff, total, nread);
+            while (total < uncomplen && (nread = cbzip2.read(out, offset + total, uncomplen - total)) != -1) {
               total += nread;
             }
-            if (obuff.length >= 0)
-              System.arraycopy(obuff, 0, out, offset, total);
           } catch (BZip2ReadException ioe) {
             log.warn("Nexrad2IOSP.uncompress "+raf.getLocation(), ioe);
         }
@@ -3508,6 +3519,20 @@ class Nidsheader{
     }
 
 
+    /**
+     * grow a buffer by doubling, keeping the first len bytes
+     * @param buf     buffer to grow
+     * @param len     number of valid bytes
+     * @param need    minimum new size
+     * @return        the new buffer
+     */
+    static byte[] grow( byte[] buf, int len, int need )
+    {
+      byte[] tmp = new byte[ Math.max(need, 2 * buf.length) ];
+      System.arraycopy(buf, 0, tmp, 0, len);
+      return tmp;
+    }
+
     /*
     ** Name:    GetZlibedNexr
     **
@@ -3546,27 +3571,23 @@ class Nidsheader{
       **     portion of the image
       **
       */
-      /* a new copy of buff with only compressed bytes */
-
-      System.arraycopy( buf, hoff, buf, hoff, numin - 4);
-
-      // decompress the bytes
+      // decompress the bytes into the per-thread buffer, growing it by doubling
       int resultLength;
       int result = 0;
-      // byte[] inflateData = null;
-      byte[] tmp;
-      int  uncompLen = 24500;        /* length of decompress space    */
-      byte[] uncomp = new byte[uncompLen];
-      Inflater inflater = new Inflater( false);
+      byte[] uncomp = inflateBuffers.get();
+      if (uncomp == null) uncomp = new byte[Math.max(24500, 4 * numin)];
+      Inflater inflater = inflaters.get();
+      inflater.reset();
 
       inflater.setInput(buf, hoff, numin-4);
-      int offset = 0;
-      int limit = 20000;
 
+      try {
       while ( inflater.getRemaining() > 0 )
       {
+          if (uncomp.length - result < ZLIB_BUF_LEN)
+              uncomp = grow(uncomp, result, result + ZLIB_BUF_LEN);
           try {
-            resultLength = inflater.inflate(uncomp, offset, 4000);
+            resultLength = inflater.inflate(uncomp, result, ZLIB_BUF_LEN);
           }
           catch (DataFormatException ex) {
             //System.out.println("ERROR on inflation "+ex.getMessage());
@@ -3574,27 +3595,13 @@ class Nidsheader{
             log.error("nids Inflater", ex);
             throw new IOException( ex.getMessage(), ex);
           }
-          offset = offset + resultLength;
           result = result + resultLength;
-          if( result > limit ) {
-              // when uncomp data larger then limit, the uncomp need to increase size
-              tmp = new byte[ result];
-              System.arraycopy(uncomp, 0, tmp, 0, result);
-              uncompLen = uncompLen + 10000;
-              uncomp = new byte[uncompLen];
-              System.arraycopy(tmp, 0, uncomp, 0, result);
-          }
           if( resultLength == 0 ) {
                int tt = inflater.getRemaining();
                byte [] b2 = new byte[2];
                System.arraycopy(buf,hoff+numin-4-tt, b2, 0, 2);
-               if(result+tt > uncompLen){
-                      tmp = new byte[ result];
-                      System.arraycopy(uncomp, 0, tmp, 0, result);
-                      uncompLen = uncompLen + 10000;
-                      uncomp = new byte[uncompLen];
-                      System.arraycopy(tmp, 0, uncomp, 0, result);
-               }
+               if(result+tt > uncomp.length)
+                   uncomp = grow(uncomp, result, result + tt);
                if( isZlibHed( b2 ) == 0 ) {
                   System.arraycopy(buf, hoff+numin-4-tt, uncomp, result, tt);
                   result = result + tt;
@@ -3605,8 +3612,10 @@ class Nidsheader{
           }
 
       }
-
-      inflater.end();
+      } finally {
+        inflater.reset();  // release the input array
+        if (uncomp.length <= MAX_POOLED_BUFFER) inflateBuffers.set(uncomp);
+      }
       /*
       ** Find out how long CCB is.  This is done by using the lower order
       ** 6 bits from the first uncompressed byte and all 8 bits of the
@@ -40,6 +40,7 @@ import ucar.nc2.iosp.AbstractIOServiceProvider;
 import ucar.nc2.units.DateUnit;
 
 import java.io.*;
+import java.lang.ref.SoftReference;
 import java.util.*;
 import java.util.zip.DataFormatException;
 import java.util.zip.Inflater;
@@ -60,6 +61,19 @@ public class Nidsiosp extends AbstractIOServiceProvider {
 
   private int pcode;
 
+  // last decoded scan, shared by the _RAW and calibrated variables of one packet
+  private volatile SoftReference<DecodedScan> decodedScan;
+
+  private static class DecodedScan {
+    final long doff;
+    final byte[] pdata;
+
+    DecodedScan(long doff, byte[] pdata) {
+      this.doff = doff;
+      this.pdata = pdata;
+    }
+  }
+
   final static int Z_DEFLATED = 8;
   final static int DEF_WBITS = 15;
 
@@ -128,8 +142,7 @@ public class Nidsiosp extends AbstractIOServiceProvider {
     List<Range> ranges = section.getRanges();
 
     Nidsheader.Vinfo vinfo = (Nidsheader.Vinfo) vp.getSPobject();
-    byte[] vdata = headerParser.getUncompData((int) vinfo.doff, 0);
-    ByteBuffer bos = ByteBuffer.wrap(vdata);
+    ByteBuffer bos = headerParser.getUncompBuffer((int) vinfo.doff);
 
     if (vp.getShortName().startsWith("VADWindSpeed")) {
       return readNestedWindBarbData(vp.getShortName(), v2.getShortName(), bos, vinfo, ranges);
@@ -169,7 +182,6 @@ public class Nidsiosp extends AbstractIOServiceProvider {
     // subset
     Object data;
     Array outputData;
-    byte[] vdata;
     Nidsheader.Vinfo vinfo;
     ByteBuffer bos;
     List<Range> ranges = section.getRanges();
@@ -183,8 +195,7 @@ vdata = readUCompData(vinfo.hoff, vinfo.doff);
 
 ByteBuffer bos = ByteBuffer.wrap(vdata);     */
 
-    vdata = headerParser.getUncompData((int) vinfo.doff, 0);
-    bos = ByteBuffer.wrap(vdata);
+    bos = headerParser.getUncompBuffer((int) vinfo.doff);
 
 
     if (v2.getShortName().equals("azimuth")) {
@@ -655,50 +666,54 @@ ByteBuffer bos = ByteBuffer.wrap(vdata);     */
     int doff = 0;
     int npixel = vinfo.yt * vinfo.xt;
     byte[] odata = new byte[vinfo.xt];
-    byte[] pdata = new byte[npixel];
-    // byte[] b2 = new byte[2];
-    bos.position(0);
-    for (int radial = 0; radial < vinfo.yt; radial++) {
-      //bos.get(b2, 0, 2);
-      //int test = getInt(b2, 0, 2);
-      int runLen = bos.getShort();   // getInt(vdata, doff, 2 );
-      // int runLen = getInt(b2, 0, 2);
-      doff += 2;
-      if (vinfo.isRadial) {
-        int radialAngle = bos.getShort();
-        doff += 2;
-        int radialAngleD = bos.getShort();
+    byte[] pdata = getDecodedScan(vinfo);
+    if (pdata == null) {
+      pdata = new byte[npixel];
+      // byte[] b2 = new byte[2];
+      bos.position(0);
+      for (int radial = 0; radial < vinfo.yt; radial++) {
+        //bos.get(b2, 0, 2);
+        //int test = getInt(b2, 0, 2);
+        int runLen = bos.getShort();   // getInt(vdata, doff, 2 );
+        // int runLen = getInt(b2, 0, 2);
         doff += 2;
-      }
-      byte[] rdata = null;
-      byte[] bdata = null;
-
-      if (vinfo.xt != runLen) {
-        rdata = new byte[runLen * 2];
-        bos.get(rdata, 0, runLen * 2);
-        doff += runLen * 2;
-        bdata = readOneBeamData(rdata, runLen, vinfo.xt, vinfo.level);
-      } else {
-        rdata = new byte[runLen];
-
-        bos.get(rdata, 0, runLen);
-        doff += runLen;
-        // sdata = readOneBeamShortData(rdata, runLen, vinfo.xt, vinfo.level);
-        bdata = rdata.clone();
-      }
+        if (vinfo.isRadial) {
+          int radialAngle = bos.getShort();
+          doff += 2;
+          int radialAngleD = bos.getShort();
+          doff += 2;
+        }
+        byte[] rdata = null;
+        byte[] bdata = null;
+
+        if (vinfo.xt != runLen) {
+          rdata = new byte[runLen * 2];
+          bos.get(rdata, 0, runLen * 2);
+          doff += runLen * 2;
+          bdata = readOneBeamData(rdata, runLen, vinfo.xt, vinfo.level);
+        } else {
+          rdata = new byte[runLen];
+
+          bos.get(rdata, 0, runLen);
+          doff += runLen;
+          // sdata = readOneBeamShortData(rdata, runLen, vinfo.xt, vinfo.level);
+          bdata = rdata;
+        }
 
-      if (vinfo.x0 > 0) {
-        for (int i = 0; i < vinfo.x0; i++) {
-          odata[i] = 0;
+        if (vinfo.x0 > 0) {
+          for (int i = 0; i < vinfo.x0; i++) {
+            odata[i] = 0;
+          }
         }
-      }
 
-      System.arraycopy(bdata, 0, odata, vinfo.x0, bdata.length);
+        System.arraycopy(bdata, 0, odata, vinfo.x0, bdata.length);
 
-      // copy into odata
-      System.arraycopy(odata, 0, pdata, vinfo.xt * radial, vinfo.xt);
+        // copy into odata
+        System.arraycopy(odata, 0, pdata, vinfo.xt * radial, vinfo.xt);
 
-    }   //end of for loop
+      }   //end of for loop
+      putDecodedScan(vinfo, pdata);
+    }
     int offset = 0;
     if (vName.endsWith("_RAW")) {
       return pdata;
@@ -890,6 +905,26 @@ ByteBuffer bos = ByteBuffer.wrap(vdata);     */
     return null;
   }
 
+  /**
+   * Get the pixel bytes of a scan if this packet was already decoded.
+   * The _RAW and calibrated variables share the same packet, and subset reads
+   * of one variable come back for the same packet, so only decode it once.
+   *
+   * @param vinfo variable info
+   * @return decoded pixels, or null if not cached
+   */
+  private byte[] getDecodedScan(Nidsheader.Vinfo vinfo) {
+    SoftReference<DecodedScan> ref = decodedScan;
+    DecodedScan scan = (ref == null) ? null : ref.get();
+    if (scan == null || scan.doff != vinfo.doff || scan.pdata.length != vinfo.yt * vinfo.xt)
+      return null;
+    return scan.pdata;
+  }
+
+  private void putDecodedScan(Nidsheader.Vinfo vinfo, byte[] pdata) {
+    decodedScan = new SoftReference<DecodedScan>(new DecodedScan(vinfo.doff, pdata));
+  }
+
   public float getHexDecodeValue(short val) {
       float deco;
 
@@ -1461,29 +1496,33 @@ short arrowHeadValue = 0;    */
     int doff = 0;
     int offset = 0;
     //byte[] odata = new byte[ vinfo.xt];
-    byte[] pdata = new byte[vinfo.yt * vinfo.xt];
     byte[] b2 = new byte[2];
     int npixel = vinfo.yt * vinfo.xt;
-    //int t = 0;
-    bos.position(0);
+    byte[] pdata = getDecodedScan(vinfo);
+    if (pdata == null) {
+      pdata = new byte[npixel];
+      //int t = 0;
+      bos.position(0);
 
-    for (int radial = 0; radial < vinfo.yt; radial++) {
+      for (int radial = 0; radial < vinfo.yt; radial++) {
 
-      bos.get(b2);
-      int runLen = getUInt(b2, 0, 2); //bos.getShort();   //   getInt(vdata, doff, 2 );
-      doff += 2;
+        bos.get(b2);
+        int runLen = getUInt(b2, 0, 2); //bos.getShort();   //   getInt(vdata, doff, 2 );
+        doff += 2;
 
-      byte[] rdata = new byte[runLen];
+        byte[] rdata = new byte[runLen];
 
-      int tmpp = bos.remaining();
-      bos.get(rdata, 0, runLen);
-      doff += runLen;
-      byte[] bdata = readOneRowData(rdata, runLen, vinfo.xt);
+        int tmpp = bos.remaining();
+        bos.get(rdata, 0, runLen);
+        doff += runLen;
+        byte[] bdata = readOneRowData(rdata, runLen, vinfo.xt);
 
-      // copy into odata
-      System.arraycopy(bdata, 0, pdata, vinfo.xt * radial, vinfo.xt);
+        // copy into odata
+        System.arraycopy(bdata, 0, pdata, vinfo.xt * radial, vinfo.xt);
 
-    }   //end of for loop
+      }   //end of for loop
+      putDecodedScan(vinfo, pdata);
+    }
 
     if (vName.endsWith("_RAW")) {
       return pdata;
@@ -247,6 +247,7 @@ public class AggregationExisting extends AggregationOuterDimension {
    * @throws IOException
    */
   public void persistWrite() throws IOException {
+    super.persistWrite();
     if (diskCache2 == null)
       return;
 
@@ -39,6 +39,7 @@ import ucar.nc2.units.DateUnit;
 import ucar.nc2.units.DateFromString;
 import ucar.ma2.*;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.*;
@@ -62,6 +63,7 @@ public abstract class AggregationOuterDimension extends Aggregation implements P
 
   protected List<CacheVar> cacheList = new ArrayList<CacheVar>(); // promote global attribute to variable
   protected boolean timeUnitsChange = false;
+  private String coordsCacheKey; // if not null, share ncoords and cached values of nested datasets through NcmlCache
 
   /**
    * Create an Aggregation for the given NetcdfDataset.
@@ -145,8 +147,19 @@ public abstract class AggregationOuterDimension extends Aggregation implements P
     return aggVarNames;
   }
 
+  /**
+   * Share the number of coordinates and the cached variable values of the nested datasets with other
+   * opens of the same aggregation, through NcmlCache.
+   *
+   * @param key from NcmlCache.makeAggregationKey()
+   */
+  void setCoordsCacheKey(String key) {
+    this.coordsCacheKey = key;
+  }
+
   protected void buildCoords(CancelTask cancelTask) throws IOException {
     List<Dataset> nestedDatasets = getDatasets();
+    coordsCacheRead(nestedDatasets);
 
     if (type == Type.forecastModelRunCollection) {
       for (Dataset nested : nestedDatasets) {
@@ -162,6 +175,66 @@ public abstract class AggregationOuterDimension extends Aggregation implements P
     }
   }
 
+  // use what another open of this aggregation found for datasets that havent changed
+  private void coordsCacheRead(List<Dataset> nestedDatasets) {
+    if (coordsCacheKey == null) return;
+    Map<String, NcmlCache.DatasetCoords> coords = NcmlCache.getCoords(coordsCacheKey);
+    if (coords == null) return;
+
+    for (Dataset nested : nestedDatasets) {
+      DatasetOuterDimension dod = (DatasetOuterDimension) nested;
+      NcmlCache.DatasetCoords dc = coords.get(dod.getCacheLocation());
+      if (dc == null) continue;
+      long lastModified = datasetLastModified(dod);
+      if ((lastModified <= 0) || (lastModified != dc.lastModified)) continue;
+
+      if (dod.ncoord <= 0) dod.ncoord = dc.ncoord;
+      for (CacheVar cv : cacheList) {
+        Array data = dc.data.get(cv.varName);
+        if ((data != null) && (cv.getData(dod.getId()) == null))
+          cv.putData(dod.getId(), data);
+      }
+    }
+  }
+
+  private void coordsCacheWrite() {
+    if (coordsCacheKey == null) return;
+    Map<String, NcmlCache.DatasetCoords> coords = new HashMap<String, NcmlCache.DatasetCoords>();
+    for (Dataset nested : getDatasets()) {
+      DatasetOuterDimension dod = (DatasetOuterDimension) nested;
+      if (dod.ncoord <= 0) continue;
+      long lastModified = datasetLastModified(dod);
+      if (lastModified <= 0) continue;
+
+      Map<String, Array> data = new HashMap<String, Array>();
+      for (CacheVar cv : cacheList) {
+        Array a = cv.getData(dod.getId());
+        if (a != null) data.put(cv.varName, a);
+      }
+      coords.put(dod.getCacheLocation(), new NcmlCache.DatasetCoords(lastModified, dod.ncoord, data));
+    }
+    NcmlCache.putCoords(coordsCacheKey, coords);
+  }
+
+  private long datasetLastModified(Dataset nested) {
+    MFile mfile = nested.getMFile();
+    if (mfile != null) return mfile.getLastModified();
+    if (nested.getCacheLocation() == null) return -1;
+    File file = new File(nested.getCacheLocation());
+    return file.exists() ? file.lastModified() : -1;
+  }
+
+  /**
+   * Keep the number of coordinates and cached variable values in NcmlCache, if enabled for this aggregation.
+   * Subclasses that override must call super.
+   *
+   * @throws IOException on error
+   */
+  @Override
+  public void persistWrite() throws IOException {
+    coordsCacheWrite();
+  }
+
   protected int getTotalCoords() {
     return totalCoords;
   }
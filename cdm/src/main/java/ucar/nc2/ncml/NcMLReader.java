@@ -226,12 +226,16 @@ public class NcMLReader {
     }
 
     org.jdom2.Document doc;
-    try {
-      SAXBuilder builder = new SAXBuilder();
-      if (debugURL) System.out.println(" NetcdfDataset URL = <" + url + ">");
-      doc = builder.build(url);
-    } catch (JDOMException e) {
-      throw new IOException(e.getMessage());
+    if (NcmlCache.isEnabled()) { // reuse the parsed document if the contents havent changed
+      doc = NcmlCache.getDocument(IO.readURLContentsToByteArray(url.toExternalForm()), url.toExternalForm());
+    } else {
+      try {
+        SAXBuilder builder = new SAXBuilder();
+        if (debugURL) System.out.println(" NetcdfDataset URL = <" + url + ">");
+        doc = builder.build(url);
+      } catch (JDOMException e) {
+        throw new IOException(e.getMessage());
+      }
     }
     if (debugXML) System.out.println(" SAXBuilder done");
 
@@ -266,11 +270,15 @@ public class NcMLReader {
   static public NetcdfDataset readNcML(InputStream ins, CancelTask cancelTask) throws IOException {
 
     org.jdom2.Document doc;
-    try {
-      SAXBuilder builder = new SAXBuilder();
-      doc = builder.build(ins);
-    } catch (JDOMException e) {
-      throw new IOException(e.getMessage());
+    if (NcmlCache.isEnabled()) {
+      doc = NcmlCache.getDocument(IO.readContentsToByteArray(ins), null);
+    } else {
+      try {
+        SAXBuilder builder = new SAXBuilder();
+        doc = builder.build(ins);
+      } catch (JDOMException e) {
+        throw new IOException(e.getMessage());
+      }
     }
     if (debugXML) System.out.println(" SAXBuilder done");
 
@@ -1291,6 +1299,10 @@ public class NcMLReader {
       throw new IllegalArgumentException("Unknown aggregation type=" + type);
     }
 
+    // coordinates found by a previous open of the same aggregation can be reused
+    if (NcmlCache.isEnabled() && (agg instanceof AggregationOuterDimension))
+      ((AggregationOuterDimension) agg).setCoordsCacheKey(NcmlCache.makeAggregationKey(ncmlLocation, aggElem));
+
     if (agg instanceof AggregationOuterDimension) {
       AggregationOuterDimension aggo = (AggregationOuterDimension) agg;
 
@@ -0,0 +1,251 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package ucar.nc2.ncml;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.JDOMException;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
+import ucar.ma2.Array;
+import ucar.ma2.DataType;
+import ucar.nc2.constants.CDM;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Formatter;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps what is expensive to recreate when the same NcML is opened again:
+ * <ul>
+ * <li>Parsed NcML documents, found by a digest of the document contents.
+ * <li>For outer dimension aggregations, the number of coordinates and the cached variable values of each nested dataset,
+ *  found by the NcML location and a digest of the aggregation element. These are only used for a nested dataset
+ *  whose lastModified has not changed.
+ * </ul>
+ * Cached documents and arrays are shared and must be treated as read-only.
+ * Entries are kept in LRU order and evicted when the total size passes maxBytes. The default maxBytes is 0, which turns it off.
+ *
+ * @since 10/19/2026
+ */
+public class NcmlCache {
+  static private final int DATASET_SIZE = 100; // nominal size of the coordinate info of one nested dataset
+
+  static private long maxBytes = 0;
+  static private final LinkedHashMap<String, Entry> cache = new LinkedHashMap<String, Entry>(64, .75f, true);
+  static private long totalBytes;
+  static private int docHits, docMisses, aggHits, aggMisses;
+
+  /**
+   * Set the size of the cache, 0 turns it off.
+   *
+   * @param max maximum bytes of NcML documents and aggregation coordinates to keep
+   */
+  static public void setMaxBytes(long max) {
+    synchronized (cache) {
+      maxBytes = max;
+      evict();
+    }
+  }
+
+  static public boolean isEnabled() {
+    return maxBytes > 0;
+  }
+
+  static public void clear() {
+    synchronized (cache) {
+      cache.clear();
+      totalBytes = 0;
+    }
+  }
+
+  static public void showStats(Formatter f) {
+    synchronized (cache) {
+      f.format("NcmlCache: %d entries, %d bytes (max %d), documents hits=%d misses=%d, aggregations hits=%d misses=%d%n",
+              cache.size(), totalBytes, maxBytes, docHits, docMisses, aggHits, aggMisses);
+    }
+  }
+
+  /**
+   * Parse an NcML document, or get it from the cache if the same contents were parsed before.
+   *
+   * @param contents the NcML document
+   * @param systemId resolve relative references in the document against this, may be null
+   * @return the parsed document, do not modify
+   * @throws IOException on parse error
+   */
+  static public Document getDocument(byte[] contents, String systemId) throws IOException {
+    String key = "doc:" + digest(contents);
+    if (isEnabled()) {
+      synchronized (cache) {
+        Entry entry = cache.get(key);
+        if (entry != null) {
+          docHits++;
+          return (Document) entry.value;
+        }
+        docMisses++;
+      }
+    }
+
+    Document doc;
+    try {
+      SAXBuilder builder = new SAXBuilder();
+      doc = builder.build(new ByteArrayInputStream(contents), systemId);
+    } catch (JDOMException e) {
+      throw new IOException(e.getMessage());
+    }
+
+    if (isEnabled()) {
+      synchronized (cache) {
+        put(key, doc, 2L * contents.length); // rough size of the parsed tree
+      }
+    }
+    return doc;
+  }
+
+  /**
+   * Make the key for the coordinates of an aggregation.
+   *
+   * @param ncmlLocation location of the NcML, relative locations in the aggregation are resolved against it; may be null
+   * @param aggElem      the aggregation element
+   * @return key for getCoords() and putCoords()
+   */
+  static String makeAggregationKey(String ncmlLocation, Element aggElem) {
+    XMLOutputter fmt = new XMLOutputter(Format.getCompactFormat());
+    return "agg:" + ncmlLocation + "#" + digest(fmt.outputString(aggElem).getBytes(CDM.utf8Charset));
+  }
+
+  /**
+   * Get the coordinates of the nested datasets of an aggregation.
+   *
+   * @param key from makeAggregationKey()
+   * @return map of dataset id to its coordinates, or null if not cached. Do not modify.
+   */
+  static Map<String, DatasetCoords> getCoords(String key) {
+    if (!isEnabled()) return null;
+    synchronized (cache) {
+      Entry entry = cache.get(key);
+      if (entry == null) {
+        aggMisses++;
+        return null;
+      }
+      aggHits++;
+      return (Map<String, DatasetCoords>) entry.value;
+    }
+  }
+
+  /**
+   * Keep the coordinates of the nested datasets of an aggregation, replacing any previous ones.
+   *
+   * @param key    from makeAggregationKey()
+   * @param coords map of dataset id to its coordinates, not changed afterwards by the caller
+   */
+  static void putCoords(String key, Map<String, DatasetCoords> coords) {
+    if (!isEnabled()) return;
+    long size = 0;
+    for (DatasetCoords dc : coords.values())
+      size += dc.size();
+    synchronized (cache) {
+      put(key, coords, size);
+    }
+  }
+
+  // the info that AggregationOuterDimension needs for one nested dataset
+  static class DatasetCoords {
+    final long lastModified;
+    final int ncoord;
+    final Map<String, Array> data; // cached variable values, key = variable name
+
+    DatasetCoords(long lastModified, int ncoord, Map<String, Array> data) {
+      this.lastModified = lastModified;
+      this.ncoord = ncoord;
+      this.data = data;
+    }
+
+    long size() {
+      long size = DATASET_SIZE;
+      for (Array a : data.values())
+        size += a.getSize() * DataType.getType(a.getElementType()).getSize();
+      return size;
+    }
+  }
+
+  static private class Entry {
+    final Object value;
+    final long size;
+
+    Entry(Object value, long size) {
+      this.value = value;
+      this.size = size;
+    }
+  }
+
+  static private String digest(byte[] contents) {
+    try {
+      MessageDigest md = MessageDigest.getInstance("MD5");
+      byte[] b = md.digest(contents);
+      StringBuilder sb = new StringBuilder(2 * b.length + 12);
+      for (byte aB : b)
+        sb.append(Character.forDigit((aB >> 4) & 0xf, 16)).append(Character.forDigit(aB & 0xf, 16));
+      return sb.append('-').append(contents.length).toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  // must hold lock
+  static private void put(String key, Object value, long size) {
+    if (size > maxBytes) return;
+    Entry old = cache.put(key, new Entry(value, size));
+    if (old != null) totalBytes -= old.size;
+    totalBytes += size;
+    evict();
+  }
+
+  // must hold lock
+  static private void evict() {
+    Iterator<Entry> iter = cache.values().iterator();
+    while (totalBytes > maxBytes && iter.hasNext()) {
+      totalBytes -= iter.next().size;
+      iter.remove();
+    }
+  }
+
+}
@@ -75,6 +75,11 @@ public class NcStream {
   static public final byte[] MAGIC_END = new byte[]{(byte) 0xed, (byte) 0xed, (byte) 0xde, (byte) 0xde};
 
   static NcStreamProto.Group.Builder encodeGroup(Group g, int sizeToCache) throws IOException {
+    return encodeGroup(g, sizeToCache, false);
+  }
+
+  // if keepCachedData, any variable that already has cached data keeps it, regardless of size or type
+  static NcStreamProto.Group.Builder encodeGroup(Group g, int sizeToCache, boolean keepCachedData) throws IOException {
     NcStreamProto.Group.Builder groupBuilder = NcStreamProto.Group.newBuilder();
     groupBuilder.setName(g.getShortName());
 
@@ -91,11 +96,11 @@ public class NcStream {
       if (var instanceof Structure)
         groupBuilder.addStructs(NcStream.encodeStructure((Structure) var));
       else
-        groupBuilder.addVars(NcStream.encodeVar(var, sizeToCache));
+        groupBuilder.addVars(NcStream.encodeVar(var, sizeToCache, keepCachedData));
     }
 
     for (Group ng : g.getGroups())
-      groupBuilder.addGroups(encodeGroup(ng, sizeToCache));
+      groupBuilder.addGroups(encodeGroup(ng, sizeToCache, keepCachedData));
 
     return groupBuilder;
   }
@@ -150,6 +155,10 @@ public class NcStream {
   }
 
   static NcStreamProto.Variable.Builder encodeVar(Variable var, int sizeToCache) throws IOException {
+    return encodeVar(var, sizeToCache, false);
+  }
+
+  static NcStreamProto.Variable.Builder encodeVar(Variable var, int sizeToCache, boolean keepCachedData) throws IOException {
     NcStreamProto.Variable.Builder builder = NcStreamProto.Variable.newBuilder();
     builder.setName(var.getShortName());
     builder.setDataType(encodeDataType(var.getDataType()));
@@ -169,8 +178,13 @@ public class NcStream {
       builder.addAtts(encodeAtt(att));
     }
 
+    if (keepCachedData && var.hasCachedData()) {
+      Array data = var.read();
+      ByteBuffer bb = data.getDataAsByteBuffer();
+      builder.setData(ByteString.copyFrom(bb.array()));
+
     // put small amounts of data in header "immediate mode"
-    if (var.isCaching() && var.getDataType().isNumeric()) {
+    } else if (var.isCaching() && var.getDataType().isNumeric()) {
       if (var.isCoordinateVariable() || var.getSize() * var.getElementSize() < sizeToCache) {
         Array data = var.read();
         ByteBuffer bb = data.getDataAsByteBuffer();
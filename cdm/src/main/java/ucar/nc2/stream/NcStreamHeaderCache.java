@@ -0,0 +1,221 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package ucar.nc2.stream;
+
+import ucar.ma2.DataType;
+import ucar.nc2.*;
+import ucar.nc2.iosp.HeaderCacheable;
+import ucar.nc2.util.CancelTask;
+import ucar.nc2.util.DiskCache2;
+import ucar.unidata.io.RandomAccessFile;
+
+import java.io.*;
+
+/**
+ * Persistent cache of parsed file headers, so that reopening a file does not need to parse its header again.
+ * The CDM objects are stored using the ncstream header message, followed by the iosp-specific layout from HeaderCacheable.
+ * A cache file is only used if the location, last modified date, file size and iosp class all match.
+ * Cache files are written to a temporary file and renamed, so readers never see a partially written one.
+ * <pre>
+ *  headerCache = MAGIC_START key MAGIC_HEADER vlen header vlen layout MAGIC_END
+ *  key = location(UTF) lastModified(long) length(long) iospClassName(UTF)
+ * </pre>
+ *
+ * @since 10/19/2026
+ * @see ucar.nc2.NetcdfFile#setHeaderCache(NcStreamHeaderCache)
+ */
+public class NcStreamHeaderCache {
+  static private org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(NcStreamHeaderCache.class);
+  static private final String SUFFIX = ".ncsh";
+
+  private final DiskCache2 diskCache;
+  private boolean debug = false;
+
+  /**
+   * Constructor.
+   * @param diskCache where the cache files are kept
+   */
+  public NcStreamHeaderCache(DiskCache2 diskCache) {
+    this.diskCache = diskCache;
+  }
+
+  /**
+   * Populate ncfile from the header cache, if there is a valid entry.
+   * If this returns false, ncfile may be partially populated and must be discarded.
+   *
+   * @param raf        the file, already passed isValidFile()
+   * @param ncfile     empty NetcdfFile
+   * @param iosp       the iosp, which is also ncfile's iosp
+   * @param cancelTask allow user to cancel; may be null.
+   * @return true if ncfile was populated and the iosp opened
+   */
+  public boolean read(RandomAccessFile raf, NetcdfFile ncfile, HeaderCacheable iosp, CancelTask cancelTask) {
+    File cacheFile = getCacheFile(raf);
+    if (cacheFile == null || !cacheFile.exists()) return false;
+
+    DataInputStream in = null;
+    try {
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)));
+      if (!NcStream.readAndTest(in, NcStream.MAGIC_START)) return false;
+      if (!in.readUTF().equals(raf.getLocation())) return false;
+      if (in.readLong() != raf.getLastModified()) return false;
+      if (in.readLong() != raf.length()) return false;
+      if (!in.readUTF().equals(iosp.getClass().getName())) return false;
+
+      if (!NcStream.readAndTest(in, NcStream.MAGIC_HEADER)) return false;
+      byte[] m = new byte[NcStream.readVInt(in)];
+      NcStream.readFully(in, m);
+      byte[] layout = new byte[NcStream.readVInt(in)];
+      NcStream.readFully(in, layout);
+      if (!NcStream.readAndTest(in, NcStream.MAGIC_END)) return false;
+
+      NcStreamProto.Header proto = NcStreamProto.Header.parseFrom(m);
+      if (proto.hasId()) ncfile.setId(proto.getId());
+      if (proto.hasTitle()) ncfile.setTitle(proto.getTitle());
+      NcStream.readGroup(proto.getRoot(), ncfile, ncfile.getRootGroup());
+
+      iosp.openFromHeaderLayout(raf, ncfile, layout, cancelTask);
+      if (debug) System.out.printf("NcStreamHeaderCache read %s from %s%n", raf.getLocation(), cacheFile.getPath());
+      return true;
+
+    } catch (Throwable t) {
+      logger.warn("Failed to read header cache " + cacheFile.getPath() + " for " + raf.getLocation(), t);
+      return false;
+
+    } finally {
+      if (in != null) try {
+        in.close();
+      } catch (IOException ioe) {
+        // ignore
+      }
+    }
+  }
+
+  /**
+   * Write the header of an opened file to the cache. Failures are logged, not thrown.
+   * If another writer replaces the same cache file concurrently, the last rename wins; both contents are valid.
+   *
+   * @param raf    the file
+   * @param ncfile opened with iosp
+   * @param iosp   the iosp that opened ncfile
+   */
+  public void write(RandomAccessFile raf, NetcdfFile ncfile, HeaderCacheable iosp) {
+    File cacheFile = getCacheFile(raf);
+    if (cacheFile == null) return;
+
+    File tmpFile = null;
+    FileOutputStream fos = null;
+    try {
+      if (!isCacheable(ncfile.getRootGroup())) return;
+      byte[] layout = iosp.getHeaderLayout(ncfile);
+      if (layout == null) return;
+
+      NcStreamProto.Header.Builder headerBuilder = NcStreamProto.Header.newBuilder();
+      headerBuilder.setLocation(raf.getLocation());
+      if (ncfile.getTitle() != null) headerBuilder.setTitle(ncfile.getTitle());
+      if (ncfile.getId() != null) headerBuilder.setId(ncfile.getId());
+      headerBuilder.setRoot(NcStream.encodeGroup(ncfile.getRootGroup(), -1, true));
+      byte[] header = headerBuilder.build().toByteArray();
+
+      File dir = cacheFile.getParentFile();
+      if (dir != null && !dir.exists() && !dir.mkdirs())
+        logger.warn("Cant make cache directory= " + dir);
+
+      // never truncate the cache file in place: write a temporary file in the same directory, then rename it
+      tmpFile = File.createTempFile(cacheFile.getName(), ".tmp", dir);
+      fos = new FileOutputStream(tmpFile);
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos));
+      out.write(NcStream.MAGIC_START);
+      out.writeUTF(raf.getLocation());
+      out.writeLong(raf.getLastModified());
+      out.writeLong(raf.length());
+      out.writeUTF(iosp.getClass().getName());
+
+      out.write(NcStream.MAGIC_HEADER);
+      NcStream.writeVInt(out, header.length);
+      out.write(header);
+      NcStream.writeVInt(out, layout.length);
+      out.write(layout);
+      out.write(NcStream.MAGIC_END);
+      out.flush();
+      fos.close();
+      fos = null;
+
+      if (!tmpFile.renameTo(cacheFile)) {
+        // some platforms wont rename over an existing file
+        if (!cacheFile.delete() || !tmpFile.renameTo(cacheFile))
+          throw new IOException("Failed to rename " + tmpFile.getPath() + " to " + cacheFile.getPath());
+      }
+      tmpFile = null;
+      if (debug) System.out.printf("NcStreamHeaderCache wrote %s to %s%n", raf.getLocation(), cacheFile.getPath());
+
+    } catch (Throwable t) {
+      logger.warn("Failed to write header cache " + cacheFile.getPath() + " for " + raf.getLocation(), t);
+
+    } finally {
+      if (fos != null) try {
+        fos.close();
+      } catch (IOException ioe) {
+        // ignore
+      }
+      if (tmpFile != null && tmpFile.exists() && !tmpFile.delete())
+        logger.warn("Failed to delete temporary header cache " + tmpFile.getPath());
+    }
+  }
+
+  // only local files are cached, since we need a reliable lastModified
+  private File getCacheFile(RandomAccessFile raf) {
+    String location = raf.getLocation();
+    if (location == null || location.startsWith("http:") || !new File(location).exists()) return null;
+    return diskCache.getCacheFile(location + SUFFIX);
+  }
+
+  // cached data must be representable in the ncstream header
+  private boolean isCacheable(Group g) {
+    for (Variable v : g.getVariables()) {
+      if (v instanceof Structure) {
+        if (v.hasCachedData()) return false;
+        for (Variable m : ((Structure) v).getVariables())
+          if (m.hasCachedData()) return false;
+      } else if (v.hasCachedData()) {
+        DataType dt = v.getDataType();
+        if (dt == DataType.STRING || dt == DataType.OPAQUE || v.isVariableLength()) return false;
+      }
+    }
+    for (Group ng : g.getGroups())
+      if (!isCacheable(ng)) return false;
+    return true;
+  }
+
+}
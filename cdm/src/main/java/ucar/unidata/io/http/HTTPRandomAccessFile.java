@@ -43,6 +43,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.channels.WritableByteChannel;
 import java.nio.ByteBuffer;
+import java.util.Formatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Gives access to files over HTTP, using "Accept-Ranges" HTTP header to do random access.
@@ -56,6 +59,30 @@ import java.nio.ByteBuffer;
 public class HTTPRandomAccessFile extends ucar.unidata.io.RandomAccessFile {
   static public int defaultHTTPBufferSize = 20000;
 
+  static private int defaultBlockSize = 32 * 1024;
+  static private int defaultCacheBlocks = 64;
+  static private int defaultReadAheadBlocks = 16;
+  static private int defaultGapBlocks = 2;
+
+  /**
+   * Set the block cache used by files opened after this call.
+   * Data is fetched in whole blocks, which are kept in a per-file LRU cache. Requests for nearby blocks are
+   * coalesced into one range request, and sequential reads fetch increasingly more blocks ahead.
+   *
+   * @param blockSize     size of a block in bytes; 0 turns the cache off, so each read is one range request
+   * @param maxCacheBytes maximum bytes cached for each open file
+   * @param maxReadAhead  maximum bytes to read ahead when reading sequentially
+   * @param maxGap        when coalescing, also refetch cached blocks in gaps up to this many bytes
+   */
+  static public void setBlockCache(int blockSize, int maxCacheBytes, int maxReadAhead, int maxGap) {
+    defaultBlockSize = Math.max(blockSize, 0);
+    if (blockSize > 0) {
+      defaultCacheBlocks = Math.max(maxCacheBytes / blockSize, 2);
+      defaultReadAheadBlocks = Math.min(maxReadAhead / blockSize, defaultCacheBlocks / 2 - 1);
+      defaultGapBlocks = maxGap / blockSize;
+    }
+  }
+
   ///////////////////////////////////////////////////////////////////////////////////
 
   private String url;
@@ -63,6 +90,23 @@ public class HTTPRandomAccessFile extends ucar.unidata.io.RandomAccessFile {
   private long total_length = 0;
   private boolean debug = false, debugDetails = false;
 
+  // block cache
+  private final int blockSize = defaultBlockSize;
+  private final int maxBlocks = defaultCacheBlocks;
+  private final int maxReadAhead = defaultReadAheadBlocks;
+  private final int maxGap = defaultGapBlocks;
+  private final Map<Long, byte[]> blocks = new LinkedHashMap<Long, byte[]>(2 * maxBlocks, .75f, true) {
+    protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+      return size() > maxBlocks;
+    }
+  };
+  private long lastEnd = -1; // end of the last read, to detect sequential reading
+  private int readAhead = 0; // in blocks
+
+  // statistics
+  private int nrequests, nhits, nmisses;
+  private long nbytes;
+
   public HTTPRandomAccessFile(String url) throws IOException {
     this(url, defaultHTTPBufferSize);
     location = url;
@@ -128,6 +172,7 @@ public class HTTPRandomAccessFile extends ucar.unidata.io.RandomAccessFile {
     if (debugLeaks)
       openFiles.remove(location);
 
+    blocks.clear();
     if (session != null) {
       session.close();
       session = null;
@@ -196,6 +241,91 @@ public class HTTPRandomAccessFile extends ucar.unidata.io.RandomAccessFile {
    */
   @Override
   protected int read_(long pos, byte[] buff, int offset, int len) throws IOException {
+    if (blockSize <= 0 || len > blockSize * (maxBlocks / 2))  // too big to cache
+      return readRange(pos, buff, offset, len);
+    if (pos >= total_length)
+      return -1;
+
+    long end = Math.min(pos + len, total_length); // exclusive
+    long first = pos / blockSize;
+    long last = (end - 1) / blockSize;
+
+    // read ahead more each time the reads are sequential
+    readAhead = (pos == lastEnd) ? Math.min(Math.max(2 * readAhead, 1), maxReadAhead) : 0;
+    lastEnd = end;
+
+    boolean needFetch = false;
+    for (long b = first; b <= last; b++) {
+      if (blocks.containsKey(b)) {
+        nhits++;
+      } else {
+        nmisses++;
+        needFetch = true;
+      }
+    }
+    if (needFetch)
+      fetchBlocks(first, Math.min(last + readAhead, (total_length - 1) / blockSize), last);
+
+    // copy from the cache
+    int done = 0;
+    while (pos + done < end) {
+      long p = pos + done;
+      long b = p / blockSize;
+      byte[] block = blocks.get(b);
+      if (block == null) { // evicted, or a short read from the server
+        int n = readRange(p, buff, offset + done, (int) (end - p));
+        return (n > 0) ? done + n : done;
+      }
+      int boff = (int) (p - b * blockSize);
+      int n = (int) Math.min(block.length - boff, end - p);
+      System.arraycopy(block, boff, buff, offset + done, n);
+      done += n;
+    }
+    return done;
+  }
+
+  // fetch the missing blocks from first to stop, coalescing them into as few requests as possible.
+  // up to maxGap cached blocks are refetched to join two runs of needed blocks, but read ahead stops at a cached block.
+  private void fetchBlocks(long first, long stop, long last) throws IOException {
+    long b = first;
+    while (b <= stop) {
+      if (blocks.containsKey(b)) {
+        b++;
+        continue;
+      }
+      long runEnd = b;
+      int gap = 0;
+      for (long k = b + 1; k <= stop; k++) {
+        if (!blocks.containsKey(k)) {
+          runEnd = k;
+          gap = 0;
+        } else if (k > last || ++gap > maxGap) {
+          break;
+        }
+      }
+      fetchRun(b, runEnd);
+      b = runEnd + 1;
+    }
+  }
+
+  private void fetchRun(long firstBlock, long lastBlock) throws IOException {
+    long start = firstBlock * blockSize;
+    long end = Math.min((lastBlock + 1) * blockSize, total_length);
+    byte[] data = new byte[(int) (end - start)];
+    int got = readRange(start, data, 0, data.length);
+
+    for (long b = firstBlock; b <= lastBlock; b++) {
+      int off = (int) ((b - firstBlock) * blockSize);
+      int want = (int) Math.min(blockSize, total_length - b * blockSize);
+      if (off + want > got) break; // only keep whole blocks
+      byte[] block = new byte[want];
+      System.arraycopy(data, off, block, 0, want);
+      blocks.put(b, block);
+    }
+  }
+
+  // one range request
+  private int readRange(long pos, byte[] buff, int offset, int len) throws IOException {
     long end = pos + len - 1;
     if (end >= total_length)
       end = total_length - 1;
@@ -222,6 +352,8 @@ public class HTTPRandomAccessFile extends ucar.unidata.io.RandomAccessFile {
 
       InputStream is = method.getResponseAsStream();
       readLen = copy(is, buff, offset, readLen);
+      nrequests++;
+      nbytes += readLen;
       return readLen;
 
     } finally {
@@ -249,6 +381,26 @@ public class HTTPRandomAccessFile extends ucar.unidata.io.RandomAccessFile {
     return done;
   }
 
+  /**
+   * Number of HTTP range requests made to read data.
+   * @return number of requests
+   */
+  public int getRequestCount() {
+    return nrequests;
+  }
+
+  /**
+   * Number of data bytes received from the server.
+   * @return number of bytes
+   */
+  public long getBytesFetched() {
+    return nbytes;
+  }
+
+  public void showStats(Formatter f) {
+    f.format("%s: requests=%d bytes=%d blockCache hits=%d misses=%d cached=%d%n", url, nrequests, nbytes, nhits, nmisses, blocks.size());
+  }
+
   // override selected RandomAccessFile public methods
 
   @Override
@@ -0,0 +1,196 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package thredds.filesystem;
+
+import junit.framework.TestCase;
+import thredds.inventory.MCollection;
+import thredds.inventory.MFile;
+import thredds.inventory.MFileFilter;
+import thredds.inventory.filter.WildcardMatchOnName;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Test DirectoryTreeScanner, full and incremental, sequential and parallel
+ */
+public class TestDirectoryTreeScanner extends TestCase {
+  private File top;
+
+  public TestDirectoryTreeScanner(String name) {
+    super(name);
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    top = new File("target/test/tmp/TestDirectoryTreeScanner");
+    delete(top);
+    for (int i = 0; i < 3; i++) {
+      File dir = new File(top, "day" + i);
+      for (int j = 0; j < 2; j++) {
+        File sub = new File(dir, "hour" + j);
+        assertTrue(sub.mkdirs());
+        touch(new File(sub, "data" + i + j + ".grb"));
+        touch(new File(sub, "data" + i + j + ".txt"));
+      }
+    }
+    touch(new File(top, "top.grb"));
+    backdate(top);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    delete(top);
+  }
+
+  public void testSequential() throws IOException {
+    doScans(null);
+  }
+
+  public void testParallel() throws IOException {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      doScans(executor);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  // a directory that cant be listed fails the scan, instead of dropping its subtree from the collection
+  public void testUnreadableDirectory() throws IOException {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      checkUnreadable(null);
+      checkUnreadable(executor);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private void checkUnreadable(ExecutorService executor) throws IOException {
+    List<MFileFilter> filters = new ArrayList<MFileFilter>();
+    filters.add(new WildcardMatchOnName("*.grb"));
+    MCollection mc = new MCollection("test", top.getPath(), true, filters, null);
+    final File unreadable = new File(top, "day1");
+    final boolean[] fail = new boolean[1];
+    DirectoryTreeScanner scanner = new DirectoryTreeScanner(executor) {
+      File[] listFiles(File dir) {
+        return (fail[0] && dir.equals(unreadable)) ? null : dir.listFiles();
+      }
+    };
+
+    Map<String, MFile> files = new HashMap<String, MFile>();
+    assertEquals(7, scanner.scan(mc, files, true));
+
+    fail[0] = true;
+    try {
+      scanner.scan(mc, new HashMap<String, MFile>(), true);
+      fail("scan should fail on " + unreadable);
+    } catch (IOException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("day1"));
+    }
+
+    // the listings of the first scan are kept
+    fail[0] = false;
+    files.clear();
+    assertEquals(7, scanner.scan(mc, files, false));
+    assertEquals(0, scanner.getCountListed());
+  }
+
+  private void doScans(ExecutorService executor) throws IOException {
+    List<MFileFilter> filters = new ArrayList<MFileFilter>();
+    filters.add(new WildcardMatchOnName("*.grb"));
+    MCollection mc = new MCollection("test", top.getPath(), true, filters, null);
+    DirectoryTreeScanner scanner = new DirectoryTreeScanner(executor);
+
+    Map<String, MFile> files = new HashMap<String, MFile>();
+    assertEquals(7, scanner.scan(mc, files, true));
+    assertEquals(10, scanner.getCountListed());
+    assertTrue(files.containsKey(new MFileOS(new File(top, "day1/hour0/data10.grb")).getPath()));
+
+    // nothing changed: no directories are listed again
+    files.clear();
+    assertEquals(7, scanner.scan(mc, files, false));
+    assertEquals(0, scanner.getCountListed());
+    assertEquals(10, scanner.getCountReused());
+
+    // add a file: only its directory is listed again
+    File newFile = new File(top, "day2/hour1/new.grb");
+    touch(newFile);
+    File dir = newFile.getParentFile();
+    dir.setLastModified(dir.lastModified() - 60 * 1000);
+    files.clear();
+    assertEquals(8, scanner.scan(mc, files, false));
+    assertEquals(1, scanner.getCountListed());
+    assertTrue(files.containsKey(new MFileOS(newFile).getPath()));
+
+    // full scan lists everything
+    files.clear();
+    assertEquals(8, scanner.scan(mc, files, true));
+    assertEquals(10, scanner.getCountListed());
+
+    // no subdirs
+    MCollection mcTop = new MCollection("test", top.getPath(), false, filters, null);
+    files.clear();
+    assertEquals(1, new DirectoryTreeScanner(executor).scan(mcTop, files, true));
+  }
+
+  private void touch(File f) throws IOException {
+    FileOutputStream fos = new FileOutputStream(f);
+    fos.write(1);
+    fos.close();
+  }
+
+  // directories look like they were changed a while ago
+  private void backdate(File dir) {
+    File[] list = dir.listFiles();
+    if (list != null) {
+      for (File f : list)
+        if (f.isDirectory()) backdate(f);
+    }
+    dir.setLastModified(System.currentTimeMillis() - 3600 * 1000);
+  }
+
+  private void delete(File f) {
+    File[] list = f.listFiles();
+    if (list != null) {
+      for (File c : list) delete(c);
+    }
+    f.delete();
+  }
+
+}
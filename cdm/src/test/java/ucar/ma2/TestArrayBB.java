@@ -0,0 +1,193 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package ucar.ma2;
+
+import junit.framework.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/** Test ArrayBB, Arrays backed by a ByteBuffer. */
+
+public class TestArrayBB extends TestCase {
+
+  public TestArrayBB(String name) {
+    super(name);
+  }
+
+  private void fill(Array a) {
+    IndexIterator ii = a.getIndexIterator();
+    int count = 0;
+    while (ii.hasNext())
+      ii.setIntNext(count++);
+  }
+
+  private void checkSame(Array expect, Array got) {
+    assertEquals(expect.getSize(), got.getSize());
+    IndexIterator ei = expect.getIndexIterator();
+    IndexIterator gi = got.getIndexIterator();
+    while (ei.hasNext())
+      assertEquals(ei.getDoubleNext(), gi.getDoubleNext());
+  }
+
+  public void testTypes() throws InvalidRangeException {
+    DataType[] types = {DataType.DOUBLE, DataType.FLOAT, DataType.LONG, DataType.INT, DataType.SHORT, DataType.BYTE};
+    int[] shape = {3, 4, 5};
+    for (DataType dt : types) {
+      for (ByteOrder order : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+        ArrayBB abb = ArrayBB.allocateDirect(dt, shape, order);
+        Array heap = Array.factory(dt, shape);
+        fill(abb);
+        fill(heap);
+
+        assertEquals(dt.getPrimitiveClassType(), abb.getElementType());
+        checkSame(heap, abb);
+        checkSame(heap.section(new int[]{1, 1, 0}, new int[]{2, 2, 3}, new int[]{1, 2, 2}),
+                abb.section(new int[]{1, 1, 0}, new int[]{2, 2, 3}, new int[]{1, 2, 2}));
+        checkSame(heap.flip(1).transpose(0, 2), abb.flip(1).transpose(0, 2));
+
+        // copies are java arrays
+        Array copy = abb.flip(2).copy();
+        assertEquals(heap.getClass(), copy.getClass());
+        checkSame(heap.flip(2), copy);
+        Object ja = abb.get1DJavaArray(dt.getPrimitiveClassType());
+        assertTrue(ja.getClass().isArray());
+        checkSame(heap, Array.factory(dt.getPrimitiveClassType(), shape, ja));
+
+        // bytes are in the ByteBuffer order
+        ByteBuffer bb = abb.getDataAsByteBuffer();
+        assertEquals(order, bb.order());
+        assertEquals(abb.getSizeBytes(), bb.limit());
+        checkSame(heap, new ArrayBB(dt, shape, bb));
+
+        // logical view is copied in canonical order
+        Array slice = abb.slice(0, 2);
+        checkSame(heap.slice(0, 2), new ArrayBB(dt, slice.getShape(), ((ArrayBB) slice).getDataAsByteBuffer()));
+      }
+    }
+  }
+
+  public void testUnsigned() throws InvalidRangeException {
+    ArrayBB abb = ArrayBB.allocateDirect(DataType.BYTE, new int[]{2}, ByteOrder.BIG_ENDIAN);
+    abb.setByte(0, (byte) -1);
+    assertEquals(-1, abb.getInt(0));
+    abb.setUnsigned(true);
+    assertEquals(255, abb.getInt(0));
+    assertEquals(255.0, abb.getDouble(0));
+    assertTrue(abb.section(new int[]{0}, new int[]{1}).isUnsigned());
+
+    ArrayBB abs = ArrayBB.allocateDirect(DataType.SHORT, new int[]{2}, ByteOrder.LITTLE_ENDIAN);
+    abs.setUnsigned(true);
+    abs.setInt(1, 65535);
+    assertEquals(65535, abs.getInt(1));
+    assertEquals((short) -1, abs.getObject(1));
+  }
+
+  public void testConversions() {
+    ArrayBB abb = ArrayBB.allocateDirect(DataType.FLOAT, new int[]{2}, ByteOrder.BIG_ENDIAN);
+    abb.setDouble(0, 2.75);
+    assertEquals(2, abb.getInt(0));
+    assertEquals(2L, abb.getLong(0));
+    abb.setObject(1, 1.5);
+    assertEquals(1.5f, abb.getObject(1));
+    try {
+      abb.getBoolean(0);
+      fail();
+    } catch (ForbiddenConversionException e) {
+      // expected
+    }
+
+    try {
+      ArrayBB.allocateDirect(DataType.STRING, new int[]{2}, ByteOrder.BIG_ENDIAN);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  public void testStorage() {
+    int[] shape = {3, 4};
+    ArrayBB abb = ArrayBB.allocateDirect(DataType.FLOAT, shape, ByteOrder.LITTLE_ENDIAN);
+    fill(abb);
+
+    // getStorage() is a java array copy, as callers expect
+    float[] storage = (float[]) abb.getStorage();
+    assertEquals(12, storage.length);
+    assertEquals(7.0f, storage[7]);
+    storage[7] = -1;
+    assertEquals(7.0f, abb.getFloat(7));
+    assertEquals(7.0f, abb.getByteBuffer().getFloat(7 * 4));
+
+    // copies into an ArrayBB go through the ByteBuffer
+    Array heap = Array.factory(DataType.FLOAT, shape);
+    fill(heap);
+    ArrayBB dest = ArrayBB.allocateDirect(DataType.FLOAT, shape, ByteOrder.BIG_ENDIAN);
+    MAMath.copy(dest, heap.flip(0));
+    checkSame(heap.flip(0), dest);
+
+    ArrayBB dest2 = ArrayBB.allocateDirect(DataType.FLOAT, shape, ByteOrder.BIG_ENDIAN);
+    Array.arraycopy(heap.flip(1), 0, dest2, 0, 12);
+    checkSame(heap.flip(1), dest2);
+
+    Array heap2 = Array.factory(DataType.FLOAT, shape);
+    Array.arraycopy(abb.flip(1), 0, heap2, 0, 12);
+    checkSame(heap.flip(1), heap2);
+  }
+
+  public void testFactoryLarge() throws IOException {
+    try {
+      ArrayBB.setLargeArrayThresholds(-1, -1, null);
+      assertNull(ArrayBB.factoryLarge(DataType.FLOAT, new int[]{1000}, ByteOrder.BIG_ENDIAN));
+
+      ArrayBB.setLargeArrayThresholds(4000, -1, null);
+      assertNull(ArrayBB.factoryLarge(DataType.FLOAT, new int[]{999}, ByteOrder.BIG_ENDIAN));
+      assertNull(ArrayBB.factoryLarge(DataType.CHAR, new int[]{10000}, ByteOrder.BIG_ENDIAN));
+      ArrayBB direct = ArrayBB.factoryLarge(DataType.FLOAT, new int[]{1000}, ByteOrder.BIG_ENDIAN);
+      assertNotNull(direct);
+      assertTrue(direct.getByteBuffer().isDirect());
+
+      ArrayBB.setLargeArrayThresholds(4000, 8000, null);
+      ArrayBB mapped = ArrayBB.factoryLarge(DataType.DOUBLE, new int[]{10, 100}, ByteOrder.LITTLE_ENDIAN);
+      assertNotNull(mapped);
+      assertTrue(mapped.getByteBuffer().isDirect());
+      fill(mapped);
+      assertEquals(999.0, mapped.getDouble(999));
+      assertEquals(ByteOrder.LITTLE_ENDIAN, mapped.getByteOrder());
+
+    } finally {
+      ArrayBB.setLargeArrayThresholds(-1, -1, null);
+    }
+  }
+
+}
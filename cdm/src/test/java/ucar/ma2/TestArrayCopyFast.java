@@ -0,0 +1,177 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package ucar.ma2;
+
+import junit.framework.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test the bulk copy paths in Array.copy(), MAMath.copy() and Array.arraycopy() against element by element copies,
+ * for the various kinds of logical views (sections, strides, flips, transposes, reduced dimensions).
+ * testTiming() is a crude regression check on the speed of the fast path, not a real benchmark.
+ */
+public class TestArrayCopyFast extends TestCase {
+
+  public TestArrayCopyFast(String name) {
+    super(name);
+  }
+
+  private List<Array> makeViews(Array a) throws InvalidRangeException {
+    List<Array> result = new ArrayList<Array>();
+    result.add(a);
+    result.add(a.section(new int[]{1, 2, 3}, new int[]{3, 4, 5}));
+    result.add(a.section(new int[]{0, 1, 0}, new int[]{3, 3, 3}, new int[]{2, 2, 3}));
+    result.add(a.flip(0));
+    result.add(a.flip(2));
+    result.add(a.transpose(0, 2));
+    result.add(a.permute(new int[]{1, 2, 0}));
+    result.add(a.slice(1, 3));
+    result.add(a.slice(2, 4).flip(0));
+    result.add(a.section(new int[]{2, 0, 1}, new int[]{1, 1, 6}).reduce());
+    result.add(a.section(new int[]{1, 1, 1}, new int[]{1, 1, 1}).reduce());
+    return result;
+  }
+
+  private Array makeArray(DataType dt) {
+    Array a = Array.factory(dt, new int[]{5, 6, 8});
+    IndexIterator ii = a.getIndexIterator();
+    int count = 0;
+    while (ii.hasNext()) {
+      count++;
+      if (dt == DataType.BOOLEAN)
+        ii.setBooleanNext(count % 3 == 0);
+      else if (dt == DataType.CHAR)
+        ii.setCharNext((char) ('a' + count % 26));
+      else
+        ii.setIntNext(count);
+    }
+    return a;
+  }
+
+  private void checkSame(Array expect, Array got) {
+    assertEquals(expect.getSize(), got.getSize());
+    assertEquals(expect.getElementType(), got.getElementType());
+    IndexIterator ei = expect.getIndexIterator();
+    IndexIterator gi = got.getIndexIterator();
+    while (ei.hasNext())
+      assertEquals(ei.getObjectNext(), gi.getObjectNext());
+  }
+
+  public void testCopy() throws InvalidRangeException {
+    DataType[] types = {DataType.DOUBLE, DataType.FLOAT, DataType.LONG, DataType.INT, DataType.SHORT, DataType.BYTE,
+            DataType.CHAR, DataType.BOOLEAN};
+    for (DataType dt : types) {
+      for (Array view : makeViews(makeArray(dt))) {
+        Array copy = view.copy();
+        assertTrue(copy.getIndex().isFastIterator());
+        checkSame(view, copy);
+
+        Array result = Array.factory(dt, view.getShape());
+        MAMath.copy(result, view);
+        checkSame(view, result);
+
+        Object java1D = view.copyTo1DJavaArray();
+        checkSame(view, Array.factory(dt.getPrimitiveClassType(), new int[]{(int) view.getSize()}, java1D));
+      }
+    }
+  }
+
+  public void testArraycopy() throws InvalidRangeException {
+    Array a = makeArray(DataType.INT);
+    for (Array view : makeViews(a)) {
+      int n = (int) view.getSize();
+      Array dst = Array.factory(DataType.INT, new int[]{n + 3});
+      Array.arraycopy(view, 0, dst, 3, n);
+      checkSame(view, dst.section(new int[]{3}, new int[]{n}));
+      assertEquals(0, dst.getInt(dst.getIndex().set(0)));
+    }
+
+    // partial copy from a non-canonical array still goes through get1DJavaArray
+    Array flip = a.flip(1);
+    Array dst = Array.factory(DataType.INT, new int[]{10});
+    Array.arraycopy(flip, 5, dst, 0, 10);
+    int[] expect = (int[]) flip.copyTo1DJavaArray();
+    for (int i = 0; i < 10; i++)
+      assertEquals(expect[5 + i], dst.getInt(dst.getIndex().set(i)));
+
+    try {
+      Array.arraycopy(a.flip(0), 0, Array.factory(DataType.INT, new int[]{10}), 0, (int) a.getSize());
+      fail("should throw ArrayIndexOutOfBoundsException");
+    } catch (ArrayIndexOutOfBoundsException e) {
+      // expected
+    }
+  }
+
+  public void testTiming() throws InvalidRangeException {
+    Array a = Array.factory(DataType.FLOAT, new int[]{20, 200, 300});
+    IndexIterator ii = a.getIndexIterator();
+    for (int count = 0; ii.hasNext(); count++)
+      ii.setFloatNext(count);
+    Array sect = a.section(new int[]{2, 10, 10}, new int[]{16, 180, 280});
+    Array trans = a.transpose(1, 2);
+    int n = 20;
+
+    // warm up
+    for (int i = 0; i < n; i++) {
+      sect.copy();
+      copyByIterator(sect);
+    }
+
+    long fast = 0, slow = 0;
+    for (Array view : new Array[]{sect, trans}) {
+      long start = System.nanoTime();
+      for (int i = 0; i < n; i++) view.copy();
+      fast += System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (int i = 0; i < n; i++) copyByIterator(view);
+      slow += System.nanoTime() - start;
+    }
+
+    System.out.printf("TestArrayCopyFast: bulk copy %d msecs, iterator copy %d msecs%n", fast / 1000 / 1000, slow / 1000 / 1000);
+    for (Array view : new Array[]{sect, trans})
+      checkSame(copyByIterator(view), view.copy());
+  }
+
+  private Array copyByIterator(Array a) {
+    Array result = Array.factory(a.getElementType(), a.getShape());
+    IndexIterator from = a.getIndexIterator();
+    IndexIterator to = result.getIndexIterator();
+    while (from.hasNext())
+      to.setFloatNext(from.getFloatNext());
+    return result;
+  }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package ucar.nc2;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.util.Formatter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import ucar.nc2.util.CompareNetcdf2;
+
+/**
+ * Test FileWriter2 with concurrent reads
+ */
+public class TestFileWriter2Concurrent extends TestCase {
+
+  public TestFileWriter2Concurrent(String name) {
+    super(name);
+  }
+
+  public void testCopy() throws IOException {
+    copy(100 * 1000 * 1000);
+  }
+
+  // only one read at a time waiting to be written
+  public void testSmallBudget() throws IOException {
+    copy(1);
+  }
+
+  private void copy(long maxPendingBytes) throws IOException {
+    String filenameIn = TestLocal.cdmTestDataDir + "testWrite.nc";
+    String filenameOut = TestLocal.temporaryDataDir + "testFileWriter2Concurrent.nc";
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    NetcdfFile ncfileIn = NetcdfFile.open(filenameIn, null);
+    try {
+      FileWriter2 writer = new FileWriter2(ncfileIn, filenameOut, NetcdfFileWriter.Version.netcdf3, null);
+      writer.setExecutor(executor, maxPendingBytes);
+      NetcdfFile ncfileOut = writer.write();
+      ncfileOut.close();
+
+      NetcdfFile copy = NetcdfFile.open(filenameOut, null);
+      Formatter f = new Formatter();
+      boolean ok = CompareNetcdf2.compareFiles(ncfileIn, copy, f, true, false, false);
+      copy.close();
+      assertTrue(f.toString(), ok);
+
+    } finally {
+      ncfileIn.close();
+      executor.shutdown();
+    }
+  }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package ucar.nc2.dataset;
+
+import org.junit.After;
+import org.junit.Test;
+import ucar.nc2.TestLocal;
+import ucar.nc2.Variable;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Formatter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Prefetching the coordinate axes gives the same coordinate systems as reading them lazily.
+ */
+public class TestCoordSysBuilderPrefetch {
+  static private final String[] files = {"example1.nc", "jan.nc", "permuteTest.nc", "rankTest.nc", "standardVar.nc", "testScaleRecord.nc"};
+
+  @After
+  public void reset() {
+    CoordSysBuilder.setExecutor(null, 1);
+  }
+
+  @Test
+  public void testSameCoordSystems() throws IOException {
+    ExecutorService exec = Executors.newFixedThreadPool(4);
+    try {
+      for (String filename : files) {
+        String location = TestLocal.cdmTestDataDir + filename;
+        CoordSysBuilder.setExecutor(null, 1);
+        String lazy = showCoordSystems(location, null);
+        CoordSysBuilder.setExecutor(exec, 4);
+        Formatter timing = new Formatter();
+        String prefetched = showCoordSystems(location, timing);
+        assertEquals(location, lazy, prefetched);
+        assertTrue(timing.toString(), timing.toString().contains("prefetchCoordinateAxes"));
+      }
+    } finally {
+      exec.shutdown();
+    }
+  }
+
+  private String showCoordSystems(String location, Formatter timing) throws IOException {
+    NetcdfDataset ds = NetcdfDataset.openDataset(location, false, null);
+    try {
+      CoordSysBuilderIF builder = CoordSysBuilder.factory(ds, null);
+      builder.augmentDataset(ds, null);
+      builder.buildCoordinateSystems(ds);
+      ds.finish();
+      if (timing != null) ((CoordSysBuilder) builder).showTiming(timing);
+      // the phase times only go into the parse info when prefetching
+      assertEquals(location, timing != null, builder.getParseInfo().contains("Timing"));
+
+      Formatter f = new Formatter();
+      for (Variable v : ds.getVariables()) {
+        f.format("%s:", v.getFullName());
+        for (CoordinateSystem cs : ((VariableEnhanced) v).getCoordinateSystems())
+          f.format(" %s", cs.getName());
+        f.format("%n");
+      }
+      for (CoordinateAxis axis : ds.getCoordinateAxes()) {
+        f.format("%s %s", axis.getFullName(), axis.getAxisType());
+        if ((axis instanceof CoordinateAxis1D) && axis.isNumeric())
+          f.format(" %s", Arrays.toString(((CoordinateAxis1D) axis).getCoordValues()));
+        f.format("%n");
+      }
+      return f.toString();
+    } finally {
+      ds.close();
+    }
+  }
+}
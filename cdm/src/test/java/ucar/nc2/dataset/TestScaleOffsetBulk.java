@@ -0,0 +1,209 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package ucar.nc2.dataset;
+
+import org.junit.Test;
+import ucar.nc2.*;
+import ucar.nc2.constants.CDM;
+import ucar.ma2.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Compare the bulk scale/offset/missing conversion against the element by element conversion.
+ */
+public class TestScaleOffsetBulk {
+
+  private EnhanceScaleMissingImpl makeEnhance(DataType dt, boolean isUnsigned) {
+    NetcdfDataset ds = new NetcdfDataset();
+    VariableDS v = new VariableDS(ds, null, null, "packed", dt, "", null, null);
+    v.addAttribute(new Attribute(CDM.SCALE_FACTOR, 0.01f));
+    v.addAttribute(new Attribute(CDM.ADD_OFFSET, 273.15f));
+    v.addAttribute(new Attribute(CDM.VALID_RANGE, Array.factory(DataType.FLOAT, new int[]{2}, new float[]{273.16f, 600.0f})));
+    if (isUnsigned) v.addAttribute(new Attribute(CDM.UNSIGNED, "true"));
+    return new EnhanceScaleMissingImpl(v);
+  }
+
+  private Array makePacked(DataType dt, int[] shape) {
+    Array packed = Array.factory(dt, shape);
+    IndexIterator iter = packed.getIndexIterator();
+    int count = 0;
+    while (iter.hasNext())
+      iter.setIntNext((count++ % 1000 == 0) ? -1 : count * 7);
+    return packed;
+  }
+
+  private void compare(EnhanceScaleMissingImpl enhance, Array packed) {
+    Array result = enhance.convertScaleOffsetMissing(packed);
+    assert result.getElementType() == float.class;
+    assert result.getSize() == packed.getSize();
+
+    IndexIterator iterIn = packed.getIndexIterator();
+    IndexIterator iterOut = result.getIndexIterator();
+    int nmissing = 0;
+    while (iterIn.hasNext()) {
+      double want = (packed.getElementType() == byte.class) ? enhance.convertScaleOffsetMissing(iterIn.getByteNext()) :
+          enhance.convertScaleOffsetMissing(iterIn.getShortNext());
+      float have = iterOut.getFloatNext();
+      if (Double.isNaN(want)) {
+        assert Float.isNaN(have) : iterIn;
+        nmissing++;
+      } else {
+        assert have == (float) want : have + " != " + want + " at " + iterIn;
+      }
+    }
+    assert nmissing > 0;
+  }
+
+  @Test
+  public void testShort() throws InvalidRangeException {
+    for (boolean isUnsigned : new boolean[]{false, true}) {
+      EnhanceScaleMissingImpl enhance = makeEnhance(DataType.SHORT, isUnsigned);
+      Array packed = makePacked(DataType.SHORT, new int[]{100, 200});
+      compare(enhance, packed);
+      compare(enhance, packed.sectionNoReduce(new int[]{10, 1}, new int[]{50, 60}, new int[]{1, 3})); // not canonical order
+      compare(enhance, packed.transpose(0, 1));
+    }
+  }
+
+  @Test
+  public void testByte() {
+    for (boolean isUnsigned : new boolean[]{false, true}) {
+      EnhanceScaleMissingImpl enhance = makeEnhance(DataType.BYTE, isUnsigned);
+      compare(enhance, makePacked(DataType.BYTE, new int[]{3, 100, 200}));
+    }
+  }
+
+  @Test
+  public void testParallel() {
+    ExecutorService exec = Executors.newFixedThreadPool(4);
+    NetcdfDataset.setConversionExecutor(exec);
+    try {
+      EnhanceScaleMissingImpl enhance = makeEnhance(DataType.SHORT, true);
+      compare(enhance, makePacked(DataType.SHORT, new int[]{12, 500, 500}));
+
+    } finally {
+      NetcdfDataset.setConversionExecutor(null);
+      exec.shutdown();
+    }
+  }
+
+  @Test
+  public void testMissingOnly() {
+    NetcdfDataset ds = new NetcdfDataset();
+    VariableDS v = new VariableDS(ds, null, null, "data", DataType.FLOAT, "", null, null);
+    v.addAttribute(new Attribute(CDM.MISSING_VALUE, -999.0f));
+    EnhanceScaleMissingImpl enhance = new EnhanceScaleMissingImpl(v);
+
+    Array data = Array.factory(DataType.FLOAT, new int[]{10, 10});
+    for (int i = 0; i < data.getSize(); i++)
+      data.setFloat(i, (i % 3 == 0) ? -999.0f : i);
+
+    Array result = enhance.convertScaleOffsetMissing(data);
+    for (int i = 0; i < result.getSize(); i++) {
+      if (i % 3 == 0) assert Float.isNaN(result.getFloat(i)) : i;
+      else assert result.getFloat(i) == i : i;
+    }
+  }
+
+  // large reads from netcdf-3 files come back as ArrayBB, which must not take the bulk paths
+  @Test
+  public void testLargeArrays() throws IOException, InvalidRangeException {
+    File file = File.createTempFile("TestScaleOffsetBulk", ".nc");
+    try {
+      NetcdfFileWriteable ncfile = NetcdfFileWriteable.createNew(file.getPath(), false);
+      ncfile.addDimension("y", 100);
+      ncfile.addDimension("x", 200);
+      ncfile.addVariable("packed", DataType.SHORT, "y x");
+      ncfile.addVariableAttribute("packed", CDM.SCALE_FACTOR, 0.01f);
+      ncfile.addVariableAttribute("packed", CDM.ADD_OFFSET, 273.15f);
+      ncfile.addVariableAttribute("packed", CDM.MISSING_VALUE, (short) -1);
+      ncfile.addVariable("data", DataType.FLOAT, "y x");
+      ncfile.addVariableAttribute("data", CDM.MISSING_VALUE, -999.0f);
+      ncfile.create();
+      Array packed = makePacked(DataType.SHORT, new int[]{100, 200});
+      Array data = Array.factory(DataType.FLOAT, new int[]{100, 200});
+      for (int i = 0; i < data.getSize(); i++)
+        data.setFloat(i, (i % 3 == 0) ? -999.0f : i);
+      ncfile.write("packed", packed);
+      ncfile.write("data", data);
+      ncfile.close();
+
+      Array wantPacked = readEnhanced(file, "packed");
+      Array wantData = readEnhanced(file, "data");
+      try {
+        ArrayBB.setLargeArrayThresholds(1000, -1, null);
+        NetcdfFile raw = NetcdfFile.open(file.getPath());
+        assert raw.findVariable("data").read() instanceof ArrayBB;
+        raw.close();
+
+        checkSame(wantPacked, readEnhanced(file, "packed"));
+        checkSame(wantData, readEnhanced(file, "data"));
+      } finally {
+        ArrayBB.setLargeArrayThresholds(-1, -1, null);
+      }
+
+      int nmissing = 0;
+      for (int i = 0; i < wantData.getSize(); i++)
+        if (Float.isNaN(wantData.getFloat(i))) nmissing++;
+      assert nmissing == (wantData.getSize() + 2) / 3 : nmissing;
+
+    } finally {
+      file.delete();
+    }
+  }
+
+  private Array readEnhanced(File file, String varName) throws IOException {
+    NetcdfDataset ds = NetcdfDataset.openDataset(file.getPath());
+    try {
+      return ds.findVariable(varName).read();
+    } finally {
+      ds.close();
+    }
+  }
+
+  private void checkSame(Array want, Array have) {
+    assert want.getSize() == have.getSize();
+    IndexIterator iterWant = want.getIndexIterator();
+    IndexIterator iterHave = have.getIndexIterator();
+    while (iterWant.hasNext()) {
+      double w = iterWant.getDoubleNext();
+      double h = iterHave.getDoubleNext();
+      assert (Double.isNaN(w) && Double.isNaN(h)) || (w == h) : h + " != " + w + " at " + iterWant;
+    }
+  }
+
+}
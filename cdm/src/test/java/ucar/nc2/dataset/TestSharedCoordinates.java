@@ -0,0 +1,138 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package ucar.nc2.dataset;
+
+import org.junit.After;
+import org.junit.Test;
+import ucar.ma2.Array;
+import ucar.ma2.ArrayDouble;
+import ucar.ma2.DataType;
+import ucar.nc2.constants.AxisType;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Datasets of the same grid share coordinate values.
+ */
+public class TestSharedCoordinates {
+
+  @After
+  public void reset() {
+    SharedCoordinates.setMaxBytes(50 * 1000 * 1000);
+    SharedCoordinates.clear();
+  }
+
+  @Test
+  public void testShareValues() {
+    double[] a = {1.0, 2.0, 3.0, Double.NaN};
+    double[] b = {1.0, 2.0, 3.0, Double.NaN};
+    double[] c = {1.0, 2.0, 3.5, Double.NaN};
+    assertSame(a, SharedCoordinates.share(a));
+    assertSame(a, SharedCoordinates.share(b));
+    assertSame(c, SharedCoordinates.share(c));
+  }
+
+  @Test
+  public void testDisabled() {
+    SharedCoordinates.setMaxBytes(0);
+    double[] a = {1.0, 2.0};
+    double[] b = {1.0, 2.0};
+    assertSame(a, SharedCoordinates.share(a));
+    assertSame(b, SharedCoordinates.share(b));
+  }
+
+  @Test
+  public void testEvict() {
+    SharedCoordinates.setMaxBytes(8 * 10);
+    double[] a = new double[6];
+    double[] b = new double[6];
+    b[0] = 1.0;
+    SharedCoordinates.share(a);
+    SharedCoordinates.share(b); // evicts a
+    double[] a2 = new double[6];
+    assertSame(a2, SharedCoordinates.share(a2));
+  }
+
+  @Test
+  public void testAxesOfSameGrid() {
+    // longitudes that cross the dateline are corrected in place, this must not leak into the shared copy
+    double[] lons = {170.0, 175.0, -180.0, -175.0};
+    CoordinateAxis1D lon1 = makeLonAxis(lons.clone());
+    CoordinateAxis1D lon2 = makeLonAxis(lons.clone());
+    double[] expect = {170.0, 175.0, 180.0, 185.0};
+    assertTrue(Arrays.equals(expect, lon1.getCoordValues()));
+    assertTrue(Arrays.equals(expect, lon2.getCoordValues()));
+    assertTrue(Arrays.equals(new double[]{167.5, 172.5, 177.5, 182.5, 187.5}, lon2.getCoordEdges()));
+    assertTrue(Arrays.equals(lon1.getCoordEdges(), lon2.getCoordEdges()));
+  }
+
+  @Test
+  public void test2DAxesOfSameGrid() {
+    double[] lats = {10.0, 11.0, 12.0, 20.0, 21.0, 22.0};
+    CoordinateAxis2D lat1 = makeLatAxis2D(lats.clone());
+    CoordinateAxis2D lat2 = makeLatAxis2D(lats.clone());
+
+    // changing the midpoints of one must not change the other
+    ArrayDouble.D2 mids = lat1.getMidpoints();
+    mids.set(0, 0, -99.0);
+    assertEquals(10.0, lat1.getCoordValue(0, 0), 0.0);
+    assertEquals(10.0, lat2.getCoordValue(0, 0), 0.0);
+    double[] values = lat2.getCoordValues();
+    values[1] = -99.0;
+    assertTrue(Arrays.equals(lats, lat1.getCoordValues()));
+    assertTrue(Arrays.equals(lats, lat2.getCoordValues()));
+  }
+
+  private CoordinateAxis2D makeLatAxis2D(double[] values) {
+    NetcdfDataset ds = new NetcdfDataset();
+    ds.addDimension(null, new ucar.nc2.Dimension("y", 2));
+    ds.addDimension(null, new ucar.nc2.Dimension("x", 3));
+    VariableDS vds = new VariableDS(ds, null, null, "lat", DataType.DOUBLE, "y x", "degrees_north", "latitude");
+    vds.setCachedData(Array.factory(DataType.DOUBLE, new int[]{2, 3}, values), true);
+    CoordinateAxis2D axis = new CoordinateAxis2D(ds, vds);
+    axis.setAxisType(AxisType.Lat);
+    return axis;
+  }
+
+  private CoordinateAxis1D makeLonAxis(double[] values) {
+    NetcdfDataset ds = new NetcdfDataset();
+    ds.addDimension(null, new ucar.nc2.Dimension("lon", values.length));
+    CoordinateAxis1D axis = new CoordinateAxis1D(ds, null, "lon", DataType.DOUBLE, "lon", "degrees_east", "longitude");
+    axis.setAxisType(AxisType.Lon);
+    axis.setCachedData(Array.factory(DataType.DOUBLE, new int[]{values.length}, values), true);
+    return axis;
+  }
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package ucar.nc2.dt.grid;
+
+import junit.framework.TestCase;
+import ucar.ma2.Array;
+import ucar.ma2.Index;
+import ucar.nc2.TestLocal;
+import ucar.nc2.dataset.CoordinateAxis1D;
+import ucar.nc2.dataset.CoordinateAxis1DTime;
+import ucar.nc2.dt.GridCoordSystem;
+import ucar.nc2.dt.GridDatatype;
+import ucar.nc2.time.CalendarDate;
+import ucar.nc2.time.CalendarPeriod;
+import ucar.unidata.geoloc.LatLonPoint;
+import ucar.unidata.geoloc.LatLonPointImpl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Column, neighbourhood and many point reads in GridAsPointDataset give the same values as reading one value at a time.
+ *
+ * @since 10/19/2026
+ */
+public class TestGridAsPointDataset extends TestCase {
+  // tzyx(t,z,y,x) = 1000 * t + 100 * z + 10 * y + x, and the same for the permuted variables
+  static private final String[] gridNames = {"tzyx", "tzxy", "zyxt", "yxzt", "zyx", "yxt", "xyt"};
+
+  private GridDataset dataset;
+
+  protected void setUp() throws IOException {
+    dataset = GridDataset.open(TestLocal.cdmTestDataDir + "permuteTest.nc");
+  }
+
+  protected void tearDown() throws IOException {
+    dataset.close();
+  }
+
+  public void testColumnSameAsReadData() throws IOException {
+    for (String name : gridNames) {
+      GridDatatype grid = dataset.findGridDatatype(name);
+      GridAsPointDataset gap = new GridAsPointDataset(list(grid));
+      GridCoordSystem gcs = grid.getCoordinateSystem();
+      for (int y = 0; y < grid.getYDimension().getLength(); y++) {
+        for (int x = 0; x < grid.getXDimension().getLength(); x++) {
+          LatLonPoint ll = gcs.getLatLon(x, y);
+          GridAsPointDataset.Column col = gap.readColumn(grid, -1, ll.getLatitude(), ll.getLongitude());
+          assertEquals(ll.getLatitude(), col.lat);
+          assertEquals(ll.getLongitude(), col.lon);
+          assertEquals(length(gcs.getTimeAxis1D()), col.getNumTimes());
+          assertEquals(length(gcs.getVerticalAxis()), col.getNumLevels());
+
+          for (int t = 0; t < col.getNumTimes(); t++)
+            for (int z = 0; z < col.getNumLevels(); z++)
+              assertEquals(name, readData(gap, grid, t, z, ll), col.getValue(t, z));
+        }
+      }
+    }
+  }
+
+  public void testColumnCacheSameAsReadData() throws IOException {
+    for (String name : gridNames) {
+      GridDatatype grid = dataset.findGridDatatype(name);
+      GridAsPointDataset gap = new GridAsPointDataset(list(grid));
+      GridAsPointDataset cached = new GridAsPointDataset(list(grid));
+      cached.setColumnCache(true);
+      GridCoordSystem gcs = grid.getCoordinateSystem();
+      for (int y = 0; y < grid.getYDimension().getLength(); y++) {
+        for (int x = 0; x < grid.getXDimension().getLength(); x++) {
+          LatLonPoint ll = gcs.getLatLon(x, y);
+          for (int t = 0; t < length(gcs.getTimeAxis1D()); t++)
+            for (int z = 0; z < length(gcs.getVerticalAxis()); z++)
+              assertEquals(name, readData(gap, grid, t, z, ll), readData(cached, grid, t, z, ll));
+        }
+      }
+    }
+  }
+
+  public void testGetPointSameAsReadData() throws IOException {
+    for (int maxColumnSize : new int[]{1000 * 1000, 1}) { // 1 reads one value at a time
+      GridAsPointDataset.setMaxColumnSize(maxColumnSize);
+      try {
+        for (String name : gridNames) {
+          GridDatatype grid = dataset.findGridDatatype(name);
+          GridAsPointDataset gap = new GridAsPointDataset(list(grid));
+          GridCoordSystem gcs = grid.getCoordinateSystem();
+          CoordinateAxis1DTime timeAxis = gcs.getTimeAxis1D();
+          CoordinateAxis1D zAxis = gcs.getVerticalAxis();
+          for (int y = 0; y < grid.getYDimension().getLength(); y++) {
+            for (int x = 0; x < grid.getXDimension().getLength(); x++) {
+              LatLonPoint ll = gcs.getLatLon(x, y);
+              for (int t = 0; t < length(timeAxis); t++) {
+                for (int z = 0; z < length(zAxis); z++) {
+                  GridAsPointDataset.Column col = gap.getColumn(grid, -1, ll.getLatitude(), ll.getLongitude());
+                  GridAsPointDataset.Point p = gap.getPoint(col, (timeAxis == null) ? null : timeAxis.getCalendarDate(t),
+                          (zAxis == null) ? -1 : zAxis.getCoordValue(z));
+                  assertEquals(ll.getLatitude(), p.lat);
+                  assertEquals(ll.getLongitude(), p.lon);
+                  assertEquals(name, readData(gap, grid, t, z, ll), p.dataValue);
+                  if (t + z > 0) // the same column for all times and levels of a point
+                    assertSame(col, gap.getColumn(grid, -1, ll.getLatitude(), ll.getLongitude()));
+                }
+              }
+            }
+          }
+        }
+      } finally {
+        GridAsPointDataset.setMaxColumnSize(1000 * 1000);
+      }
+    }
+  }
+
+  public void testNeighbourhoodSameAsReadData() throws IOException {
+    for (String name : gridNames) {
+      GridDatatype grid = dataset.findGridDatatype(name);
+      GridAsPointDataset gap = new GridAsPointDataset(list(grid));
+      GridCoordSystem gcs = grid.getCoordinateSystem();
+      int nt = length(gcs.getTimeAxis1D());
+      int nz = length(gcs.getVerticalAxis());
+      int ny = grid.getYDimension().getLength();
+      int nx = grid.getXDimension().getLength();
+
+      for (int radius = 0; radius < 3; radius++) {
+        for (int y = 0; y < ny; y++) {
+          for (int x = 0; x < nx; x++) {
+            LatLonPoint ll = gcs.getLatLon(x, y);
+            Array data = gap.readNeighbourhood(grid, -1, ll.getLatitude(), ll.getLongitude(), radius);
+            int ymin = Math.max(y - radius, 0), ymax = Math.min(y + radius, ny - 1);
+            int xmin = Math.max(x - radius, 0), xmax = Math.min(x + radius, nx - 1);
+            int[] shape = data.getShape();
+            assertEquals(ymax - ymin + 1, shape[shape.length - 2]);
+            assertEquals(xmax - xmin + 1, shape[shape.length - 1]);
+
+            Index ima = data.getIndex();
+            for (int t = 0; t < nt; t++) {
+              for (int z = 0; z < nz; z++) {
+                for (int j = ymin; j <= ymax; j++) {
+                  for (int i = xmin; i <= xmax; i++) {
+                    int[] idx = new int[shape.length];
+                    int dim = 0;
+                    if (gcs.getTimeAxis1D() != null) idx[dim++] = t;
+                    if (gcs.getVerticalAxis() != null) idx[dim++] = z;
+                    idx[dim++] = j - ymin;
+                    idx[dim] = i - xmin;
+                    assertEquals(name, readData(gap, grid, t, z, gcs.getLatLon(i, j)), data.getDouble(ima.set(idx)));
+                  }
+                }
+              }
+            }
+          }
+        }
+      }
+    }
+  }
+
+  public void testMaxColumnSize() throws IOException {
+    GridDatatype grid = dataset.findGridDatatype("tzyx");
+    GridAsPointDataset gap = new GridAsPointDataset(list(grid));
+    GridAsPointDataset.setMaxColumnSize(7);
+    try {
+      gap.readColumn(grid, -1, 0.0, 0.0);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // 2 times x 4 levels
+    } finally {
+      GridAsPointDataset.setMaxColumnSize(1000 * 1000);
+    }
+    GridAsPointDataset.Column col = gap.readColumn(grid, -1, 0.0, 0.0);
+    assertEquals(8, col.getNumTimes() * col.getNumLevels());
+  }
+
+  public void testPointsSameAsReadData() throws IOException {
+    Random rand = new Random(42);
+    List<LatLonPoint> points = new ArrayList<LatLonPoint>();
+    for (int i = 0; i < 100; i++)
+      points.add(new LatLonPointImpl(12.0 * rand.nextDouble(), 10.0 * rand.nextDouble()));
+
+    try {
+      for (int maxSection : new int[]{1, 4, 1000}) {
+        GridAsPointDataset.setMaxSectionSize(maxSection);
+        for (String name : gridNames) {
+          GridDatatype grid = dataset.findGridDatatype(name);
+          GridAsPointDataset gap = new GridAsPointDataset(list(grid));
+          GridCoordSystem gcs = grid.getCoordinateSystem();
+          for (int t = 0; t < length(gcs.getTimeAxis1D()); t++) {
+            for (int z = 0; z < length(gcs.getVerticalAxis()); z++) {
+              CalendarDate date = (gcs.getTimeAxis1D() == null) ? null : gcs.getTimeAxis1D().getCalendarDate(t);
+              double zCoord = (gcs.getVerticalAxis() == null) ? 0 : gcs.getVerticalAxis().getCoordValue(z);
+              List<GridAsPointDataset.Point> result =
+                      gap.readData(grid, date, -1, zCoord, points, GridAsPointDataset.Interpolation.nearest);
+              assertEquals(points.size(), result.size());
+              for (int i = 0; i < points.size(); i++) {
+                GridAsPointDataset.Point p = result.get(i);
+                LatLonPoint ll = points.get(i);
+                GridAsPointDataset.Point want = (gcs.getVerticalAxis() == null) ?
+                        gap.readData(grid, date, ll.getLatitude(), ll.getLongitude()) :
+                        gap.readData(grid, date, zCoord, ll.getLatitude(), ll.getLongitude());
+                assertEquals(name, want.dataValue, p.dataValue);
+                assertEquals(want.lat, p.lat);
+                assertEquals(want.lon, p.lon);
+              }
+            }
+          }
+        }
+      }
+    } finally {
+      GridAsPointDataset.setMaxSectionSize(1000);
+    }
+  }
+
+  public void testPointsBilinear() throws IOException {
+    GridDatatype grid = dataset.findGridDatatype("tzyx");
+    GridAsPointDataset gap = new GridAsPointDataset(list(grid));
+    CalendarDate date = grid.getCoordinateSystem().getTimeAxis1D().getCalendarDate(1);
+
+    List<LatLonPoint> points = new ArrayList<LatLonPoint>();
+    points.add(new LatLonPointImpl(4.5, 2.5));  // y index 1.5, x index 0.5
+    points.add(new LatLonPointImpl(12.0, 10.0)); // last grid point
+    points.add(new LatLonPointImpl(0.0, 0.0)); // first grid point
+    points.add(new LatLonPointImpl(50.0, 50.0)); // outside
+    points.add(new LatLonPointImpl(7.0, 9.0));  // y index 2.333, x index 1.8
+
+    List<GridAsPointDataset.Point> result =
+            gap.readData(grid, date, -1, 20.0, points, GridAsPointDataset.Interpolation.bilinear);
+    assertEquals(1215.5, result.get(0).dataValue, 1.0e-9);
+    assertEquals(4.5, result.get(0).lat);
+    assertEquals(2.5, result.get(0).lon);
+    assertEquals(1242.0, result.get(1).dataValue, 1.0e-9);
+    assertEquals(1200.0, result.get(2).dataValue, 1.0e-9);
+    assertTrue(Double.isNaN(result.get(3).dataValue));
+    assertEquals(1200.0 + 10.0 * 7.0 / 3.0 + 1.8, result.get(4).dataValue, 1.0e-9);
+    for (GridAsPointDataset.Point p : result)
+      assertEquals(20.0, p.z);
+  }
+
+  public void testPointsBadRequest() throws IOException {
+    GridDatatype grid = dataset.findGridDatatype("tzyx");
+    GridAsPointDataset gap = new GridAsPointDataset(list(grid));
+    List<LatLonPoint> points = new ArrayList<LatLonPoint>();
+    points.add(new LatLonPointImpl(3.0, 5.0));
+
+    CalendarDate date = grid.getCoordinateSystem().getTimeAxis1D().getCalendarDate(1);
+    try {
+      gap.readData(grid, date.add(1, CalendarPeriod.Field.Minute), -1, 0.0, points,
+              GridAsPointDataset.Interpolation.nearest);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // no such time
+    }
+
+    try {
+      gap.readData(grid, date, -1, 9999.0, points, GridAsPointDataset.Interpolation.nearest);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // no such level
+    }
+
+    // no ensemble axis, so ensCoord is ignored
+    List<GridAsPointDataset.Point> result = gap.readData(grid, date, 3.0, 10.0, points,
+            GridAsPointDataset.Interpolation.nearest);
+    assertEquals(1111.0, result.get(0).dataValue);
+  }
+
+  private double readData(GridAsPointDataset gap, GridDatatype grid, int t, int z, LatLonPoint ll) throws IOException {
+    GridCoordSystem gcs = grid.getCoordinateSystem();
+    CoordinateAxis1DTime timeAxis = gcs.getTimeAxis1D();
+    CalendarDate date = (timeAxis == null) ? null : timeAxis.getCalendarDate(t);
+    CoordinateAxis1D zAxis = gcs.getVerticalAxis();
+    if (zAxis == null)
+      return gap.readData(grid, date, ll.getLatitude(), ll.getLongitude()).dataValue;
+    return gap.readData(grid, date, zAxis.getCoordValue(z), ll.getLatitude(), ll.getLongitude()).dataValue;
+  }
+
+  static private List<GridDatatype> list(GridDatatype grid) {
+    List<GridDatatype> result = new ArrayList<GridDatatype>();
+    result.add(grid);
+    return result;
+  }
+
+  static private int length(CoordinateAxis1D axis) {
+    return (axis == null) ? 1 : (int) axis.getSize();
+  }
+}
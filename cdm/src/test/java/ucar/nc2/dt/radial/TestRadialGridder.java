@@ -0,0 +1,131 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package ucar.nc2.dt.radial;
+
+import junit.framework.TestCase;
+import ucar.nc2.dt.RadialDatasetSweep;
+import ucar.unidata.geoloc.EarthLocationImpl;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Test RadialGridder on a synthetic sweep, where each gate holds its ray * 1000 + gate.
+ *
+ * @since 10/19/2026
+ */
+public class TestRadialGridder extends TestCase {
+  static private final int NRAYS = 360, NGATES = 400;
+  static private final float FIRST_GATE = 0, GATE_SIZE = 1000;
+
+  private RadialDatasetSweep.Sweep makeSweep() {
+    final float[] data = new float[NRAYS * NGATES];
+    final float[] azimuths = new float[NRAYS];
+    for (int r = 0; r < NRAYS; r++) {
+      azimuths[r] = r + 0.5f;
+      for (int g = 0; g < NGATES; g++)
+        data[r * NGATES + g] = r * 1000 + g;
+    }
+    azimuths[10] = Float.NaN; // missing ray
+
+    return (RadialDatasetSweep.Sweep) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class[]{RadialDatasetSweep.Sweep.class}, new InvocationHandler() {
+      public Object invoke(Object proxy, Method method, Object[] args) {
+        String name = method.getName();
+        if (name.equals("getGateNumber")) return NGATES;
+        if (name.equals("getRadialNumber")) return NRAYS;
+        if (name.equals("readData")) return data.clone();
+        if (name.equals("getAzimuth")) return azimuths.clone();
+        if (name.equals("getMeanElevation")) return 0.5f;
+        if (name.equals("getRangeToFirstGate")) return FIRST_GATE;
+        if (name.equals("getGateSize")) return GATE_SIZE;
+        throw new UnsupportedOperationException(name);
+      }
+    });
+  }
+
+  public void testGrid() throws Exception {
+    // 1 km cells around a radar at 40N 105W
+    RadialGridder.GridDef def = new RadialGridder.GridDef(37.0, -109.0, 0.01, 0.01, 600, 800);
+    EarthLocationImpl origin = new EarthLocationImpl(40.0, -105.0, 1600.0);
+    float[] grid = RadialGridder.gridSweep(makeSweep(), origin, def);
+    assertEquals(600 * 800, grid.length);
+
+    // cell 100 km north of the radar: ray 0 or 359, gate ~100
+    int j = (int) Math.round((40.0 + 100.0 / 111.2 - def.startLat) / def.incLat);
+    int i = (int) Math.round((-105.0 - def.startLon) / def.incLon);
+    float v = grid[j * def.nlon + i];
+    int ray = (int) v / 1000;
+    int gate = (int) v % 1000;
+    assertTrue("ray " + ray, ray == 0 || ray == 359);
+    assertTrue("gate " + gate, Math.abs(gate - 100) <= 1);
+
+    // cell 50 km east: ray 89 or 90
+    j = (int) Math.round((40.0 - def.startLat) / def.incLat);
+    i = (int) Math.round((-105.0 + 50.0 / (111.2 * Math.cos(Math.toRadians(40))) - def.startLon) / def.incLon);
+    v = grid[j * def.nlon + i];
+    assertTrue("ray " + (int) v / 1000, (int) v / 1000 == 89 || (int) v / 1000 == 90);
+    assertTrue("gate " + (int) v % 1000, Math.abs((int) v % 1000 - 50) <= 1);
+
+    // beyond the last gate
+    assertTrue(Float.isNaN(grid[0]));
+
+    // the missing ray is filled by its neighbours
+    int[] map = RadialGridder.makeAzimuthMap(new float[]{0.5f, 1.5f, Float.NaN, 3.5f}, 4);
+    assertEquals(1, map[3]); // bin 1.5 - 2.0
+    assertEquals(3, map[6]); // bin 3.0 - 3.5
+
+    // table is cached
+    int ntables = RadialGridder.getNumTables();
+    float[] grid2 = RadialGridder.gridSweep(makeSweep(), origin, def);
+    assertEquals(ntables, RadialGridder.getNumTables());
+
+    // parallel fill gives the same grid
+    ExecutorService exec = Executors.newFixedThreadPool(4);
+    try {
+      RadialGridder.setExecutor(exec, 4);
+      float[] grid3 = RadialGridder.gridSweep(makeSweep(), origin, def);
+      for (int k = 0; k < grid.length; k++) {
+        assertEquals(Float.floatToIntBits(grid[k]), Float.floatToIntBits(grid2[k]));
+        assertEquals(Float.floatToIntBits(grid[k]), Float.floatToIntBits(grid3[k]));
+      }
+    } finally {
+      RadialGridder.setExecutor(null, 1);
+      exec.shutdown();
+    }
+  }
+}
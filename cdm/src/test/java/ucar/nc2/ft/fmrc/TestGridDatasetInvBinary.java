@@ -0,0 +1,134 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package ucar.nc2.ft.fmrc;
+
+import org.junit.Test;
+import thredds.filesystem.MFileOS;
+import thredds.inventory.CollectionManagerSingleFile;
+import thredds.inventory.MFile;
+import ucar.nc2.TestLocal;
+import ucar.nc2.dt.grid.GridDataset;
+import ucar.nc2.time.CalendarDate;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * The binary form of GridDatasetInv holds the same inventory as the XML, and XML caches are migrated to it.
+ *
+ * @since 10/19/2026
+ */
+public class TestGridDatasetInvBinary {
+  static private final String[] files = {"permuteTest.nc", "rankTest.nc", "jan.nc"};
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    for (String name : files) {
+      GridDataset gds = GridDataset.open(TestLocal.cdmTestDataDir + name);
+      try {
+        GridDatasetInv inv = new GridDatasetInv(gds, CalendarDate.parseISOformat(null, "2012-04-18T12:00:00Z"));
+        Date lastModified = new Date(new File(TestLocal.cdmTestDataDir + name).lastModified());
+        String xml = inv.writeXML(lastModified);
+
+        GridDatasetInv inv2 = GridDatasetInv.readBinary(inv.writeBinary(lastModified));
+        assertEquals(name, xml, inv2.writeXML(lastModified));
+        assertEquals(lastModified.getTime(), inv2.getLastModified());
+      } finally {
+        gds.close();
+      }
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testNotBinary() throws IOException {
+    GridDatasetInv.readBinary("<?xml version='1.0' encoding='UTF-8'?>".getBytes("UTF-8"));
+  }
+
+  @Test
+  public void testXmlMigrated() throws IOException {
+    File file = new File(TestLocal.cdmTestDataDir + "permuteTest.nc");
+    MFile mfile = new MFileOS(file);
+    MapCollection cm = new MapCollection(mfile);
+
+    // an older cache only has the XML
+    String xml;
+    GridDataset gds = GridDataset.open(file.getPath());
+    try {
+      xml = new GridDatasetInv(gds, null).writeXML(new Date(file.lastModified()));
+    } finally {
+      gds.close();
+    }
+    cm.putMetadata(mfile, "fmrInv.xml", xml.getBytes("UTF-8"));
+    cm.puts = 0;
+
+    GridDatasetInv inv = GridDatasetInv.open(cm, mfile, null);
+    assertEquals(xml, inv.writeXML(new Date(file.lastModified())));
+    assertEquals(1, cm.puts);
+    byte[] bin = cm.getMetadata(mfile, "fmrInv.bin");
+    assertNotNull(bin);
+    assertEquals(xml, GridDatasetInv.readBinary(bin).writeXML(new Date(file.lastModified())));
+
+    // then the binary is used, and nothing is written
+    cm.metadata.remove(mfile.getPath() + "#fmrInv.xml");
+    cm.puts = 0;
+    inv = GridDatasetInv.open(cm, mfile, null);
+    assertEquals(xml, inv.writeXML(new Date(file.lastModified())));
+    assertEquals(0, cm.puts);
+  }
+
+  // metadata kept in memory instead of the collection's store
+  private static class MapCollection extends CollectionManagerSingleFile {
+    Map<String, byte[]> metadata = new HashMap<String, byte[]>();
+    int puts;
+
+    MapCollection(MFile mfile) {
+      super(mfile, null);
+    }
+
+    @Override
+    public void putMetadata(MFile file, String key, byte[] value) {
+      metadata.put(file.getPath() + "#" + key, value);
+      puts++;
+    }
+
+    @Override
+    public byte[] getMetadata(MFile file, String key) {
+      return metadata.get(file.getPath() + "#" + key);
+    }
+  }
+}
@@ -36,8 +36,12 @@ import junit.framework.*;
 import ucar.ma2.*;
 import ucar.nc2.*;
 import ucar.nc2.constants.CDM;
+import ucar.nc2.stream.NcStreamHeaderCache;
+import ucar.nc2.util.CompareNetcdf2;
+import ucar.nc2.util.DiskCache2;
 
 import java.io.*;
+import java.util.Formatter;
 
 public class TestGini extends TestCase {
 
@@ -253,6 +257,30 @@ public class TestGini extends TestCase {
     ncfile.close();
   }
 
+  public void testGiniHeaderCache() throws IOException {
+    File cacheDir = new File(TestLocal.temporaryDataDir, "headerCache");
+    DiskCache2 dc = new DiskCache2(cacheDir.getPath(), false, 0, -1);
+    dc.setAlwaysUseCache(true);
+    NetcdfFile.setHeaderCache(new NcStreamHeaderCache(dc));
+
+    try {
+      NetcdfFile org = NetcdfFile.open(satelliteEast_8km_13);  // writes the header cache
+      NetcdfFile copy = NetcdfFile.open(satelliteEast_8km_13); // reads from the header cache
+      assert dc.getCacheFile(satelliteEast_8km_13 + ".ncsh").exists();
+
+      Formatter f = new Formatter();
+      boolean ok = CompareNetcdf2.compareFiles(org, copy, f, true, false, false);
+      System.out.printf("%s%n", f);
+      assert ok;
+
+      org.close();
+      copy.close();
+
+    } finally {
+      NetcdfFile.setHeaderCache(null);
+    }
+  }
+
   private void testReadData(Variable v) throws IOException {
     assert (null != v);
     assert (null != v.getDimension(0));
@@ -0,0 +1,176 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package ucar.nc2.iosp.nexrad2;
+
+import junit.framework.TestCase;
+import ucar.ma2.ArrayByte;
+import ucar.ma2.IndexIterator;
+import ucar.ma2.Range;
+import ucar.unidata.io.RandomAccessFile;
+
+import java.io.*;
+
+/**
+ * Test Level2SweepCache decoding against Level2Record.readData, using a synthetic message 1 file.
+ *
+ * @since 10/19/2026
+ */
+public class TestLevel2SweepCache extends TestCase {
+  static private final int NGATES = 230;
+
+  public TestLevel2SweepCache(String name) {
+    super(name);
+  }
+
+  // radial 2 has fewer gates
+  private File makeFile() throws IOException {
+    File file = File.createTempFile("Level2_TEST", ".ar2v");
+    file.deleteOnExit();
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+    out.write(new byte[24]); // file header
+    for (int radial = 1; radial <= 3; radial++) {
+      int ngates = (radial == 2) ? 200 : NGATES;
+      out.write(new byte[12]); // CTM header
+      out.writeShort(1208); // message size
+      out.writeByte(0);
+      out.writeByte(1); // message type
+      out.writeShort(radial);
+      out.writeShort(14000);
+      out.writeInt(0);
+      out.writeShort(1);
+      out.writeShort(1);
+
+      out.writeInt(1000 * radial); // data_msecs
+      out.writeShort(14000);
+      out.writeShort(0);
+      out.writeShort(radial * 182); // azimuth
+      out.writeShort(radial); // radial_num
+      out.writeShort(0);
+      out.writeShort(91); // elevation
+      out.writeShort(1); // elevation_num
+      out.writeShort(0); // reflect_first_gate
+      out.writeShort(0);
+      out.writeShort(1000); // reflect_gate_size
+      out.writeShort(250);
+      out.writeShort(ngates); // reflect_gate_count
+      out.writeShort(0);
+      out.writeShort(1);
+      out.writeFloat(0.0f);
+      out.writeShort(100); // reflect_offset
+      out.writeShort(0);
+      out.writeShort(0);
+      out.writeShort(2);
+      out.writeShort(21);
+      out.write(new byte[14]);
+      out.writeShort(0);
+      out.writeShort(0);
+      out.writeShort(0);
+      out.write(new byte[100 - 66]);
+      for (int i = 0; i < ngates; i++)
+        out.writeByte(radial * 7 + i);
+      out.write(new byte[2432 - 28 - 100 - ngates]);
+    }
+    out.close();
+    return file;
+  }
+
+  public void testDecode() throws Exception {
+    File file = makeFile();
+    RandomAccessFile raf = new RandomAccessFile(file.getPath(), "r");
+    raf.order(RandomAccessFile.BIG_ENDIAN);
+    try {
+      Level2Record[] radials = new Level2Record[4];
+      for (int i = 0; i < 3; i++)
+        radials[i] = new Level2Record(raf, i, 0);
+      assertEquals(200, radials[1].getGateCount(Level2Record.REFLECTIVITY));
+
+      Level2SweepCache.Sweep sweep = Level2SweepCache.decode(raf, radials, Level2Record.REFLECTIVITY);
+      assertEquals(4, sweep.getNumRadials());
+      assertEquals(NGATES, sweep.getNumGates());
+
+      Range gateRange = new Range(0, NGATES + 9);
+      for (int radial = 0; radial < 4; radial++) {
+        ArrayByte.D1 got = new ArrayByte.D1(gateRange.length());
+        sweep.read(radial, gateRange, got.getIndexIterator());
+
+        ArrayByte.D1 want = new ArrayByte.D1(gateRange.length());
+        IndexIterator ii = want.getIndexIterator();
+        if (radials[radial] == null) {
+          while (ii.hasNext()) ii.setByteNext(Level2Record.MISSING_DATA);
+        } else {
+          radials[radial].readData(raf, Level2Record.REFLECTIVITY, gateRange, ii);
+        }
+
+        for (int i = 0; i < gateRange.length(); i++)
+          assertEquals("radial " + radial + " gate " + i, want.get(i), got.get(i));
+      }
+
+    } finally {
+      raf.close();
+    }
+  }
+
+  public void testCache() throws IOException {
+    File file = makeFile();
+    RandomAccessFile raf = new RandomAccessFile(file.getPath(), "r");
+    raf.order(RandomAccessFile.BIG_ENDIAN);
+    try {
+      Level2Record[] radials = new Level2Record[3];
+      for (int i = 0; i < 3; i++)
+        radials[i] = new Level2Record(raf, i, 0);
+      String key = Level2SweepCache.makeKey(raf);
+
+      Level2SweepCache.clear();
+      Level2SweepCache.Sweep s1 = Level2SweepCache.get(key, raf, "Reflectivity", 0, radials, Level2Record.REFLECTIVITY);
+      Level2SweepCache.Sweep s2 = Level2SweepCache.get(key, raf, "Reflectivity", 0, radials, Level2Record.REFLECTIVITY);
+      assertSame(s1, s2);
+      Level2SweepCache.Sweep s3 = Level2SweepCache.get(key, raf, "Reflectivity_HI", 0, radials, Level2Record.REFLECTIVITY);
+      assertNotSame(s1, s3);
+
+      // too small to hold anything
+      Level2SweepCache.setMaxBytes(100);
+      try {
+        s2 = Level2SweepCache.get(key, raf, "Reflectivity", 0, radials, Level2Record.REFLECTIVITY);
+        assertNotSame(s1, s2);
+        assertNotSame(s2, Level2SweepCache.get(key, raf, "Reflectivity", 0, radials, Level2Record.REFLECTIVITY));
+      } finally {
+        Level2SweepCache.setMaxBytes(32 * 1000 * 1000);
+        Level2SweepCache.clear();
+      }
+
+    } finally {
+      raf.close();
+    }
+  }
+}
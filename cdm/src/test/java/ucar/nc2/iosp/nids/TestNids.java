@@ -412,6 +412,29 @@ public class TestNids extends TestCase {
     ncfile.close();
   }
 
+  public void testNidsReadSubset() throws IOException, InvalidRangeException {
+    NetcdfFile ncfile = NetcdfFile.open(basereflectFile);
+    Variable v = ncfile.findVariable("BaseReflectivity");
+    Variable raw = ncfile.findVariable("BaseReflectivity_RAW");
+    Array all = v.read();
+    Array allRaw = raw.read();
+
+    // subsets are cut from the same decoded scan
+    Array sub = v.read("100:120,0:229");
+    Array subRaw = raw.read("100:120,0:229");
+    Index ia = all.getIndex();
+    Index is = sub.getIndex();
+    for (int i = 0; i < 21; i++) {
+      for (int j = 0; j < 230; j++) {
+        float f1 = all.getFloat(ia.set(100 + i, j));
+        float f2 = sub.getFloat(is.set(i, j));
+        assert (Float.isNaN(f1) ? Float.isNaN(f2) : f1 == f2);
+        assert allRaw.getByte(ia.set(100 + i, j)) == subRaw.getByte(is.set(i, j));
+      }
+    }
+    ncfile.close();
+  }
+
   private void testReadData(Variable v) {
     Array a = null;
     assert(null != v);
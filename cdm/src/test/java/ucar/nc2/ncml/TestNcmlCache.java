@@ -0,0 +1,238 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package ucar.nc2.ncml;
+
+import org.jdom2.Element;
+import org.junit.After;
+import org.junit.Test;
+import ucar.ma2.Array;
+import ucar.ma2.DataType;
+import ucar.ma2.InvalidRangeException;
+import ucar.ma2.MAMath;
+import ucar.nc2.NetcdfFileWriteable;
+import ucar.nc2.constants.CDM;
+import ucar.nc2.dataset.NetcdfDataset;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Aggregation coordinates kept in NcmlCache are found again, and evicted when the cache is full.
+ * A joinExisting aggregation reuses them on the next open, except for a nested file that has changed.
+ */
+public class TestNcmlCache {
+
+  @After
+  public void reset() {
+    NcmlCache.clear();
+    NcmlCache.setMaxBytes(0);
+  }
+
+  private Map<String, NcmlCache.DatasetCoords> makeCoords(int n) {
+    Map<String, NcmlCache.DatasetCoords> coords = new HashMap<String, NcmlCache.DatasetCoords>();
+    for (int i = 0; i < n; i++) {
+      Map<String, Array> data = new HashMap<String, Array>();
+      data.put("time", Array.factory(DataType.DOUBLE, new int[]{10}));
+      coords.put("file" + i + ".nc", new NcmlCache.DatasetCoords(1000 + i, 10, data));
+    }
+    return coords;
+  }
+
+  @Test
+  public void testDisabled() {
+    assertFalse(NcmlCache.isEnabled());
+    NcmlCache.putCoords("agg:test", makeCoords(3));
+    assertNull(NcmlCache.getCoords("agg:test"));
+  }
+
+  @Test
+  public void testCoords() {
+    NcmlCache.setMaxBytes(100 * 1000);
+    Map<String, NcmlCache.DatasetCoords> coords = makeCoords(3);
+    NcmlCache.putCoords("agg:test", coords);
+
+    Map<String, NcmlCache.DatasetCoords> got = NcmlCache.getCoords("agg:test");
+    assertNotNull(got);
+    assertEquals(3, got.size());
+    NcmlCache.DatasetCoords dc = got.get("file1.nc");
+    assertEquals(1001, dc.lastModified);
+    assertEquals(10, dc.ncoord);
+    assertEquals(10, dc.data.get("time").getSize());
+    assertNull(NcmlCache.getCoords("agg:other"));
+  }
+
+  @Test
+  public void testEvict() {
+    long size = 0;
+    for (NcmlCache.DatasetCoords dc : makeCoords(3).values())
+      size += dc.size();
+    NcmlCache.setMaxBytes(2 * size);
+
+    NcmlCache.putCoords("agg:1", makeCoords(3));
+    NcmlCache.putCoords("agg:2", makeCoords(3));
+    NcmlCache.getCoords("agg:1"); // now agg:2 is the least recently used
+    NcmlCache.putCoords("agg:3", makeCoords(3));
+
+    assertNotNull(NcmlCache.getCoords("agg:1"));
+    assertNull(NcmlCache.getCoords("agg:2"));
+    assertNotNull(NcmlCache.getCoords("agg:3"));
+  }
+
+  @Test
+  public void testJoinExisting() throws IOException, InvalidRangeException {
+    File dir = File.createTempFile("TestNcmlCache", "");
+    assert dir.delete() && dir.mkdir();
+    try {
+      String[] files = new String[3];
+      StringBuilder ncml = new StringBuilder();
+      ncml.append("<?xml version='1.0' encoding='UTF-8'?>\n");
+      ncml.append("<netcdf xmlns='http://www.unidata.ucar.edu/namespaces/netcdf/ncml-2.2'>\n");
+      ncml.append("  <aggregation dimName='time' type='joinExisting'>\n");
+      for (int i = 0; i < files.length; i++) {
+        files[i] = new File(dir, "nested" + i + ".nc").getPath();
+        writeNested(files[i], i);
+        ncml.append("    <netcdf location='").append(files[i]).append("'/>\n");
+      }
+      ncml.append("  </aggregation>\n</netcdf>\n");
+      File ncmlFile = new File(dir, "agg.ncml");
+      OutputStream out = new FileOutputStream(ncmlFile);
+      out.write(ncml.toString().getBytes(CDM.utf8Charset));
+      out.close();
+      String location = ncmlFile.toURI().toURL().toExternalForm();
+
+      NcmlCache.setMaxBytes(10 * 1000 * 1000);
+      Array[] first = readAgg(location);
+      double[] times = (double[]) first[0].get1DJavaArray(double.class);
+      for (int i = 0; i < times.length; i++)
+        assertEquals(i, times[i], 0.0);
+
+      // the first open kept ncoord and time values of each nested file, the second open reads the same data
+      Element aggElem = NcmlCache.getDocument(ncml.toString().getBytes(CDM.utf8Charset), location)
+              .getRootElement().getChild("aggregation", NcMLReader.ncNS);
+      String key = NcmlCache.makeAggregationKey(location, aggElem);
+      Map<String, NcmlCache.DatasetCoords> coords = NcmlCache.getCoords(key);
+      assertNotNull(coords);
+      assertEquals(files.length, coords.size());
+      for (int i = 0; i < files.length; i++) {
+        NcmlCache.DatasetCoords dc = findCoords(coords, files[i]);
+        assertEquals(new File(files[i]).lastModified(), dc.lastModified);
+        assertEquals(2, dc.ncoord);
+        Array time = dc.data.get("time");
+        assertEquals(2, time.getSize());
+        assertEquals(2 * i, time.getDouble(0), 0.0);
+        assertEquals(2 * i + 1, time.getDouble(1), 0.0);
+      }
+      Array[] second = readAgg(location);
+      assertTrue(MAMath.isEqual(first[0], second[0]));
+      assertTrue(MAMath.isEqual(first[1], second[1]));
+
+      // shift the cached time values: an open that reuses them sees the shifted values
+      Map<String, NcmlCache.DatasetCoords> shifted = new HashMap<String, NcmlCache.DatasetCoords>();
+      for (Map.Entry<String, NcmlCache.DatasetCoords> entry : coords.entrySet()) {
+        NcmlCache.DatasetCoords dc = entry.getValue();
+        Map<String, Array> data = new HashMap<String, Array>();
+        data.put("time", MAMath.convert(dc.data.get("time"), DataType.DOUBLE).copy());
+        for (int i = 0; i < data.get("time").getSize(); i++)
+          data.get("time").setDouble(i, data.get("time").getDouble(i) + 100);
+        shifted.put(entry.getKey(), new NcmlCache.DatasetCoords(dc.lastModified, dc.ncoord, data));
+      }
+      NcmlCache.putCoords(key, shifted);
+      times = (double[]) readAgg(location)[0].get1DJavaArray(double.class);
+      for (int i = 0; i < times.length; i++)
+        assertEquals(i + 100, times[i], 0.0);
+
+      // touching one nested file invalidates only its entry
+      File touched = new File(files[1]);
+      assert touched.setLastModified(touched.lastModified() + 10 * 1000);
+      NcmlCache.putCoords(key, shifted);
+      Array[] third = readAgg(location);
+      times = (double[]) third[0].get1DJavaArray(double.class);
+      for (int i = 0; i < times.length; i++)
+        assertEquals((i / 2 == 1) ? i : i + 100, times[i], 0.0);
+      assertTrue(MAMath.isEqual(first[1], third[1]));
+      assertEquals(touched.lastModified(), findCoords(NcmlCache.getCoords(key), files[1]).lastModified);
+
+    } finally {
+      for (File f : dir.listFiles())
+        f.delete();
+      dir.delete();
+    }
+  }
+
+  // explicit nested datasets are cached as location#id of the netcdf element
+  private NcmlCache.DatasetCoords findCoords(Map<String, NcmlCache.DatasetCoords> coords, String location) {
+    for (Map.Entry<String, NcmlCache.DatasetCoords> entry : coords.entrySet())
+      if (entry.getKey().startsWith(location + "#")) return entry.getValue();
+    fail(location);
+    return null;
+  }
+
+  // two times, 2*index and 2*index+1, and T(time, x)
+  private void writeNested(String path, int index) throws IOException, InvalidRangeException {
+    NetcdfFileWriteable ncfile = NetcdfFileWriteable.createNew(path, false);
+    ncfile.addDimension("time", 2);
+    ncfile.addDimension("x", 3);
+    ncfile.addVariable("time", DataType.DOUBLE, "time");
+    ncfile.addVariableAttribute("time", CDM.UNITS, "hours since 2000-01-01T00:00:00Z");
+    ncfile.addVariable("T", DataType.FLOAT, "time x");
+    ncfile.create();
+    Array time = Array.factory(DataType.DOUBLE, new int[]{2});
+    Array data = Array.factory(DataType.FLOAT, new int[]{2, 3});
+    for (int t = 0; t < 2; t++) {
+      time.setDouble(t, 2 * index + t);
+      for (int x = 0; x < 3; x++)
+        data.setFloat(t * 3 + x, 100 * index + 10 * t + x);
+    }
+    ncfile.write("time", time);
+    ncfile.write("T", data);
+    ncfile.close();
+  }
+
+  // opens and closes the aggregation, returns time and T
+  private Array[] readAgg(String location) throws IOException {
+    NetcdfDataset ncd = NetcdfDataset.openDataset(location);
+    try {
+      return new Array[]{ncd.findVariable("time").read(), ncd.findVariable("T").read()};
+    } finally {
+      ncd.close();
+    }
+  }
+
+}
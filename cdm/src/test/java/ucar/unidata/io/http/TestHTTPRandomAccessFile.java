@@ -0,0 +1,178 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package ucar.unidata.io.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Formatter;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the HTTPRandomAccessFile block cache against a local HTTP server
+ *
+ * @since 10/19/2026
+ */
+public class TestHTTPRandomAccessFile {
+  private static final int FILE_SIZE = 1000 * 1000 + 17;
+
+  private HttpServer server;
+  private byte[] content;
+  private final AtomicInteger ngets = new AtomicInteger();
+  private String url;
+
+  @Before
+  public void startServer() throws IOException {
+    content = new byte[FILE_SIZE];
+    new Random(17).nextBytes(content);
+
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/data.bin", new HttpHandler() {
+      public void handle(HttpExchange ex) throws IOException {
+        ex.getResponseHeaders().set("Accept-Ranges", "bytes");
+        if (ex.getRequestMethod().equals("HEAD")) {
+          ex.getResponseHeaders().set("Content-Length", Integer.toString(content.length));
+          ex.sendResponseHeaders(200, -1);
+          ex.close();
+          return;
+        }
+
+        ngets.incrementAndGet();
+        String range = ex.getRequestHeaders().getFirst("Range");
+        int start = 0, end = content.length - 1;
+        if (range != null) {
+          String[] se = range.substring("bytes=".length()).split("-");
+          start = Integer.parseInt(se[0]);
+          end = Math.min(Integer.parseInt(se[1]), content.length - 1);
+          ex.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + end + "/" + content.length);
+        }
+        int len = end - start + 1;
+        ex.sendResponseHeaders(range != null ? 206 : 200, len);
+        OutputStream out = ex.getResponseBody();
+        out.write(content, start, len);
+        out.close();
+      }
+    });
+    server.start();
+    url = "http://127.0.0.1:" + server.getAddress().getPort() + "/data.bin";
+  }
+
+  @After
+  public void stopServer() {
+    HTTPRandomAccessFile.setBlockCache(32 * 1024, 64 * 32 * 1024, 16 * 32 * 1024, 2 * 32 * 1024);
+    server.stop(0);
+  }
+
+  @Test
+  public void sequentialReadAhead() throws IOException {
+    HTTPRandomAccessFile raf = new HTTPRandomAccessFile(url);
+    try {
+      byte[] result = new byte[FILE_SIZE];
+      for (int pos = 0; pos < FILE_SIZE; pos += 1000)  // small reads, through the buffer
+        raf.readFully(result, pos, Math.min(1000, FILE_SIZE - pos));
+      assertArrayEquals(content, result);
+
+      Formatter f = new Formatter();
+      raf.showStats(f);
+      System.out.printf("%s", f);
+      // 51 buffer fills without read ahead
+      assertTrue(raf.getRequestCount() < 15);
+      assertEquals(FILE_SIZE, raf.getBytesFetched());
+    } finally {
+      raf.close();
+    }
+  }
+
+  @Test
+  public void randomReadsAreCached() throws IOException {
+    HTTPRandomAccessFile raf = new HTTPRandomAccessFile(url);
+    try {
+      Random r = new Random(3);
+      long[] pos = new long[50];
+      for (int i = 0; i < pos.length; i++)
+        pos[i] = r.nextInt(FILE_SIZE - 100);
+
+      for (int pass = 0; pass < 2; pass++) {
+        for (long p : pos) {
+          raf.seek(p);
+          assertEquals(content[(int) p] & 0xff, raf.read());
+          byte[] b = new byte[100];
+          raf.readFully(b);
+          for (int i = 0; i < b.length; i++)
+            assertEquals(content[(int) p + 1 + i], b[i]);
+        }
+        if (pass == 0) raf.setBufferSize(100); // so reads go to read_() again
+      }
+      int n = raf.getRequestCount();
+      assertTrue(n <= pos.length);
+
+      // the cache holds all blocks of the file, so a second pass makes no requests
+      for (long p : pos) {
+        raf.seek(p);
+        raf.read();
+      }
+      assertEquals(n, raf.getRequestCount());
+    } finally {
+      raf.close();
+    }
+  }
+
+  @Test
+  public void noCache() throws IOException {
+    HTTPRandomAccessFile.setBlockCache(0, 0, 0, 0);
+    HTTPRandomAccessFile raf = new HTTPRandomAccessFile(url);
+    try {
+      raf.seek(FILE_SIZE - 10);
+      byte[] b = new byte[10];
+      raf.readFully(b);
+      for (int i = 0; i < b.length; i++)
+        assertEquals(content[FILE_SIZE - 10 + i], b[i]);
+      assertEquals(1, raf.getRequestCount());
+      assertEquals(10, raf.getBytesFetched());
+    } finally {
+      raf.close();
+    }
+  }
+}
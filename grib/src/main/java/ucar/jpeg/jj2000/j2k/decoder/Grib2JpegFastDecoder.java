@@ -0,0 +1,189 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package ucar.jpeg.jj2000.j2k.decoder;
+
+import ucar.jpeg.jj2000.j2k.codestream.HeaderInfo;
+import ucar.jpeg.jj2000.j2k.codestream.reader.BitstreamReaderAgent;
+import ucar.jpeg.jj2000.j2k.codestream.reader.HeaderDecoder;
+import ucar.jpeg.jj2000.j2k.entropy.decoder.EntropyDecoder;
+import ucar.jpeg.jj2000.j2k.entropy.decoder.ParallelEntropyDecoder;
+import ucar.jpeg.jj2000.j2k.image.BlkImgDataSrc;
+import ucar.jpeg.jj2000.j2k.image.DataBlkInt;
+import ucar.jpeg.jj2000.j2k.image.ImgDataConverter;
+import ucar.jpeg.jj2000.j2k.quantization.dequantizer.Dequantizer;
+import ucar.jpeg.jj2000.j2k.util.ArrayRandomAccessIO;
+import ucar.jpeg.jj2000.j2k.util.ParameterList;
+import ucar.jpeg.jj2000.j2k.wavelet.synthesis.InverseWT;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * A lean JPEG2000 decoder for GRIB2 data representation template 5.40.
+ * GRIB2 fields are a single tile, single component raw codestream, so this skips the parts of Grib2JpegDecoder
+ * that dont apply: copying the input, parsing the arguments for each record, the JP2 file format,
+ * ROI descaling, component and color space transforms, and the image writer.
+ * It uses the same jj2000 modules for the actual decoding, so the results are identical.
+ * <p/>
+ * When the codestream is something else, decode() returns false, and the caller should use Grib2JpegDecoder.
+ * An instance may be reused, but not shared between threads.
+ *
+ * @since 10/19/2026
+ */
+public class Grib2JpegFastDecoder {
+  static private final ParameterList defpl;
+  static {
+    defpl = new ParameterList();
+    String[][] param = Grib2JpegDecoder.getAllParameters();
+    for (int i = param.length - 1; i >= 0; i--) {
+      if (param[i][3] != null)
+        defpl.put(param[i][0], param[i][3]);
+    }
+  }
+
+  // experimental multithreading
+  static private Executor executor;
+  static private int nthreads = 1;
+  static private int minBlocks = 4;
+
+  /**
+   * Decode the code-blocks of each subband in parallel.
+   *
+   * @param exec      run on this, null means decode in the calling thread
+   * @param n         number of code-blocks decoded at the same time
+   * @param minBlocks only use threads for subbands with at least this many code-blocks
+   */
+  static public void setExecutor(Executor exec, int n, int minBlocks) {
+    executor = exec;
+    nthreads = Math.max(n, 1);
+    Grib2JpegFastDecoder.minBlocks = minBlocks;
+  }
+
+  //////////////////////////////////////////////
+
+  private final Map<Integer, ParameterList> plCache = new HashMap<Integer, ParameterList>();
+  private int[] data;
+  private boolean hasSignedProblem;
+
+  /**
+   * Decode a JPEG2000 codestream.
+   *
+   * @param buf  holds the codestream, starting at 0
+   * @param len  number of valid bytes in buf
+   * @param rate the number of bits in the GRIB2 data representation section
+   * @return true if decoded, false if this codestream needs the full decoder
+   * @throws IOException on read error
+   */
+  public boolean decode(byte[] buf, int len, int rate) throws IOException {
+    data = null;
+    hasSignedProblem = false;
+
+    // must be a raw codestream, starting with SOC
+    if (len < 2 || (buf[0] & 0xff) != 0xff || (buf[1] & 0xff) != 0x4f)
+      return false;
+
+    ParameterList pl = getParameterList(rate);
+    ArrayRandomAccessIO in = new ArrayRandomAccessIO(buf, len);
+    HeaderInfo hi = new HeaderInfo();
+    HeaderDecoder hd = new HeaderDecoder(in, pl, hi);
+    if (hd.getNumComps() != 1 || hi.siz.getNumTiles() != 1)
+      return false;
+
+    DecoderSpecs decSpec = hd.getDecoderSpecs();
+    int[] depth = new int[]{hd.getOriginalBitDepth(0)};
+    BitstreamReaderAgent breader = BitstreamReaderAgent.createInstance(in, hd, pl, decSpec, false, hi);
+    if (decSpec.rois != null) // region of interest, found in a tile header
+      return false;
+
+    EntropyDecoder entdec;
+    if (executor != null && nthreads > 1)
+      entdec = new ParallelEntropyDecoder(breader, decSpec, pl.getBooleanParameter("Cer"),
+              pl.getBooleanParameter("Cverber"), pl.getIntParameter("m_quit"), executor, nthreads, minBlocks);
+    else
+      entdec = hd.createEntropyDecoder(breader, pl);
+
+    Dequantizer deq = hd.createDequantizer(entdec, depth, decSpec);
+    InverseWT invWT = InverseWT.createInstance(deq, decSpec);
+    invWT.setImgResLevel(breader.getImgRes());
+    BlkImgDataSrc src = new ImgDataConverter(invWT, 0);
+    src.setTile(0, 0); // the dequantizer gets the range bits from the tile
+
+    int bitDepth = src.getNomRangeBits(0);
+    if ((bitDepth <= 0) || (bitDepth > 31))
+      return false;
+
+    // same as ImgWriterArray
+    int w = src.getImgWidth();
+    int h = src.getImgHeight();
+    DataBlkInt db = new DataBlkInt(0, 0, w, h);
+    do {
+      db = (DataBlkInt) src.getInternCompData(db, 0);
+    } while (db.progressive);
+
+    data = db.data;
+    if (!hd.isOriginalSigned(0)) {
+      int nb = depth[0];
+      int levShift = 1 << (nb - 1);
+      if (nb != rate) hasSignedProblem = true;
+      for (int j = 0; j < data.length; j++)
+        data[j] += levShift;
+    }
+    return true;
+  }
+
+  // the equivalent of the "-rate nb -verbose off" arguments used by Grib2DataReader
+  private ParameterList getParameterList(int rate) {
+    ParameterList pl = plCache.get(rate);
+    if (pl == null) {
+      pl = new ParameterList(defpl);
+      pl.parseArgs(new String[]{"-rate", Integer.toString(rate), "-verbose", "off"});
+      plCache.put(rate, pl);
+    }
+    return pl;
+  }
+
+  /**
+   * The decoded values, after decode() returns true.
+   *
+   * @return decoded values
+   */
+  public int[] getData() {
+    return data;
+  }
+
+  public boolean hasSignedProblem() {
+    return hasSignedProblem;
+  }
+}
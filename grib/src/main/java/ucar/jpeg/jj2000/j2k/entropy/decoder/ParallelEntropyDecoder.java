@@ -0,0 +1,319 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package ucar.jpeg.jj2000.j2k.entropy.decoder;
+
+import ucar.jpeg.jj2000.j2k.decoder.DecoderSpecs;
+import ucar.jpeg.jj2000.j2k.image.Coord;
+import ucar.jpeg.jj2000.j2k.image.DataBlk;
+import ucar.jpeg.jj2000.j2k.image.DataBlkInt;
+import ucar.jpeg.jj2000.j2k.wavelet.synthesis.SubbandSyn;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Entropy decoder that decodes the code-blocks of a subband in parallel.
+ * When a code-block of a new subband is asked for, the coded data of all code-blocks in that subband
+ * is read from the bit stream in the calling thread, then decoded by StdEntropyDecoders in worker threads,
+ * each with its own state. Since each code-block is decoded independently, the results are identical to
+ * decoding them one at a time.
+ * <p/>
+ * The code-blocks are kept until they are asked for, and handed out only once.
+ *
+ * @since 10/19/2026
+ */
+public class ParallelEntropyDecoder extends EntropyDecoder {
+  private final Executor executor;
+  private final int minBlocks;
+  private final Worker[] workers;
+
+  // the code-blocks of the current subband
+  private SubbandSyn curSb;
+  private int curC = -1, curTile = -1;
+  private DataBlk[] decoded;
+
+  /**
+   * Constructor.
+   *
+   * @param src       the bit stream reader
+   * @param decSpec   decoder specifications
+   * @param doer      error detection, see StdEntropyDecoder
+   * @param verber    verbose error detection, see StdEntropyDecoder
+   * @param mQuit     maximum number of bit planes, see StdEntropyDecoder
+   * @param executor  run decoding on this
+   * @param nthreads  number of code-blocks decoded at the same time, including the calling thread
+   * @param minBlocks only decode subbands with at least this many code-blocks in parallel
+   */
+  public ParallelEntropyDecoder(CodedCBlkDataSrcDec src, DecoderSpecs decSpec, boolean doer, boolean verber,
+                                int mQuit, Executor executor, int nthreads, int minBlocks) {
+    super(src);
+    this.executor = executor;
+    this.minBlocks = Math.max(minBlocks, 2);
+    this.workers = new Worker[Math.max(nthreads, 1)];
+    for (int i = 0; i < workers.length; i++)
+      workers[i] = new Worker(src, decSpec, doer, verber, mQuit);
+  }
+
+  public void setTile(int x, int y) {
+    super.setTile(x, y);
+    for (Worker w : workers) w.dec.setTile(x, y); // just sets the tile index, since the source is a proxy
+    decoded = null;
+    curSb = null;
+  }
+
+  public void nextTile() {
+    super.nextTile();
+    for (Worker w : workers) w.dec.setTile(0, 0); // picks up the tile index of the reader
+    decoded = null;
+    curSb = null;
+  }
+
+  public DataBlk getCodeBlock(int c, int m, int n, SubbandSyn sb, DataBlk cblk) {
+    Coord ncb = sb.numCb;
+    if (ncb.x * ncb.y < minBlocks)
+      return workers[0].decode(c, m, n, sb, src.getCodeBlock(c, m, n, sb, 1, -1, null), cblk);
+
+    if (sb != curSb || c != curC || tIdx != curTile)
+      decodeSubband(c, sb);
+
+    int idx = m * ncb.x + n;
+    DataBlk result = decoded[idx];
+    decoded[idx] = null; // the caller may modify it
+    if (result == null) // asked for twice
+      result = workers[0].decode(c, m, n, sb, src.getCodeBlock(c, m, n, sb, 1, -1, null), cblk);
+    return result;
+  }
+
+  public DataBlk getInternCodeBlock(int c, int m, int n, SubbandSyn sb, DataBlk cblk) {
+    return getCodeBlock(c, m, n, sb, cblk);
+  }
+
+  private void decodeSubband(final int c, final SubbandSyn sb) {
+    final int nx = sb.numCb.x;
+    int nblocks = nx * sb.numCb.y;
+
+    // read the coded data in this thread
+    final DecLyrdCBlk[] coded = new DecLyrdCBlk[nblocks];
+    for (int i = 0; i < nblocks; i++)
+      coded[i] = src.getCodeBlock(c, i / nx, i % nx, sb, 1, -1, null);
+
+    final DataBlk[] result = new DataBlk[nblocks];
+    final int ntasks = Math.min(workers.length, nblocks);
+    List<FutureTask<Object>> tasks = new ArrayList<FutureTask<Object>>(ntasks);
+    for (int k = 1; k < ntasks; k++) {
+      final int task = k;
+      FutureTask<Object> f = new FutureTask<Object>(new Runnable() {
+        public void run() {
+          decodeBlocks(task, ntasks, c, sb, coded, result);
+        }
+      }, null);
+      executor.execute(f);
+      tasks.add(f);
+    }
+    decodeBlocks(0, ntasks, c, sb, coded, result); // the calling thread does its share
+
+    try {
+      for (FutureTask<Object> f : tasks) f.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("JPEG2000 decoding interrupted");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+      if (cause instanceof Error) throw (Error) cause;
+      throw new IllegalStateException(cause);
+    }
+
+    decoded = result;
+    curSb = sb;
+    curC = c;
+    curTile = tIdx;
+  }
+
+  // worker k decodes blocks k, k + stride, k + 2*stride, ...
+  private void decodeBlocks(int k, int stride, int c, SubbandSyn sb, DecLyrdCBlk[] coded, DataBlk[] result) {
+    Worker w = workers[k];
+    int nx = sb.numCb.x;
+    for (int i = k; i < coded.length; i += stride)
+      result[i] = w.decode(c, i / nx, i % nx, sb, coded[i], new DataBlkInt());
+  }
+
+  // a StdEntropyDecoder, whose source hands it the code-block that was already read
+  static private class Worker {
+    final Prefetched proxy;
+    final StdEntropyDecoder dec;
+
+    Worker(CodedCBlkDataSrcDec src, DecoderSpecs decSpec, boolean doer, boolean verber, int mQuit) {
+      proxy = new Prefetched(src);
+      dec = new StdEntropyDecoder(proxy, decSpec, doer, verber, mQuit);
+    }
+
+    DataBlk decode(int c, int m, int n, SubbandSyn sb, DecLyrdCBlk coded, DataBlk cblk) {
+      proxy.next = coded;
+      try {
+        return dec.getCodeBlock(c, m, n, sb, cblk);
+      } finally {
+        proxy.next = null;
+      }
+    }
+  }
+
+  // delegates to the bit stream reader, except for getCodeBlock() and tile changes
+  static private class Prefetched implements CodedCBlkDataSrcDec {
+    final CodedCBlkDataSrcDec src;
+    DecLyrdCBlk next;
+
+    Prefetched(CodedCBlkDataSrcDec src) {
+      this.src = src;
+    }
+
+    public DecLyrdCBlk getCodeBlock(int c, int m, int n, SubbandSyn sb, int fl, int nl, DecLyrdCBlk ccb) {
+      return next;
+    }
+
+    public void setTile(int x, int y) {
+      // the reader has already been set to this tile
+    }
+
+    public void nextTile() {
+      // the reader has already been moved to the next tile
+    }
+
+    public SubbandSyn getSynSubbandTree(int t, int c) {
+      return src.getSynSubbandTree(t, c);
+    }
+
+    public int getCbULX() {
+      return src.getCbULX();
+    }
+
+    public int getCbULY() {
+      return src.getCbULY();
+    }
+
+    public int getTileWidth(int rl) {
+      return src.getTileWidth(rl);
+    }
+
+    public int getTileHeight(int rl) {
+      return src.getTileHeight(rl);
+    }
+
+    public int getNomTileWidth() {
+      return src.getNomTileWidth();
+    }
+
+    public int getNomTileHeight() {
+      return src.getNomTileHeight();
+    }
+
+    public int getImgWidth(int rl) {
+      return src.getImgWidth(rl);
+    }
+
+    public int getImgHeight(int rl) {
+      return src.getImgHeight(rl);
+    }
+
+    public int getNumComps() {
+      return src.getNumComps();
+    }
+
+    public int getCompSubsX(int c) {
+      return src.getCompSubsX(c);
+    }
+
+    public int getCompSubsY(int c) {
+      return src.getCompSubsY(c);
+    }
+
+    public int getTileCompWidth(int t, int c, int rl) {
+      return src.getTileCompWidth(t, c, rl);
+    }
+
+    public int getTileCompHeight(int t, int c, int rl) {
+      return src.getTileCompHeight(t, c, rl);
+    }
+
+    public int getCompImgWidth(int c, int rl) {
+      return src.getCompImgWidth(c, rl);
+    }
+
+    public int getCompImgHeight(int c, int rl) {
+      return src.getCompImgHeight(c, rl);
+    }
+
+    public Coord getTile(Coord co) {
+      return src.getTile(co);
+    }
+
+    public int getTileIdx() {
+      return src.getTileIdx();
+    }
+
+    public int getResULX(int c, int rl) {
+      return src.getResULX(c, rl);
+    }
+
+    public int getResULY(int c, int rl) {
+      return src.getResULY(c, rl);
+    }
+
+    public int getImgULX(int rl) {
+      return src.getImgULX(rl);
+    }
+
+    public int getImgULY(int rl) {
+      return src.getImgULY(rl);
+    }
+
+    public int getTilePartULX() {
+      return src.getTilePartULX();
+    }
+
+    public int getTilePartULY() {
+      return src.getTilePartULY();
+    }
+
+    public Coord getNumTiles(Coord co) {
+      return src.getNumTiles(co);
+    }
+
+    public int getNumTiles() {
+      return src.getNumTiles();
+    }
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package ucar.jpeg.jj2000.j2k.util;
+
+import ucar.jpeg.jj2000.j2k.io.EndianType;
+import ucar.jpeg.jj2000.j2k.io.RandomAccessIO;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * A read-only RandomAccessIO over a byte array, without copying it.
+ * Behaves like ISRandomAccessIO once that has read all of its input.
+ *
+ * @since 10/19/2026
+ */
+public class ArrayRandomAccessIO implements RandomAccessIO {
+  private final byte[] buf;
+  private final int len;
+  private int pos;
+
+  /**
+   * Constructor.
+   * @param buf the data, starting at 0
+   * @param len number of valid bytes in buf
+   */
+  public ArrayRandomAccessIO(byte[] buf, int len) {
+    if (len < 0 || len > buf.length) throw new IllegalArgumentException();
+    this.buf = buf;
+    this.len = len;
+  }
+
+  public void close() {
+  }
+
+  public int getPos() {
+    return pos;
+  }
+
+  public int length() {
+    return len;
+  }
+
+  public void seek(int off) throws IOException {
+    if (off > len) throw new EOFException();
+    pos = off;
+  }
+
+  public int read() throws IOException {
+    if (pos < len) return 0xFF & buf[pos++];
+    if (pos == len) throw new EOFException();
+    throw new IOException("Position beyond EOF");
+  }
+
+  public void readFully(byte b[], int off, int n) throws IOException {
+    if (pos + n > len) throw new EOFException();
+    System.arraycopy(buf, pos, b, off, n);
+    pos += n;
+  }
+
+  public int getByteOrdering() {
+    return EndianType.BIG_ENDIAN;
+  }
+
+  public byte readByte() throws IOException {
+    return (byte) read();
+  }
+
+  public int readUnsignedByte() throws IOException {
+    return read();
+  }
+
+  public short readShort() throws IOException {
+    return (short) ((read() << 8) | read());
+  }
+
+  public int readUnsignedShort() throws IOException {
+    return (read() << 8) | read();
+  }
+
+  public int readInt() throws IOException {
+    return (read() << 24) | (read() << 16) | (read() << 8) | read();
+  }
+
+  public long readUnsignedInt() throws IOException {
+    return 0xFFFFFFFFL & (long) readInt();
+  }
+
+  public long readLong() throws IOException {
+    return ((long) readInt() << 32) | readUnsignedInt();
+  }
+
+  public float readFloat() throws IOException {
+    return Float.intBitsToFloat(readInt());
+  }
+
+  public double readDouble() throws IOException {
+    return Double.longBitsToDouble(readLong());
+  }
+
+  public int skipBytes(int n) throws IOException {
+    if (pos + n > len) throw new EOFException();
+    pos += n;
+    return n;
+  }
+
+  public void flush() {
+  }
+
+  public void write(int b) throws IOException {
+    throw new IOException("read-only");
+  }
+
+  public void writeByte(int v) throws IOException {
+    throw new IOException("read-only");
+  }
+
+  public void writeShort(int v) throws IOException {
+    throw new IOException("read-only");
+  }
+
+  public void writeInt(int v) throws IOException {
+    throw new IOException("read-only");
+  }
+
+  public void writeLong(long v) throws IOException {
+    throw new IOException("read-only");
+  }
+
+  public void writeFloat(float v) throws IOException {
+    throw new IOException("read-only");
+  }
+
+  public void writeDouble(double v) throws IOException {
+    throw new IOException("read-only");
+  }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package ucar.nc2.grib;
+
+import ucar.unidata.io.RandomAccessFile;
+
+import java.io.IOException;
+
+/**
+ * Unpacks runs of bit packed unsigned integers from a GRIB data section.
+ * The section is read into memory once, then values are pulled out of a 64 bit accumulator,
+ * instead of one byte and one method call at a time through ucar.nc2.iosp.BitReader.
+ * Values are the same as (int) BitReader.bits2UInt(nbits), for nbits <= 32.
+ * Bits past the end of the section read as 0.
+ * <p/>
+ * Each thread has its own instance and scratch arrays, obtained from factory(), so decoding a record allocates
+ * only the returned data. An instance must not be kept after the record is decoded.
+ *
+ * @since 10/19/2026
+ */
+public class GribBitUnpacker {
+  static private final int NSCRATCH = 4;
+
+  static private final ThreadLocal<GribBitUnpacker> local = new ThreadLocal<GribBitUnpacker>() {
+    protected GribBitUnpacker initialValue() {
+      return new GribBitUnpacker();
+    }
+  };
+
+  /**
+   * Get this thread's unpacker, positioned at the start of the data.
+   *
+   * @param raf      read from this file
+   * @param startPos starting position of the packed data
+   * @param nbytes   number of bytes of packed data
+   * @return this thread's unpacker
+   * @throws IOException on read error
+   */
+  static public GribBitUnpacker factory(RandomAccessFile raf, long startPos, int nbytes) throws IOException {
+    GribBitUnpacker unpacker = local.get();
+    unpacker.read(raf, startPos, nbytes);
+    return unpacker;
+  }
+
+  //////////////////////////////////////////////
+
+  private byte[] buf = new byte[0];
+  private int len;     // number of valid bytes in buf
+  private int bytePos; // next byte to load into acc
+  private long acc;    // the low accBits bits are not yet consumed
+  private int accBits;
+  private final int[][] scratch = new int[NSCRATCH][];
+
+  private GribBitUnpacker() {
+  }
+
+  private void read(RandomAccessFile raf, long startPos, int nbytes) throws IOException {
+    if (nbytes < 0) nbytes = 0;
+    if (buf.length < nbytes)
+      buf = new byte[nbytes];
+    raf.seek(startPos);
+    int n = (nbytes == 0) ? 0 : raf.read(buf, 0, nbytes);
+    len = Math.max(n, 0);
+    reset(0);
+  }
+
+  /**
+   * Used for testing: unpack from memory.
+   *
+   * @param data the packed data, starting at 0
+   */
+  public GribBitUnpacker(byte[] data) {
+    this.buf = data;
+    this.len = data.length;
+  }
+
+  /**
+   * Position at a bit offset from the start of the data.
+   *
+   * @param bitOffset bit offset
+   */
+  public void reset(long bitOffset) {
+    bytePos = (int) (bitOffset >>> 3);
+    acc = 0;
+    accBits = 0;
+    int skip = (int) (bitOffset & 7);
+    if (skip > 0) {
+      fill(8);
+      accBits -= skip;
+    }
+  }
+
+  /**
+   * Skip to the start of the next byte, if not already there. Same as BitReader.incrByte().
+   */
+  public void align() {
+    accBits -= accBits & 7;
+  }
+
+  // load whole bytes until at least nbits are available
+  private void fill(int nbits) {
+    while (accBits < nbits) {
+      int b = (bytePos < len) ? buf[bytePos] & 0xff : 0;
+      bytePos++;
+      acc = (acc << 8) | b;
+      accBits += 8;
+    }
+  }
+
+  /**
+   * Read the next value.
+   *
+   * @param nbits number of bits; only the low 32 bits are kept when larger
+   * @return the value as an int
+   */
+  public int bits(int nbits) {
+    if (nbits <= 0) return 0;
+    if (nbits > 32) {
+      bits(nbits - 32);
+      nbits = 32;
+    }
+    if (accBits < nbits)
+      fill(nbits);
+    accBits -= nbits;
+    return (int) ((acc >>> accBits) & ((1L << nbits) - 1));
+  }
+
+  /**
+   * Read n values of the same width.
+   *
+   * @param nbits number of bits for each value; if 0, the values are all 0
+   * @param dest  put values here, starting at 0
+   * @param n     number of values
+   */
+  public void unpack(int nbits, int[] dest, int n) {
+    if (nbits <= 0 || nbits > 32) {
+      for (int i = 0; i < n; i++) dest[i] = bits(nbits);
+      return;
+    }
+
+    long mask = (1L << nbits) - 1;
+    long a = acc;
+    int ab = accBits;
+    int pos = bytePos;
+    byte[] b = buf;
+    int safe = len - 8; // can load 8 bytes without checking
+
+    for (int i = 0; i < n; i++) {
+      if (ab < nbits) {
+        if (pos <= safe) {
+          // load as many whole bytes as fit
+          while (ab <= 56) {
+            a = (a << 8) | (b[pos++] & 0xff);
+            ab += 8;
+          }
+        } else {
+          acc = a;
+          accBits = ab;
+          bytePos = pos;
+          fill(nbits);
+          a = acc;
+          ab = accBits;
+          pos = bytePos;
+        }
+      }
+      ab -= nbits;
+      dest[i] = (int) ((a >>> ab) & mask);
+    }
+
+    acc = a;
+    accBits = ab;
+    bytePos = pos;
+  }
+
+  /**
+   * Get this thread's scratch array. The contents are undefined.
+   * Each of the scratch arrays can be used for one purpose while decoding a record.
+   *
+   * @param which which one, 0 to 3
+   * @param n     minimum length
+   * @return scratch array
+   */
+  public int[] getScratch(int which, int n) {
+    int[] result = scratch[which];
+    if (result == null || result.length < n) {
+      result = new int[n];
+      scratch[which] = result;
+    }
+    return result;
+  }
+}
@@ -44,6 +44,7 @@ import ucar.unidata.io.RandomAccessFile;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.Executor;
 
 /**
  * Abstract superclass for Grib1Index and Grib2Index.
@@ -59,6 +60,36 @@ public abstract class GribIndex {
   public static final String GBX9_IDX = ".gbx9";
   public static final boolean debug = false;
 
+  // experimental multithreading
+  private static Executor scanExecutor;
+  private static int scanChunks;
+  private static long scanMinSize;
+
+  /**
+   * Scan large files in parallel when making the gbx9 index, see GribParallelScanner.
+   *
+   * @param executor run the chunk scans on this, null means scan in the calling thread
+   * @param nchunks  split each file into this many chunks, typically a small multiple of the number of threads
+   * @param minSize  only scan files at least this many bytes in parallel
+   */
+  public static void setScanExecutor(Executor executor, int nchunks, long minSize) {
+    scanExecutor = executor;
+    scanChunks = Math.max(nchunks, 1);
+    scanMinSize = minSize;
+  }
+
+  protected static boolean isParallelScan(long fileSize) {
+    return (scanExecutor != null) && (scanChunks > 1) && (fileSize >= scanMinSize);
+  }
+
+  protected static Executor getScanExecutor() {
+    return scanExecutor;
+  }
+
+  protected static int getScanChunks() {
+    return scanChunks;
+  }
+
   private static final CollectionManager.ChangeChecker gribCC = new CollectionManager.ChangeChecker() {
     public boolean hasChangedSince(MFile file, long when) {
       File idxFile = GribCollection.getIndexFile(file.getPath() + GBX9_IDX);
@@ -0,0 +1,240 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package ucar.nc2.grib;
+
+import thredds.featurecollection.FeatureCollectionConfig;
+import thredds.filesystem.MFileOS;
+import thredds.inventory.CollectionManager;
+import ucar.nc2.grib.grib1.Grib1Index;
+import ucar.nc2.grib.grib1.Grib1RecordScanner;
+import ucar.nc2.grib.grib2.Grib2Index;
+import ucar.nc2.grib.grib2.Grib2RecordScanner;
+import ucar.unidata.io.RandomAccessFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Make the gbx9 indexes (and optionally the ncx indexes) for all the GRIB files in a directory tree,
+ * one file per thread. Files that are not GRIB are skipped, as are existing indexes that are newer than the data file
+ * unless forced.
+ * <pre>
+ *   java ucar.nc2.grib.GribIndexBuilder topDir [-nthreads n] [-force] [-ncx]
+ * </pre>
+ *
+ * @since 10/19/2026
+ */
+public class GribIndexBuilder {
+  static private final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(GribIndexBuilder.class);
+
+  private final int nthreads;
+  private final CollectionManager.Force force;
+  private final boolean makeCollectionIndex;
+  private final PrintStream progress; // may be null
+
+  private final AtomicInteger countDone = new AtomicInteger();
+  private final AtomicInteger countIndexed = new AtomicInteger();
+  private final AtomicInteger countNotGrib = new AtomicInteger();
+  private final AtomicInteger countFailed = new AtomicInteger();
+  private final AtomicLong countRecords = new AtomicLong();
+  private final AtomicLong countBytes = new AtomicLong();
+
+  /**
+   * Constructor.
+   *
+   * @param nthreads            number of files to index at the same time
+   * @param force               always: remake all indexes; test: only remake out of date indexes
+   * @param makeCollectionIndex also make the ncx index for each file
+   * @param progress            report progress here, may be null
+   */
+  public GribIndexBuilder(int nthreads, CollectionManager.Force force, boolean makeCollectionIndex, PrintStream progress) {
+    this.nthreads = Math.max(nthreads, 1);
+    this.force = force;
+    this.makeCollectionIndex = makeCollectionIndex;
+    this.progress = progress;
+  }
+
+  /**
+   * Index all the GRIB files in a directory tree.
+   *
+   * @param topDir start here
+   * @return number of files that failed
+   * @throws IOException if interrupted
+   */
+  public int build(File topDir) throws IOException {
+    final List<File> files = new ArrayList<File>();
+    findFiles(topDir, files);
+    if (progress != null) progress.printf("GribIndexBuilder %s: %d files, %d threads%n", topDir, files.size(), nthreads);
+
+    long start = System.nanoTime();
+    ExecutorService pool = Executors.newFixedThreadPool(nthreads);
+    try {
+      List<Future<?>> futures = new ArrayList<Future<?>>(files.size());
+      for (final File file : files) {
+        futures.add(pool.submit(new Runnable() {
+          public void run() {
+            index(file, files.size());
+          }
+        }));
+      }
+      for (Future<?> f : futures)
+        f.get();
+
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("GribIndexBuilder interrupted");
+
+    } catch (ExecutionException e) {
+      throw new IOException(e.getCause());
+
+    } finally {
+      pool.shutdownNow();
+    }
+
+    if (progress != null) {
+      double secs = (System.nanoTime() - start) / 1.0e9;
+      double mb = countBytes.get() / 1.0e6;
+      progress.printf("done: %d indexed, %d records, %d not GRIB, %d failed; %.1f secs, %.1f Mb/sec%n",
+              countIndexed.get(), countRecords.get(), countNotGrib.get(), countFailed.get(), secs, (secs > 0) ? mb / secs : 0.0);
+    }
+    return countFailed.get();
+  }
+
+  private void findFiles(File dir, List<File> result) {
+    File[] files = dir.listFiles();
+    if (files == null) return;
+    Arrays.sort(files);
+    for (File f : files) {
+      String name = f.getName();
+      if (f.isDirectory())
+        findFiles(f, result);
+      else if (!name.endsWith(GribIndex.GBX9_IDX) && !name.endsWith(".ncx"))
+        result.add(f);
+    }
+  }
+
+  private void index(File file, int total) {
+    long start = System.nanoTime();
+    String path = file.getPath();
+    try {
+      int edition = getEdition(path);
+      if (edition == 0) {
+        countNotGrib.incrementAndGet();
+        countDone.incrementAndGet();
+        return;
+      }
+
+      boolean isGrib1 = (edition == 1);
+      if (force == CollectionManager.Force.always) {
+        GribIndex index = isGrib1 ? new Grib1Index() : new Grib2Index();
+        index.makeIndex(path, null);
+      }
+      GribIndex index = GribIndex.readOrCreateIndexFromSingleFile(isGrib1, makeCollectionIndex, new MFileOS(file),
+              new FeatureCollectionConfig.GribConfig(), force, logger);
+
+      countIndexed.incrementAndGet();
+      countRecords.addAndGet(index.getNRecords());
+      countBytes.addAndGet(file.length());
+      int done = countDone.incrementAndGet();
+      if (progress != null)
+        progress.printf("%5d/%d %s GRIB-%d records=%d %d msecs%n", done, total, path, edition, index.getNRecords(),
+                (System.nanoTime() - start) / (1000 * 1000));
+
+    } catch (Throwable t) {
+      countFailed.incrementAndGet();
+      int done = countDone.incrementAndGet();
+      logger.error("GribIndexBuilder failed on " + path, t);
+      if (progress != null) progress.printf("%5d/%d %s FAILED %s%n", done, total, path, t.getMessage());
+    }
+  }
+
+  // 1, 2 or 0 if not a GRIB file
+  private int getEdition(String path) throws IOException {
+    RandomAccessFile raf = new RandomAccessFile(path, "r");
+    try {
+      if (Grib2RecordScanner.isValidFile(raf)) return 2;
+      if (Grib1RecordScanner.isValidFile(raf)) return 1;
+      return 0;
+    } finally {
+      raf.close();
+    }
+  }
+
+  private static void usage() {
+    System.out.println("Usage: java ucar.nc2.grib.GribIndexBuilder topDir [-nthreads n] [-force] [-ncx]");
+    System.out.println("  -nthreads n : index n files at a time, default number of processors");
+    System.out.println("  -force      : remake indexes even if up to date");
+    System.out.println("  -ncx        : also make the ncx index for each file");
+  }
+
+  public static void main(String[] args) throws IOException {
+    String topDir = null;
+    int nthreads = Runtime.getRuntime().availableProcessors();
+    CollectionManager.Force force = CollectionManager.Force.test;
+    boolean ncx = false;
+
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      if (arg.equals("-nthreads") && i < args.length - 1)
+        nthreads = Integer.parseInt(args[++i]);
+      else if (arg.equals("-force"))
+        force = CollectionManager.Force.always;
+      else if (arg.equals("-ncx"))
+        ncx = true;
+      else if (!arg.startsWith("-") && topDir == null)
+        topDir = arg;
+      else {
+        usage();
+        System.exit(1);
+      }
+    }
+    if (topDir == null) {
+      usage();
+      System.exit(1);
+    }
+
+    GribIndexBuilder builder = new GribIndexBuilder(nthreads, force, ncx, System.out);
+    int failed = builder.build(new File(topDir));
+    System.exit(failed == 0 ? 0 : 1);
+  }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package ucar.nc2.grib;
+
+import ucar.unidata.io.KMPMatch;
+import ucar.unidata.io.RandomAccessFile;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Scan a large GRIB file in parallel.
+ * First the record boundaries are found by reading just the indicator section of each record and skipping
+ * to its end. The file is then split at record boundaries into chunks of about the same size, and each chunk
+ * is scanned by a Grib1RecordScanner or Grib2RecordScanner in its own thread, with its own RandomAccessFile.
+ * The results are returned in file order, the same as a sequential scan.
+ *
+ * @since 10/19/2026
+ */
+public class GribParallelScanner {
+  static private final KMPMatch matcher = new KMPMatch(new byte[]{'G', 'R', 'I', 'B'});
+
+  /**
+   * Scan the records in one chunk of a file.
+   * @param <T> Grib1Record or Grib2Record
+   */
+  public interface ChunkScanner<T> {
+    /**
+     * Scan the records that start in [start, end)
+     * @param raf   private to this chunk
+     * @param start start of the chunk, the end of the previous record
+     * @param end   end of the chunk, the end of a record or the end of the file
+     * @return records in file order
+     * @throws IOException on read error
+     */
+    List<T> scan(RandomAccessFile raf, long start, long end) throws IOException;
+  }
+
+  /**
+   * Split a file into chunks at record boundaries.
+   * A boundary is only used if the record's length from its indicator section points to a "7777" end section.
+   *
+   * @param raf     the GRIB file
+   * @param edition 1 or 2
+   * @param nchunks desired number of chunks
+   * @return chunk starting positions, followed by the file length; so there are (number of chunks + 1) values
+   * @throws IOException on read error
+   */
+  static public long[] findChunks(RandomAccessFile raf, int edition, int nchunks) throws IOException {
+    long len = raf.length();
+    raf.order(RandomAccessFile.BIG_ENDIAN);
+
+    // find the record ends
+    List<Long> ends = new ArrayList<Long>();
+    long pos = 0;
+    while (pos < len) {
+      raf.seek(pos);
+      if (!raf.searchForward(matcher, -1)) break;
+      long start = raf.getFilePointer();
+      if (start + 16 > len) break;
+      raf.skipBytes(4);
+
+      long recLen;
+      int ed;
+      if (edition == 2) {
+        raf.skipBytes(3);
+        ed = raf.read();
+        recLen = raf.readLong();
+      } else {
+        recLen = GribNumbers.uint3(raf);
+        ed = raf.read();
+      }
+
+      long end = start + recLen;
+      if ((ed != edition) || (recLen < 16) || (end > len) || !isEndSection(raf, end)) {
+        pos = start + 4; // not a record we can use, keep looking
+        continue;
+      }
+
+      ends.add(end);
+      pos = end;
+    }
+
+    // split into chunks of about the same size
+    List<Long> chunks = new ArrayList<Long>();
+    chunks.add(0L);
+    int next = 0;
+    for (int i = 1; i < nchunks; i++) {
+      long want = i * len / nchunks;
+      while (next < ends.size() && ends.get(next) < want) next++;
+      if (next >= ends.size()) break;
+      long boundary = ends.get(next);
+      if (boundary > chunks.get(chunks.size() - 1) && boundary < len)
+        chunks.add(boundary);
+    }
+    chunks.add(len);
+
+    long[] result = new long[chunks.size()];
+    for (int i = 0; i < result.length; i++) result[i] = chunks.get(i);
+    return result;
+  }
+
+  static private boolean isEndSection(RandomAccessFile raf, long end) throws IOException {
+    raf.seek(end - 4);
+    for (int i = 0; i < 4; i++)
+      if (raf.read() != '7') return false;
+    return true;
+  }
+
+  /**
+   * Scan a file in chunks, in parallel.
+   *
+   * @param filename the GRIB file
+   * @param edition  1 or 2
+   * @param executor run the chunk scans on this
+   * @param nchunks  desired number of chunks
+   * @param scanner  scans one chunk
+   * @param <T>      Grib1Record or Grib2Record
+   * @return all records, in file order
+   * @throws IOException on read error
+   */
+  static public <T> List<T> scan(final String filename, int edition, Executor executor, int nchunks,
+                                 final ChunkScanner<T> scanner) throws IOException {
+    long[] chunks;
+    RandomAccessFile raf = new RandomAccessFile(filename, "r");
+    try {
+      chunks = findChunks(raf, edition, nchunks);
+      if (chunks.length <= 2) // just one chunk
+        return scanner.scan(raf, 0, chunks[1]);
+    } finally {
+      raf.close();
+    }
+
+    List<FutureTask<List<T>>> tasks = new ArrayList<FutureTask<List<T>>>(chunks.length - 1);
+    for (int i = 0; i < chunks.length - 1; i++) {
+      final long start = chunks[i];
+      final long end = chunks[i + 1];
+      FutureTask<List<T>> task = new FutureTask<List<T>>(new Callable<List<T>>() {
+        public List<T> call() throws Exception {
+          RandomAccessFile chunkRaf = new RandomAccessFile(filename, "r");
+          try {
+            return scanner.scan(chunkRaf, start, end);
+          } finally {
+            chunkRaf.close();
+          }
+        }
+      });
+      executor.execute(task);
+      tasks.add(task);
+    }
+
+    List<T> result = new ArrayList<T>();
+    try {
+      for (FutureTask<List<T>> task : tasks)
+        result.addAll(task.get());
+
+    } catch (InterruptedException e) {
+      for (FutureTask<List<T>> task : tasks) task.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("GRIB scan interrupted " + filename);
+
+    } catch (ExecutionException e) {
+      for (FutureTask<List<T>> task : tasks) task.cancel(true);
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) throw (IOException) cause;
+      if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+      if (cause instanceof Error) throw (Error) cause;
+      throw new IOException(cause);
+    }
+
+    return result;
+  }
+}
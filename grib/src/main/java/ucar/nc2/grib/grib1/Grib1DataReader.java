@@ -32,8 +32,8 @@
 
 package ucar.nc2.grib.grib1;
 
+import ucar.nc2.grib.GribBitUnpacker;
 import ucar.nc2.grib.GribNumbers;
-import ucar.nc2.iosp.BitReader;
 import ucar.unidata.io.RandomAccessFile;
 
 import java.io.IOException;
@@ -131,12 +131,12 @@ value R, the binary scale factor E and the decimal scale factor D by means of th
         logger.error("Bitmap section length = {} != grid length {} ({},{}) for {}", bitmap.length, nx * ny, nx, ny, raf.getLocation());
         throw new IllegalStateException("Bitmap section length!= grid length");
       }
-      BitReader reader = new BitReader(raf, startPos+11);
+      GribBitUnpacker reader = GribBitUnpacker.factory(raf, startPos + 11, dataBytes(msgLength, nx * ny, numbits));
       values = new float[nx * ny];
       for (int i = 0; i <nx * ny; i++) {
         if ((bitmap[i / 8] & GribNumbers.bitmask[i % 8]) != 0) {
           if (!isConstant) {
-            values[i] = ref + scale * reader.bits2UInt(numbits);
+            values[i] = ref + scale * reader.bits(numbits);
           } else {  // rdg - added this to handle a constant valued parameter
             values[i] = ref;
           }
@@ -153,9 +153,11 @@ value R, the binary scale factor E and the decimal scale factor D by means of th
         } else {
           values = new float[((msgLength - 11) * 8 - unusedbits) / numbits];
         }
-        BitReader reader = new BitReader(raf, startPos+11);
+        GribBitUnpacker reader = GribBitUnpacker.factory(raf, startPos + 11, dataBytes(msgLength, values.length, numbits));
+        int[] packed = reader.getScratch(0, values.length);
+        reader.unpack(numbits, packed, values.length);
         for (int i = 0; i < values.length; i++) {
-          values[i] = ref + scale * reader.bits2UInt(numbits);
+          values[i] = ref + scale * packed[i];
         }
         scanningModeCheck(values, scanMode, nx);
 
@@ -170,6 +172,12 @@ value R, the binary scale factor E and the decimal scale factor D by means of th
     return values;
   }
 
+  // the section length may be wrong for very large records, so also allow for the number of points
+  private int dataBytes(int msgLength, int npts, int numbits) {
+    long needed = ((long) npts * numbits + 7) / 8;
+    return (int) Math.max(msgLength - 11, Math.min(needed, Integer.MAX_VALUE));
+  }
+
   /**
    * Rearrange the data array using the scanning mode.
    *
@@ -215,11 +215,18 @@ public class Grib1Index extends GribIndex {
         dataRaf = raf;
       }
 
-      Grib1RecordScanner scan = new Grib1RecordScanner(dataRaf);
-      while (scan.hasNext()) {
-        Grib1Record r = scan.next();
-        if (r == null) break; // done
-        records.add(r);
+      if (isParallelScan(dataRaf.length())) {
+        records.addAll(Grib1RecordScanner.scanParallel(filename, getScanExecutor(), getScanChunks()));
+      } else {
+        Grib1RecordScanner scan = new Grib1RecordScanner(dataRaf);
+        while (scan.hasNext()) {
+          Grib1Record r = scan.next();
+          if (r == null) break; // done
+          records.add(r);
+        }
+      }
+
+      for (Grib1Record r : records) {
 
         Grib1SectionGridDefinition gds = r.getGDSsection();
         Integer index = gdsMap.get(gds.calcCRC());
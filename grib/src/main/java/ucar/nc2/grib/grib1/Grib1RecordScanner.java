@@ -33,13 +33,17 @@
 package ucar.nc2.grib.grib1;
 
 import ucar.nc2.grib.GribNumbers;
+import ucar.nc2.grib.GribParallelScanner;
 import ucar.unidata.io.KMPMatch;
 import ucar.unidata.io.RandomAccessFile;
 import ucar.unidata.util.StringUtil2;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * Scan files and extract Grib1Records. usage:
@@ -90,6 +94,7 @@ public class Grib1RecordScanner {
   private byte[] header;
   private long startPos = 0;
   private long lastPos = 0;
+  private long scanEnd = -1; // if > 0, only find records that start before this
 
   public Grib1RecordScanner(RandomAccessFile raf) throws IOException {
     startPos = 0;
@@ -99,8 +104,47 @@ public class Grib1RecordScanner {
     lastPos = startPos;
   }
 
+  /**
+   * Scan only part of a file.
+   * @param raf      the GRIB file
+   * @param startPos start here; should be the end of a record or 0
+   * @param endPos   only return records that start before this position
+   * @throws IOException on read error
+   */
+  public Grib1RecordScanner(RandomAccessFile raf, long startPos, long endPos) throws IOException {
+    this(raf);
+    this.startPos = startPos;
+    this.lastPos = startPos;
+    this.scanEnd = endPos;
+    raf.seek(startPos);
+  }
+
+  /**
+   * Scan a file in parallel, see GribParallelScanner.
+   * @param filename the GRIB file
+   * @param executor run the chunk scans on this
+   * @param nchunks  desired number of chunks
+   * @return all records, in file order
+   * @throws IOException on read error
+   */
+  static public List<Grib1Record> scanParallel(String filename, Executor executor, int nchunks) throws IOException {
+    return GribParallelScanner.scan(filename, 1, executor, nchunks, new GribParallelScanner.ChunkScanner<Grib1Record>() {
+      public List<Grib1Record> scan(RandomAccessFile raf, long start, long end) throws IOException {
+        List<Grib1Record> result = new ArrayList<Grib1Record>();
+        Grib1RecordScanner scan = new Grib1RecordScanner(raf, start, end);
+        while (scan.hasNext()) {
+          Grib1Record r = scan.next();
+          if (r == null) break; // done
+          result.add(r);
+        }
+        return result;
+      }
+    });
+  }
+
   public boolean hasNext() throws IOException {
     if (lastPos >= raf.length()) return false;
+    if (scanEnd > 0 && lastPos >= scanEnd) return false;
     boolean more;
     long foundAt = 0;
 
@@ -110,6 +154,10 @@ public class Grib1RecordScanner {
       if (!more) break;
 
       foundAt = raf.getFilePointer();
+      if (scanEnd > 0 && foundAt >= scanEnd) { // belongs to the next chunk
+        more = false;
+        break;
+      }
       // see if its GRIB-1
       raf.skipBytes(7);
       int edition = raf.read();
@@ -33,9 +33,10 @@
 package ucar.nc2.grib.grib2;
 
 import ucar.jpeg.jj2000.j2k.decoder.Grib2JpegDecoder;
+import ucar.jpeg.jj2000.j2k.decoder.Grib2JpegFastDecoder;
+import ucar.nc2.grib.GribBitUnpacker;
 import ucar.nc2.grib.GribNumbers;
 import ucar.nc2.grib.QuasiRegular;
-import ucar.nc2.iosp.BitReader;
 import ucar.unidata.io.RandomAccessFile;
 
 import java.io.IOException;
@@ -155,16 +156,18 @@ public class Grib2DataReader {
     //   X2 = scaled encoded value
     //   data[ i ] = (R + ( X1 + X2) * EE)/DD ;
 
-    BitReader reader = new BitReader(raf, startPos+5);
+    GribBitUnpacker reader = GribBitUnpacker.factory(raf, startPos + 5, dataLength - 5);
     if (bitmap == null) {
+      int[] X2 = reader.getScratch(0, totalNPoints);
+      reader.unpack(nb, X2, totalNPoints);
       for (int i = 0; i < totalNPoints; i++) {
         //data[ i ] = (R + ( X1 + X2) * EE)/DD ;
-        data[i] = (R + reader.bits2UInt(nb) * EE) / DD;
+        data[i] = (R + X2[i] * EE) / DD;
       }
     } else {
       for (int i = 0; i < totalNPoints; i++) {
         if ((bitmap[i / 8] & GribNumbers.bitmask[i % 8]) != 0) {
-          data[i] = (R + reader.bits2UInt(nb) * EE) / DD;
+          data[i] = (R + reader.bits(nb) * EE) / DD;
         } else {
           data[i] = staticMissingValue;  // LOOK ??
           //data[i] = R / DD;
@@ -187,37 +190,33 @@ public class Grib2DataReader {
       return data;
     }
 
-    BitReader reader = new BitReader(raf, startPos+5);
+    GribBitUnpacker reader = GribBitUnpacker.factory(raf, startPos + 5, dataLength - 5);
 
     // 6-xx  Get reference values for groups (X1's)
-    int[] X1 = new int[NG];
+    int[] X1 = reader.getScratch(0, NG);
     int nb = gdrs.numberOfBits;
-    if (nb != 0) {
-      for (int i = 0; i < NG; i++)
-        X1[i] = (int) reader.bits2UInt(nb);
-    }
+    reader.unpack(nb, X1, NG); // all zero if nb == 0
 
     // [xx +1 ]-yy Get number of bits used to encode each group
-    int[] NB = new int[NG];
+    int[] NB = reader.getScratch(1, NG);
     nb = gdrs.bitsGroupWidths;
-    if (nb != 0) {
-      reader.incrByte();
-      for (int i = 0; i < NG; i++)
-        NB[i] = (int) reader.bits2UInt(nb);
-    }
+    if (nb != 0)
+      reader.align();
+    reader.unpack(nb, NB, NG);
 
     // [yy +1 ]-zz Get the scaled group lengths using formula
     //     Ln = ref + Kn * len_inc, where n = 1-NG,
     //          ref = referenceGroupLength, and  len_inc = lengthIncrement
 
-    int[] L = new int[NG];
+    int[] L = reader.getScratch(2, NG);
     int ref = gdrs.referenceGroupLength;
     int len_inc = gdrs.lengthIncrement;
     nb = gdrs.bitsScaledGroupLength;
 
-    reader.incrByte();
+    reader.align();
+    reader.unpack(nb, L, NG);
     for (int i = 0; i < NG; i++)
-      L[i] = ref + (int) reader.bits2UInt(nb) * len_inc;
+      L[i] = ref + L[i] * len_inc;
     L[NG - 1] = gdrs.lengthLastGroup; // enter Length of Last Group
 
     int D = gdrs.decimalScaleFactor;
@@ -239,7 +238,7 @@ public class Grib2DataReader {
 //                     E = THE BINARY SCALE FACTOR
 //                     D = THE DECIMAL SCALE FACTOR
     int count = 0;
-    reader.incrByte();
+    reader.align();
     for (int i = 0; i < NG; i++) {
       for (int j = 0; j < L[i]; j++) {
         if (NB[i] == 0) {
@@ -249,7 +248,7 @@ public class Grib2DataReader {
             data[count++] = mv;
           }
         } else {
-          int X2 = (int) reader.bits2UInt(NB[i]);
+          int X2 = reader.bits(NB[i]);
           if (mvm == 0) {
             data[count++] = (R + (X1[i] + X2) * EE) / DD;
           } else { //if (mvm == 1) || (mvm == 2 )
@@ -285,7 +284,7 @@ public class Grib2DataReader {
     int mvm = gdrs.missingValueManagement;
     float mv = getMissingValue(gdrs);
 
-    BitReader reader = new BitReader(raf, startPos+5);
+    GribBitUnpacker reader = GribBitUnpacker.factory(raf, startPos + 5, dataLength - 5);
 
     int ival1 = 0;
     int ival2 = 0;
@@ -298,20 +297,20 @@ public class Grib2DataReader {
     // ds is number of bytes, convert to bits -1 for sign bit
     nbitsd = nbitsd * 8;
     if (nbitsd > 0) {         // first order spatial differencing g1 and gMin
-      sign = (int) reader.bits2UInt(1);
-      ival1 = (int) reader.bits2UInt(nbitsd - 1);
+      sign = reader.bits(1);
+      ival1 = reader.bits(nbitsd - 1);
       if (sign == 1) {
         ival1 = -ival1;
       }
       if (os == 2) {  //second order spatial differencing h1, h2, hMin
-        sign = (int) reader.bits2UInt(1);
-        ival2 = (int) reader.bits2UInt(nbitsd - 1);
+        sign = reader.bits(1);
+        ival2 = reader.bits(nbitsd - 1);
         if (sign == 1) {
           ival2 = -ival2;
         }
       }
-      sign = (int) reader.bits2UInt(1);
-      minsd = (int) reader.bits2UInt(nbitsd - 1);
+      sign = reader.bits(1);
+      minsd = reader.bits(nbitsd - 1);
       if (sign == 1) {
         minsd = -minsd;
       }
@@ -332,25 +331,19 @@ public class Grib2DataReader {
 
     // [ww +1]-xx  Get reference values for groups (X1's)
     // X1 == gref
-    int[] X1 = new int[NG]; // initialized to zero
+    int[] X1 = reader.getScratch(0, NG);
     int nb = gdrs.numberOfBits;
-    if (nb != 0) {
-      reader.incrByte();
-      for (int i = 0; i < NG; i++) {
-        X1[i] = (int) reader.bits2UInt(nb);
-      }
-    }
+    if (nb != 0)
+      reader.align();
+    reader.unpack(nb, X1, NG); // all zero if nb == 0
 
     // [xx +1 ]-yy Get number of bits used to encode each group
     // NB == gwidth
-    int[] NB = new int[NG]; // initialized to zero
+    int[] NB = reader.getScratch(1, NG);
     nb = gdrs.bitsGroupWidths;
-    if (nb != 0) {
-      reader.incrByte();
-      for (int i = 0; i < NG; i++) {
-        NB[i] = (int) reader.bits2UInt(nb);
-      }
-    }
+    if (nb != 0)
+      reader.align();
+    reader.unpack(nb, NB, NG);
 
     int referenceGroupWidths = gdrs.referenceGroupWidths;
     for (int i = 0; i < NG; i++) {
@@ -361,17 +354,14 @@ public class Grib2DataReader {
     //     Ln = ref + Kn * len_inc, where n = 1-NG,
     //          ref = referenceGroupLength, and  len_inc = lengthIncrement
 
-    int[] L = new int[NG];   // initialized to zero
+    int[] L = reader.getScratch(2, NG);
     int referenceGroupLength = gdrs.referenceGroupLength;
     nb = gdrs.bitsScaledGroupLength;
     int len_inc = gdrs.lengthIncrement;
 
-    if (nb != 0) {
-      reader.incrByte();
-      for (int i = 0; i < NG; i++) {
-        L[i] = (int) reader.bits2UInt(nb);
-      }
-    }
+    if (nb != 0)
+      reader.align();
+    reader.unpack(nb, L, NG);
 
     int totalL = 0;
     for (int i = 0; i < NG; i++) {
@@ -423,14 +413,16 @@ public class Grib2DataReader {
 //                     E = THE BINARY SCALE FACTOR
 //                     D = THE DECIMAL SCALE FACTOR
     int count = 0;
-    reader.incrByte();
+    reader.align();
     int dataSize = 0;
     boolean[] dataBitMap = null;
     if (mvm == 0) {
       for (int i = 0; i < NG; i++) {
         if (NB[i] != 0) {
+          int[] X2 = reader.getScratch(3, L[i]);
+          reader.unpack(NB[i], X2, L[i]);
           for (int j = 0; j < L[i]; j++)
-            data[count++] = (int) reader.bits2UInt(NB[i]) + X1[i];
+            data[count++] = X2[j] + X1[i];
         } else {
           for (int j = 0; j < L[i]; j++)
             data[count++] = X1[i];
@@ -446,7 +438,7 @@ public class Grib2DataReader {
           int msng1 = bitsmv1[NB[i]];
           int msng2 = msng1 - 1;
           for (int j = 0; j < L[i]; j++) {
-            data[count] = (int) reader.bits2UInt(NB[i]);
+            data[count] = reader.bits(NB[i]);
             if (data[count] == msng1 || mvm == 2 && data[count] == msng2) {
               dataBitMap[count] = false;
             } else {
@@ -553,6 +545,19 @@ public class Grib2DataReader {
   }
 
   // Grid point data - JPEG 2000 code stream format
+  // jpeg2000 decoding is not thread safe, so each thread gets its own decoder and input buffer
+  static private final ThreadLocal<Grib2JpegFastDecoder> jpegDecoder = new ThreadLocal<Grib2JpegFastDecoder>() {
+    protected Grib2JpegFastDecoder initialValue() {
+      return new Grib2JpegFastDecoder();
+    }
+  };
+
+  static private final ThreadLocal<byte[]> jpegBuffer = new ThreadLocal<byte[]>() {
+    protected byte[] initialValue() {
+      return new byte[0];
+    }
+  };
+
   public float[] getData40(RandomAccessFile raf, Grib2Drs.Type40 gdrs) throws IOException {
     // 6-xx  jpeg2000 data block to decode
 
@@ -567,9 +572,31 @@ public class Grib2DataReader {
     int E = gdrs.binaryScaleFactor;
     float EE = (float) java.lang.Math.pow((double) 2.0, (double) E);
 
-    Grib2JpegDecoder g2j = null;
+    int[] idata = null;
     try {
       if (nb != 0) {  // there's data to decode
+        // read the data section into a per-thread buffer, and try the fast decoder first
+        int len = dataLength - 5;
+        byte[] buf = jpegBuffer.get();
+        if (buf.length < len) {
+          buf = new byte[len];
+          jpegBuffer.set(buf);
+        }
+        raf.read(buf, 0, len);
+        Grib2JpegFastDecoder fast = jpegDecoder.get();
+        try {
+          if (fast.decode(buf, len, nb)) {
+            idata = fast.getData();
+            gdrs.hasSignedProblem = fast.hasSignedProblem();
+          }
+        } catch (IOException e) { // corrupt or truncated codestream
+          log.warn("Grib2JpegFastDecoder failed on " + raf.getLocation() + " at " + startPos + ", using Grib2JpegDecoder", e);
+        } catch (IllegalArgumentException e) { // codestream parameters it cant handle
+          log.warn("Grib2JpegFastDecoder failed on " + raf.getLocation() + " at " + startPos + ", using Grib2JpegDecoder", e);
+        }
+      }
+
+      if (nb != 0 && idata == null) {  // use the full decoder
         String[] argv = new String[6];
         argv[0] = "-rate";
         argv[1] = Integer.toString(nb);
@@ -581,14 +608,15 @@ public class Grib2DataReader {
         //argv[ 3 ] = "-Rno_roi" ;
         //argv[ 4 ] = "-cdstr_info" ;
         //argv[ 5 ] = "-verbose" ;
-        g2j = new Grib2JpegDecoder(argv);
+        Grib2JpegDecoder g2j = new Grib2JpegDecoder(argv);
         // how jpeg2000.jar use to decode, used raf
         //g2j.decode(raf, length - 5);
         // jpeg-1.0.jar added method to have the data read first
         byte[] buf = new byte[dataLength - 5];
-        raf.read(buf);
+        System.arraycopy(jpegBuffer.get(), 0, buf, 0, buf.length);
         g2j.decode(buf);
         gdrs.hasSignedProblem = g2j.hasSignedProblem();
+        idata = g2j.data;
       }
 
       float[] data = new float[totalNPoints];
@@ -597,19 +625,19 @@ public class Grib2DataReader {
         for (int i = 0; i < dataNPoints; i++)
           data[i] = R;
       } else if (bitmap == null) {
-        if (g2j.data.length != dataNPoints) {
+        if (idata.length != dataNPoints) {
           data = null;
           return data;
         }
         for (int i = 0; i < dataNPoints; i++) {
           // Y * 10^D = R + (X1 + X2) * 2^E ; // regulation 92.9.4
           //Y = (R + ( 0 + X2) * EE)/DD ;
-          data[i] = (R + g2j.data[i] * EE) / DD;
+          data[i] = (R + idata[i] * EE) / DD;
         }
       } else {  // use bitmap
         for (int i = 0, j = 0; i < totalNPoints; i++) {
           if ((bitmap[i / 8] & GribNumbers.bitmask[i % 8]) != 0) {
-            data[i] = (R + g2j.data[j++] * EE) / DD;
+            data[i] = (R + idata[j++] * EE) / DD;
           } else {
             data[i] = staticMissingValue;  // LOOK ??
           }
@@ -238,11 +238,18 @@ public class Grib2Index extends GribIndex {
         dataRaf = raf;
       }
 
-      Grib2RecordScanner scan = new Grib2RecordScanner(dataRaf);
-      while (scan.hasNext()) {
-        Grib2Record r = scan.next();
-        if (r == null) break; // done
-        records.add(r);
+      if (isParallelScan(dataRaf.length())) {
+        records.addAll(Grib2RecordScanner.scanParallel(filename, getScanExecutor(), getScanChunks()));
+      } else {
+        Grib2RecordScanner scan = new Grib2RecordScanner(dataRaf);
+        while (scan.hasNext()) {
+          Grib2Record r = scan.next();
+          if (r == null) break; // done
+          records.add(r);
+        }
+      }
+
+      for (Grib2Record r : records) {
 
         Grib2SectionGridDefinition gds = r.getGDSsection();
         Integer index = gdsMap.get(gds.calcCRC());
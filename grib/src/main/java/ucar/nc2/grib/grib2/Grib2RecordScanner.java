@@ -1,13 +1,17 @@
 package ucar.nc2.grib.grib2;
 
 import ucar.nc2.grib.GribNumbers;
+import ucar.nc2.grib.GribParallelScanner;
 import ucar.unidata.io.KMPMatch;
 import ucar.unidata.io.RandomAccessFile;
 import ucar.unidata.util.StringUtil2;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * Scan raf for grib-2 messages
@@ -46,6 +50,7 @@ public class Grib2RecordScanner {
   private byte[] header;
   private long startPos = 0;
   private long lastPos = 0;
+  private long scanEnd = -1; // if > 0, only find records that start before this
 
   // deal with repeating sections - each becomes a Grib2Record
   private long repeatPos = -1;             // if > 0, we are in middle of repeating record
@@ -62,8 +67,47 @@ public class Grib2RecordScanner {
     if (debugRepeat) System.out.printf(" Grib2RecordScanner %s%n", raf.getLocation());
   }
 
+  /**
+   * Scan only part of a file.
+   * @param raf      the GRIB file
+   * @param startPos start here; should be the end of a record or 0
+   * @param endPos   only return records that start before this position
+   * @throws IOException on read error
+   */
+  public Grib2RecordScanner(RandomAccessFile raf, long startPos, long endPos) throws IOException {
+    this(raf);
+    this.startPos = startPos;
+    this.lastPos = startPos;
+    this.scanEnd = endPos;
+    raf.seek(startPos);
+  }
+
+  /**
+   * Scan a file in parallel, see GribParallelScanner.
+   * @param filename the GRIB file
+   * @param executor run the chunk scans on this
+   * @param nchunks  desired number of chunks
+   * @return all records, in file order
+   * @throws IOException on read error
+   */
+  static public List<Grib2Record> scanParallel(String filename, Executor executor, int nchunks) throws IOException {
+    return GribParallelScanner.scan(filename, 2, executor, nchunks, new GribParallelScanner.ChunkScanner<Grib2Record>() {
+      public List<Grib2Record> scan(RandomAccessFile raf, long start, long end) throws IOException {
+        List<Grib2Record> result = new ArrayList<Grib2Record>();
+        Grib2RecordScanner scan = new Grib2RecordScanner(raf, start, end);
+        while (scan.hasNext()) {
+          Grib2Record r = scan.next();
+          if (r == null) break; // done
+          result.add(r);
+        }
+        return result;
+      }
+    });
+  }
+
   public boolean hasNext() throws IOException {
     if (lastPos >= raf.length()) return false;
+    if (scanEnd > 0 && lastPos >= scanEnd) return false;
     if (repeatPos > 0) {
       if (nextRepeating()) // this has created a new repeatRecord
         return true;
@@ -82,6 +126,10 @@ public class Grib2RecordScanner {
       if (!more) break;
 
       stop = raf.getFilePointer();
+      if (scanEnd > 0 && stop >= scanEnd) { // belongs to the next chunk
+        more = false;
+        break;
+      }
       // see if its GRIB-2
       raf.skipBytes(7);
       int edition = raf.read();
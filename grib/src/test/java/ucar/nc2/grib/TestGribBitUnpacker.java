@@ -0,0 +1,97 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package ucar.nc2.grib;
+
+import org.junit.Test;
+import ucar.nc2.iosp.BitReader;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compare GribBitUnpacker to BitReader
+ *
+ * @since 10/19/2026
+ */
+public class TestGribBitUnpacker {
+
+  @Test
+  public void compareWithBitReader() throws IOException {
+    Random r = new Random(1234);
+    byte[] data = new byte[10000];
+    r.nextBytes(data);
+
+    BitReader reader = new BitReader(data);
+    GribBitUnpacker unpacker = new GribBitUnpacker(data);
+    int[] vals = new int[100];
+    int nbits = 0;
+    while (nbits < 8 * data.length - 32 * 100 - 64) {
+      int nb = r.nextInt(33);
+      int n = r.nextInt(100);
+      if (r.nextBoolean()) {
+        unpacker.unpack(nb, vals, n);
+        for (int i = 0; i < n; i++)
+          assertEquals("nbits=" + nb, (int) reader.bits2UInt(nb), vals[i]);
+      } else {
+        for (int i = 0; i < n; i++)
+          assertEquals("nbits=" + nb, (int) reader.bits2UInt(nb), unpacker.bits(nb));
+      }
+      nbits += nb * n;
+      if (r.nextInt(10) == 0) {
+        reader.incrByte();
+        unpacker.align();
+        nbits += 8;
+      }
+    }
+  }
+
+  @Test
+  public void pastEnd() {
+    GribBitUnpacker unpacker = new GribBitUnpacker(new byte[]{(byte) 0xff, (byte) 0xff, (byte) 0xff});
+    int[] vals = new int[3];
+    unpacker.unpack(12, vals, 3);
+    assertEquals(0xfff, vals[0]);
+    assertEquals(0xfff, vals[1]);
+    assertEquals(0, vals[2]);
+  }
+
+  @Test
+  public void offset() {
+    GribBitUnpacker unpacker = new GribBitUnpacker(new byte[]{(byte) 0x0f, (byte) 0xf0, (byte) 0x80});
+    unpacker.reset(4);
+    assertEquals(0xff, unpacker.bits(8));
+    assertEquals(1, unpacker.bits(5));
+  }
+}
@@ -0,0 +1,148 @@
+package ucar.nc2.grib;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ucar.nc2.grib.grib1.Grib1Record;
+import ucar.nc2.grib.grib1.Grib1RecordScanner;
+import ucar.nc2.grib.grib2.Grib2Record;
+import ucar.nc2.grib.grib2.Grib2RecordScanner;
+import ucar.nc2.util.IO;
+import ucar.unidata.io.RandomAccessFile;
+import ucar.unidata.test.util.TestDir;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Scanning a GRIB file in parallel chunks finds the same records, in the same order, as the sequential scan.
+ *
+ * @since 10/19/2026
+ */
+public class TestGribParallelScanner {
+  static private final String[] grib1Files = {
+      TestDir.cdmLocalTestDataDir + "ucar/nc2/iosp/grib/indexUpdating/GFS_CONUS_191km_20090331_1800.grib1.part0",
+      TestDir.cdmLocalTestDataDir + "ucar/nc2/iosp/grib/indexUpdating/GFS_CONUS_191km_20090331_1800.grib1.times19-21",
+  };
+  static private final String grib2Sample = "../tds/src/test/resources/WEB-INF/altContent/startup/public/testdata/testData2.grib2";
+  static private final int[] nchunks = {1, 2, 3, 7, 50, 1000}; // more chunks than records makes very small chunks
+
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testGrib1() throws IOException {
+    for (String filename : grib1Files) {
+      List<String> want = new ArrayList<String>();
+      Set<Long> recordEnds = new HashSet<Long>();
+      RandomAccessFile raf = new RandomAccessFile(filename, "r");
+      try {
+        Grib1RecordScanner scan = new Grib1RecordScanner(raf);
+        while (scan.hasNext()) {
+          Grib1Record r = scan.next();
+          if (r == null) break;
+          want.add(show(r));
+          recordEnds.add(r.getIs().getEndPos());
+        }
+        checkChunks(raf, 1, recordEnds);
+      } finally {
+        raf.close();
+      }
+      assertTrue(filename, want.size() > 1);
+
+      for (int n : nchunks) {
+        List<String> got = new ArrayList<String>();
+        for (Grib1Record r : Grib1RecordScanner.scanParallel(filename, executor, n))
+          got.add(show(r));
+        assertEquals(filename + " nchunks=" + n, want, got);
+      }
+    }
+  }
+
+  @Test
+  public void testGrib2() throws IOException {
+    File tempFile = makeGrib2File();
+    try {
+      String filename = tempFile.getPath();
+      List<String> want = new ArrayList<String>();
+      Set<Long> recordEnds = new HashSet<Long>();
+      RandomAccessFile raf = new RandomAccessFile(filename, "r");
+      try {
+        Grib2RecordScanner scan = new Grib2RecordScanner(raf);
+        while (scan.hasNext()) {
+          Grib2Record r = scan.next();
+          if (r == null) break;
+          want.add(show(r));
+          recordEnds.add(r.getIs().getEndPos());
+        }
+        checkChunks(raf, 2, recordEnds);
+      } finally {
+        raf.close();
+      }
+      assertTrue(filename, want.size() > 1);
+
+      for (int n : nchunks) {
+        List<String> got = new ArrayList<String>();
+        for (Grib2Record r : Grib2RecordScanner.scanParallel(filename, executor, n))
+          got.add(show(r));
+        assertEquals(filename + " nchunks=" + n, want, got);
+      }
+    } finally {
+      tempFile.delete();
+    }
+  }
+
+  // the GRIB2 sample has a single message, so copy it a few times, with some bytes between the copies
+  private File makeGrib2File() throws IOException {
+    byte[] message = IO.readFileToByteArray(grib2Sample);
+    File tempFile = File.createTempFile("TestGribParallelScanner", ".grib2");
+    OutputStream out = new BufferedOutputStream(new FileOutputStream(tempFile));
+    try {
+      for (int i = 0; i < 5; i++) {
+        out.write(message);
+        out.write(new byte[i * 10]);
+      }
+    } finally {
+      out.close();
+    }
+    return tempFile;
+  }
+
+  // chunks start at 0, end at the file length, increase, and split the file at record ends
+  private void checkChunks(RandomAccessFile raf, int edition, Set<Long> recordEnds) throws IOException {
+    for (int n : nchunks) {
+      long[] chunks = GribParallelScanner.findChunks(raf, edition, n);
+      String what = Arrays.toString(chunks) + " nchunks=" + n;
+      assertEquals(what, 0, chunks[0]);
+      assertEquals(what, raf.length(), chunks[chunks.length - 1]);
+      assertTrue(what, chunks.length - 1 <= n);
+      for (int i = 1; i < chunks.length; i++)
+        assertTrue(what, chunks[i] > chunks[i - 1]);
+      for (int i = 1; i < chunks.length - 1; i++)
+        assertTrue(what, recordEnds.contains(chunks[i]));
+    }
+  }
+
+  private String show(Grib1Record r) {
+    return r.getIs().getStartPos() + " " + r.getDataSection().getStartingPosition() + " " +
+        Arrays.toString(r.getPDSsection().getRawBytes());
+  }
+
+  private String show(Grib2Record r) {
+    return r.getIs().getStartPos() + " " + r.getDataSection().getStartingPosition() + " " +
+        Arrays.toString(r.getPDSsection().getRawBytes());
+  }
+}
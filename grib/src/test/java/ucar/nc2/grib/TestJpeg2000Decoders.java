@@ -0,0 +1,131 @@
+package ucar.nc2.grib;
+
+import org.junit.After;
+import org.junit.Test;
+import ucar.jpeg.jj2000.j2k.decoder.Grib2JpegDecoder;
+import ucar.jpeg.jj2000.j2k.decoder.Grib2JpegFastDecoder;
+import ucar.jpeg.jj2000.j2k.encoder.Encoder;
+import ucar.jpeg.jj2000.j2k.util.ParameterList;
+import ucar.nc2.util.IO;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Grib2JpegFastDecoder, with and without the ParallelEntropyDecoder, gives the same values as Grib2JpegDecoder.
+ * The repo has no JPEG2000 GRIB2 samples, so the codestreams are made with the jj2000 encoder, lossless,
+ * the way GRIB2 producers do.
+ *
+ * @since 10/19/2026
+ */
+public class TestJpeg2000Decoders {
+
+  @After
+  public void tearDown() {
+    Grib2JpegFastDecoder.setExecutor(null, 1, 4);
+  }
+
+  @Test
+  public void testSameAsFullDecoder() throws Exception {
+    // width, height, number of bits, code-block size
+    compare(100, 80, 8, 64);
+    compare(361, 181, 12, 64);
+    compare(361, 181, 12, 16); // many code-blocks
+    compare(93, 65, 16, 32);   // odd sizes
+    compare(40, 30, 4, 64);   // few bits
+  }
+
+  private void compare(int nx, int ny, int nbits, int cblk) throws Exception {
+    String what = nx + "x" + ny + " nbits=" + nbits + " cblk=" + cblk;
+    int[] values = makeField(nx, ny, nbits);
+    byte[] codestream = encode(values, nx, ny, nbits, cblk);
+
+    // the decoder used before Grib2JpegFastDecoder, with the same arguments as Grib2DataReader
+    Grib2JpegDecoder g2j = new Grib2JpegDecoder(new String[]{"-rate", Integer.toString(nbits), "-verbose", "off", "-debug", "on"});
+    g2j.decode(codestream);
+    assertNotNull(what, g2j.data);
+    assertTrue(what, Arrays.equals(values, g2j.data)); // lossless
+
+    // the fast decoder reads from a buffer with extra bytes at the end
+    byte[] buf = Arrays.copyOf(codestream, codestream.length + 100);
+    Grib2JpegFastDecoder fast = new Grib2JpegFastDecoder();
+    assertTrue(what, fast.decode(buf, codestream.length, nbits));
+    assertTrue(what, Arrays.equals(g2j.data, fast.getData()));
+    assertEquals(what, g2j.hasSignedProblem(), fast.hasSignedProblem());
+
+    // reuse the same instance, decoding the code-blocks in parallel
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      Grib2JpegFastDecoder.setExecutor(pool, 4, 1);
+      assertTrue(what, fast.decode(buf, codestream.length, nbits));
+      assertTrue(what, Arrays.equals(g2j.data, fast.getData()));
+      assertEquals(what, g2j.hasSignedProblem(), fast.hasSignedProblem());
+    } finally {
+      Grib2JpegFastDecoder.setExecutor(null, 1, 4);
+      pool.shutdownNow();
+    }
+  }
+
+  // a smooth field with some noise, using all of the bits
+  private int[] makeField(int nx, int ny, int nbits) {
+    Random r = new Random(nx * 31 + ny * 17 + nbits);
+    int max = (1 << nbits) - 1;
+    int[] result = new int[nx * ny];
+    for (int y = 0; y < ny; y++) {
+      for (int x = 0; x < nx; x++) {
+        double v = .5 + .3 * Math.sin(x * .07) * Math.cos(y * .05) + .2 * (r.nextDouble() - .5);
+        result[y * nx + x] = Math.max(0, Math.min(max, (int) (v * max)));
+      }
+    }
+    result[0] = 0;
+    result[result.length - 1] = max;
+    return result;
+  }
+
+  private byte[] encode(int[] values, int nx, int ny, int nbits, int cblk) throws IOException {
+    File pgx = File.createTempFile("TestJpeg2000Decoders", ".pgx");
+    File j2k = File.createTempFile("TestJpeg2000Decoders", ".j2k");
+    try {
+      writePgx(pgx, values, nx, ny, nbits);
+
+      ParameterList defpl = new ParameterList();
+      String[][] param = Encoder.getAllParameters();
+      for (int i = param.length - 1; i >= 0; i--) {
+        if (param[i][3] != null)
+          defpl.put(param[i][0], param[i][3]);
+      }
+      ParameterList pl = new ParameterList(defpl);
+      pl.parseArgs(new String[]{"-i", pgx.getPath(), "-o", j2k.getPath(), "-file_format", "off", "-lossless", "on",
+          "-Cblksiz", Integer.toString(cblk), Integer.toString(cblk), "-verbose", "off"});
+
+      Encoder enc = new Encoder(pl);
+      enc.run();
+      assertEquals(0, enc.getExitCode());
+      return IO.readFileToByteArray(j2k.getPath());
+
+    } finally {
+      pgx.delete();
+      j2k.delete();
+    }
+  }
+
+  // unsigned, big endian
+  private void writePgx(File file, int[] values, int nx, int ny, int nbits) throws IOException {
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+    try {
+      out.writeBytes("PG ML + " + nbits + " " + nx + " " + ny + "\n");
+      for (int v : values) {
+        if (nbits <= 8) out.writeByte(v);
+        else if (nbits <= 16) out.writeShort(v);
+        else out.writeInt(v);
+      }
+    } finally {
+      out.close();
+    }
+  }
+}
@@ -43,6 +43,7 @@ import javax.servlet.ServletException;
 
 import thredds.catalog.util.DeepCopyUtils;
 import thredds.servlet.DataRootHandler;
+import thredds.servlet.DynamicCatalogCache;
 import thredds.servlet.HtmlWriter;
 import thredds.server.config.TdsContext;
 import thredds.catalog.InvCatalog;
@@ -53,6 +54,7 @@ import thredds.util.RequestForwardUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -185,10 +187,12 @@ public class LocalCatalogServiceController extends AbstractController
       DataRootHandler drh = DataRootHandler.getInstance();
 
       InvCatalog catalog = null;
+      URI baseUri = null;
       String baseUriString = request.getRequestURL().toString();
       try
       {
-        catalog = drh.getCatalog( catalogPath, new URI( baseUriString ) );
+        baseUri = new URI( baseUriString );
+        catalog = drh.getCatalog( catalogPath, baseUri );
       }
       catch ( URISyntaxException e )
       {
@@ -205,6 +209,14 @@ public class LocalCatalogServiceController extends AbstractController
       // Otherwise, handle catalog as indicated by "command".
       if ( catalogServiceRequest.getCommand().equals( Command.SHOW))
       {
+        // Catalogs generated by a datasetScan are cached along with their XML and HTML.
+        DynamicCatalogCache.Entry cached = drh.getCachedCatalog( catalogPath, baseUri );
+        if ( cached != null && cached.getCatalog() == catalog )
+        {
+          writeCachedCatalog( request, response, cached );
+          return null;
+        }
+
         if ( this.htmlView )
         {
           int i = this.htmlWriter.writeCatalog( request, response, (InvCatalogImpl) catalog, true );
@@ -258,6 +270,56 @@ public class LocalCatalogServiceController extends AbstractController
     }
   }
 
+  /**
+   * Write a cached catalog, or a 304 (Not Modified) response if the client copy is current.
+   * The cached catalog is shared by all requests, and is only read here.
+   */
+  void writeCachedCatalog( HttpServletRequest request,
+                                   HttpServletResponse response,
+                                   DynamicCatalogCache.Entry cached )
+          throws IOException
+  {
+    String etag = cached.getETag();
+    response.setHeader( "ETag", etag );
+    response.setDateHeader( "Last-Modified", cached.getLastChanged() );
+
+    // If-None-Match takes precedence over If-Modified-Since
+    String ifNoneMatch = request.getHeader( "If-None-Match" );
+    boolean notModified;
+    if ( ifNoneMatch != null )
+      notModified = ifNoneMatch.equals( "*" ) || ifNoneMatch.contains( etag );
+    else
+    {
+      long ifModifiedSince = request.getDateHeader( "If-Modified-Since" );
+      notModified = ifModifiedSince >= 0 && cached.getLastChanged() / 1000 <= ifModifiedSince / 1000;
+    }
+    if ( notModified )
+    {
+      response.setStatus( HttpServletResponse.SC_NOT_MODIFIED );
+      return;
+    }
+
+    byte[] bytes;
+    if ( this.htmlView )
+    {
+      bytes = cached.getHtml( this.htmlWriter );
+      response.setContentType( "text/html; charset=UTF-8" );
+    }
+    else
+    {
+      bytes = cached.getXml();
+      response.setContentType( "application/xml" );
+      response.setCharacterEncoding( "UTF-8" );
+    }
+    response.setContentLength( bytes.length );
+    if ( ! request.getMethod().equals( "HEAD" ) )
+    {
+      OutputStream os = response.getOutputStream();
+      os.write( bytes );
+      os.flush();
+    }
+  }
+
   private ModelAndView handlePublicDocumentRequest( HttpServletRequest request,
                                                     HttpServletResponse response,
                                                     String path )
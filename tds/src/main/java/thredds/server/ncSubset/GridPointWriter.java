@@ -230,11 +230,12 @@ public class GridPointWriter {
 
             // patch from dmurray 01/04/11
             GridAsPointDataset.Point p;
+            GridAsPointDataset.Column col = gap.getColumn(grid, -1, qp.lat, qp.lon);
             Dimension zdim = grid.getZDimension();
             if (zdim != null) {
-            	p = gap.readData(grid, date, zCoord, qp.lat, qp.lon);
+            	p = gap.getPoint(col, date, zCoord);
             } else {
-            	p = gap.readData(grid, date, qp.lat, qp.lon);
+            	p = gap.getPoint(col, date, -1);
             }
 
             latData.set(p.lat);
@@ -274,7 +275,8 @@ public class GridPointWriter {
             continue;
           }
 
-          GridAsPointDataset.Point p = gap.readData(grid, date, qp.lat, qp.lon);
+          GridAsPointDataset.Column col = gap.getColumn(grid, -1, qp.lat, qp.lon);
+          GridAsPointDataset.Point p = gap.getPoint(col, date, -1);
           latData.set(p.lat);
           lonData.set(p.lon);
           mdata.setDouble(mdata.getIndex(), p.dataValue);
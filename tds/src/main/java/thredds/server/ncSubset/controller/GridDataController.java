@@ -99,7 +99,8 @@ class GridDataController extends AbstractNcssDataRequestController {
   private long maxFileDownloadSize = -1L;
 
   //@RequestMapping(value = "**", params = {"!latitude", "!longitude", "var"})
-  @RequestMapping(value = "**", params = {"!latitude", "!longitude"})
+  // requests with points go to MultiPointDataController, whose combined pattern is less specific than this one
+  @RequestMapping(value = "**", params = {"!latitude", "!longitude", "!points"})
   void getGridSubset(@Valid GridDataRequestParamsBean params, BindingResult validationResult, HttpServletResponse response)
           throws UnsupportedResponseFormatException, RequestTooLargeException, OutOfBoundariesException, VariableNotContainedInDatasetException, InvalidBBOXException, InvalidRangeException, ParseException, IOException, UnsupportedOperationException, TimeOutOfWindowException {
 
@@ -0,0 +1,153 @@
+package thredds.server.ncSubset.controller;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
+
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import thredds.server.ncSubset.exception.NcssException;
+import thredds.server.ncSubset.exception.VariableNotContainedInDatasetException;
+import thredds.server.ncSubset.params.MultiPointDataRequestParamsBean;
+import thredds.server.ncSubset.params.RequestParamsBean;
+import thredds.server.ncSubset.util.NcssRequestUtils;
+import ucar.nc2.dataset.CoordinateAxis1D;
+import ucar.nc2.dt.GridDataset;
+import ucar.nc2.dt.GridDatatype;
+import ucar.nc2.dt.grid.GridAsPointDataset;
+import ucar.nc2.time.CalendarDate;
+import ucar.unidata.geoloc.LatLonPoint;
+
+/**
+ * Grid as point requests for many points at once, eg all the stations of a network.
+ * Each variable is read once per time for all the points, see GridAsPointDataset.readData(List).
+ * Writes CSV, one row per time and point.
+ */
+@Controller
+@Scope("request")
+@RequestMapping(value="/ncss/grid/**")
+class MultiPointDataController extends AbstractNcssDataRequestController {
+
+	@RequestMapping(value = "**", params = {"points", "!latitude", "!longitude"})
+	void getMultiPointData(@Valid MultiPointDataRequestParamsBean params, BindingResult validationResult, HttpServletResponse response) throws ParseException, NcssException, IOException {
+
+		if( validationResult.hasErrors() ){
+			handleValidationErrorsResponse(response, HttpServletResponse.SC_BAD_REQUEST, validationResult );
+			return;
+		}
+
+		List<LatLonPoint> points;
+		GridAsPointDataset.Interpolation interp = GridAsPointDataset.Interpolation.nearest;
+		try {
+			points = params.getLatLonPoints();
+			if (params.getInterpolation() != null)
+				interp = GridAsPointDataset.Interpolation.valueOf(params.getInterpolation());
+		} catch (IllegalArgumentException e) {
+			response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+			return;
+		}
+
+		checkRequestedVars(gridDataset, params);
+		List<GridDatatype> grids = new ArrayList<GridDatatype>();
+		for (String var : params.getVar())
+			grids.add(gridDataset.findGridDatatype(var));
+
+		List<CalendarDate> wantedDates = getRequestedDates(gridDataset, params);
+		GridAsPointDataset gap = NcssRequestUtils.buildGridAsPointDataset(gridDataset, params.getVar());
+
+		// check the level before writing anything, readData() would throw part way through the response
+		for (GridDatatype grid : grids) {
+			if (grid.getCoordinateSystem().getVerticalAxis() != null && !gap.hasVert(grid, getZCoord(grid, params.getVertCoord()))) {
+				response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Grid " + grid.getName() + " has no level " + params.getVertCoord());
+				return;
+			}
+		}
+
+		response.setContentType("text/plain");
+		PrintWriter pw = new PrintWriter(response.getOutputStream());
+		writeHeader(pw, grids, !wantedDates.isEmpty());
+
+		List<CalendarDate> dates = wantedDates.isEmpty() ? Collections.<CalendarDate>singletonList(null) : wantedDates;
+		for (CalendarDate date : dates) {
+			// read each variable at all points
+			double[][] values = new double[grids.size()][];
+			for (int i = 0; i < grids.size(); i++)
+				values[i] = readPoints(gap, grids.get(i), date, params.getVertCoord(), points, interp);
+
+			for (int j = 0; j < points.size(); j++) {
+				if (date != null)
+					pw.print(date.toString()+",");
+				LatLonPoint point = points.get(j);
+				pw.print(j+","+point.getLatitude()+","+point.getLongitude());
+				for (double[] v : values)
+					pw.print(","+v[j]);
+				pw.println();
+			}
+		}
+
+		pw.flush();
+		response.flushBuffer();
+	}
+
+	private double[] readPoints(GridAsPointDataset gap, GridDatatype grid, CalendarDate date, Double vertCoord,
+			List<LatLonPoint> points, GridAsPointDataset.Interpolation interp) throws IOException {
+
+		double[] result = new double[points.size()];
+		boolean hasTime = grid.getCoordinateSystem().getTimeAxis1D() != null;
+		if (hasTime && date != null && !gap.hasTime(grid, date)) {
+			for (int j = 0; j < result.length; j++)
+				result[j] = gap.getMissingValue(grid);
+			return result;
+		}
+
+		List<GridAsPointDataset.Point> values = gap.readData(grid, hasTime ? date : null, -1, getZCoord(grid, vertCoord), points, interp);
+		for (int j = 0; j < result.length; j++)
+			result[j] = values.get(j).dataValue;
+		return result;
+	}
+
+	// the requested level, or the first one. Single level axes need getTargetLevelForVertCoord() either way
+	private double getZCoord(GridDatatype grid, Double vertCoord) {
+		CoordinateAxis1D zAxis = grid.getCoordinateSystem().getVerticalAxis();
+		if (zAxis == null)
+			return 0;
+		return NcssRequestUtils.getTargetLevelForVertCoord(zAxis, (vertCoord != null) ? vertCoord : zAxis.getCoordValue(0));
+	}
+
+	private void writeHeader(PrintWriter pw, List<GridDatatype> grids, boolean hasTime) {
+		StringBuilder sb = new StringBuilder();
+		if(hasTime)
+			sb.append("date,");
+		sb.append("point,");
+		sb.append("lat[unit=\"degrees_north\"],");
+		sb.append("lon[unit=\"degrees_east\"]");
+		for (GridDatatype grid : grids) {
+			sb.append(",");
+			sb.append(grid.getName());
+			if( grid.getUnitsString()!=null ) sb.append("[unit=\"" + grid.getUnitsString() + "\"]");
+		}
+		pw.println(sb.toString());
+	}
+
+	protected void checkRequestedVars(GridDataset gds, RequestParamsBean params) throws VariableNotContainedInDatasetException {
+		//if var = all--> all variables requested
+		if(params.getVar().get(0).equals("all")){
+			params.setVar(NcssRequestUtils.getAllVarsAsList(getGridDataset()));
+		}
+
+		for (String varName : params.getVar()) {
+			if (gds.findGridDatatype(varName) == null)
+				throw new VariableNotContainedInDatasetException("Variable: "+varName+" is not contained in the requested dataset");
+		}
+	}
+
+}
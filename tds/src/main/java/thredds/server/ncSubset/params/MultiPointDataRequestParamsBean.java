@@ -0,0 +1,58 @@
+package thredds.server.ncSubset.params;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.validation.constraints.NotNull;
+
+import ucar.unidata.geoloc.LatLonPoint;
+import ucar.unidata.geoloc.LatLonPointImpl;
+
+/**
+ * Request parameters for many points at once.
+ * Each points param is "lat,lon", or several of them separated by ';'.
+ */
+public class MultiPointDataRequestParamsBean extends RequestParamsBean {
+
+	@NotNull(message="points param may not be null")
+	private List<String> points;
+
+	// nearest or bilinear
+	private String interpolation;
+
+	public List<String> getPoints() {
+		return points;
+	}
+
+	public void setPoints(List<String> points) {
+		this.points = points;
+	}
+
+	public String getInterpolation() {
+		return interpolation;
+	}
+
+	public void setInterpolation(String interpolation) {
+		this.interpolation = interpolation;
+	}
+
+	/**
+	 * Parse the points param.
+	 * @return the locations, in the order requested
+	 * @throws IllegalArgumentException if a point is not "lat,lon"
+	 */
+	public List<LatLonPoint> getLatLonPoints() {
+		List<LatLonPoint> result = new ArrayList<LatLonPoint>();
+		for (String p : points) {
+			for (String latlon : p.split(";")) {
+				if (latlon.trim().length() == 0) continue;
+				String[] tokens = latlon.split(",");
+				if (tokens.length != 2)
+					throw new IllegalArgumentException("point must be lat,lon: "+latlon);
+				result.add(new LatLonPointImpl(Double.parseDouble(tokens[0].trim()), Double.parseDouble(tokens[1].trim())));
+			}
+		}
+		return result;
+	}
+
+}
@@ -237,7 +237,8 @@ class CSVPointDataWriter implements PointDataWriter  {
 			while (itVars.hasNext()) {
 				GridDatatype grid = gridDataset.findGridDatatype(itVars.next());
 				if (  gap.hasVert(grid, targetLevel) ) {
-					GridAsPointDataset.Point p = gap.readData(grid, null, targetLevel, point.getLatitude(), point.getLongitude());
+					GridAsPointDataset.Column col = gap.getColumn(grid, -1, point.getLatitude(), point.getLongitude());
+					GridAsPointDataset.Point p = gap.getPoint(col, null, targetLevel);
 					if(contVars == 0){
 						//printWriter.write(Double.valueOf(p.lat).toString()+"," );
 						//printWriter.write(Double.valueOf(p.lon).toString()+"," );
@@ -282,7 +283,8 @@ class CSVPointDataWriter implements PointDataWriter  {
 				double actualLevel = NcssRequestUtils.getActualVertLevel(grid, date, point, targetLevel);
 
 				if ( gap.hasTime(grid, date) && gap.hasVert(grid, targetLevel) ) {
-					GridAsPointDataset.Point p = gap.readData(grid, date, ensCoord, targetLevel, point.getLatitude(), point.getLongitude());
+					GridAsPointDataset.Column col = gap.getColumn(grid, ensCoord, point.getLatitude(), point.getLongitude());
+					GridAsPointDataset.Point p = gap.getPoint(col, date, targetLevel);
 					if(contVars == 0){							
 						//printWriter.write(Double.valueOf(p.lat).toString()+"," );
 						//printWriter.write(Double.valueOf(p.lon).toString()+"," );
@@ -334,7 +336,8 @@ class CSVPointDataWriter implements PointDataWriter  {
 			while (itVars.hasNext()) {
 				GridDatatype grid = gridDataset.findGridDatatype(itVars.next());
 				//if (gap.hasTime(grid, date) ) {
-				GridAsPointDataset.Point p = gap.readData(grid, null, point.getLatitude(), point.getLongitude());
+				GridAsPointDataset.Column col = gap.getColumn(grid, -1, point.getLatitude(), point.getLongitude());
+				GridAsPointDataset.Point p = gap.getPoint(col, null, -1);
 				if(contVars == 0){
 					//printWriter.write(Double.valueOf(p.lat).toString()+"," );
 					//printWriter.write(Double.valueOf(p.lon).toString()+"," );
@@ -374,7 +377,8 @@ class CSVPointDataWriter implements PointDataWriter  {
 			while (itVars.hasNext()) {
 				GridDatatype grid = gridDataset.findGridDatatype(itVars.next());
 				if (gap.hasTime(grid, date) ) {
-					GridAsPointDataset.Point p = gap.readData(grid, date, ensCoord, -1, point.getLatitude(), point.getLongitude());
+					GridAsPointDataset.Column col = gap.getColumn(grid, ensCoord, point.getLatitude(), point.getLongitude());
+					GridAsPointDataset.Point p = gap.getPoint(col, date, -1);
 					if(contVars == 0){
 						//printWriter.write(Double.valueOf(p.lat).toString()+"," );
 						//printWriter.write(Double.valueOf(p.lon).toString()+"," );
@@ -202,7 +202,8 @@ class XMLPointDataWriter implements PointDataWriter {
 				for(double ensCoord : ensCoords){
 
 					if (gap.hasTime(grid, date) && gap.hasVert(grid, targetLevel)) {
-						GridAsPointDataset.Point p = gap.readData(grid, date, ensCoord, targetLevel, point.getLatitude(),	point.getLongitude());
+						GridAsPointDataset.Column col = gap.getColumn(grid, ensCoord, point.getLatitude(), point.getLongitude());
+						GridAsPointDataset.Point p = gap.getPoint(col, date, targetLevel);
 
 						if (contVars == 0) {
 							//writeCoordinates(xmlStreamWriter, Double.valueOf(p.lat), Double.valueOf(p.lon));
@@ -283,7 +284,8 @@ class XMLPointDataWriter implements PointDataWriter {
 				GridDatatype grid = gridDataset.findGridDatatype(varName);
 
 				if ( gap.hasVert(grid, targetLevel)) {
-					GridAsPointDataset.Point p = gap.readData(grid, null, targetLevel, point.getLatitude(),	point.getLongitude());
+					GridAsPointDataset.Column col = gap.getColumn(grid, -1, point.getLatitude(), point.getLongitude());
+					GridAsPointDataset.Point p = gap.getPoint(col, null, targetLevel);
 					if (contVars == 0) {
 						//writeCoordinates(xmlStreamWriter, Double.valueOf(p.lat), Double.valueOf(p.lon));
 						writeCoordinates(xmlStreamWriter, Double.valueOf(point.getLatitude()), Double.valueOf(point.getLongitude()));
@@ -343,7 +345,8 @@ class XMLPointDataWriter implements PointDataWriter {
 				String varName = itVars.next();
 				GridDatatype grid = gridDataset.findGridDatatype(varName);
 
-				GridAsPointDataset.Point p = gap.readData(grid, null, point.getLatitude(),	point.getLongitude());
+				GridAsPointDataset.Column col = gap.getColumn(grid, -1, point.getLatitude(), point.getLongitude());
+				GridAsPointDataset.Point p = gap.getPoint(col, null, -1);
 				if (contVars == 0) {
 					//writeCoordinates(xmlStreamWriter, Double.valueOf(p.lat), Double.valueOf(p.lon));
 					writeCoordinates(xmlStreamWriter, point.getLatitude(),	point.getLongitude());
@@ -406,7 +409,8 @@ class XMLPointDataWriter implements PointDataWriter {
 				for(double ensCoord : ensCoords){				
 
 					if (gap.hasTime(grid, date) ) {
-						GridAsPointDataset.Point p = gap.readData(grid, date, ensCoord, -1, point.getLatitude(),	point.getLongitude());
+						GridAsPointDataset.Column col = gap.getColumn(grid, ensCoord, point.getLatitude(), point.getLongitude());
+						GridAsPointDataset.Point p = gap.getPoint(col, date, -1);
 						if (contVars == 0) {
 							writeCoordinates(xmlStreamWriter, point.getLatitude(),	point.getLongitude());
 							attributes.clear();
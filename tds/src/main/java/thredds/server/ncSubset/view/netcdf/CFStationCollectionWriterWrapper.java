@@ -162,7 +162,8 @@ public final class CFStationCollectionWriterWrapper implements CFPointWriterWrap
 					GridDatatype grid = gridDataset.findGridDatatype(varName);
 
 					if (gap.hasTime(grid, date) ) {
-						GridAsPointDataset.Point p = gap.readData(grid, date, ensCoord, -1, point.getLatitude(), point.getLongitude());
+						GridAsPointDataset.Column col = gap.getColumn(grid, ensCoord, point.getLatitude(), point.getLongitude());
+						GridAsPointDataset.Point p = gap.getPoint(col, date, -1);
 						sdata.findMember(varName).getDataArray().setDouble(0, p.dataValue );						
 
 					}else{ //Set missing value
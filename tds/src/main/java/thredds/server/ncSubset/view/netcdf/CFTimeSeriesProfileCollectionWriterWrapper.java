@@ -2,6 +2,7 @@ package thredds.server.ncSubset.view.netcdf;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -41,6 +42,9 @@ final class CFTimeSeriesProfileCollectionWriterWrapper implements CFPointWriterW
 	
 	private CalendarDate timeOrigin;
 
+	// one for each variable group, kept for all the dates so that each grid is read once
+	private Map<String, GridAsPointDataset> gridAsPointDatasets = new HashMap<String, GridAsPointDataset>();
+
 	private CFTimeSeriesProfileCollectionWriterWrapper(NetcdfFileWriter.Version version, String filePath, List<Attribute> atts ) throws IOException{
 
 		writerCFTimeSeriesProfileCollection = new WriterCFTimeSeriesProfileCollection(version, filePath, atts); 
@@ -73,6 +77,10 @@ final class CFTimeSeriesProfileCollectionWriterWrapper implements CFPointWriterW
 		List<Station> stnList  = new ArrayList<Station>();
 		stnList.add(s);		
 
+		for(Map.Entry<String, List<String>> entry : groupedVars.entrySet()){
+			gridAsPointDatasets.put(entry.getKey(), NcssRequestUtils.buildGridAsPointDataset(gds, entry.getValue()));
+		}
+
 		try {
 			writerCFTimeSeriesProfileCollection.writeHeader(stnList, groupedVars, gds, timeDimAtts, wDates.size(), vertCoord );
 			headerDone = true;
@@ -115,7 +123,7 @@ final class CFTimeSeriesProfileCollectionWriterWrapper implements CFPointWriterW
 					//String profileName = NO_VERT_LEVEL;				
 					EarthLocation earthLocation=null;	
 
-					GridAsPointDataset gap = NcssRequestUtils.buildGridAsPointDataset(gridDataset, varsGroup);
+					GridAsPointDataset gap = gridAsPointDatasets.get(key);
 					GridDatatype timeGrid = NcssRequestUtils.getTimeGrid(groupedVars, gridDataset);
 					if(timeGrid == null){			
 						throw new IllegalArgumentException("Variables do not have time dimension");
@@ -138,7 +146,8 @@ final class CFTimeSeriesProfileCollectionWriterWrapper implements CFPointWriterW
 							GridDatatype grid = gridDataset.findGridDatatype(varName);
 
 							if (gap.hasTime(grid, date) ) {
-								GridAsPointDataset.Point p = gap.readData(grid, date, ensCoord, -1,  point.getLatitude(), point.getLongitude());
+								GridAsPointDataset.Column col = gap.getColumn(grid, ensCoord, point.getLatitude(), point.getLongitude());
+								GridAsPointDataset.Point p = gap.getPoint(col, date, -1);
 								sdata.findMember(varName).getDataArray().setDouble(0, p.dataValue );							
 								if(cont ==0){
 									earthLocation = new EarthLocationImpl(p.lat, p.lon, Double.NaN );
@@ -193,7 +202,8 @@ final class CFTimeSeriesProfileCollectionWriterWrapper implements CFPointWriterW
 								}
 								
 								if (gap.hasTime(grid, date) && gap.hasVert(grid, vertLevel)) {
-									GridAsPointDataset.Point p = gap.readData(grid, date, ensCoord,	vertLevel, point.getLatitude(), point.getLongitude() );
+									GridAsPointDataset.Column col = gap.getColumn(grid, ensCoord, point.getLatitude(), point.getLongitude());
+									GridAsPointDataset.Point p = gap.getPoint(col, date, vertLevel);
 									sdata.findMember(varName).getDataArray().setDouble(0, p.dataValue );
 
 									if(cont ==0){
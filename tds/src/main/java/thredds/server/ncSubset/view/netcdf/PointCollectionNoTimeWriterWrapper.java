@@ -104,7 +104,8 @@ class PointCollectionNoTimeWriterWrapper implements CFPointWriterWrapper {
 				GridDatatype grid = gridDataset.findGridDatatype(varName);
 								
 				//if (gap.hasTime(grid, date) ) {
-					GridAsPointDataset.Point p = gap.readData(grid, null,	point.getLatitude(), point.getLongitude());
+					GridAsPointDataset.Column col = gap.getColumn(grid, -1, point.getLatitude(), point.getLongitude());
+					GridAsPointDataset.Point p = gap.getPoint(col, null, -1);
 					//sdata.findMember("latitude").getDataArray().setDouble(0, p.lat );
 					//sdata.findMember("longitude").getDataArray().setDouble(0, p.lon );		
 					sdata.findMember(varName).getDataArray().setDouble(0, p.dataValue );
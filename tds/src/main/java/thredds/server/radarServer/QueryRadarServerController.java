@@ -476,7 +476,6 @@ public class QueryRadarServerController extends AbstractController  {
       return false;
     }
     StringBuffer time = new StringBuffer();
-    StringBuffer product = new StringBuffer();
     StringBuffer url = new StringBuffer();
     boolean isLevel2 = dataset.contains( "level2" );
     String type = ( isLevel2 ? "Level2" : "Level3");
@@ -486,6 +485,16 @@ public class QueryRadarServerController extends AbstractController  {
     String currentDay = dateFormat.format( now );
 
     for ( String stn : qp.stns ) {
+      if( ! getAllTimes && ! rdc.isCaseStudy() ) {
+        // time range, binary search of the station index
+        List<RadarStationIndex.Entry> found = rdc.queryStationTimes( stn, currentDay,
+            dateStart, dateEnd, qp.hasTimePoint ? 1 : Integer.MAX_VALUE );
+        if ( found != null ) {
+          for ( RadarStationIndex.Entry e : found )
+            entries.add( makeEntry( type, stn, var, e.day, e.hhmm, suffix, isLevel2 ) );
+          continue;
+        }
+      }
       RadarStationCollection rsc =  rdc.queryStation( stn, currentDay );
       if ( rsc == null)
         continue;
@@ -535,24 +544,7 @@ public class QueryRadarServerController extends AbstractController  {
               continue;
 
           // save this entry
-          DatasetEntry de = new DatasetEntry();
-          
-          product.setLength( 0 );
-          product.append( type ).append( "_" ).append( rsc.getStnName() ).append( "_" );
-          if( ! isLevel2 )
-            product.append( var ).append( "_" );
-          product.append( day ).append( "_" ).append( hm ).append( suffix );
-
-          de.setName( product.toString() );
-          de.setID( Integer.toString( product.toString().hashCode() ));
-          url.setLength( 0 );
-          if( ! isLevel2 ) {
-            url.append( var ).append( "/" );
-          }
-          url.append(rsc.getStnName()).append("/").append(day).append("/").append(product.toString());
-          de.setUrlPath( url.toString() );
-          de.setDate( RadarServerUtil.getObTimeISO( product.toString() ) );
-          entries.add( de );
+          entries.add( makeEntry( type, rsc.getStnName(), var, day, hm, suffix, isLevel2 ) );
           if( qp.hasTimePoint )
             break;
         }
@@ -569,6 +561,30 @@ public class QueryRadarServerController extends AbstractController  {
     }
   }
 
+  // DatasetEntry for one station/day/time
+  private DatasetEntry makeEntry( String type, String stn, String var, String day,
+    String hm, String suffix, boolean isLevel2 ) {
+
+    DatasetEntry de = new DatasetEntry();
+
+    StringBuffer product = new StringBuffer();
+    product.append( type ).append( "_" ).append( stn ).append( "_" );
+    if( ! isLevel2 )
+      product.append( var ).append( "_" );
+    product.append( day ).append( "_" ).append( hm ).append( suffix );
+
+    de.setName( product.toString() );
+    de.setID( Integer.toString( product.toString().hashCode() ));
+    StringBuffer url = new StringBuffer();
+    if( ! isLevel2 ) {
+      url.append( var ).append( "/" );
+    }
+    url.append( stn ).append("/").append(day).append("/").append(product.toString());
+    de.setUrlPath( url.toString() );
+    de.setDate( RadarServerUtil.getObTimeISO( product.toString() ) );
+    return de;
+  }
+
   /*
    * Used to store the information about a dataset
    */
@@ -44,6 +44,11 @@ import java.util.*;
 import java.io.IOException;
 import java.io.File;
 import java.text.SimpleDateFormat;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Maintains the Radar collection of stations and days for a Radar Dataset.  The
@@ -112,6 +117,36 @@ public class RadarDatasetCollection {
    */
   HashMap<String, ArrayList<String>> hhmm = new HashMap<String, ArrayList<String>>();
 
+  /**
+   * Sorted index of all the days times, for time range queries, null until it's built
+   */
+  volatile RadarStationIndex index;
+
+  /**
+   * builds the index of a dataset that has no snapshot yet, and writes the snapshots
+   */
+  private static final ScheduledExecutorService indexBuilder = Executors.newSingleThreadScheduledExecutor( new ThreadFactory() {
+    public Thread newThread( Runnable r ) {
+      Thread t = new Thread( r, "RadarStationIndex" );
+      t.setDaemon( true );
+      return t;
+    }
+  } );
+
+  /**
+   * msecs from a change of the index to writing its snapshot, changes in between are written together
+   */
+  private static long indexWriteDelay = 60 * 1000;
+
+  static void setIndexWriteDelay( long msecs ) {
+    indexWriteDelay = msecs;
+  }
+
+  /**
+   * a snapshot write is scheduled and hasn't started yet
+   */
+  private final AtomicBoolean writeScheduled = new AtomicBoolean();
+
   private static int daysToRead = 6;
 
   public int getDaysToRead() {
@@ -172,6 +207,23 @@ public class RadarDatasetCollection {
       for (int i = 0; i < rdc.size() && i < daysToRead; i++) {
          readRadarDayCollection( rdc.get( i ) );
       }
+      // bring the snapshot up to date, or build the index in the background the first time
+      final ArrayList<String> dayFiles = rdc;
+      final RadarStationIndex saved = RadarStationIndex.read( getSnapshot() );
+      if ( saved != null ) {
+        updateIndex( saved, dayFiles );
+        index = saved;
+        scheduleWrite( saved );
+      } else {
+        indexBuilder.execute( new Runnable() {
+          public void run() {
+            RadarStationIndex built = new RadarStationIndex();
+            updateIndex( built, dayFiles );
+            index = built;
+            built.write( getSnapshot() );
+          }
+        } );
+      }
     } else { // casestudy collection adhoc   station or station/product or
       this.tdir = tdir;
       ArrayList<String> stations = getStationsFromDir( tdir );
@@ -272,6 +324,51 @@ public class RadarDatasetCollection {
     return true;
   }
 
+  private File getSnapshot() {
+    return new File( tdir, RadarStationIndex.SNAPSHOT );
+  }
+
+  /*
+   * Prune the days whose RadarDayCollection file is gone, and read the ones that are new or
+   * have changed
+   * @param idx index to update
+   * @param dayFiles the RadarDayCollection file names, .yyyymmdd
+   */
+  private void updateIndex( RadarStationIndex idx, List<String> dayFiles ) {
+    HashSet<String> present = new HashSet<String>();
+    for ( String child : dayFiles )
+      present.add( child.substring( 1 ) );
+    idx.prune( present );
+    StringBuffer sb = new StringBuffer();
+    for ( String child : dayFiles ) {
+      sb.setLength( 0 );
+      sb.append( tdir ).append( "/" ).append( child );
+      long lastModified = new File( sb.toString() ).lastModified();
+      if ( lastModified == 0 || idx.isCurrent( child.substring( 1 ), lastModified ) )
+        continue;
+      RadarDayCollection rday = new RadarDayCollection().read( sb.toString() );
+      if ( rday != null )
+        idx.addDay( rday, lastModified );
+    }
+  }
+
+  /*
+   * Write the snapshot of a modified index on the indexBuilder thread after indexWriteDelay,
+   * so requests don't wait for it and a busy current day is written at most once per delay.
+   * @param idx index to write
+   */
+  private void scheduleWrite( final RadarStationIndex idx ) {
+    if ( !idx.isModified() || !writeScheduled.compareAndSet( false, true ) )
+      return;
+    indexBuilder.schedule( new Runnable() {
+      public void run() {
+        writeScheduled.set( false );
+        if ( idx.isModified() )
+          idx.write( getSnapshot() );
+      }
+    }, indexWriteDelay, TimeUnit.MILLISECONDS );
+  }
+
   /*
    returns true if previous days data is now available, causes dataset reread
    */
@@ -389,6 +486,35 @@ public class RadarDatasetCollection {
     return rsc;
   }
 
+  /**
+   * returns the times for this station between dateStart and dateEnd using the index,
+   * the current day's directory is rescanned first if it has changed, and the index
+   * snapshot is written later in the background if the rescan changed it.
+   * @param stnName station
+   * @param currentDay yyyymmdd
+   * @param dateStart yyyymmdd_hhmm
+   * @param dateEnd yyyymmdd_hhmm
+   * @param max maximum number of times wanted
+   * @return times newest first, or null if this collection has no index or it's still being built
+   */
+  public List<RadarStationIndex.Entry> queryStationTimes( String stnName, String currentDay,
+      String dateStart, String dateEnd, int max ) {
+    RadarStationIndex idx = index;
+    if ( idx == null )
+      return null;
+    if ( dateEnd.compareTo( currentDay ) >= 0 ) {
+      StringBuffer sb = new StringBuffer( tdir );
+      sb.append( "/" ).append( stnName ).append( "/" ).append( currentDay );
+      idx.scanDay( new File( sb.toString() ), stnName, currentDay, standardName );
+      scheduleWrite( idx );
+    }
+    return idx.query( stnName, dateStart, dateEnd, max );
+  }
+
+  public RadarStationIndex getIndex() {
+    return index;
+  }
+
   public String getTdir() {
     return tdir;
   }
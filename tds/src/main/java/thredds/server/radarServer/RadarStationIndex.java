@@ -0,0 +1,533 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package thredds.server.radarServer;
+
+import java.io.*;
+import java.util.*;
+import java.util.regex.Matcher;
+
+/**
+ * Sorted in-memory index of scan times for one radar dataset (level2, or one level3 product),
+ * kept per station. Each station holds its times as yyyymmddhhmm longs in ascending order,
+ * so a time range query is two binary searches instead of a walk over day directories.
+ * Standard names (Level2_KFTG_20100108_0654.ar2v) are stored as the time alone; other file names
+ * are kept alongside their time.
+ * <p>
+ * The index is filled from the RadarDayCollection files, updated incrementally from the
+ * current day's directory, and snapshotted to disk. Each day remembers the last modified time of
+ * its RadarDayCollection file, so a restart only reads the days that were added or rewritten
+ * since the snapshot was written, and days whose file is gone are pruned.
+ *
+ * @since 10/19/2026
+ */
+public class RadarStationIndex {
+  static private org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger( RadarStationIndex.class );
+
+  /**
+   * Name of the snapshot file in the dataset directory
+   */
+  public static final String SNAPSHOT = ".stationIndex";
+
+  private static final int MAGIC = 0x52534932; // RSI2
+
+  /**
+   * One scan, day is yyyymmdd, hhmm is the time or the full file name for non standard names
+   */
+  public static class Entry {
+    public final String day;
+    public final String hhmm;
+
+    Entry( String day, String hhmm ) {
+      this.day = day;
+      this.hhmm = hhmm;
+    }
+  }
+
+  // times of one station, ascending
+  private static class Times {
+    long[] time = new long[64];
+    String[] name; // only allocated for non standard names
+    int n;
+
+    // binary search, returns the first index with time[i] >= key
+    int lowerBound( long key ) {
+      int lo = 0, hi = n;
+      while ( lo < hi ) {
+        int mid = ( lo + hi ) >>> 1;
+        if ( time[ mid ] < key )
+          lo = mid + 1;
+        else
+          hi = mid;
+      }
+      return lo;
+    }
+
+    boolean add( long key, String fileName ) {
+      int pos = ( n > 0 && time[ n - 1 ] < key ) ? n : lowerBound( key ); // new volumes usually go at the end
+      if ( pos < n && time[ pos ] == key && equals( fileName, name == null ? null : name[ pos ] ) )
+        return false;
+      if ( n == time.length ) {
+        time = Arrays.copyOf( time, 2 * n );
+        if ( name != null )
+          name = Arrays.copyOf( name, 2 * n );
+      }
+      if ( fileName != null && name == null )
+        name = new String[ time.length ];
+      System.arraycopy( time, pos, time, pos + 1, n - pos );
+      time[ pos ] = key;
+      if ( name != null ) {
+        System.arraycopy( name, pos, name, pos + 1, n - pos );
+        name[ pos ] = fileName;
+      }
+      n++;
+      return true;
+    }
+
+    // remove the times between lo and hi inclusive, returns the number removed
+    int remove( long lo, long hi ) {
+      int first = lowerBound( lo );
+      int last = lowerBound( hi + 1 );
+      int count = last - first;
+      if ( count == 0 )
+        return 0;
+      System.arraycopy( time, last, time, first, n - last );
+      if ( name != null ) {
+        System.arraycopy( name, last, name, first, n - last );
+        Arrays.fill( name, n - count, n, null );
+      }
+      n -= count;
+      return count;
+    }
+
+    // keep only the times of these days, and of days after newest
+    int retain( Set<String> keep, long newest ) {
+      int j = 0;
+      for ( int i = 0; i < n; i++ ) {
+        long day = time[ i ] / 10000;
+        if ( day > newest || keep.contains( Long.toString( day ) ) ) {
+          time[ j ] = time[ i ];
+          if ( name != null )
+            name[ j ] = name[ i ];
+          j++;
+        }
+      }
+      int count = n - j;
+      if ( name != null )
+        Arrays.fill( name, j, n, null );
+      n = j;
+      return count;
+    }
+
+    // just the n times, for writing a snapshot
+    Times copy() {
+      Times result = new Times();
+      result.time = Arrays.copyOf( time, n );
+      if ( name != null )
+        result.name = Arrays.copyOf( name, n );
+      result.n = n;
+      return result;
+    }
+
+    private static boolean equals( String a, String b ) {
+      return ( a == null ) ? b == null : a.equals( b );
+    }
+  }
+
+  private final HashMap<String, Times> stations = new HashMap<String, Times>();
+
+  /**
+   * days that came from a complete RadarDayCollection, value is the last modified time of its file
+   */
+  private final TreeMap<String, Long> days = new TreeMap<String, Long>();
+
+  /**
+   * key = stn + yyyymmdd, last modified time of the directory when it was scanned
+   */
+  private final HashMap<String, Long> scanned = new HashMap<String, Long>();
+
+  private boolean modified = false;
+
+  private final Object writeLock = new Object();
+
+  /**
+   * Convert yyyymmdd_hhmm to the index key
+   * @param yyyymmdd_hhmm date
+   * @return yyyymmddhhmm as a long
+   */
+  public static long key( String yyyymmdd_hhmm ) {
+    return Long.parseLong( yyyymmdd_hhmm.substring( 0, 8 ) ) * 10000 +
+        Integer.parseInt( yyyymmdd_hhmm.substring( 9, 13 ) );
+  }
+
+  // key of a non standard file name, same rules as RadarServerUtil.isValidDate
+  private static long keyOf( String fileName ) {
+    Matcher m = RadarServerUtil.p_yyyymmdd_hhmm.matcher( fileName );
+    if ( m.find() )
+      return key( m.group( 1 ) );
+    m = RadarServerUtil.p_yymmdd_hhmm.matcher( fileName );
+    if ( m.find() ) { // add century, fails 2070
+      String century = ( Integer.parseInt( m.group( 1 ) ) > 69 ) ? "19" : "20";
+      return key( century + m.group( 1 ) + m.group( 2 ) );
+    }
+    return -1;
+  }
+
+  private static boolean isHhmm( String hhmm ) {
+    if ( hhmm.length() != 4 )
+      return false;
+    for ( int i = 0; i < 4; i++ ) {
+      if ( !Character.isDigit( hhmm.charAt( i ) ) )
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Add one scan to the index
+   * @param stn station
+   * @param day yyyymmdd
+   * @param hhmm time, or the file name for non standard names
+   * @return true if it was not already in the index
+   */
+  public synchronized boolean add( String stn, String day, String hhmm ) {
+    long key;
+    String fileName = null;
+    if ( isHhmm( hhmm ) ) {
+      key = Long.parseLong( day ) * 10000 + Integer.parseInt( hhmm );
+    } else {
+      key = keyOf( hhmm );
+      if ( key < 0 ) // no time in the name, it can never satisfy a time query
+        return false;
+      fileName = hhmm;
+    }
+    Times times = stations.get( stn );
+    if ( times == null ) {
+      times = new Times();
+      stations.put( stn, times );
+    }
+    boolean added = times.add( key, fileName );
+    modified |= added;
+    return added;
+  }
+
+  /**
+   * Does the index hold this complete day, from a RadarDayCollection file that has not changed since
+   * @param yyyymmdd day
+   * @param lastModified last modified time of the RadarDayCollection file
+   * @return true if the day was added with addDay from a file with the same last modified time
+   */
+  public synchronized boolean isCurrent( String yyyymmdd, long lastModified ) {
+    Long last = days.get( yyyymmdd );
+    return last != null && last == lastModified;
+  }
+
+  /**
+   * Add all the stations and times of a RadarDayCollection, replacing what the index had for that day
+   * @param rdc RadarDayCollection
+   * @param lastModified last modified time of the RadarDayCollection file
+   */
+  public synchronized void addDay( RadarDayCollection rdc, long lastModified ) {
+    removeDay( rdc.yyyymmdd );
+    for ( String stn : rdc.getStations() ) {
+      ArrayList<String> times = rdc.getTimes( stn );
+      if ( times == null )
+        continue;
+      for ( String hhmm : times )
+        add( stn, rdc.yyyymmdd, hhmm );
+    }
+    days.put( rdc.yyyymmdd, lastModified );
+    modified = true;
+  }
+
+  /**
+   * Remove all the times of a day
+   * @param yyyymmdd day
+   */
+  public synchronized void removeDay( String yyyymmdd ) {
+    long day = Long.parseLong( yyyymmdd );
+    for ( Times times : stations.values() )
+      modified |= times.remove( day * 10000, day * 10000 + 9999 ) > 0;
+    for ( Iterator<String> it = scanned.keySet().iterator(); it.hasNext(); ) {
+      if ( it.next().endsWith( yyyymmdd ) )
+        it.remove();
+    }
+    modified |= days.remove( yyyymmdd ) != null;
+    removeEmptyStations();
+  }
+
+  /**
+   * Remove the days that no longer have a RadarDayCollection file. Days after the newest one are kept,
+   * they come from the current day's directory.
+   * @param present days that have a RadarDayCollection file
+   */
+  public synchronized void prune( Set<String> present ) {
+    if ( present.isEmpty() )
+      return;
+    long newest = 0;
+    for ( String day : present )
+      newest = Math.max( newest, Long.parseLong( day ) );
+    int count = 0;
+    for ( Times times : stations.values() )
+      count += times.retain( present, newest );
+    days.keySet().retainAll( present );
+    removeEmptyStations();
+    if ( count > 0 ) {
+      modified = true;
+      log.debug( "prune removed " + count );
+    }
+  }
+
+  private void removeEmptyStations() {
+    for ( Iterator<Times> it = stations.values().iterator(); it.hasNext(); ) {
+      if ( it.next().n == 0 )
+        it.remove();
+    }
+  }
+
+  /**
+   * Bring a station day directory up to date. The directory is only listed when it
+   * has been modified since the last scan, and then replaces what the index had for
+   * the station that day, so deleted files are dropped too.
+   * @param dir the station day directory
+   * @param stn station
+   * @param day yyyymmdd
+   * @param standardName keep only hhmm of the file names
+   * @return number of scans added
+   */
+  public synchronized int scanDay( File dir, String stn, String day, boolean standardName ) {
+    long lastModified = dir.lastModified();
+    if ( lastModified == 0 ) // does not exist
+      return 0;
+    String key = stn + day;
+    Long last = scanned.get( key );
+    if ( last != null && last == lastModified )
+      return 0;
+    String[] children = dir.list();
+    if ( children == null )
+      return 0;
+    Times times = stations.get( stn );
+    if ( times != null ) {
+      long d = Long.parseLong( day );
+      modified |= times.remove( d * 10000, d * 10000 + 9999 ) > 0;
+    }
+    int count = 0;
+    for ( String child : children ) {
+      if ( child.startsWith( "." ) )
+        continue;
+      Matcher m = RadarDatasetCollection.p_yyyymmdd_hhmm.matcher( child );
+      if ( !m.find() )
+        continue;
+      if ( add( stn, day, standardName ? m.group( 1 ) : child ) )
+        count++;
+    }
+    scanned.put( key, lastModified );
+    removeEmptyStations();
+    if ( count > 0 )
+      log.debug( "scanDay " + dir.getPath() + " has " + count );
+    return count;
+  }
+
+  /**
+   * Scans of a station between dateStart and dateEnd inclusive, newest first
+   * @param stn station
+   * @param dateStart yyyymmdd_hhmm
+   * @param dateEnd yyyymmdd_hhmm
+   * @param max maximum number of entries to return
+   * @return list of Entry, empty if none
+   */
+  public synchronized List<Entry> query( String stn, String dateStart, String dateEnd, int max ) {
+    Times times = stations.get( stn );
+    if ( times == null )
+      return Collections.emptyList();
+    int first = times.lowerBound( key( dateStart ) );
+    int last = times.lowerBound( key( dateEnd ) + 1 ) - 1;
+    List<Entry> result = new ArrayList<Entry>( Math.max( 0, Math.min( max, last - first + 1 ) ) );
+    StringBuffer sb = new StringBuffer();
+    for ( int i = last; i >= first && result.size() < max; i-- ) {
+      long t = times.time[ i ];
+      String day = Long.toString( t / 10000 );
+      String name = ( times.name == null ) ? null : times.name[ i ];
+      if ( name == null ) {
+        sb.setLength( 0 );
+        sb.append( t % 10000 + 10000 ).deleteCharAt( 0 ); // zero padded hhmm
+        name = sb.toString();
+      }
+      result.add( new Entry( day, name ) );
+    }
+    return result;
+  }
+
+  /**
+   * @return number of stations in the index
+   */
+  public synchronized int getNumStations() {
+    return stations.size();
+  }
+
+  /**
+   * @return true if changed since it was read or written
+   */
+  public synchronized boolean isModified() {
+    return modified;
+  }
+
+  /**
+   * Write a snapshot of the index, only the complete days are needed to restart
+   * but the scanned current day is kept too, it's replaced when the directory is scanned again.
+   * The index is copied in memory and written without holding its lock, so queries and scans
+   * don't wait for the file.
+   * @param file snapshot file
+   * @return success
+   */
+  public boolean write( File file ) {
+    synchronized ( writeLock ) { // one writer at a time, so an older copy can't replace a newer one
+      TreeMap<String, Long> daysCopy;
+      HashMap<String, Times> stationsCopy = new HashMap<String, Times>();
+      synchronized ( this ) {
+        daysCopy = new TreeMap<String, Long>( days );
+        for ( Map.Entry<String, Times> e : stations.entrySet() )
+          stationsCopy.put( e.getKey(), e.getValue().copy() );
+        modified = false;
+      }
+      if ( write( file, daysCopy, stationsCopy ) )
+        return true;
+      synchronized ( this ) {
+        modified = true;
+      }
+      return false;
+    }
+  }
+
+  private static boolean write( File file, Map<String, Long> days, Map<String, Times> stations ) {
+    File tmp = null;
+    DataOutputStream out = null;
+    try {
+      tmp = File.createTempFile( file.getName(), ".tmp", file.getAbsoluteFile().getParentFile() );
+      out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( tmp ), 64000 ) );
+      out.writeInt( MAGIC );
+      out.writeInt( days.size() );
+      for ( Map.Entry<String, Long> e : days.entrySet() ) {
+        out.writeUTF( e.getKey() );
+        out.writeLong( e.getValue() );
+      }
+      out.writeInt( stations.size() );
+      for ( Map.Entry<String, Times> e : stations.entrySet() ) {
+        Times times = e.getValue();
+        out.writeUTF( e.getKey() );
+        out.writeInt( times.n );
+        for ( int i = 0; i < times.n; i++ )
+          out.writeLong( times.time[ i ] );
+        out.writeBoolean( times.name != null );
+        if ( times.name != null ) {
+          for ( int i = 0; i < times.n; i++ )
+            out.writeUTF( times.name[ i ] == null ? "" : times.name[ i ] );
+        }
+      }
+      out.close();
+      out = null;
+      if ( file.exists() && !file.delete() )
+        throw new IOException( "cant delete " + file.getPath() );
+      if ( !tmp.renameTo( file ) )
+        throw new IOException( "cant rename " + tmp.getPath() );
+      return true;
+    } catch ( IOException ex ) {
+      log.warn( "radarServer writing index " + file.getPath() + " " + ex.getMessage() );
+      return false;
+    } finally {
+      if ( out != null ) {
+        try {
+          out.close();
+        } catch ( IOException e ) {
+          log.debug( "radarServer closing index " + tmp.getPath() );
+        }
+      }
+      if ( tmp != null && tmp.exists() )
+        tmp.delete();
+    }
+  }
+
+  /**
+   * Read a snapshot written by write()
+   * @param file snapshot file
+   * @return the index, or null if missing or unreadable
+   */
+  public static RadarStationIndex read( File file ) {
+    if ( !file.exists() )
+      return null;
+    DataInputStream in = null;
+    try {
+      in = new DataInputStream( new BufferedInputStream( new FileInputStream( file ), 64000 ) );
+      if ( in.readInt() != MAGIC ) {
+        log.warn( "radarServer index " + file.getPath() + " has bad magic number, ignored" );
+        return null;
+      }
+      RadarStationIndex index = new RadarStationIndex();
+      int ndays = in.readInt();
+      for ( int i = 0; i < ndays; i++ ) {
+        String day = in.readUTF();
+        index.days.put( day, in.readLong() );
+      }
+      int nstations = in.readInt();
+      for ( int s = 0; s < nstations; s++ ) {
+        String stn = in.readUTF();
+        int n = in.readInt();
+        Times times = new Times();
+        times.time = new long[ Math.max( n, 64 ) ];
+        for ( int i = 0; i < n; i++ )
+          times.time[ i ] = in.readLong();
+        if ( in.readBoolean() ) {
+          times.name = new String[ times.time.length ];
+          for ( int i = 0; i < n; i++ ) {
+            String name = in.readUTF();
+            times.name[ i ] = ( name.length() == 0 ) ? null : name;
+          }
+        }
+        times.n = n;
+        index.stations.put( stn, times );
+      }
+      return index;
+    } catch ( IOException ex ) {
+      log.warn( "radarServer reading index " + file.getPath() + " " + ex.getMessage() );
+      return null;
+    } finally {
+      if ( in != null ) {
+        try {
+          in.close();
+        } catch ( IOException e ) {
+          log.debug( "radarServer closing index " + file.getPath() );
+        }
+      }
+    }
+  }
+}
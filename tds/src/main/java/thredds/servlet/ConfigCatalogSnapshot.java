@@ -0,0 +1,211 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package thredds.servlet;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary snapshot of the config catalog tree, written after DataRootHandler initializes the catalogs,
+ * and read back on the next startup.
+ * <p/>
+ * For each config catalog we keep its last modified time, the catalogRefs it points to, and the data roots
+ * it declares. A catalog is "deferrable" if it contains nothing else that must be set up at startup
+ * (datasetScan, fmrc, featureCollection, NcML or restricted access datasets). An unchanged deferrable catalog
+ * does not need to be parsed at startup: its roots are replayed from the snapshot, and the catalog itself
+ * is read the first time it is requested.
+ *
+ * @since 10/19/2026
+ */
+class ConfigCatalogSnapshot {
+  static private org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ConfigCatalogSnapshot.class);
+
+  static private final int MAGIC = 0x54445343;
+  static private final int VERSION = 1;
+
+  static class Entry {
+    final String path;           // reletive to content root
+    final long lastModified;     // of the catalog file
+    final boolean deferrable;
+    final List<String> catrefs = new ArrayList<String>(); // catalog paths, in document order
+    final List<String[]> roots = new ArrayList<String[]>(); // {path, location, cache}
+
+    Entry(String path, long lastModified, boolean deferrable) {
+      this.path = path;
+      this.lastModified = lastModified;
+      this.deferrable = deferrable;
+    }
+
+    void addRoot(String path, String location, boolean cache) {
+      roots.add(new String[]{path, location, Boolean.toString(cache)});
+    }
+  }
+
+  private final long configLastModified;
+  private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>();
+
+  /**
+   * Constructor.
+   *
+   * @param configLastModified last modified time of threddsConfig.xml; the snapshot is discarded if it changes
+   */
+  ConfigCatalogSnapshot(long configLastModified) {
+    this.configLastModified = configLastModified;
+  }
+
+  long getConfigLastModified() {
+    return configLastModified;
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  Entry get(String path) {
+    return entries.get(path);
+  }
+
+  void put(Entry entry) {
+    entries.put(entry.path, entry);
+  }
+
+  /**
+   * Find the entry for this catalog, if its usable.
+   *
+   * @param path    catalog path
+   * @param catFile catalog file
+   * @return entry if the catalog is deferrable and has not changed since the snapshot was made, else null
+   */
+  Entry getIfCurrent(String path, File catFile) {
+    Entry e = entries.get(path);
+    if (e == null || !e.deferrable) return null;
+    return (catFile.lastModified() == e.lastModified) ? e : null;
+  }
+
+  /**
+   * Write to a file. Write to a temporary file first, then rename, so readers never see a partial snapshot.
+   *
+   * @param file write to this file
+   * @throws IOException on write error
+   */
+  void write(File file) throws IOException {
+    File dir = file.getParentFile();
+    if (dir != null && !dir.exists() && !dir.mkdirs())
+      throw new IOException("Cant create directory " + dir.getPath());
+
+    File tmp = new File(file.getPath() + ".tmp");
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+    try {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(configLastModified);
+      out.writeInt(entries.size());
+      for (Entry e : entries.values()) {
+        out.writeUTF(e.path);
+        out.writeLong(e.lastModified);
+        out.writeBoolean(e.deferrable);
+        out.writeInt(e.catrefs.size());
+        for (String ref : e.catrefs)
+          out.writeUTF(ref);
+        out.writeInt(e.roots.size());
+        for (String[] root : e.roots) {
+          out.writeUTF(root[0]);
+          out.writeUTF(root[1]);
+          out.writeBoolean(Boolean.parseBoolean(root[2]));
+        }
+      }
+    } finally {
+      out.close();
+    }
+
+    if (file.exists() && !file.delete())
+      throw new IOException("Cant delete old snapshot " + file.getPath());
+    if (!tmp.renameTo(file))
+      throw new IOException("Cant rename " + tmp.getPath() + " to " + file.getPath());
+  }
+
+  /**
+   * Read a snapshot.
+   *
+   * @param file               read from this file
+   * @param configLastModified current last modified time of threddsConfig.xml
+   * @return snapshot, or null if missing, unreadable, or made with a different threddsConfig.xml
+   */
+  static ConfigCatalogSnapshot read(File file, long configLastModified) {
+    if (!file.exists()) return null;
+
+    DataInputStream in = null;
+    try {
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        logger.warn("ConfigCatalogSnapshot: {} is not a valid snapshot", file.getPath());
+        return null;
+      }
+      long configLast = in.readLong();
+      if (configLast != configLastModified) {
+        logger.info("ConfigCatalogSnapshot: config changed since {} was written", file.getPath());
+        return null;
+      }
+
+      ConfigCatalogSnapshot result = new ConfigCatalogSnapshot(configLast);
+      int n = in.readInt();
+      for (int i = 0; i < n; i++) {
+        Entry e = new Entry(in.readUTF(), in.readLong(), in.readBoolean());
+        int nrefs = in.readInt();
+        for (int j = 0; j < nrefs; j++)
+          e.catrefs.add(in.readUTF());
+        int nroots = in.readInt();
+        for (int j = 0; j < nroots; j++)
+          e.addRoot(in.readUTF(), in.readUTF(), in.readBoolean());
+        result.put(e);
+      }
+      return result;
+
+    } catch (IOException ioe) {
+      logger.warn("ConfigCatalogSnapshot: failed to read " + file.getPath(), ioe);
+      return null;
+
+    } finally {
+      if (in != null) {
+        try {
+          in.close();
+        } catch (IOException ioe) {
+          logger.warn("ConfigCatalogSnapshot: error closing " + file.getPath());
+        }
+      }
+    }
+  }
+}
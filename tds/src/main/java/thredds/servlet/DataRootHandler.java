@@ -40,12 +40,21 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.Resource;
 import javax.servlet.ServletException;
@@ -151,12 +160,23 @@ public final class DataRootHandler implements InitializingBean {
   // @GuardedBy("this") LOOK should be able to access without synchronization
   private HashMap<String, InvCatalogImpl> staticCatalogHash; // Hash of static catalogs, key = path
   private Set<String> staticCatalogNames; // Hash of static catalogs, key = path
+  private Set<String> deferredCatalogNames = new HashSet<String>(); // static catalogs not read at startup, key = path
+  private Set<String> deferredNotConfigured = new HashSet<String>(); // deferred catalogs not yet read, key = path
+  private File snapshotFileOverride; // use this snapshot file even if not configured in threddsConfig.xml
+
+  // only used during initCatalogs()
+  private Map<String, InvCatalogImpl> prefetchedCatalogs = Collections.emptyMap(); // parsed in parallel, key = path
+  private ConfigCatalogSnapshot prevSnapshot;  // from last startup, may be null
+  private ConfigCatalogSnapshot snapshot;      // being built, may be null
+
+  private volatile DynamicCatalogCache scanCatalogCache; // catalogs made by datasetScans, may be null
 
   // @GuardedBy("this")
   private HashSet<String> idHash = new HashSet<String>(); // Hash of ids, to look for duplicates
 
-  //  PathMatcher is "effectively immutable"; use volatile for visibilty
+  //  PathMatcher is frozen before it is published; use volatile for visibilty
   private volatile PathMatcher pathMatcher = new PathMatcher(); // collection of DataRoot objects
+  private PathMatcher buildMatcher; // @GuardedBy("this"), DataRoots being added by initCatalogs()
 
   private List<ConfigListener> configListeners = new ArrayList<ConfigListener>();
 
@@ -298,8 +318,7 @@ public final class DataRootHandler implements InitializingBean {
     // cleanup 
     thredds.inventory.bdb.MetadataManager.closeAll();
 
-    // Empty all config catalog information.
-    pathMatcher = new PathMatcher();
+    // Empty all config catalog information. The old data roots are used until the new ones are ready.
     idHash = new HashSet<String>();
 
     DatasetHandler.reinit(); // NcML datasets
@@ -327,22 +346,67 @@ public final class DataRootHandler implements InitializingBean {
     if (!isReinit)
       for (ConfigListener cl : configListeners)
         cl.configStart();
+
+    // reinit starts from scratch, otherwise add to the existing data roots
+    buildMatcher = isReinit ? new PathMatcher() : new PathMatcher(pathMatcher);
     isReinit = false;
 
     staticCache = ThreddsConfig.getBoolean("Catalog.cache", true);  // user can turn off static catalog caching
     startupLog.info("DataRootHandler: staticCache= " + staticCache);
 
+    int scanCacheSize = ThreddsConfig.getInt("Catalog.scanCacheSize", 1000);  // 0 turns off datasetScan catalog caching
+    scanCatalogCache = (scanCacheSize > 0) ? new DynamicCatalogCache(scanCacheSize, ThreddsConfig.getSeconds("Catalog.scanCacheMaxAge", 60)) : null;
+
     this.staticCatalogNames = new HashSet<String>();
     this.staticCatalogHash = new HashMap<String, InvCatalogImpl>();
+    this.deferredCatalogNames = new HashSet<String>();
+    this.deferredNotConfigured = new HashSet<String>();
 
-    for (String path : configCatalogRoots) {
-      try {
-        path = StringUtils.cleanPath(path);
-        logCatalogInit.info("\n**************************************\nCatalog init " + path + "\n[" + CalendarDate.present() + "]");
-        initCatalog(path, true, true);
-      } catch (Throwable e) {
-        logCatalogInit.error(ERROR + "initializing catalog " + path + "; " + e.getMessage(), e);
+    // optionally skip parsing config catalogs that havent changed since the last startup
+    boolean useSnapshot = (snapshotFileOverride != null) || ThreddsConfig.getBoolean("Catalog.snapshot", false);
+    File snapshotFile = (snapshotFileOverride != null) ? snapshotFileOverride :
+            new File(ThreddsConfig.get("Catalog.snapshotFile", tdsContext.getContentDirectory().getPath() + "/cache/catalogInit.snapshot"));
+    if (useSnapshot) {
+      long configLastModified = getConfigLastModified();
+      prevSnapshot = ConfigCatalogSnapshot.read(snapshotFile, configLastModified);
+      snapshot = new ConfigCatalogSnapshot(configLastModified);
+      startupLog.info("DataRootHandler: snapshot= " + snapshotFile.getPath() + " has " + (prevSnapshot == null ? 0 : prevSnapshot.size()) + " catalogs");
+    }
+
+    // optionally parse config catalogs in parallel, then process them in order
+    int nthreads = ThreddsConfig.getInt("Catalog.initThreads", 1);
+    if (nthreads > 1) {
+      long start = System.currentTimeMillis();
+      prefetchedCatalogs = prefetchCatalogs(configCatalogRoots, nthreads);
+      startupLog.info("DataRootHandler: parsed " + prefetchedCatalogs.size() + " catalogs with " + nthreads + " threads in " + (System.currentTimeMillis() - start) + " msecs");
+    }
+
+    try {
+      for (String path : configCatalogRoots) {
+        try {
+          path = StringUtils.cleanPath(path);
+          logCatalogInit.info("\n**************************************\nCatalog init " + path + "\n[" + CalendarDate.present() + "]");
+          initCatalog(path, true, true);
+        } catch (Throwable e) {
+          logCatalogInit.error(ERROR + "initializing catalog " + path + "; " + e.getMessage(), e);
+        }
+      }
+
+      if (snapshot != null) {
+        try {
+          snapshot.write(snapshotFile);
+        } catch (IOException ioe) {
+          logCatalogInit.error(ERROR + "writing catalog snapshot " + snapshotFile.getPath() + "; " + ioe.getMessage());
+        }
       }
+      if (!deferredCatalogNames.isEmpty())
+        startupLog.info("DataRootHandler: deferred reading " + deferredCatalogNames.size() + " unchanged catalogs");
+
+    } finally {
+      prefetchedCatalogs = Collections.emptyMap();
+      prevSnapshot = null;
+      snapshot = null;
+      publishDataRoots();
     }
 
     for (ConfigListener cl : configListeners)
@@ -376,28 +440,33 @@ public final class DataRootHandler implements InitializingBean {
     }
     staticCatalogNames.add(path);
 
-    // read it
-    InvCatalogFactory factory = this.getCatalogFactory(true); // always validate the config catalogs
-    InvCatalogImpl cat = readCatalog(factory, path, f.getPath());
+    // unchanged since the last snapshot, and nothing in it needs to be set up now
+    ConfigCatalogSnapshot.Entry entry = (prevSnapshot == null) ? null : prevSnapshot.getIfCurrent(path, f);
+    if ((entry != null) && (staticCache || !cache)) {
+      initDeferredCatalog(entry, recurse);
+      return;
+    }
+
+    // read it, unless already parsed by prefetchCatalogs()
+    long lastModified = f.lastModified();
+    InvCatalogImpl cat = prefetchedCatalogs.remove(path);
+    if (cat == null) {
+      InvCatalogFactory factory = this.getCatalogFactory(true); // always validate the config catalogs
+      cat = readCatalog(factory, path, f.getPath());
+    }
     if (cat == null) {
       logCatalogInit.error(ERROR + "initCatalog(): failed to read catalog <" + f.getPath() + ">.");
       return;
     }
 
-    // Notify listeners of config catalog.
-    for (ConfigListener cl : configListeners)
-      cl.configCatalog(cat);
+    // Notify listeners of config catalog, check services
+    configCatalog(cat, f.getPath());
 
     // look for datasetRoots
     for (DataRootConfig p : cat.getDatasetRoots()) {
       addRoot(p, true);
     }
 
-    List<String> disallowedServices = AllowableService.checkCatalogServices(cat);
-    if (!disallowedServices.isEmpty()) {
-      logCatalogInit.error(ERROR + "initCatalog(): declared services: " + disallowedServices.toString() + " in catalog: " + f.getPath() + " are disallowed in threddsConfig file");
-    }
-
     // old style - in the service elements    
     for (InvService s : cat.getServices()) {
       for (InvProperty p : s.getDatasetRoots()) {
@@ -419,9 +488,240 @@ public final class DataRootHandler implements InitializingBean {
       if (logCatalogInit.isDebugEnabled()) logCatalogInit.debug("  add static catalog to hash=" + path);
     }
 
+    List<String> catrefs = recurse ? findCatrefPaths(dirPath, cat.getDatasets(), true) : new ArrayList<String>();
+
+    if (snapshot != null) {
+      ConfigCatalogSnapshot.Entry snapEntry = new ConfigCatalogSnapshot.Entry(path, lastModified, isDeferrable(cat.getDatasets()));
+      for (DataRootConfig p : cat.getDatasetRoots())
+        snapEntry.addRoot(p.getName(), p.getValue(), p.isCache());
+      for (InvService s : cat.getServices())
+        for (InvProperty p : s.getDatasetRoots())
+          snapEntry.addRoot(p.getName(), p.getValue(), true);
+      snapEntry.catrefs.addAll(catrefs);
+      snapshot.put(snapEntry);
+    }
+
+    for (String catref : catrefs)
+      initCatalog(catref, true, false);
+  }
+
+  /**
+   * Swap in the data roots made by initCatalogs(). Request counts carry over for roots with the same path.
+   * Only called by synchronized methods.
+   */
+  private void publishDataRoots() {
+    PathMatcher old = pathMatcher;
+    Iterator iter = buildMatcher.iterator();
+    while (iter.hasNext()) {
+      DataRoot droot = (DataRoot) iter.next();
+      DataRoot oldRoot = (DataRoot) old.get(droot.path);
+      if (oldRoot != null && oldRoot != droot)
+        droot.requestCount.addAndGet(oldRoot.requestCount.get());
+    }
+
+    buildMatcher.freeze();
+    pathMatcher = buildMatcher;
+    buildMatcher = null;
+    startupLog.info("DataRootHandler: " + pathMatcher.size() + " data roots");
+  }
+
+  /**
+   * Use the snapshot of a config catalog instead of reading it. Add its data roots, and
+   * remember that it must be read on first request.
+   * Only called by synchronized methods.
+   *
+   * @param entry   snapshot of the catalog
+   * @param recurse if true, follow its catRefs
+   * @throws IOException if reading a referenced catalog fails
+   */
+  private void initDeferredCatalog(ConfigCatalogSnapshot.Entry entry, boolean recurse) throws IOException {
+    if (logCatalogInit.isDebugEnabled()) logCatalogInit.debug("  catalog " + entry.path + " unchanged since snapshot, defer reading");
+    deferredCatalogNames.add(entry.path);
+    deferredNotConfigured.add(entry.path);
+
+    for (String[] root : entry.roots)
+      addRoot(new DataRootConfig(root[0], root[1], root[2]), true);
+
+    if (snapshot != null)
+      snapshot.put(entry);
+
     if (recurse) {
-      initFollowCatrefs(dirPath, cat.getDatasets());
+      for (String catref : entry.catrefs)
+        initCatalog(catref, true, false);
+    }
+  }
+
+  /**
+   * A deferred catalog has been read for the first time: do what initCatalog() does for the catalogs it reads.
+   * Notify listeners, check services and look for duplicate ids. The data roots were added from the snapshot,
+   * and a deferred catalog has no special datasets.
+   * Only called by synchronized methods.
+   *
+   * @param cat             the catalog
+   * @param catalogFullPath absolute location on disk
+   */
+  private void configDeferredCatalog(InvCatalogImpl cat, String catalogFullPath) {
+    configCatalog(cat, catalogFullPath);
+    configDatasets(cat.getDatasets());
+  }
+
+  private void configDatasets(List<InvDataset> dsList) {
+    for (InvDataset ds : dsList) {
+      configDataset((InvDatasetImpl) ds);
+      if (!(ds instanceof InvCatalogRef))
+        configDatasets(ds.getDatasets());
+    }
+  }
+
+  /**
+   * Notify listeners of a config catalog, and check that its services are allowed.
+   * Only called by synchronized methods.
+   *
+   * @param cat             the catalog
+   * @param catalogFullPath absolute location on disk
+   */
+  private void configCatalog(InvCatalogImpl cat, String catalogFullPath) {
+    for (ConfigListener cl : configListeners)
+      cl.configCatalog(cat);
+
+    List<String> disallowedServices = AllowableService.checkCatalogServices(cat);
+    if (!disallowedServices.isEmpty()) {
+      logCatalogInit.error(ERROR + "initCatalog(): declared services: " + disallowedServices.toString() + " in catalog: " + catalogFullPath + " are disallowed in threddsConfig file");
+    }
+  }
+
+  /**
+   * Look for a duplicate id, and notify listeners of a config dataset.
+   * Only called by synchronized methods.
+   *
+   * @param invDataset the dataset
+   */
+  private void configDataset(InvDatasetImpl invDataset) {
+    String id = invDataset.getUniqueID();
+    if (id != null) {
+      if (idHash.contains(id)) {
+        logCatalogInit.error(ERROR + "Duplicate id on  '" + invDataset.getFullName() + "' id= '" + id + "'");
+      } else {
+        idHash.add(id);
+      }
+    }
+
+    for (ConfigListener cl : configListeners)
+      cl.configDataset(invDataset);
+  }
+
+  /**
+   * Use a catalog snapshot in this file, even if Catalog.snapshot is not set in threddsConfig.xml.
+   * Used for testing.
+   *
+   * @param snapshotFile the snapshot file, or null to use threddsConfig.xml
+   */
+  void setSnapshotFile(File snapshotFile) {
+    this.snapshotFileOverride = snapshotFile;
+  }
+
+  /**
+   * A catalog can be deferred if it has nothing that must be set up at startup:
+   * datasetScan, datasetFmrc, featureCollection, NcML or restricted access datasets. Dont follow catRefs.
+   *
+   * @param dsList the list of InvDatasetImpl
+   * @return true if reading the containing catalog can be deferred until it is requested
+   */
+  private boolean isDeferrable(List<InvDataset> dsList) {
+    for (InvDataset ds : dsList) {
+      if ((ds instanceof InvDatasetScan) || (ds instanceof InvDatasetFmrc) || (ds instanceof InvDatasetFeatureCollection))
+        return false;
+      InvDatasetImpl invDataset = (InvDatasetImpl) ds;
+      if ((invDataset.getNcmlElement() != null) || (invDataset.getRestrictAccess() != null))
+        return false;
+      if (!(ds instanceof InvCatalogRef) && !isDeferrable(ds.getDatasets()))
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Parse the config catalogs in parallel, following catRefs as each catalog is parsed.
+   * Catalogs that are unchanged since the last snapshot are not parsed.
+   * Only called by synchronized methods.
+   *
+   * @param configCatalogRoots start from these catalogs
+   * @param nthreads           number of threads to use
+   * @return parsed catalogs, key = path
+   */
+  private Map<String, InvCatalogImpl> prefetchCatalogs(List<String> configCatalogRoots, int nthreads) {
+    Map<String, InvCatalogImpl> result = new HashMap<String, InvCatalogImpl>();
+    Set<String> seen = new HashSet<String>();
+    LinkedList<String> todo = new LinkedList<String>(configCatalogRoots);
+
+    ExecutorService pool = Executors.newFixedThreadPool(nthreads);
+    CompletionService<CatalogReader> completionService = new ExecutorCompletionService<CatalogReader>(pool);
+    int pending = 0;
+    try {
+      while (true) {
+        while (!todo.isEmpty()) {
+          String path = StringUtils.cleanPath(todo.removeFirst());
+          if (!seen.add(path)) continue;
+          File f = this.tdsContext.getConfigFileSource().getFile(path);
+          if (f == null) continue; // initCatalog will complain
+
+          ConfigCatalogSnapshot.Entry entry = (prevSnapshot == null) ? null : prevSnapshot.getIfCurrent(path, f);
+          if (entry != null) {
+            todo.addAll(entry.catrefs);
+            continue;
+          }
+          completionService.submit(new CatalogReader(path, f.getPath()));
+          pending++;
+        }
+        if (pending == 0) break;
+
+        CatalogReader reader;
+        try {
+          reader = completionService.take().get();
+        } catch (ExecutionException e) {
+          logCatalogInit.error(ERROR + "prefetchCatalogs(): " + e.getMessage(), e.getCause());
+          continue;
+        } finally {
+          pending--;
+        }
+        if (reader.cat == null) continue; // initCatalog will try again and complain
+
+        result.put(reader.path, reader.cat);
+        int pos = reader.path.lastIndexOf("/");
+        String dirPath = (pos > 0) ? reader.path.substring(0, pos + 1) : "";
+        todo.addAll(findCatrefPaths(dirPath, reader.cat.getDatasets(), false));
+      }
+
+    } catch (InterruptedException e) {
+      logCatalogInit.warn("prefetchCatalogs(): interrupted");
+      Thread.currentThread().interrupt();
+
+    } finally {
+      pool.shutdownNow();
+    }
+
+    return result;
+  }
+
+  private class CatalogReader implements Callable<CatalogReader> {
+    final String path, catalogFullPath;
+    InvCatalogImpl cat;
+
+    CatalogReader(String path, String catalogFullPath) {
+      this.path = path;
+      this.catalogFullPath = catalogFullPath;
     }
+
+    public CatalogReader call() {
+      // InvCatalogFactory is not thread safe, so use one per catalog
+      cat = readCatalog(getCatalogFactory(true), path, catalogFullPath);
+      return this;
+    }
+  }
+
+  private long getConfigLastModified() {
+    File f = this.tdsContext.getConfigFileSource().getFile(this.tdsContext.getTdsConfigFileName());
+    return (f == null) ? 0 : f.lastModified();
   }
   
   /*private void checkServices(InvService service, String path ){
@@ -516,19 +816,8 @@ public final class DataRootHandler implements InitializingBean {
     while (iter.hasNext()) {
       InvDatasetImpl invDataset = (InvDatasetImpl) iter.next();
 
-      // look for duplicate ids
-      String id = invDataset.getUniqueID();
-      if (id != null) {
-        if (idHash.contains(id)) {
-          logCatalogInit.error(ERROR + "Duplicate id on  '" + invDataset.getFullName() + "' id= '" + id + "'");
-        } else {
-          idHash.add(id);
-        }
-      }
-
-      // Notify listeners of config datasets.
-      for (ConfigListener cl : configListeners)
-        cl.configDataset(invDataset);
+      // look for duplicate ids, notify listeners of config datasets
+      configDataset(invDataset);
 
       if (invDataset instanceof InvDatasetScan) {
         InvDatasetScan ds = (InvDatasetScan) invDataset;
@@ -564,8 +853,21 @@ public final class DataRootHandler implements InitializingBean {
     return needsCache;
   }
 
-  // Only called by synchronized methods
-  private void initFollowCatrefs(String dirPath, List<InvDataset> datasets) throws IOException {
+  /**
+   * Find the config catalogs referenced by catRefs, in document order.
+   *
+   * @param dirPath  directory of the containing catalog, reletive to the contentPath
+   * @param datasets look in these datasets
+   * @param wantErr  log skipped catRefs
+   * @return catalog paths, reletive to the contentPath
+   */
+  private List<String> findCatrefPaths(String dirPath, List<InvDataset> datasets, boolean wantErr) {
+    List<String> result = new ArrayList<String>();
+    findCatrefPaths(dirPath, datasets, wantErr, result);
+    return result;
+  }
+
+  private void findCatrefPaths(String dirPath, List<InvDataset> datasets, boolean wantErr, List<String> result) {
     for (InvDataset invDataset : datasets) {
 
       if ((invDataset instanceof InvCatalogRef) && !(invDataset instanceof InvDatasetScan) && !(invDataset instanceof InvDatasetFmrc)
@@ -587,19 +889,19 @@ public final class DataRootHandler implements InitializingBean {
             path = href.substring(contextPathPlus.length()); // absolute starting from content root
           } else if (href.startsWith("/")) {
             // Drop the catRef because it points to a non-TDS served catalog.
-            logCatalogInit.error(ERROR + "Skipping catalogRef <xlink:href=" + href + ">. Reference is relative to the server outside the context path [" + contextPathPlus + "]. " +
+            if (wantErr) logCatalogInit.error(ERROR + "Skipping catalogRef <xlink:href=" + href + ">. Reference is relative to the server outside the context path [" + contextPathPlus + "]. " +
                     "Parent catalog info: Name=\"" + catref.getParentCatalog().getName() + "\"; Base URI=\"" + catref.getParentCatalog().getUriString() + "\"; dirPath=\"" + dirPath + "\".");
             continue;
           } else {
             path = dirPath + href;  // reletive starting from current directory
           }
 
-          initCatalog(path, true, false);
+          result.add(path);
         }
 
       } else if (!(invDataset instanceof InvDatasetScan) && !(invDataset instanceof InvDatasetFmrc) && !(invDataset instanceof InvDatasetFeatureCollection)) {
         // recurse through nested datasets
-        initFollowCatrefs(dirPath, invDataset.getDatasets());
+        findCatrefPaths(dirPath, invDataset.getDatasets(), wantErr, result);
       }
     }
   }
@@ -614,7 +916,7 @@ public final class DataRootHandler implements InitializingBean {
       return false;
     }
 
-    DataRoot droot = (DataRoot) pathMatcher.get(path);
+    DataRoot droot = (DataRoot) buildMatcher.get(path);
     if (droot != null) {
       if (!droot.dirLocation.equals(dscan.getScanLocation())) {
         logCatalogInit.error(ERROR + "DatasetScan already have dataRoot =<" + path + ">  mapped to directory= <" + droot.dirLocation + ">" +
@@ -632,7 +934,7 @@ public final class DataRootHandler implements InitializingBean {
 
     // add it
     droot = new DataRoot(dscan);
-    pathMatcher.put(path, droot);
+    buildMatcher.put(path, droot);
 
     logCatalogInit.debug(" added rootPath=<" + path + ">  for directory= <" + dscan.getScanLocation() + ">");
     return true;
@@ -648,7 +950,7 @@ public final class DataRootHandler implements InitializingBean {
       return false;
     }
 
-    DataRoot droot = (DataRoot) pathMatcher.get(path);
+    DataRoot droot = (DataRoot) buildMatcher.get(path);
     if (droot != null) {
       logCatalogInit.error(ERROR + "DatasetFmrc already have dataRoot =<" + path + ">  mapped to directory= <" + droot.dirLocation + ">" +
               " wanted to use by FMRC Dataset =<" + fmrc.getFullName() + ">");
@@ -666,7 +968,7 @@ public final class DataRootHandler implements InitializingBean {
       }
     }
 
-    pathMatcher.put(path, droot);
+    buildMatcher.put(path, droot);
 
     logCatalogInit.debug(" added rootPath=<" + path + ">  for fmrc= <" + fmrc.getFullName() + ">");
     return true;
@@ -704,7 +1006,7 @@ public final class DataRootHandler implements InitializingBean {
       return false;
     }
 
-    DataRoot droot = (DataRoot) pathMatcher.get(path);
+    DataRoot droot = (DataRoot) buildMatcher.get(path);
     if (droot != null) {
       logCatalogInit.error(ERROR + "FeatureCollection already have dataRoot =<" + path + ">  mapped to directory= <" + droot.dirLocation + ">" +
               " wanted to use by FeatureCollection Dataset =<" + fc.getName() + ">");
@@ -722,7 +1024,7 @@ public final class DataRootHandler implements InitializingBean {
       }
     }
 
-    pathMatcher.put(path, droot);
+    buildMatcher.put(path, droot);
     logCatalogInit.debug(" added rootPath=<" + path + ">  for feature collection= <" + fc.getFullName() + ">");
     return true;
   }
@@ -730,7 +1032,7 @@ public final class DataRootHandler implements InitializingBean {
   // Only called by synchronized methods
   private boolean addRoot(String path, String dirLocation, boolean wantErr) {
     // check for duplicates
-    DataRoot droot = (DataRoot) pathMatcher.get(path);
+    DataRoot droot = (DataRoot) buildMatcher.get(path);
     if (droot != null) {
       if (wantErr)
         logCatalogInit.error(ERROR + "already have dataRoot =<" + path + ">  mapped to directory= <" + droot.dirLocation + ">" +
@@ -747,7 +1049,7 @@ public final class DataRootHandler implements InitializingBean {
 
     // add it
     droot = new DataRoot(path, dirLocation, true);
-    pathMatcher.put(path, droot);
+    buildMatcher.put(path, droot);
 
     logCatalogInit.debug(" added rootPath=<" + path + ">  for directory= <" + dirLocation + ">");
     return true;
@@ -758,7 +1060,7 @@ public final class DataRootHandler implements InitializingBean {
     String path = config.getName();
     String location = config.getValue();
     // check for duplicates
-    DataRoot droot = (DataRoot) pathMatcher.get(path);
+    DataRoot droot = (DataRoot) buildMatcher.get(path);
     if (droot != null) {
       if (wantErr)
         logCatalogInit.error(ERROR + "DataRootConfig already have dataRoot =<" + path + ">  mapped to directory= <" + droot.dirLocation + ">" +
@@ -775,7 +1077,7 @@ public final class DataRootHandler implements InitializingBean {
 
     // add it
     droot = new DataRoot(path, location, config.isCache());
-    pathMatcher.put(path, droot);
+    buildMatcher.put(path, droot);
 
     logCatalogInit.debug(" added rootPath=<" + path + ">  for directory= <" + location + ">");
     return true;
@@ -797,6 +1099,7 @@ public final class DataRootHandler implements InitializingBean {
     InvDatasetFmrc fmrc; // the InvDatasetFmrc that created this (may be null)
     InvDatasetFeatureCollection featCollection; // the InvDatasetFeatureCollection that created this (may be null)
     boolean cache = true;
+    final AtomicLong requestCount = new AtomicLong(); // number of requests matched to this root
 
     // Use this to access CrawlableDataset in dirLocation.
     // I.e., used by datasets that reference a <datasetRoot>
@@ -845,6 +1148,10 @@ public final class DataRootHandler implements InitializingBean {
     }
 
 
+    public long getRequestCount() {
+      return requestCount.get();
+    }
+
     // used by PathMatcher
     public String toString() {
       return path;
@@ -907,6 +1214,7 @@ public final class DataRootHandler implements InitializingBean {
     DataRoot dataRoot = findDataRoot(spath);
     if (dataRoot == null)
       return null;
+    dataRoot.requestCount.incrementAndGet();
 
     DataRootMatch match = new DataRootMatch();
     match.rootPath = dataRoot.path;
@@ -1254,7 +1562,7 @@ public final class DataRootHandler implements InitializingBean {
 
     // Check for static catalog.
     synchronized (this) {
-      if (staticCatalogHash.containsKey(workPath))
+      if (staticCatalogHash.containsKey(workPath) || deferredCatalogNames.contains(workPath))
         return true;
     }
 
@@ -1360,6 +1668,9 @@ public final class DataRootHandler implements InitializingBean {
    * <p/>
    * The validity of the returned catalog is not guaranteed. Use InvCatalog.check() to
    * check that the catalog is valid.
+   * <p/>
+   * Static catalogs and cached datasetScan catalogs are shared between requests, so the
+   * returned catalog must not be modified.
    *
    * @param path    the path for the requested catalog.
    * @param baseURI the base URI for the catalog, used to resolve relative URLs.
@@ -1383,6 +1694,9 @@ public final class DataRootHandler implements InitializingBean {
 
     } else if (!staticCache) {
       reread = staticCatalogNames.contains(workPath); // see if we know if its a static catalog
+
+    } else {
+      reread = deferredCatalogNames.contains(workPath); // a static catalog not read at startup
     }
 
     // its a static catalog that needs to be read
@@ -1403,6 +1717,10 @@ public final class DataRootHandler implements InitializingBean {
               staticCatalogHash.put(workPath, reReadCat);
             }
           }
+          synchronized (this) { // first read of a catalog deferred at startup
+            if (deferredNotConfigured.remove(workPath))
+              configDeferredCatalog(reReadCat, catalogFullPath);
+          }
         }
 
       } else {
@@ -1428,6 +1746,27 @@ public final class DataRootHandler implements InitializingBean {
     return catalog;
   }
 
+  /**
+   * Get the cache entry for a catalog generated by a datasetScan, so its serialized form can be reused.
+   * Call after getCatalog(), and check that the entry has the same catalog that was returned.
+   *
+   * @param path    the path for the requested catalog.
+   * @param baseURI the base URI for the catalog.
+   * @return the cache entry, or null if not cached
+   */
+  public DynamicCatalogCache.Entry getCachedCatalog(String path, URI baseURI) {
+    DynamicCatalogCache cache = scanCatalogCache;
+    if (cache == null || path == null)
+      return null;
+    if (path.startsWith("/"))
+      path = path.substring(1);
+    return cache.get(makeCacheKey(path, baseURI));
+  }
+
+  private String makeCacheKey(String path, URI baseURI) {
+    return path + " " + baseURI;
+  }
+
   private InvCatalogImpl makeDynamicCatalog(String path, URI baseURI) {
     String workPath = path;
 
@@ -1460,8 +1799,10 @@ public final class DataRootHandler implements InitializingBean {
     }
 
     // Check that path is allowed, ie not filtered out
+    CrawlableDataset crDs;
     try {
-      if (getCrawlableDataset(workPath) == null)
+      crDs = getCrawlableDataset(workPath);
+      if (crDs == null)
         return null;
     } catch (IOException e) {
       log.error("makeDynamicCatalog(): I/O error on request <" + path + ">: " + e.getMessage(), e);
@@ -1476,6 +1817,16 @@ public final class DataRootHandler implements InitializingBean {
 
     if (path.endsWith("/latest.xml")) return null; // latest is not handled here
 
+    // reuse the catalog if the directory hasnt changed
+    DynamicCatalogCache cache = scanCatalogCache;
+    Date lastModified = crDs.lastModified();
+    String cacheKey = makeCacheKey(path, baseURI);
+    if (cache != null && lastModified != null) {
+      DynamicCatalogCache.Entry entry = cache.get(cacheKey, lastModified.getTime());
+      if (entry != null)
+        return entry.getCatalog();
+    }
+
     InvDatasetScan dscan = match.dataRoot.scan;
     if (log.isDebugEnabled())
       log.debug("makeDynamicCatalog(): Calling makeCatalogForDirectory( " + baseURI + ", " + path + ").");
@@ -1483,6 +1834,8 @@ public final class DataRootHandler implements InitializingBean {
 
     if (null == cat) {
       log.error("makeDynamicCatalog(): makeCatalogForDirectory failed = " + workPath);
+    } else if (cache != null && lastModified != null) {
+      cache.put(cacheKey, lastModified.getTime(), cat);
     }
 
     return cat;
@@ -1775,7 +2128,7 @@ public final class DataRootHandler implements InitializingBean {
           Iterator iter = pathMatcher.iterator();
           while (iter.hasNext()) {
             DataRoot ds = (DataRoot) iter.next();
-            e.pw.print(" <b>" + ds.path + "</b>");
+            e.pw.print(" <b>" + ds.path + "</b> (" + ds.getRequestCount() + " requests)");
             String url = DataRootHandler.this.tdsContext.getContextPath() + "/admin/dataDir/" + ds.path + "/";
             if (ds.fmrc == null) {
               String type = (ds.scan == null) ? "root" : "scan";
@@ -1872,6 +2225,8 @@ public final class DataRootHandler implements InitializingBean {
 
     /**
      * Recieve notification on the inclusion of a configuration catalog.
+     * With Catalog.snapshot, a catalog unchanged since the last startup is not read until it is first requested;
+     * this and configDataset() are called for it then, which may be after configEnd().
      *
      * @param catalog the catalog being included in configuration.
      */
@@ -0,0 +1,190 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package thredds.servlet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import thredds.catalog.InvCatalogFactory;
+import thredds.catalog.InvCatalogImpl;
+import ucar.nc2.constants.CDM;
+
+/**
+ * LRU cache of catalogs generated by a datasetScan, along with their serialized XML and HTML.
+ * An entry is valid as long as the scanned directory has the same last modified time, and the entry
+ * is younger than maxAge (which catches changes that dont touch the directory, like a growing file).
+ * <p/>
+ * A cached InvCatalogImpl is shared by all requests for it, so it must be treated as read-only.
+ * Use DeepCopyUtils to make a modified copy.
+ *
+ * @since 10/19/2026
+ */
+public class DynamicCatalogCache {
+
+  public static class Entry {
+    private final String key;
+    private final long lastModified; // of the scanned directory
+    private final long created;
+    private final InvCatalogImpl catalog;
+    private volatile byte[] xml, html; // serialized on first use
+
+    Entry(String key, long lastModified, InvCatalogImpl catalog) {
+      this.key = key;
+      this.lastModified = lastModified;
+      this.created = System.currentTimeMillis();
+      this.catalog = catalog;
+    }
+
+    /**
+     * @return the cached catalog, shared with other requests: do not modify
+     */
+    public InvCatalogImpl getCatalog() {
+      return catalog;
+    }
+
+    /**
+     * @return last modified time of the directory the catalog was generated from
+     */
+    public long getLastModified() {
+      return lastModified;
+    }
+
+    /**
+     * The catalog may have changed without the directory changing, so use this for Last-Modified and If-Modified-Since.
+     *
+     * @return the later of the directory last modified time and the time the catalog was generated
+     */
+    public long getLastChanged() {
+      return Math.max(lastModified, created);
+    }
+
+    /**
+     * A strong entity tag; changes whenever the catalog is regenerated.
+     *
+     * @return quoted ETag value
+     */
+    public String getETag() {
+      return "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(created) + "-" + Integer.toHexString(key.hashCode()) + "\"";
+    }
+
+    public byte[] getXml() throws IOException {
+      if (xml == null) {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(10000);
+        InvCatalogFactory.getDefaultFactory(false).writeXML(catalog, bos);
+        xml = bos.toByteArray();
+      }
+      return xml;
+    }
+
+    public byte[] getHtml(HtmlWriter htmlWriter) {
+      if (html == null)
+        html = htmlWriter.convertCatalogToHtml(catalog, true).getBytes(CDM.utf8Charset);
+      return html;
+    }
+  }
+
+  ////////////////////////////////////////////////////////////////////////
+
+  private final long maxAgeMsecs;
+  private final LinkedHashMap<String, Entry> map; // @GuardedBy("this")
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Constructor.
+   *
+   * @param maxEntries  keep at most this many catalogs, least recently used are discarded
+   * @param maxAgeSecs  regenerate catalogs older than this, even if the directory has not changed
+   */
+  public DynamicCatalogCache(final int maxEntries, int maxAgeSecs) {
+    this.maxAgeMsecs = 1000L * maxAgeSecs;
+    this.map = new LinkedHashMap<String, Entry>(Math.min(maxEntries, 1000), .75f, true) {
+      protected boolean removeEldestEntry(Map.Entry<String, DynamicCatalogCache.Entry> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  /**
+   * Find a valid catalog.
+   *
+   * @param key          identifies the catalog, eg request path and base URI
+   * @param lastModified current last modified time of the scanned directory
+   * @return entry, or null if not found or no longer valid
+   */
+  public synchronized Entry get(String key, long lastModified) {
+    Entry e = map.get(key);
+    if (e != null && (e.lastModified != lastModified || System.currentTimeMillis() - e.created > maxAgeMsecs)) {
+      map.remove(key);
+      e = null;
+    }
+    if (e == null) misses.incrementAndGet();
+    else hits.incrementAndGet();
+    return e;
+  }
+
+  /**
+   * Find a catalog without checking it is still valid.
+   *
+   * @param key identifies the catalog
+   * @return entry, or null if not found
+   */
+  public synchronized Entry get(String key) {
+    return map.get(key);
+  }
+
+  public synchronized Entry put(String key, long lastModified, InvCatalogImpl catalog) {
+    Entry e = new Entry(key, lastModified, catalog);
+    map.put(key, e);
+    return e;
+  }
+
+  public synchronized void clear() {
+    map.clear();
+  }
+
+  public synchronized int size() {
+    return map.size();
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+}
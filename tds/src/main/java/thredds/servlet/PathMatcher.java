@@ -41,23 +41,68 @@ import java.util.*;
  * match( String path) returns the Object whose key is the longest that matches path.
  * Match means that path.startsWith( key).
  *
- * Matching is thread-safe, as long as put() is no longer being called.
+ * The keys are also kept in a trie of path segments (separated by '/'), so match() takes time proportional to
+ * the depth of the path, not the number of keys.
+ *
+ * Matching is thread-safe, as long as put() is no longer being called. Call freeze() before publishing,
+ * to make sure of that.
  */
 public class PathMatcher {
 
   private final TreeMap<String, Object> treeMap;
+  private final Node root = new Node();
+  private boolean frozen;
 
   public PathMatcher() {
     treeMap = new TreeMap<String, Object>( new PathComparator());
   }
 
+  /**
+   * Make a copy, which is not frozen.
+   * @param from copy all the keys and values from here
+   */
+  public PathMatcher(PathMatcher from) {
+    this();
+    for (Map.Entry<String, Object> entry : from.treeMap.entrySet())
+      put(entry.getKey(), entry.getValue());
+  }
+
   /**
    * Add an object to the collection to be searched by a String key.
    * @param key sort key
    * @param value add this object to the list to be searched.
+   * @throws IllegalStateException if frozen
    */
   public void put(String key, Object value) {
-    treeMap.put( key, value == null ? key : value);
+    if (frozen) throw new IllegalStateException("PathMatcher is frozen");
+    if (value == null) value = key;
+    treeMap.put( key, value);
+
+    Node parent = null;
+    Node node = root;
+    String segment = null;
+    int start = 0;
+    while (true) {
+      int pos = key.indexOf('/', start);
+      segment = (pos < 0) ? key.substring(start) : key.substring(start, pos);
+      parent = node;
+      node = parent.addChild(segment);
+      if (pos < 0) break;
+      start = pos + 1;
+    }
+    node.value = value;
+    parent.addTerminal(segment, node);
+  }
+
+  /**
+   * No more calls to put() are allowed.
+   */
+  public void freeze() {
+    frozen = true;
+  }
+
+  public int size() {
+    return treeMap.size();
   }
 
   /**
@@ -83,25 +128,66 @@ public class PathMatcher {
    * @return the value whose key is the longest that matches path, or null if none
    */
   public Object match( String path) {
-    SortedMap<String, Object> tail = treeMap.tailMap( path);
-    if (tail.isEmpty()) return null;
-    String after = tail.firstKey();
-    //System.out.println("  "+path+"; after="+afterPath);
-    if (path.startsWith( after)) // common case
-      return treeMap.get( after);
-
-    // have to check more, until no common starting chars
-    for (String key : tail.keySet()) {
-      if (path.startsWith(key))
-        return treeMap.get(key);
-      // terminate when theres no match at all.
-      if (StringUtil2.match(path, key) == 0)
-        break;
+    Object result = null;
+    Node node = root;
+    int start = 0;
+    while (true) {
+      int pos = path.indexOf('/', start);
+      String segment = (pos < 0) ? path.substring(start) : path.substring(start, pos);
+
+      // a key that ends inside this segment is longer than any found so far
+      if (node.terminals != null) {
+        Object partial = node.matchTerminal(segment);
+        if (partial != null) result = partial;
+      }
+
+      // a key that contains all of this segment is longer still
+      node = (node.children == null) ? null : node.children.get(segment);
+      if (node == null) break;
+      if (node.value != null) result = node.value;
+      if (pos < 0) break;
+      start = pos + 1;
     }
-
-    return null;
+    return result;
   }
 
+  // one path segment in the trie
+  private class Node {
+    Object value;                    // if a key ends here
+    HashMap<String, Node> children;  // key = next segment
+    TreeMap<String, Node> terminals; // children that have a value, reverse sorted
+
+    Node addChild(String segment) {
+      if (children == null) children = new HashMap<String, Node>(4);
+      Node child = children.get(segment);
+      if (child == null) {
+        child = new Node();
+        children.put(segment, child);
+      }
+      return child;
+    }
+
+    void addTerminal(String segment, Node child) {
+      if (terminals == null) terminals = new TreeMap<String, Node>( new PathComparator());
+      terminals.put(segment, child);
+    }
+
+    // longest terminal segment that the given segment starts with
+    Object matchTerminal(String segment) {
+      SortedMap<String, Node> tail = terminals.tailMap( segment);
+      for (Map.Entry<String, Node> entry : tail.entrySet()) {
+        String key = entry.getKey();
+        if (segment.startsWith(key))
+          return entry.getValue().value;
+        // terminate when theres no match at all.
+        if (StringUtil2.match(segment, key) == 0)
+          break;
+      }
+      // empty segment (key ends with '/') sorts last but matches everything
+      Node empty = terminals.get("");
+      return (empty == null) ? null : empty.value;
+    }
+  }
 
   private class PathComparator implements Comparator<String> {
     public int compare(String s1, String s2) {
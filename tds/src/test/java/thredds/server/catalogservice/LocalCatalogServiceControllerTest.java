@@ -37,6 +37,13 @@ import org.junit.Before;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 
+import javax.servlet.http.HttpServletResponse;
+
+import thredds.catalog.InvCatalogImpl;
+import thredds.servlet.DynamicCatalogCache;
+
+import static org.junit.Assert.*;
+
 /**
  * _more_
  *
@@ -57,6 +64,94 @@ public class LocalCatalogServiceControllerTest
     
   }
 
+  private DynamicCatalogCache.Entry makeEntry( DynamicCatalogCache cache, long lastModified )
+  {
+    return cache.put( "scan/catalog.xml", lastModified, new InvCatalogImpl( "scan", "1.0.1", null ) );
+  }
+
+  @Test
+  public void cachedCatalogWrittenWithETag()
+          throws Exception
+  {
+    DynamicCatalogCache.Entry entry = makeEntry( new DynamicCatalogCache( 10, 60 ), 100000L );
+
+    new LocalCatalogServiceController().writeCachedCatalog( this.request, this.response, entry );
+
+    assertEquals( HttpServletResponse.SC_OK, this.response.getStatus() );
+    assertEquals( entry.getETag(), this.response.getHeader( "ETag" ) );
+    assertEquals( entry.getLastChanged(), this.response.getHeader( "Last-Modified" ) );
+    assertEquals( "application/xml", this.response.getContentType() );
+    assertArrayEquals( entry.getXml(), this.response.getContentAsByteArray() );
+  }
+
+  @Test
+  public void cachedCatalogNotModified()
+          throws Exception
+  {
+    DynamicCatalogCache.Entry entry = makeEntry( new DynamicCatalogCache( 10, 60 ), 100000L );
+
+    // matching ETag
+    this.request.addHeader( "If-None-Match", entry.getETag() );
+    new LocalCatalogServiceController().writeCachedCatalog( this.request, this.response, entry );
+    assertEquals( HttpServletResponse.SC_NOT_MODIFIED, this.response.getStatus() );
+    assertEquals( entry.getETag(), this.response.getHeader( "ETag" ) );
+    assertEquals( 0, this.response.getContentAsByteArray().length );
+
+    // not modified since
+    basicSetup();
+    this.request.addHeader( "If-Modified-Since", entry.getLastChanged() );
+    new LocalCatalogServiceController().writeCachedCatalog( this.request, this.response, entry );
+    assertEquals( HttpServletResponse.SC_NOT_MODIFIED, this.response.getStatus() );
+    assertEquals( 0, this.response.getContentAsByteArray().length );
+  }
+
+  @Test
+  public void staleCachedCatalogRewritten()
+          throws Exception
+  {
+    // the client has the catalog from before the directory changed
+    DynamicCatalogCache cache = new DynamicCatalogCache( 10, 60 );
+    DynamicCatalogCache.Entry old = makeEntry( cache, 100000L );
+    assertNull( cache.get( "scan/catalog.xml", 200000L ) );
+    Thread.sleep( 5 );
+    DynamicCatalogCache.Entry current = makeEntry( cache, 200000L );
+    assertFalse( old.getETag().equals( current.getETag() ) );
+
+    this.request.addHeader( "If-None-Match", old.getETag() );
+    new LocalCatalogServiceController().writeCachedCatalog( this.request, this.response, current );
+    assertEquals( HttpServletResponse.SC_OK, this.response.getStatus() );
+    assertEquals( current.getETag(), this.response.getHeader( "ETag" ) );
+    assertArrayEquals( current.getXml(), this.response.getContentAsByteArray() );
+
+    basicSetup();
+    this.request.addHeader( "If-Modified-Since", 100000L );
+    new LocalCatalogServiceController().writeCachedCatalog( this.request, this.response, current );
+    assertEquals( HttpServletResponse.SC_OK, this.response.getStatus() );
+    assertArrayEquals( current.getXml(), this.response.getContentAsByteArray() );
+  }
+
+  @Test
+  public void regeneratedCatalogModifiedSince()
+          throws Exception
+  {
+    // maxAge 0: the entry is regenerated although the directory has not changed, eg a file in it has grown
+    DynamicCatalogCache cache = new DynamicCatalogCache( 10, 0 );
+    DynamicCatalogCache.Entry old = makeEntry( cache, 100000L );
+    new LocalCatalogServiceController().writeCachedCatalog( this.request, this.response, old );
+    Object lastModified = this.response.getHeader( "Last-Modified" );
+
+    Thread.sleep( 1100 ); // http dates are in seconds
+    assertNull( cache.get( "scan/catalog.xml", 100000L ) );
+    DynamicCatalogCache.Entry current = makeEntry( cache, 100000L );
+
+    basicSetup();
+    this.request.addHeader( "If-Modified-Since", lastModified );
+    new LocalCatalogServiceController().writeCachedCatalog( this.request, this.response, current );
+    assertEquals( HttpServletResponse.SC_OK, this.response.getStatus() );
+    assertEquals( current.getLastChanged(), this.response.getHeader( "Last-Modified" ) );
+    assertArrayEquals( current.getXml(), this.response.getContentAsByteArray() );
+  }
+
   @Before
   public void basicSetup( )
   {
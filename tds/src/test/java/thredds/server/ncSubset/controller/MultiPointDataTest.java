@@ -0,0 +1,123 @@
+package thredds.server.ncSubset.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.method.HandlerMethod;
+
+import thredds.mock.params.PointDataParameters;
+import thredds.mock.web.MockTdsContextLoader;
+import thredds.server.ncSubset.util.NcssRequestUtils;
+import thredds.servlet.DatasetHandlerAdapter;
+import ucar.nc2.dt.GridDataset;
+import ucar.nc2.dt.GridDatatype;
+import ucar.nc2.dt.grid.GridAsPointDataset;
+import ucar.nc2.time.CalendarDate;
+import ucar.unidata.geoloc.LatLonPoint;
+
+/**
+ * Requests with a points param go to MultiPointDataController, and give the same values as GridAsPointDataset.readData()
+ * for one point.
+ *
+ * @since 10/19/2026
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@WebAppConfiguration
+@ContextConfiguration(locations = { "/WEB-INF/applicationContext-tdsConfig.xml" }, loader = MockTdsContextLoader.class)
+public class MultiPointDataTest {
+
+	@Autowired
+	private WebApplicationContext wac;
+
+	private MockMvc mockMvc;
+
+	// variables with no vertical level
+	private List<String> vars = PointDataParameters.getVars().get(0);
+	private String pathInfo = PointDataParameters.getPathInfo().get(0);
+	private List<LatLonPoint> points = PointDataParameters.getPoints();
+	private String servletPath = AbstractNcssDataRequestController.servletPath + pathInfo;
+
+	@Before
+	public void setUp() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(this.wac).build();
+	}
+
+	private MockHttpServletRequestBuilder request() {
+		MockHttpServletRequestBuilder rb = MockMvcRequestBuilders.get(servletPath).servletPath(servletPath)
+				.param("var", vars.get(0) + "," + vars.get(1));
+		for (LatLonPoint p : points)
+			rb.param("points", p.getLatitude() + "," + p.getLongitude());
+		return rb;
+	}
+
+	@Test
+	public void shouldGetData() throws Exception {
+		GridDataset gds = DatasetHandlerAdapter.openGridDataset(pathInfo);
+		GridAsPointDataset gap = NcssRequestUtils.buildGridAsPointDataset(gds, vars);
+		CalendarDate date = gap.getDates().get(0);
+
+		MvcResult result = mockMvc.perform(request().param("time", date.toString()))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.content().contentType("text/plain"))
+				.andReturn();
+		assertTrue(((HandlerMethod) result.getHandler()).getBean() instanceof MultiPointDataController);
+
+		// header, then one row per point: date,point,lat,lon,var0,var1
+		String[] lines = result.getResponse().getContentAsString().split("\n");
+		assertEquals(points.size() + 1, lines.length);
+		for (int j = 0; j < points.size(); j++) {
+			String[] tokens = lines[j + 1].trim().split(",");
+			assertEquals(date.toString(), tokens[0]);
+			assertEquals(j, Integer.parseInt(tokens[1]));
+			LatLonPoint p = points.get(j);
+			for (int i = 0; i < vars.size(); i++) {
+				GridDatatype grid = gds.findGridDatatype(vars.get(i));
+				double want = gap.readData(grid, date, p.getLatitude(), p.getLongitude()).dataValue;
+				assertEquals(want, Double.parseDouble(tokens[4 + i]), 0.0);
+			}
+		}
+		gds.close();
+	}
+
+	@Test
+	public void shouldInterpolate() throws Exception {
+		mockMvc.perform(request().param("interpolation", "bilinear"))
+				.andExpect(MockMvcResultMatchers.status().isOk());
+	}
+
+	@Test
+	public void badInterpolationIsBadRequest() throws Exception {
+		mockMvc.perform(request().param("interpolation", "cubic"))
+				.andExpect(MockMvcResultMatchers.status().isBadRequest());
+	}
+
+	@Test
+	public void badPointIsBadRequest() throws Exception {
+		mockMvc.perform(request().param("points", "40.0"))
+				.andExpect(MockMvcResultMatchers.status().isBadRequest());
+	}
+
+	@Test
+	public void withoutPointsGoesToGridDataController() throws Exception {
+		MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get(servletPath).servletPath(servletPath)
+				.param("var", vars.get(0))).andReturn();
+		assertTrue(((HandlerMethod) result.getHandler()).getBean() instanceof GridDataController);
+	}
+
+}
@@ -0,0 +1,156 @@
+package thredds.server.ncSubset.view;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import thredds.server.ncSubset.util.NcssRequestUtils;
+import ucar.ma2.Array;
+import ucar.ma2.DataType;
+import ucar.ma2.InvalidRangeException;
+import ucar.nc2.NetcdfFileWriteable;
+import ucar.nc2.constants.CDM;
+import ucar.nc2.dataset.NetcdfDataset;
+import ucar.nc2.dataset.VariableDS;
+import ucar.nc2.dt.GridDatatype;
+import ucar.nc2.dt.grid.GeoGrid;
+import ucar.nc2.dt.grid.GridCoordSys;
+import ucar.nc2.dt.grid.GridDataset;
+import ucar.nc2.time.CalendarDate;
+import ucar.unidata.geoloc.LatLonPoint;
+import ucar.unidata.geoloc.LatLonPointImpl;
+
+/**
+ * The CSV writer reads each variable once for a point, and writes the value of each time from it.
+ */
+public class CSVPointDataWriterTest {
+
+	private static final int NTIMES = 6, NLAT = 3, NLON = 4;
+
+	private File file;
+	private CountingGridDataset gridDataset;
+
+	@Before
+	public void setUp() throws IOException, InvalidRangeException {
+		file = File.createTempFile("CSVPointDataWriterTest", ".nc");
+		NetcdfFileWriteable ncfile = NetcdfFileWriteable.createNew(file.getPath(), false);
+		ncfile.addDimension("time", NTIMES);
+		ncfile.addDimension("lat", NLAT);
+		ncfile.addDimension("lon", NLON);
+		ncfile.addVariable("time", DataType.DOUBLE, "time");
+		ncfile.addVariableAttribute("time", CDM.UNITS, "hours since 2000-01-01T00:00:00Z");
+		ncfile.addVariable("lat", DataType.DOUBLE, "lat");
+		ncfile.addVariableAttribute("lat", CDM.UNITS, CDM.LAT_UNITS);
+		ncfile.addVariable("lon", DataType.DOUBLE, "lon");
+		ncfile.addVariableAttribute("lon", CDM.UNITS, CDM.LON_UNITS);
+		ncfile.addVariable("T", DataType.FLOAT, "time lat lon");
+		ncfile.addVariable("P", DataType.FLOAT, "time lat lon");
+		ncfile.create();
+
+		ncfile.write("time", Array.makeArray(DataType.DOUBLE, NTIMES, 0, 6));
+		ncfile.write("lat", Array.makeArray(DataType.DOUBLE, NLAT, 40, 1));
+		ncfile.write("lon", Array.makeArray(DataType.DOUBLE, NLON, -105, 1));
+		Array data = Array.factory(DataType.FLOAT, new int[]{NTIMES, NLAT, NLON});
+		for (int i = 0; i < data.getSize(); i++)
+			data.setFloat(i, value(i / (NLAT * NLON), (i / NLON) % NLAT, i % NLON));
+		ncfile.write("T", data);
+		for (int i = 0; i < data.getSize(); i++)
+			data.setFloat(i, data.getFloat(i) + 1000);
+		ncfile.write("P", data);
+		ncfile.close();
+
+		gridDataset = new CountingGridDataset(NetcdfDataset.openDataset(file.getPath()));
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		gridDataset.close();
+		file.delete();
+	}
+
+	@Test
+	public void shouldReadEachVariableOnce() throws InvalidRangeException {
+		List<String> vars = new ArrayList<String>();
+		vars.add("T");
+		vars.add("P");
+		Map<String, List<String>> groupedVars = new LinkedHashMap<String, List<String>>();
+		groupedVars.put("time_lat_lon", vars);
+		List<CalendarDate> wDates = NcssRequestUtils.buildGridAsPointDataset(gridDataset, vars).getDates();
+		assertEquals(NTIMES, wDates.size());
+		LatLonPoint point = new LatLonPointImpl(41, -103);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		PointDataWriter pointDataWriter = CSVPointDataWriter.createCSVPointDataWriter(out);
+		assertTrue(pointDataWriter.header(groupedVars, gridDataset, wDates, null, point, null));
+		assertTrue(pointDataWriter.write(groupedVars, gridDataset, wDates, point, null));
+		assertTrue(pointDataWriter.trailer());
+
+		for (GeoGrid grid : gridDataset.grids.values())
+			assertEquals(grid.getName(), 1, ((CountingGeoGrid) grid).nreads);
+
+		String[] lines = out.toString().trim().split("\r?\n");
+		assertEquals(NTIMES + 1, lines.length); // header and one line for each time
+		for (int t = 0; t < NTIMES; t++) {
+			String[] fields = lines[t + 1].split(",");
+			assertEquals(wDates.get(t).toString(), fields[0]);
+			assertEquals(value(t, 1, 2), Double.parseDouble(fields[3]), 0.0);
+			assertEquals(value(t, 1, 2) + 1000, Double.parseDouble(fields[4]), 0.0);
+		}
+	}
+
+	private static float value(int t, int y, int x) {
+		return 100 * t + 10 * y + x;
+	}
+
+	// hands out grids that count their reads
+	private static class CountingGridDataset extends GridDataset {
+		private Map<String, GeoGrid> grids = new HashMap<String, GeoGrid>();
+
+		CountingGridDataset(NetcdfDataset ds) throws IOException {
+			super(ds);
+		}
+
+		@Override
+		public GridDatatype findGridDatatype(String name) {
+			return findGridByShortName(name);
+		}
+
+		@Override
+		public GeoGrid findGridByShortName(String shortName) {
+			GeoGrid grid = grids.get(shortName);
+			if (grid == null) {
+				GeoGrid org = super.findGridByShortName(shortName);
+				if (org == null) return null;
+				grid = new CountingGeoGrid(this, org.getVariable(), (GridCoordSys) org.getCoordinateSystem());
+				grids.put(shortName, grid);
+			}
+			return grid;
+		}
+	}
+
+	private static class CountingGeoGrid extends GeoGrid {
+		private int nreads;
+
+		CountingGeoGrid(GridDataset dataset, VariableDS dsvar, GridCoordSys gcs) {
+			super(dataset, dsvar, gcs);
+		}
+
+		@Override
+		public Array readDataSlice(int rt, int e, int t, int z, int y, int x) throws IOException {
+			nreads++;
+			return super.readDataSlice(rt, e, t, z, y, x);
+		}
+	}
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 1998-2009 University Corporation for Atmospheric Research/Unidata
+ *
+ * Portions of this software were developed by the Unidata Program at the
+ * University Corporation for Atmospheric Research.
+ *
+ * Access and use of this software shall impose the following obligations
+ * and understandings on the user. The user is granted the right, without
+ * any fee or cost, to use, copy, modify, alter, enhance and distribute
+ * this software, and any derivative works thereof, and its supporting
+ * documentation for any purpose whatsoever, provided that this entire
+ * notice appears in all copies of the software, derivative works and
+ * supporting documentation.  Further, UCAR requests that the user credit
+ * UCAR/Unidata in any publications that result from the use of this
+ * software or in any product that includes this software. The names UCAR
+ * and/or Unidata, however, may not be used in any advertising or publicity
+ * to endorse or promote any products or commercial entity unless specific
+ * written permission is obtained from UCAR/Unidata. The user also
+ * understands that UCAR/Unidata is not obligated to provide the user with
+ * any support, consulting, training or assistance of any kind with regard
+ * to the use, operation and performance of this software nor to provide
+ * the user with any updates, revisions, new versions or "bug fixes."
+ *
+ * THIS SOFTWARE IS PROVIDED BY UCAR/UNIDATA "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL UCAR/UNIDATA BE LIABLE FOR ANY SPECIAL,
+ * INDIRECT OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING
+ * FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION
+ * WITH THE ACCESS, USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package thredds.server.radarServer;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test RadarStationIndex
+ *
+ * @since 10/19/2026
+ */
+public class TestRadarStationIndex {
+
+  @Test
+  public void testRangeQuery() {
+    RadarStationIndex index = new RadarStationIndex();
+    // out of order, with a duplicate
+    assertTrue( index.add( "KFTG", "20100108", "0654" ) );
+    assertTrue( index.add( "KFTG", "20100107", "2358" ) );
+    assertTrue( index.add( "KFTG", "20100108", "0005" ) );
+    assertTrue( index.add( "KFTG", "20100109", "0100" ) );
+    assertFalse( index.add( "KFTG", "20100108", "0654" ) );
+    index.add( "KRLX", "20100108", "0654" );
+
+    List<RadarStationIndex.Entry> list = index.query( "KFTG", "20100108_0000", "20100108_2359", Integer.MAX_VALUE );
+    assertEquals( 2, list.size() );
+    assertEquals( "20100108", list.get( 0 ).day );
+    assertEquals( "0654", list.get( 0 ).hhmm );
+    assertEquals( "0005", list.get( 1 ).hhmm );
+
+    list = index.query( "KFTG", "20100101_0000", "20100201_0000", 1 );
+    assertEquals( 1, list.size() );
+    assertEquals( "20100109", list.get( 0 ).day );
+
+    // inclusive end points
+    assertEquals( 1, index.query( "KFTG", "20100107_2358", "20100107_2358", 10 ).size() );
+    assertEquals( 0, index.query( "KFTG", "20100110_0000", "20100111_0000", 10 ).size() );
+    assertEquals( 0, index.query( "KXXX", "20100101_0000", "20100201_0000", 10 ).size() );
+  }
+
+  @Test
+  public void testSnapshot() throws Exception {
+    RadarStationIndex index = new RadarStationIndex();
+    for ( int i = 0; i < 200; i++ ) {
+      String hhmm = String.format( "%02d%02d", i / 60, i % 60 );
+      index.add( "KFTG", "20100108", hhmm );
+    }
+    index.add( "KFTG", "20100108", "KFTG_20100108_2300.raw" );
+
+    File file = File.createTempFile( "radarIndex", ".bin" );
+    file.deleteOnExit();
+    assertTrue( index.write( file ) );
+    assertFalse( index.isModified() );
+
+    RadarStationIndex index2 = RadarStationIndex.read( file );
+    assertNotNull( index2 );
+    List<RadarStationIndex.Entry> list = index2.query( "KFTG", "20100108_0000", "20100108_2359", Integer.MAX_VALUE );
+    assertEquals( 201, list.size() );
+    assertEquals( "KFTG_20100108_2300.raw", list.get( 0 ).hhmm );
+    assertEquals( "0319", list.get( 1 ).hhmm );
+    assertEquals( "0000", list.get( 200 ).hhmm );
+  }
+
+  @Test
+  public void testReplaceAndPrune() {
+    RadarStationIndex index = new RadarStationIndex();
+    index.addDay( day( "20100107", "KFTG", "2300", "2358" ), 1000 );
+    index.addDay( day( "20100108", "KFTG", "0005" ), 1000 );
+    index.add( "KFTG", "20100109", "0100" ); // current day
+    assertTrue( index.isCurrent( "20100108", 1000 ) );
+    assertFalse( index.isCurrent( "20100108", 2000 ) );
+
+    // a day that was partial when it was added is replaced
+    index.addDay( day( "20100108", "KFTG", "0005", "0654" ), 2000 );
+    assertTrue( index.isCurrent( "20100108", 2000 ) );
+    assertEquals( 2, index.query( "KFTG", "20100108_0000", "20100108_2359", 10 ).size() );
+
+    // and entries that are gone are dropped
+    index.addDay( day( "20100108", "KFTG", "0654" ), 3000 );
+    List<RadarStationIndex.Entry> list = index.query( "KFTG", "20100101_0000", "20100201_0000", 10 );
+    assertEquals( 4, list.size() );
+    assertEquals( "0654", list.get( 1 ).hhmm );
+
+    // the first day is purged, the current day is kept
+    index.prune( new HashSet<String>( Arrays.asList( "20100108" ) ) );
+    assertFalse( index.isCurrent( "20100107", 1000 ) );
+    list = index.query( "KFTG", "20100101_0000", "20100201_0000", 10 );
+    assertEquals( 2, list.size() );
+    assertEquals( "20100109", list.get( 0 ).day );
+    assertEquals( "20100108", list.get( 1 ).day );
+
+    index.removeDay( "20100109" );
+    index.removeDay( "20100108" );
+    assertEquals( 0, index.getNumStations() );
+  }
+
+  @Test
+  public void testDatasetCollection() throws Exception {
+    File top = File.createTempFile( "radarServer", "" );
+    assertTrue( top.delete() && top.mkdir() );
+    RadarDatasetCollection.setIndexWriteDelay( 100 );
+    try {
+      addFiles( top, "KFTG", "20100107", "2300", "2358" );
+      addFiles( top, "KFTG", "20100108", "0005" );
+      addFiles( top, "KFTG", "20100109", "0100" );
+      writeDay( top, "20100107" );
+      writeDay( top, "20100108" );
+
+      // no snapshot, so the index is built in the background
+      RadarDatasetCollection rdc = new RadarDatasetCollection( top.getPath(), null );
+      for ( int i = 0; i < 100 && rdc.getIndex() == null; i++ )
+        Thread.sleep( 100 );
+      assertNotNull( rdc.getIndex() );
+      File snapshot = new File( top, RadarStationIndex.SNAPSHOT );
+      assertTrue( snapshot.exists() );
+      assertEquals( 3, rdc.getIndex().query( "KFTG", "20100101_0000", "20100201_0000", 10 ).size() );
+
+      // a day is rewritten and the oldest is purged
+      addFiles( top, "KFTG", "20100108", "0654" );
+      File day = writeDay( top, "20100108" );
+      assertTrue( day.setLastModified( day.lastModified() + 2000 ) );
+      assertTrue( new File( top, ".20100107" ).delete() );
+
+      rdc = new RadarDatasetCollection( top.getPath(), null );
+      assertNotNull( rdc.getIndex() ); // read from the snapshot
+      List<RadarStationIndex.Entry> list = rdc.getIndex().query( "KFTG", "20100101_0000", "20100201_0000", 10 );
+      assertEquals( 2, list.size() );
+      assertEquals( "0654", list.get( 0 ).hhmm );
+      assertEquals( 2, waitForSnapshot( snapshot, 2 ) ); // and written in the background
+
+      // the current day is scanned, and written in the background
+      list = rdc.queryStationTimes( "KFTG", "20100109", "20100101_0000", "20100201_0000", 10 );
+      assertEquals( 3, list.size() );
+      assertEquals( "0100", list.get( 0 ).hhmm );
+      assertEquals( 3, waitForSnapshot( snapshot, 3 ) );
+      assertFalse( rdc.getIndex().isModified() );
+
+      // a file deleted from the current day is dropped
+      File dir = new File( top, "KFTG/20100109" );
+      addFiles( top, "KFTG", "20100109", "0200" );
+      assertTrue( new File( dir, "Level2_KFTG_20100109_0100.ar2v" ).delete() );
+      assertTrue( dir.setLastModified( dir.lastModified() + 2000 ) );
+      list = rdc.queryStationTimes( "KFTG", "20100109", "20100109_0000", "20100109_2359", 10 );
+      assertEquals( 1, list.size() );
+      assertEquals( "0200", list.get( 0 ).hhmm );
+    } finally {
+      RadarDatasetCollection.setIndexWriteDelay( 60 * 1000 );
+      delete( top );
+    }
+  }
+
+  // wait for the snapshot to have n times for KFTG, returns the number it has
+  private static int waitForSnapshot( File snapshot, int n ) throws InterruptedException {
+    int count = -1;
+    for ( int i = 0; i < 100 && count != n; i++ ) {
+      Thread.sleep( 50 );
+      RadarStationIndex saved = RadarStationIndex.read( snapshot );
+      count = ( saved == null ) ? -1 : saved.query( "KFTG", "20100101_0000", "20100201_0000", 10 ).size();
+    }
+    return count;
+  }
+
+  private static RadarDayCollection day( String yyyymmdd, String stn, String... hhmm ) {
+    RadarDayCollection rdc = new RadarDayCollection();
+    rdc.yyyymmdd = yyyymmdd;
+    rdc.time.put( stn, new ArrayList<String>( Arrays.asList( hhmm ) ) );
+    return rdc;
+  }
+
+  private static void addFiles( File top, String stn, String yyyymmdd, String... hhmm ) throws IOException {
+    File dir = new File( top, stn + "/" + yyyymmdd );
+    assertTrue( dir.mkdirs() || dir.isDirectory() );
+    for ( String t : hhmm )
+      assertTrue( new File( dir, "Level2_" + stn + "_" + yyyymmdd + "_" + t + ".ar2v" ).createNewFile() );
+  }
+
+  private static File writeDay( File top, String yyyymmdd ) throws IOException {
+    RadarDayCollection rdc = new RadarDayCollection();
+    rdc.populate( top.getPath(), true, yyyymmdd, null );
+    return new File( rdc.write() );
+  }
+
+  private static void delete( File file ) {
+    File[] children = file.listFiles();
+    if ( children != null ) {
+      for ( File child : children )
+        delete( child );
+    }
+    file.delete();
+  }
+}
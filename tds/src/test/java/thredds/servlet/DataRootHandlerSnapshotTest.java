@@ -0,0 +1,183 @@
+package thredds.servlet;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import thredds.catalog.InvCatalog;
+import thredds.catalog.InvDataset;
+import thredds.mock.web.MockTdsContextLoader;
+import thredds.server.config.TdsContext;
+
+/**
+ * A config catalog deferred by the startup snapshot gets the same data roots, listener calls and
+ * duplicate id errors as one read at startup.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = {"/WEB-INF/applicationContext-tdsConfig.xml"}, loader = MockTdsContextLoader.class)
+public class DataRootHandlerSnapshotTest {
+  static private final String catPath = "deferTest/catalog.xml";
+
+  @Autowired
+  private DataRootHandler drh;
+
+  @Autowired
+  private TdsContext tdsContext;
+
+  private File catDir;
+  private File snapshotFile;
+  private Recorder recorder;
+  private LogCapture logCapture;
+
+  @Before
+  public void setUp() throws IOException {
+    File contentDir = tdsContext.getContentDirectory();
+    catDir = new File(contentDir, "deferTest");
+    assertTrue(catDir.mkdirs() || catDir.isDirectory());
+    snapshotFile = File.createTempFile("catalogInit", ".snapshot");
+    assertTrue(snapshotFile.delete());
+
+    String catalog =
+        "<?xml version='1.0' encoding='UTF-8'?>\n" +
+        "<catalog name='deferTest' xmlns='http://www.unidata.ucar.edu/namespaces/thredds/InvCatalog/v1.0'>\n" +
+        "  <service name='odap' serviceType='OpenDAP' base='/thredds/dodsC/'/>\n" +
+        "  <datasetRoot path='deferTest' location='" + contentDir.getPath() + "'/>\n" +
+        "  <dataset name='top' ID='deferTest/top'>\n" +
+        "    <dataset name='one' ID='deferTest/dup' serviceName='odap' urlPath='deferTest/one.nc'/>\n" +
+        "    <dataset name='two' ID='deferTest/dup' serviceName='odap' urlPath='deferTest/two.nc'/>\n" +
+        "    <dataset name='three' ID='deferTest/three' serviceName='odap' urlPath='deferTest/three.nc'/>\n" +
+        "  </dataset>\n" +
+        "</catalog>\n";
+    Writer w = new OutputStreamWriter(new FileOutputStream(new File(catDir, "catalog.xml")), "UTF-8");
+    try {
+      w.write(catalog);
+    } finally {
+      w.close();
+    }
+
+    recorder = new Recorder();
+    drh.registerConfigListener(recorder);
+    logCapture = new LogCapture();
+    Logger.getLogger(DataRootHandler.class.getName() + ".catalogInit").addAppender(logCapture);
+  }
+
+  @After
+  public void tearDown() {
+    Logger.getLogger(DataRootHandler.class.getName() + ".catalogInit").removeAppender(logCapture);
+    drh.unregisterConfigListener(recorder);
+    drh.setSnapshotFile(null);
+    new File(catDir, "catalog.xml").delete();
+    catDir.delete();
+    snapshotFile.delete();
+  }
+
+  // start from the standard config catalogs, then add the test catalog
+  private void init() {
+    drh.setSnapshotFile(null);
+    drh.reinit();
+    recorder.clear();
+    logCapture.clear();
+
+    drh.setSnapshotFile(snapshotFile);
+    drh.initCatalogs(Collections.singletonList(catPath));
+  }
+
+  @Test
+  public void testDeferredSameAsEager() throws Exception {
+    // no snapshot yet, so its read at startup
+    init();
+    assertTrue(snapshotFile.exists());
+    assertTrue(drh.hasDataRootMatch("deferTest/one.nc"));
+    assertNotNull(drh.getCatalog(catPath, new URI("http://localhost/thredds/catalog/" + catPath)));
+    List<String> eagerCalls = new ArrayList<String>(recorder.calls);
+    List<String> eagerErrors = logCapture.matching("deferTest");
+    assertEquals(Collections.singletonList("catalog deferTest"), eagerCalls.subList(0, 1));
+    assertTrue(eagerCalls.contains("dataset two"));
+    assertEquals(1, logCapture.matching("Duplicate id").size());
+
+    // unchanged since the snapshot, so its deferred until requested
+    init();
+    assertTrue(drh.hasDataRootMatch("deferTest/one.nc"));
+    assertTrue(recorder.calls.isEmpty());
+    assertTrue(logCapture.matching("deferTest").isEmpty());
+
+    assertNotNull(drh.getCatalog(catPath, new URI("http://localhost/thredds/catalog/" + catPath)));
+    assertEquals(eagerCalls, recorder.calls);
+    assertEquals(eagerErrors, logCapture.matching("deferTest"));
+
+    // only the first read of a deferred catalog is configured
+    drh.getCatalog(catPath, new URI("http://localhost/thredds/catalog/" + catPath));
+    assertEquals(eagerCalls, recorder.calls);
+  }
+
+  private static class Recorder implements DataRootHandler.ConfigListener {
+    List<String> calls = new ArrayList<String>();
+
+    void clear() {
+      calls.clear();
+    }
+
+    public void configStart() {
+    }
+
+    public void configEnd() {
+    }
+
+    public void configCatalog(InvCatalog catalog) {
+      if (catalog.getName().equals("deferTest"))
+        calls.add("catalog " + catalog.getName());
+    }
+
+    public void configDataset(InvDataset dataset) {
+      String id = dataset.getID();
+      if (id != null && id.startsWith("deferTest/"))
+        calls.add("dataset " + dataset.getName());
+    }
+  }
+
+  private static class LogCapture extends AppenderSkeleton {
+    List<String> messages = new ArrayList<String>();
+
+    void clear() {
+      messages.clear();
+    }
+
+    List<String> matching(String s) {
+      List<String> result = new ArrayList<String>();
+      for (String m : messages)
+        if (m.contains(s)) result.add(m);
+      return result;
+    }
+
+    protected void append(LoggingEvent event) {
+      messages.add(event.getRenderedMessage());
+    }
+
+    public void close() {
+    }
+
+    public boolean requiresLayout() {
+      return false;
+    }
+  }
+
+}
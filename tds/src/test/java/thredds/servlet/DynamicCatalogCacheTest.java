@@ -0,0 +1,50 @@
+package thredds.servlet;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import thredds.catalog.InvCatalogImpl;
+
+public class DynamicCatalogCacheTest {
+
+  @Test
+  public void testInvalidatedByDirectoryChange() {
+    DynamicCatalogCache cache = new DynamicCatalogCache(10, 60);
+    InvCatalogImpl cat = new InvCatalogImpl("test", "1.0.1", null);
+    cache.put("a/catalog.xml", 1000L, cat);
+
+    DynamicCatalogCache.Entry e = cache.get("a/catalog.xml", 1000L);
+    assertNotNull(e);
+    assertSame(cat, e.getCatalog());
+    assertEquals(1, cache.getHits());
+
+    // directory changed
+    assertNull(cache.get("a/catalog.xml", 2000L));
+    assertNull(cache.get("a/catalog.xml"));
+    assertEquals(1, cache.getMisses());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedDiscarded() {
+    DynamicCatalogCache cache = new DynamicCatalogCache(2, 60);
+    cache.put("a", 1L, new InvCatalogImpl("a", "1.0.1", null));
+    cache.put("b", 1L, new InvCatalogImpl("b", "1.0.1", null));
+    assertNotNull(cache.get("a", 1L)); // a is now most recently used
+    cache.put("c", 1L, new InvCatalogImpl("c", "1.0.1", null));
+
+    assertEquals(2, cache.size());
+    assertNotNull(cache.get("a"));
+    assertNull(cache.get("b"));
+  }
+
+  @Test
+  public void testETagChangesWhenRegenerated() throws InterruptedException {
+    DynamicCatalogCache cache = new DynamicCatalogCache(10, 60);
+    String etag1 = cache.put("a", 1L, new InvCatalogImpl("a", "1.0.1", null)).getETag();
+    Thread.sleep(5);
+    String etag2 = cache.put("a", 1L, new InvCatalogImpl("a", "1.0.1", null)).getETag();
+    assertFalse(etag1.equals(etag2));
+  }
+
+}
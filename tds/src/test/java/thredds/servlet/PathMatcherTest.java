@@ -0,0 +1,86 @@
+package thredds.servlet;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PathMatcherTest {
+
+	@Test
+	public void testMatch() {
+		PathMatcher m = new PathMatcher();
+		m.put("/thredds/dods/test/longer", null);
+		m.put("/thredds/dods/test", null);
+		m.put("/thredds/dods/tester", null);
+		m.put("/thredds/dods/short", null);
+		m.put("/actionable", null);
+		m.put("myworld", null);
+		m.put("mynot", null);
+		m.put("ncmodels", null);
+		m.put("ncmodels/bzipped", null);
+
+		assertNull(m.match("nope"));
+		assertEquals("/thredds/dods/test", m.match("/thredds/dods/test"));
+		assertEquals("/thredds/dods/test", m.match("/thredds/dods/test/lo"));
+		assertEquals("/thredds/dods/test/longer", m.match("/thredds/dods/test/longer/donger"));
+		assertEquals("/thredds/dods/tester", m.match("/thredds/dods/testers/data.nc"));
+		assertEquals("myworld", m.match("myworldly"));
+		assertNull(m.match("/my"));
+		assertNull(m.match("mysnot"));
+		assertEquals("ncmodels", m.match("ncmodels/canonical"));
+		assertEquals("ncmodels/bzipped", m.match("ncmodels/bzipped/file.grib"));
+	}
+
+	// compare with the definition: the longest key that path starts with
+	@Test
+	public void testSameAsLinearSearch() {
+		Random random = new Random(17);
+		String[] segments = {"", "a", "ab", "abc", "b", "data", "dat", "model", "models"};
+
+		PathMatcher m = new PathMatcher();
+		List<String> keys = new ArrayList<String>();
+		for (int i = 0; i < 200; i++) {
+			String key = makePath(random, segments);
+			keys.add(key);
+			m.put(key, null);
+		}
+
+		for (int i = 0; i < 5000; i++) {
+			String path = makePath(random, segments);
+			String want = null;
+			for (String key : keys) {
+				if (path.startsWith(key) && (want == null || key.length() > want.length()))
+					want = key;
+			}
+			assertEquals(path, want, m.match(path));
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testFrozen() {
+		PathMatcher m = new PathMatcher();
+		m.put("a", null);
+		PathMatcher copy = new PathMatcher(m);
+		copy.put("b", null);
+		assertEquals(2, copy.size());
+		assertEquals(1, m.size());
+
+		m.freeze();
+		m.put("c", null);
+	}
+
+	private String makePath(Random random, String[] segments) {
+		StringBuilder sb = new StringBuilder();
+		int n = 1 + random.nextInt(4);
+		for (int j = 0; j < n; j++) {
+			if (j > 0) sb.append('/');
+			sb.append(segments[random.nextInt(segments.length)]);
+		}
+		return sb.toString();
+	}
+
+}